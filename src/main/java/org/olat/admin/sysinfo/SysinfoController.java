@@ -43,6 +43,7 @@ import org.olat.core.gui.components.form.flexible.impl.FormLayoutContainer;
 import org.olat.core.gui.control.Controller;
 import org.olat.core.gui.control.DefaultController;
 import org.olat.core.gui.control.WindowControl;
+import org.olat.core.gui.control.pushpoll.PushChannelManager;
 import org.olat.core.helpers.Settings;
 import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
@@ -62,6 +63,8 @@ public class SysinfoController extends FormBasicController {
 	private BaseSecurity securityManager;
 	@Autowired
 	private SessionStatsManager sessionStatsManager;
+	@Autowired
+	private PushChannelManager pushChannelManager;
 	
 	/**
 	 * @param ureq
@@ -105,6 +108,8 @@ public class SysinfoController extends FormBasicController {
 			});
 		}
 		uifactory.addStaticTextElement("dispatchingthreads", "runtime.dispatchingthreads", threadsInfos, runtimeCont);
+		int numOfPushChannels = pushChannelManager.getNumOfChannels();
+		uifactory.addStaticTextElement("pushchannels", "runtime.pushchannels", Integer.toString(numOfPushChannels), runtimeCont);
 		
 		//sessions and clicks
 		String sessionAndClicksPage = velocity_root + "/session_clicks.html";
@@ -139,6 +144,7 @@ public class SysinfoController extends FormBasicController {
 		SessionsStats stats = sessionStatsManager.getSessionsStatsLast(300);
 		sessionAndClicksCont.contextPut("click5Minutes", String.valueOf(stats.getAuthenticatedClickCalls()));
 		sessionAndClicksCont.contextPut("poll5Minutes", String.valueOf(stats.getAuthenticatedPollerCalls()));
+		sessionAndClicksCont.contextPut("push5Minutes", String.valueOf(stats.getAuthenticatedPushes()));
 		sessionAndClicksCont.contextPut("request5Minutes", String.valueOf(stats.getRequests()));
 		sessionAndClicksCont.contextPut("minutes", String.valueOf(5));
 		
@@ -148,6 +154,7 @@ public class SysinfoController extends FormBasicController {
 		stats = sessionStatsManager.getSessionsStatsLast(60);
 		sessionAndClicksCont.contextPut("click1Minute", String.valueOf(stats.getAuthenticatedClickCalls()));
 		sessionAndClicksCont.contextPut("poll1Minute", String.valueOf(stats.getAuthenticatedPollerCalls()));
+		sessionAndClicksCont.contextPut("push1Minute", String.valueOf(stats.getAuthenticatedPushes()));
 		sessionAndClicksCont.contextPut("request1Minute", String.valueOf(stats.getRequests()));
 		sessionAndClicksCont.contextPut("oneMinute", "1");
 
@@ -69,6 +69,13 @@ public class SessionStatsManager implements Sampler {
 		currentSample.incrementAuthenticatedPollerCalls();
 	}
 	
+	public synchronized void incrementAuthenticatedPush() {
+		if(currentSample == null) {
+			currentSample = new SessionStatsSample(sessionManager.getNumberOfAuthenticatedUserSessions());
+		}
+		currentSample.incrementAuthenticatedPushes();
+	}
+	
 	public synchronized void incrementRequest() {
 		if(currentSample == null) {
 			currentSample = new SessionStatsSample(sessionManager.getNumberOfAuthenticatedUserSessions());
@@ -131,6 +138,7 @@ public class SessionStatsManager implements Sampler {
 		}
 
 		double polls = 0l;
+		double pushes = 0l;
 		double clicks = 0l;
 		double requests = 0l;
 
@@ -143,6 +151,7 @@ public class SessionStatsManager implements Sampler {
 			}
 		
 			polls = currentSample.getAuthenticatedPollerCalls();
+			pushes = currentSample.getAuthenticatedPushes();
 			clicks = currentSample.getAuthenticatedClick();
 			requests = currentSample.getRequests();
 			fromTimestamp = lastTime = System.currentTimeMillis();
@@ -151,6 +160,7 @@ public class SessionStatsManager implements Sampler {
 			for(int i=sessionStatsSamples.size(); i-->0 && lastTime > toTimestamp; ) {
 				SessionStatsSample lastSample = sessionStatsSamples.get(i);
 				polls += lastSample.getAuthenticatedPollerCalls();
+				pushes += lastSample.getAuthenticatedPushes();
 				clicks += lastSample.getAuthenticatedClick();
 				requests += lastSample.getRequests();
 				lastTime = lastSample.getTimestamp();
@@ -159,12 +169,14 @@ public class SessionStatsManager implements Sampler {
 		
 		double duration = (fromTimestamp - lastTime) / 1000;
 		double pollPerSlot = (polls / duration) * numOfSeconds;
+		double pushPerSlot = (pushes / duration) * numOfSeconds;
 		double clickPerSlot = (clicks / duration) * numOfSeconds;
 		double requestPerSlot = (requests / duration) * numOfSeconds;
 		
 		SessionsStats stats = new SessionsStats();
 		stats.setAuthenticatedClickCalls(Math.round(clickPerSlot));
 		stats.setAuthenticatedPollerCalls(Math.round(pollPerSlot));
+		stats.setAuthenticatedPushes(Math.round(pushPerSlot));
 		stats.setRequests(Math.round(requestPerSlot));
 		return stats;
 	}
@@ -34,6 +34,7 @@ public class SessionStatsSample {
 	private long numOfSessions = 0l;
 	private long authenticatedClicks = 0l;
 	private long authenticatedPollerCalls = 0l;
+	private long authenticatedPushes = 0l;
 	
 	public SessionStatsSample(long numOfSessions) {
 		timestamp = System.currentTimeMillis();
@@ -56,6 +57,10 @@ public class SessionStatsSample {
 		return authenticatedPollerCalls;
 	}
 
+	public long getAuthenticatedPushes() {
+		return authenticatedPushes;
+	}
+
 	public long getNumOfSessions() {
 		return numOfSessions;
 	}
@@ -68,6 +73,10 @@ public class SessionStatsSample {
 		authenticatedPollerCalls++;
 	}
 	
+	public void incrementAuthenticatedPushes() {
+		authenticatedPushes++;
+	}
+	
 	public void incrementRequest() {
 		requests++;
 	}
@@ -24,6 +24,7 @@ public class SessionsStats {
 	private long requests = 0l;
 	private long authenticatedClickCalls = 0l;
 	private long authenticatedPollerCalls = 0l;
+	private long authenticatedPushes = 0l;
 	
 	public SessionsStats() {
 		//
@@ -53,6 +54,14 @@ public class SessionsStats {
 	public void setAuthenticatedPollerCalls(long authenticatedPollerCalls) {
 		this.authenticatedPollerCalls = authenticatedPollerCalls;
 	}
+
+	public long getAuthenticatedPushes() {
+		return authenticatedPushes;
+	}
+
+	public void setAuthenticatedPushes(long authenticatedPushes) {
+		this.authenticatedPushes = authenticatedPushes;
+	}
 	
 	
 
@@ -34,7 +34,7 @@ import java.util.Map;
 import org.olat.admin.user.UserSearchController;
 import org.olat.basesecurity.events.SingleIdentityChosenEvent;
 import org.olat.commons.coordinate.cluster.ClusterCoordinator;
-import org.olat.commons.coordinate.cluster.lock.ClusterLockManager;
+import org.olat.commons.coordinate.cluster.lock.ClusterLocker;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.Component;
@@ -98,7 +98,7 @@ public class ClusterAdminControllerCluster extends BasicController {
 	private UserSearchController usc;
 	
 	@Autowired
-	private ClusterLockManager clusterLockManager;
+	private ClusterLocker clusterLocker;
 	
 	/**
 	 * @param ureq
@@ -299,7 +299,7 @@ public class ClusterAdminControllerCluster extends BasicController {
 				// we configured usc to either cancel or to only accept single user selection.
 				SingleIdentityChosenEvent sce = (SingleIdentityChosenEvent)event;
 				Identity ident = sce.getChosenIdentity();
-				clusterLockManager.releaseAllLocksFor(ident.getKey());
+				clusterLocker.releaseAllLocksFor(ident.getKey());
 				showInfo("locks.released", ident.getKey().toString());
 			}
 		}
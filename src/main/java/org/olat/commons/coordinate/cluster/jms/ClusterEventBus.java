@@ -25,12 +25,16 @@
 package org.olat.commons.coordinate.cluster.jms;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
@@ -73,10 +77,14 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	// settings
 	private long sendInterval = 5000; // 1000 miliseconds between each "ping/alive/info" message, can be set using spring
 	private long jmsMsgDelayLimit = 10000;  // max duration of ClusterInfoEvent send-receive time in ms
+	private boolean batchEnabled = false; // send the events in batches, all nodes must understand them
+	private long batchWindow = 20; // events fired within this time in milliseconds are sent in one message
+	private int maxBatchSize = 500; // max. number of events in one message
 	
 	// counters
-	private long latestSentMsgId = -1;
+	private final AtomicLong latestSentMsgId = new AtomicLong(-1);
 	private long numOfSentMessages = 0;
+	private long numOfSentEvents = 0;
 	
 	// stats
 	private List<String> msgsSent = new ArrayList<>(); 
@@ -107,7 +115,13 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	
 	private final SimpleProbe mrtgProbeJMSEnqueueTime_ = new SimpleProbe();
 	
-	private ExecutorService jmsExecutor;
+	private final SimpleProbe mrtgProbeJMSBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSBatchBytes_ = new SimpleProbe();
+	
+	// events waiting to be sent in the next batch, synchronized by itself
+	private final List<JMSWrapper> pendingEvents = new ArrayList<>();
+	private boolean flushScheduled = false;
+	private ScheduledExecutorService jmsExecutor;
 	
 	/**
 	 * [used by spring]
@@ -119,7 +133,7 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	}
 
 	public void springInit() throws JMSException {
-		jmsExecutor = Executors.newSingleThreadExecutor();
+		jmsExecutor = Executors.newSingleThreadScheduledExecutor();
 		
 		connection = connectionFactory.createConnection();
 		sessionConsumer = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -183,6 +197,20 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return mrtgProbeJMSEnqueueTime_;
 	}
 	
+	/**
+	 * @return The number of events per message sent by this node
+	 */
+	public SimpleProbe getMrtgProbeJMSBatchSize() {
+		return mrtgProbeJMSBatchSize_;
+	}
+	
+	/**
+	 * @return The size in bytes of the messages sent by this node
+	 */
+	public SimpleProbe getMrtgProbeJMSBatchBytes() {
+		return mrtgProbeJMSBatchBytes_;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.olat.core.util.event.GenericEventListener#event(org.olat.core.gui.control.Event)
 	 */
@@ -224,42 +252,100 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	private void fireEventToListenersOf(final MultiUserEvent event, final OLATResourceable ores, boolean strict) {
 		// send the event wrapped over jms to all nodes 
 		// (the receiver will detect whether messages are from itself and thus can be ignored, since they were already sent directly.
-		final long msgId = ++latestSentMsgId;
+		final long msgId = latestSentMsgId.incrementAndGet();
 		final Integer nodeId = clusterConfig.getNodeId();
+		final JMSWrapper wrapper = new JMSWrapper(nodeId, msgId, ores, event);
 		
-		jmsExecutor.execute(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					ObjectMessage message = sessionProducer.createObjectMessage();
-					message.setObject(new JMSWrapper(nodeId, msgId, ores, event));
-					if(strict) {
-						producer.send(message);
-					} else {
-						producer.send(message, DeliveryMode.NON_PERSISTENT, 3, 5000);
-					}
-				} catch (Exception e) {
-					log.error("Cannot send JMS message", e);
-					// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
-					// if we are the only node running, then we could continue.
-					// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
-					// b) or warn in the log/jmx - but surveillance is critical here!!
-					// -> do the more fail-fast option a) at the moment for correctness reasons.
-					System.err.println("###############################################################################################");
-					System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
-					System.err.println("###############################################################################################");
-					
-					throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
+		if(strict && batchEnabled) {
+			// coalesce the events fired within the batch window in one message
+			synchronized(pendingEvents) {
+				pendingEvents.add(wrapper);
+				if(pendingEvents.size() >= maxBatchSize) {
+					jmsExecutor.execute(this::flushPendingEvents);
+				} else if(!flushScheduled) {
+					flushScheduled = true;
+					jmsExecutor.schedule(this::flushPendingEvents, batchWindow, TimeUnit.MILLISECONDS);
 				}
-				numOfSentMessages++;
 			}
-		});
+		} else {
+			jmsExecutor.execute(() -> send(Collections.singletonList(wrapper), strict));
+		}
 
 		// store it for later access by the admin controller
 		String sentMsg = "sent msg: from node:" + nodeId + ", olat-id:" + msgId + ", ores:"	+ ores.getResourceableTypeName() + ":" + ores.getResourceableId()+", event:"+event;
 		addToSentScreen(sentMsg);
 		if (log.isDebugEnabled()) log.debug(sentMsg);
 	}
+	
+	/**
+	 * Send the pending events, the duplicates of coalescable
+	 * events are removed. Must be called by the JMS executor.
+	 */
+	private void flushPendingEvents() {
+		List<JMSWrapper> events;
+		synchronized(pendingEvents) {
+			flushScheduled = false;
+			if(pendingEvents.isEmpty()) {
+				return;
+			}
+			events = new ArrayList<>(pendingEvents);
+			pendingEvents.clear();
+		}
+		
+		events = JMSBatch.deduplicate(events);
+		for(int i=0; i<events.size(); i += maxBatchSize) {
+			send(events.subList(i, Math.min(events.size(), i + maxBatchSize)), true);
+		}
+	}
+	
+	/**
+	 * Send the events in one message if the batches are enabled, or one
+	 * message per event. Must be called by the JMS executor.
+	 * 
+	 * @param events The list of events
+	 * @param strict If false, the message is not persistent and has a time to live
+	 */
+	private void send(List<JMSWrapper> events, boolean strict) {
+		try {
+			if(batchEnabled) {
+				byte[] data = JMSBatch.encode(clusterConfig.getNodeId(), events);
+				BytesMessage message = sessionProducer.createBytesMessage();
+				message.writeBytes(data);
+				sendMessage(message, strict);
+				mrtgProbeJMSBatchSize_.addMeasurement(events.size());
+				mrtgProbeJMSBatchBytes_.addMeasurement(data.length);
+				numOfSentMessages++;
+			} else {
+				for(JMSWrapper event:events) {
+					ObjectMessage message = sessionProducer.createObjectMessage();
+					message.setObject(event);
+					sendMessage(message, strict);
+					numOfSentMessages++;
+				}
+			}
+		} catch (Exception e) {
+			log.error("Cannot send JMS message", e);
+			// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
+			// if we are the only node running, then we could continue.
+			// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
+			// b) or warn in the log/jmx - but surveillance is critical here!!
+			// -> do the more fail-fast option a) at the moment for correctness reasons.
+			System.err.println("###############################################################################################");
+			System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
+			System.err.println("###############################################################################################");
+			
+			throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
+		}
+		numOfSentEvents += events.size();
+	}
+	
+	private void sendMessage(Message message, boolean strict) throws JMSException {
+		if(strict) {
+			producer.send(message);
+		} else {
+			producer.send(message, DeliveryMode.NON_PERSISTENT, 3, 5000);
+		}
+	}
 
 	/**
 	 * called by springs org.springframework.jms.listener.DefaultMessageListenerContainer, see coredefaultconfig.xml
@@ -309,44 +395,31 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			lastOnMessageFinishTime_ = -1;
 		}
 
-		ObjectMessage om = (ObjectMessage) message;
 		try {
 			// unpack
-			JMSWrapper jmsWrapper = (JMSWrapper) om.getObject();
-			Integer nodeId = jmsWrapper.getNodeId();			
-			MultiUserEvent event = jmsWrapper.getMultiUserEvent();
-			OLATResourceable ores = jmsWrapper.getOres();
-			boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
-
-			String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
-			nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
-			", event:"+event+"}";
-
-			// stats
-			final long jmsTimestamp = om.getJMSTimestamp();
-			if (jmsTimestamp!=0) {
-				final long deliveryTime = receiveTime - jmsTimestamp;
-				if (deliveryTime>1500) {
-					// then issue a log statement
-					log.warn("message received with long delivery time (longer than 1500ms: {}): {}", deliveryTime, recMsg);
-				}
-				mrtgProbeJMSDeliveryTime_.addMeasurement(deliveryTime);
+			List<JMSWrapper> jmsWrappers;
+			if(message instanceof BytesMessage) {
+				BytesMessage bm = (BytesMessage)message;
+				byte[] data = new byte[(int)bm.getBodyLength()];
+				bm.readBytes(data);
+				jmsWrappers = JMSBatch.decode(data);
+			} else {
+				// single event sent by a node of an older release
+				ObjectMessage om = (ObjectMessage) message;
+				jmsWrappers = Collections.singletonList((JMSWrapper)om.getObject());
 			}
 			
-			addToReceivedScreen(recMsg);
-			if (log.isDebugEnabled()) log.debug(recMsg);
-			
-			// message with destination and source both having this vm are ignored here, since they were already 
-			// "inline routed" when having been sent (direct call within the vm).
-			// distribute the unmarshalled event to all JVM wide listeners for this channel.
-			doFire(event, ores);
+			final long jmsTimestamp = message.getJMSTimestamp();
+			for(JMSWrapper jmsWrapper:jmsWrappers) {
+				serveEvent(jmsWrapper, jmsTimestamp, receiveTime);
+			}
 			
 			// stats
 			final long doneTime = System.currentTimeMillis();
 			final long processingTime = doneTime - receiveTime;
 			if (processingTime>500) {
 				// then issue a log statement
-				log.warn("message received with long processing time (longer than 500ms: {}): {}", processingTime, recMsg);
+				log.warn("message received with long processing time (longer than 500ms: {}): {} events", processingTime, jmsWrappers.size());
 			}
 			mrtgProbeJMSProcessingTime_.addMeasurement(processingTime);
 		} catch (Error er) {
@@ -364,6 +437,35 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			lastOnMessageFinishTime_ = System.currentTimeMillis();
 		}
 	}
+	
+	private void serveEvent(JMSWrapper jmsWrapper, long jmsTimestamp, long receiveTime) {
+		Integer nodeId = jmsWrapper.getNodeId();			
+		MultiUserEvent event = jmsWrapper.getMultiUserEvent();
+		OLATResourceable ores = jmsWrapper.getOres();
+		boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
+
+		String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
+		nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
+		", event:"+event+"}";
+
+		// stats
+		if (jmsTimestamp!=0) {
+			final long deliveryTime = receiveTime - jmsTimestamp;
+			if (deliveryTime>1500) {
+				// then issue a log statement
+				log.warn("message received with long delivery time (longer than 1500ms: {}): {}", deliveryTime, recMsg);
+			}
+			mrtgProbeJMSDeliveryTime_.addMeasurement(deliveryTime);
+		}
+		
+		addToReceivedScreen(recMsg);
+		if (log.isDebugEnabled()) log.debug(recMsg);
+		
+		// message with destination and source both having this vm are ignored here, since they were already 
+		// "inline routed" when having been sent (direct call within the vm).
+		// distribute the unmarshalled event to all JVM wide listeners for this channel.
+		doFire(event, ores);
+	}
 
 	private NodeInfo getNodeInfoFor(Integer nodeId) {
 		synchronized (nodeInfos) {//cluster_ok node info is per vm only
@@ -399,7 +501,17 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	 * @return the id of the latest msg sent from this cluster
 	 */
 	public long getLatestSentMsgId() {
-		return latestSentMsgId;
+		return latestSentMsgId.get();
+	}
+	
+	/**
+	 * [used by spring to auto export mbean data]
+	 * 
+	 * @return the number of events sent by this java vm, multiple
+	 * 		events can be batched in one message
+	 */
+	public long getNumOfSentEvents() {
+		return numOfSentEvents;
 	}
 	
 	Map<Integer, NodeInfo> getNodeInfos() {
@@ -407,15 +519,21 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	}
 	
 	List<PerfItem> getPerfItems() {
-		List<PerfItem> l = new ArrayList<>(2);
+		List<PerfItem> l = new ArrayList<>(4);
 		l.add(new PerfItem("Cluster Events Sent", -1, -1, 1, -1, -1, -1, -1, -1, -1, -1, -1, msgsSentCount));
 		l.add(new PerfItem("Cluster Events Received",  -1, -1, 1, -1, -1, -1, -1,  -1, -1, -1, -1, msgsReceivedCount));
+		l.add(new PerfItem("Cluster Events per Message", -1, mrtgProbeJMSBatchSize_.getMax(), -1, mrtgProbeJMSBatchSize_.getAvg(),
+				-1, -1, -1, -1, -1, -1, -1, mrtgProbeJMSBatchSize_.getNum()));
+		l.add(new PerfItem("Cluster Message Bytes", -1, mrtgProbeJMSBatchBytes_.getMax(), -1, mrtgProbeJMSBatchBytes_.getAvg(),
+				-1, -1, -1, -1, -1, -1, -1, mrtgProbeJMSBatchBytes_.getNum()));
 		return l;
 	}
 	
 	void resetStats() {
 		msgsSentCount = 0;
 		msgsReceivedCount = 0;
+		mrtgProbeJMSBatchSize_.reset();
+		mrtgProbeJMSBatchBytes_.reset();
 	}
 	
 	private void addToSentScreen(String msg) {
@@ -467,6 +585,12 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		log.info("ClusterEventBus: Set stop flag for ClusterInfoEvent-Thread.");
 		isClusterInfoEventThreadRunning = false;
 		try {
+			// send the last pending events before closing the connection
+			jmsExecutor.execute(this::flushPendingEvents);
+			jmsExecutor.shutdown();
+			if(!jmsExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+				log.warn("ClusterEventBus: some events could not be sent before stopping");
+			}
 			jmsExecutor.shutdownNow();
 			sessionProducer.close();
 			sessionConsumer.close();
@@ -474,6 +598,9 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			log.info("ClusterEventBus stopped");
 		} catch (JMSException e) {
 			log.warn("Exception in stop ClusteredSearchProvider, ",e);
+		} catch (InterruptedException e) {
+			log.warn("Interrupted while stopping ClusterEventBus", e);
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -495,6 +622,36 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		this.jmsMsgDelayLimit = jmsMsgDelayLimit;
 	}
 
+	/**
+	 * [used by spring]
+	 * 
+	 * @param batchEnabled true to send the events in batches (BytesMessage), false to
+	 * 		send one ObjectMessage per event as the older releases. The batches can
+	 * 		only be enabled when all the nodes of the cluster understand them.
+	 */
+	public void setBatchEnabled(boolean batchEnabled) {
+		this.batchEnabled = batchEnabled;
+	}
+
+	/**
+	 * [used by spring]
+	 * 
+	 * @param batchWindow The time in milliseconds during which the events are collected
+	 * 		before being sent in one message
+	 */
+	public void setBatchWindow(long batchWindow) {
+		this.batchWindow = batchWindow;
+	}
+
+	/**
+	 * [used by spring]
+	 * 
+	 * @param maxBatchSize The max. number of events sent in one message
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	/**
 	 * [used by spring]
 	 */
@@ -0,0 +1,183 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Encode and decode a batch of events sent over the cluster event bus in
+ * the body of a single bytes message. All the events of the batch share
+ * one object stream (the class descriptors are written only once), the
+ * resource types are written once and referenced by their index and the
+ * whole is deflated.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class JMSBatch {
+
+	private static final int VERSION = 1;
+
+	private JMSBatch() {
+		//
+	}
+
+	/**
+	 * Remove the coalescable events which are fired more than once on the
+	 * same channel. The last occurrence is kept, the order of the other
+	 * events is preserved.
+	 *
+	 * @param events The events in the order they were fired
+	 * @return A list of events without duplicates
+	 */
+	public static List<JMSWrapper> deduplicate(List<JMSWrapper> events) {
+		if(events.size() <= 1) {
+			return events;
+		}
+
+		Set<EventKey> seen = new HashSet<>();
+		List<JMSWrapper> deduplicated = new ArrayList<>(events.size());
+		for(int i=events.size(); i-->0; ) {
+			JMSWrapper wrapper = events.get(i);
+			MultiUserEvent event = wrapper.getMultiUserEvent();
+			if(event.isCoalescable() && !seen.add(new EventKey(wrapper))) {
+				continue;
+			}
+			deduplicated.add(wrapper);
+		}
+		Collections.reverse(deduplicated);
+		return deduplicated;
+	}
+
+	public static byte[] encode(Integer nodeId, List<JMSWrapper> events) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256 + events.size() * 128);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try(ObjectOutputStream oos = new ObjectOutputStream(new DeflaterOutputStream(out, deflater))) {
+			oos.writeInt(VERSION);
+			oos.writeInt(nodeId == null ? -1 : nodeId.intValue());
+			oos.writeInt(events.size());
+
+			Map<String,Integer> types = new HashMap<>();
+			for(JMSWrapper wrapper:events) {
+				oos.writeLong(wrapper.getMsgId());
+
+				String type = wrapper.getResourceableTypeName();
+				Integer typeIndex = types.get(type);
+				if(typeIndex == null) {
+					oos.writeInt(-1);
+					oos.writeUTF(type);
+					types.put(type, Integer.valueOf(types.size()));
+				} else {
+					oos.writeInt(typeIndex.intValue());
+				}
+
+				Long resId = wrapper.getResourceableId();
+				oos.writeBoolean(resId != null);
+				if(resId != null) {
+					oos.writeLong(resId.longValue());
+				}
+				oos.writeObject(wrapper.getMultiUserEvent());
+			}
+		} finally {
+			deflater.end();
+		}
+		return out.toByteArray();
+	}
+
+	public static List<JMSWrapper> decode(byte[] data) throws IOException, ClassNotFoundException {
+		try(ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+			int version = ois.readInt();
+			if(version != VERSION) {
+				throw new IOException("Unkown version of cluster event batch: " + version);
+			}
+			int node = ois.readInt();
+			Integer nodeId = node < 0 ? null : Integer.valueOf(node);
+			int size = ois.readInt();
+
+			List<String> types = new ArrayList<>();
+			List<JMSWrapper> events = new ArrayList<>(size);
+			for(int i=0; i<size; i++) {
+				long msgId = ois.readLong();
+
+				String type;
+				int typeIndex = ois.readInt();
+				if(typeIndex < 0) {
+					type = ois.readUTF();
+					types.add(type);
+				} else {
+					type = types.get(typeIndex);
+				}
+
+				Long resId = ois.readBoolean() ? Long.valueOf(ois.readLong()) : null;
+				MultiUserEvent event = (MultiUserEvent)ois.readObject();
+				events.add(new JMSWrapper(nodeId, msgId, type, resId, event));
+			}
+			return events;
+		}
+	}
+
+	private static class EventKey {
+
+		private final String type;
+		private final Long resId;
+		private final MultiUserEvent event;
+
+		public EventKey(JMSWrapper wrapper) {
+			type = wrapper.getResourceableTypeName();
+			resId = wrapper.getResourceableId();
+			event = wrapper.getMultiUserEvent();
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() + (resId == null ? 3 : resId.hashCode()) + event.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof EventKey) {
+				EventKey key = (EventKey)obj;
+				return type.equals(key.type)
+						&& ((resId == null && key.resId == null) || (resId != null && resId.equals(key.resId)))
+						&& event.equals(key.event);
+			}
+			return false;
+		}
+	}
+}
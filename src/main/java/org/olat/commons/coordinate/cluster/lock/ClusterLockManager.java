@@ -24,6 +24,9 @@
 */
 package org.olat.commons.coordinate.cluster.lock;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.apache.logging.log4j.Logger;
@@ -48,6 +51,8 @@ import org.springframework.stereotype.Service;
 public class ClusterLockManager {
 
 	private static final Logger log = Tracing.createLoggerFor(ClusterLockManager.class);
+	
+	private static final int ASSETS_PER_QUERY = 500;
 
 	@Autowired
 	private DB dbInstance;
@@ -79,6 +84,50 @@ public class ClusterLockManager {
 		return res != null && !res.isEmpty() && res.get(0) != null && res.get(0).longValue() > 0;
 	}
 		
+	/**
+	 * Check a list of assets with as few queries as possible.
+	 * 
+	 * @param assets A list of assets
+	 * @return The assets of the list which are locked
+	 */
+	List<String> getLockedAssets(Collection<String> assets) {
+		List<String> lockedAssets = new ArrayList<>();
+		if(assets == null || assets.isEmpty()) {
+			return lockedAssets;
+		}
+		
+		String sb = "select alock.asset from org.olat.commons.coordinate.cluster.lock.LockImpl as alock where alock.asset in (:assets)";
+		List<String> assetList = new ArrayList<>(assets);
+		for(int i=0; i<assetList.size(); i += ASSETS_PER_QUERY) {
+			List<String> chunk = assetList.subList(i, Math.min(assetList.size(), i + ASSETS_PER_QUERY));
+			lockedAssets.addAll(dbInstance.getCurrentEntityManager()
+					.createQuery(sb, String.class)
+					.setParameter("assets", chunk)
+					.getResultList());
+		}
+		return lockedAssets;
+	}
+	
+	/**
+	 * Load all the locks without their owners to fill the in-memory
+	 * lock table.
+	 * 
+	 * @return A list of entries for the lock table
+	 */
+	List<LockTable.Entry> loadLockTable() {
+		String sb = "select alock.asset, alock.owner.key, alock.windowId, alock.creationDate from org.olat.commons.coordinate.cluster.lock.LockImpl as alock";
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb, Object[].class)
+				.getResultList();
+		List<LockTable.Entry> entries = new ArrayList<>(rawObjects.size());
+		for(Object[] rawObject:rawObjects) {
+			Date creationDate = (Date)rawObject[3];
+			entries.add(new LockTable.Entry((String)rawObject[0], (Long)rawObject[1], (String)rawObject[2],
+					creationDate == null ? -1l : creationDate.getTime()));
+		}
+		return entries;
+	}
+		
 	LockImpl createLockImpl(String asset, Identity owner, Window window) {
 		String windowId = window == null ? null : window.getInstanceId();
 		log.info("createLockImpl: {} by {} on window: {}", asset, owner, windowId);
@@ -118,8 +167,9 @@ public class ClusterLockManager {
 
 	/**
 	 * @param identName the name of the identity to release all locks for (only the non-persistent locks in cluster mode, -not- the persistent locks!)
+	 * @return The number of released locks
 	 */
-	public void releaseAllLocksFor(Long identityKey) {
+	public int releaseAllLocksFor(Long identityKey) {
 		log.info("releaseAllLocksFor: {} START", identityKey);	
 		String sb = "delete from org.olat.commons.coordinate.cluster.lock.LockImpl alock where alock.owner.key=:ownerKey";
 		int locks = dbInstance.getCurrentEntityManager().createQuery(sb)
@@ -128,6 +178,7 @@ public class ClusterLockManager {
 		// cluster:: can we save a query (and is it appropriate considering encapsulation) 
 		// here by saying: alock.owner as owner where owner.name = ? (using identName parameter)
 		log.info("releaseAllLocksFor: {} END ({} locks deleted)", identityKey, locks);
+		return locks;
 	}
 
 }
@@ -25,7 +25,11 @@
 package org.olat.commons.coordinate.cluster.lock;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.commons.persistence.DBFactory;
@@ -50,6 +54,11 @@ import org.olat.core.util.resource.OresHelper;
  * Description:<br>
  * the cluster implementation for the Locker.
  * It uses a database table oc_lock to perform the locking.
+ * <p>
+ * The lookups (isLocked...) are answered by an in-memory copy of the
+ * table, replicated to the other nodes with events and reloaded from
+ * the database when its lease expires. Acquiring a lock always uses
+ * the database.
  * 
  * <P>
  * Initial Date:  21.09.2007 <br>
@@ -59,10 +68,13 @@ import org.olat.core.util.resource.OresHelper;
 // to avoid circular reference method lookup is used for dependecy injection of persistent lock manager
 public class ClusterLocker implements Locker, GenericEventListener {
 	private static final Logger log = Tracing.createLoggerFor(ClusterLocker.class);
+	
+	private static final OLATResourceable LOCK_TABLE_ORES = OresHelper.createOLATResourceableTypeWithoutCheck(LockTable.class.getName());
 
 	private Syncer syncer;
 	private EventBus eventBus;
 	private ClusterLockManager clusterLockManager;
+	private final LockTable lockTable = new LockTable(60000l);
 	/**
 	 * [used by spring]
 	 *
@@ -80,13 +92,16 @@ public class ClusterLocker implements Locker, GenericEventListener {
 		// register for sign-off event in order to release all locks for that user
 		eventBus.registerFor(this, null,
 				OresHelper.createOLATResourceableType(UserSession.class));
+		// the changes of the lock table made by the other nodes
+		eventBus.registerFor(this, null, LOCK_TABLE_ORES);
 	}
 
 	@Override
 	public LockResult acquireLock(final OLATResourceable ores, final Identity requestor, final String locksubkey, final Window window) {
 		final String asset = OresHelper.createStringRepresenting(ores, locksubkey);
+		final LockTableEvent[] acquired = new LockTableEvent[1];
 		
-		return syncer.doInSync(ores, () -> {
+		LockResult result = syncer.doInSync(ores, () -> {
 			LockResultImpl lres;
 			LockImpl li = clusterLockManager.findLock(asset);
 			if (li == null) { // fine, we can lock it
@@ -94,6 +109,7 @@ public class ClusterLocker implements Locker, GenericEventListener {
 				clusterLockManager.saveLock(li);
 				LockEntry le = new LockEntry(li.getAsset(), li.getCreationDate().getTime(), li.getOwner(), li.getWindowId());
 				lres = new LockResultImpl(true, false, le);
+				acquired[0] = LockTableEvent.acquired(li);
 			} else {
 				// already locked by a user.
 				// if that user is us, we can reacquire it
@@ -110,6 +126,12 @@ public class ClusterLocker implements Locker, GenericEventListener {
 			}		
 			return lres;
 		});
+		
+		// the lock is committed by the syncer
+		if(acquired[0] != null) {
+			fireLockTableEvent(acquired[0]);
+		}
+		return result;
 	}
 	
 	/**
@@ -120,6 +142,15 @@ public class ClusterLocker implements Locker, GenericEventListener {
 	 */
 	@Override
 	public void event(Event event) {
+		if(event instanceof LockTableEvent) {
+			// the changes made by this node are already applied
+			LockTableEvent lte = (LockTableEvent)event;
+			if(!lte.isEventOnThisNode()) {
+				lockTable.apply(lte);
+			}
+			return;
+		}
+		
 		SignOnOffEvent se = (SignOnOffEvent) event;
 		if (!se.isSignOn() && se.isEventOnThisNode()) {
 			// it is a "logout" event - we are only interested in logout events
@@ -129,8 +160,7 @@ public class ClusterLocker implements Locker, GenericEventListener {
 			// (assuming one user has only one session (logged in with one browser only): otherwise (as in singlevm, too)
 			// since the lock is reentrant, a lock could be freed while a session still is in a locked workflow (2x lock and then once freed)
 			try {
-				clusterLockManager.releaseAllLocksFor(identKey);
-				DBFactory.getInstance().commit();
+				releaseAllLocksFor(identKey);
 			} catch (DBRuntimeException dbEx) {
 				log.warn("releaseAllLocksFor failed, close session and try it again for identName={}", identKey);
 				// Transactions [eglis]: OLAT-4318: this rollback has possibly unwanted
@@ -139,21 +169,65 @@ public class ClusterLocker implements Locker, GenericEventListener {
 				DBFactory.getInstance().rollbackAndCloseSession();
 				// try again with new db-session
 				log.info("try again to release all locks for identName={}", identKey);
-				clusterLockManager.releaseAllLocksFor(identKey);
+				releaseAllLocksFor(identKey);
 				log.info("Done, released all locks for identName={}", identKey);
 			}
 		}
 	}
 	
+	/**
+	 * Release all the locks of an identity and commit.
+	 * 
+	 * @param identityKey The key of the identity
+	 */
+	public void releaseAllLocksFor(Long identityKey) {
+		int locks = clusterLockManager.releaseAllLocksFor(identityKey);
+		DBFactory.getInstance().commit();
+		if(locks > 0) {
+			fireLockTableEvent(LockTableEvent.releasedAll(identityKey));
+		}
+	}
+	
 	@Override
 	public boolean isLocked(OLATResourceable ores, String locksubkey) {
 		final String asset = OresHelper.createStringRepresenting(ores, locksubkey);
+		if(isLockTableAvailable()) {
+			return lockTable.get(asset) != null;
+		}
 		return clusterLockManager.isLocked(asset);
 	}
 	
+	@Override
+	public <T extends OLATResourceable> List<T> getLockedResources(List<T> resources, String locksubkey) {
+		Map<String,T> assetToResources = new LinkedHashMap<>();
+		for(T resource:resources) {
+			assetToResources.put(OresHelper.createStringRepresenting(resource, locksubkey), resource);
+		}
+		
+		List<T> lockedResources = new ArrayList<>();
+		if(isLockTableAvailable()) {
+			for(Map.Entry<String,T> assetToResource:assetToResources.entrySet()) {
+				if(lockTable.get(assetToResource.getKey()) != null) {
+					lockedResources.add(assetToResource.getValue());
+				}
+			}
+		} else {
+			Set<String> lockedAssets = new HashSet<>(clusterLockManager.getLockedAssets(assetToResources.keySet()));
+			for(Map.Entry<String,T> assetToResource:assetToResources.entrySet()) {
+				if(lockedAssets.contains(assetToResource.getKey())) {
+					lockedResources.add(assetToResource.getValue());
+				}
+			}
+		}
+		return lockedResources;
+	}
+	
 	@Override
 	public LockEntry getLockEntry(OLATResourceable ores, String locksubkey) {
 		final String asset = OresHelper.createStringRepresenting(ores, locksubkey);
+		if(isLockTableAvailable() && lockTable.get(asset) == null) {
+			return null;
+		}
 		LockImpl li = clusterLockManager.findLock(asset);
 		if(li == null) {
 			return null;
@@ -164,6 +238,9 @@ public class ClusterLocker implements Locker, GenericEventListener {
 	@Override
 	public Identity getLockedBy(OLATResourceable ores, String locksubkey) {
 		final String asset = OresHelper.createStringRepresenting(ores, locksubkey);
+		if(isLockTableAvailable() && lockTable.get(asset) == null) {
+			return null;
+		}
 		LockImpl li = clusterLockManager.findLock(asset);
 		return li == null ? null : li.getOwner();
 	}
@@ -180,14 +257,45 @@ public class ClusterLocker implements Locker, GenericEventListener {
 
 	/**
 	 * for admin purposes only. Release a lockentry directly. 
-	 * Use 'releaseLock' as method to release a lock. 
+	 * Use 'releaseLock' as method to release a lock. The release
+	 * is committed.
 	 * @param lock  release this lockentry 
 	 */
 	@Override
 	public void releaseLockEntry(LockEntry lockEntry) {
 		String asset = lockEntry.getKey();
 		Identity releaseRequestor = lockEntry.getOwner();
-		clusterLockManager.deleteLock(asset, releaseRequestor);
+		int locks = clusterLockManager.deleteLock(asset, releaseRequestor);
+		// the other nodes must see the deleted lock when they receive the event
+		DBFactory.getInstance().commit();
+		if(locks > 0) {
+			fireLockTableEvent(LockTableEvent.released(asset, releaseRequestor.getKey()));
+		}
+	}
+	
+	/**
+	 * @return true if the lookups can be made with the in-memory lock table
+	 */
+	private boolean isLockTableAvailable() {
+		if(lockTable.isLeased()) {
+			return true;
+		}
+		try {
+			return lockTable.reload(clusterLockManager::loadLockTable);
+		} catch (Exception e) {
+			log.error("Cannot load the lock table", e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Apply the change to the lock table of this node and replicate it.
+	 * 
+	 * @param event The change
+	 */
+	private void fireLockTableEvent(LockTableEvent event) {
+		lockTable.apply(event);
+		eventBus.fireEventToListenersOf(event, LOCK_TABLE_ORES);
 	}
 
 	@Override
@@ -214,5 +322,15 @@ public class ClusterLocker implements Locker, GenericEventListener {
 	public void setEventBus(EventBus eventBus) {
 		this.eventBus = eventBus;
 	}
+	
+	/**
+	 * [used by spring]
+	 * @param leaseTime The time in milliseconds the in-memory lock table is used
+	 * 		before being reloaded, 0 disables the table
+	 */
+	public void setLockTableLeaseTime(long leaseTime) {
+		lockTable.setLeaseTime(leaseTime);
+		lockTable.invalidate();
+	}
 
 }
@@ -0,0 +1,176 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * The in-memory copy of the table of locks held by a node. The table is
+ * loaded from the database and answers the lookups as long as its lease
+ * is valid. The changes made by the node and by the other nodes of the
+ * cluster (replicated with {@link LockTableEvent}) are applied directly.
+ * When the lease expires, the table is reloaded from the database which
+ * remains the authority to acquire a lock and the durable storage.
+ * <p>
+ * The events received during a reload are applied to the reloaded table
+ * too, the changes committed after the query of the reload are not lost.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class LockTable {
+
+	private volatile long leaseTime;
+	private volatile long leaseExpiry = 0l;
+	private volatile Map<String,Entry> entries = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean reloading = new AtomicBoolean(false);
+	private List<LockTableEvent> pendingEvents;
+
+	LockTable(long leaseTime) {
+		this.leaseTime = leaseTime;
+	}
+
+	void setLeaseTime(long leaseTime) {
+		this.leaseTime = leaseTime;
+	}
+
+	boolean isLeased() {
+		return System.currentTimeMillis() < leaseExpiry;
+	}
+
+	/**
+	 * Force a reload by the next lookup.
+	 */
+	void invalidate() {
+		leaseExpiry = 0l;
+	}
+
+	/**
+	 * Reload the table and renew the lease. Only one thread reloads the
+	 * table at a time, the others return immediately.
+	 *
+	 * @param loader Load the locks from the database
+	 * @return true if the table was reloaded
+	 */
+	boolean reload(Supplier<List<Entry>> loader) {
+		if(leaseTime <= 0l || !reloading.compareAndSet(false, true)) {
+			return false;
+		}
+
+		try {
+			synchronized(this) {
+				pendingEvents = new ArrayList<>();
+			}
+			List<Entry> loadedEntries = loader.get();
+			Map<String,Entry> reloadedEntries = new ConcurrentHashMap<>();
+			for(Entry entry:loadedEntries) {
+				reloadedEntries.put(entry.getAsset(), entry);
+			}
+			synchronized(this) {
+				for(LockTableEvent event:pendingEvents) {
+					apply(reloadedEntries, event);
+				}
+				entries = reloadedEntries;
+				leaseExpiry = System.currentTimeMillis() + leaseTime;
+			}
+			return true;
+		} finally {
+			synchronized(this) {
+				pendingEvents = null;
+			}
+			reloading.set(false);
+		}
+	}
+
+	synchronized void apply(LockTableEvent event) {
+		apply(entries, event);
+		if(pendingEvents != null) {
+			pendingEvents.add(event);
+		}
+	}
+
+	private static void apply(Map<String,Entry> table, LockTableEvent event) {
+		final Long ownerKey = event.getOwnerKey();
+		switch(event.getCommand()) {
+			case LockTableEvent.ACQUIRED:
+				table.put(event.getAsset(), new Entry(event.getAsset(), ownerKey, event.getWindowId(), event.getCreationTime()));
+				break;
+			case LockTableEvent.RELEASED:
+				table.computeIfPresent(event.getAsset(), (asset, entry) -> ownerKey.equals(entry.getOwnerKey()) ? null : entry);
+				break;
+			case LockTableEvent.RELEASED_ALL:
+				table.values().removeIf(entry -> ownerKey.equals(entry.getOwnerKey()));
+				break;
+			default:
+				break;
+		}
+	}
+
+	Entry get(String asset) {
+		return entries.get(asset);
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * A lock without the identity of its owner.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	static final class Entry {
+
+		private final String asset;
+		private final Long ownerKey;
+		private final String windowId;
+		private final long creationTime;
+
+		Entry(String asset, Long ownerKey, String windowId, long creationTime) {
+			this.asset = asset;
+			this.ownerKey = ownerKey;
+			this.windowId = windowId;
+			this.creationTime = creationTime;
+		}
+
+		public String getAsset() {
+			return asset;
+		}
+
+		public Long getOwnerKey() {
+			return ownerKey;
+		}
+
+		public String getWindowId() {
+			return windowId;
+		}
+
+		public long getCreationTime() {
+			return creationTime;
+		}
+	}
+}
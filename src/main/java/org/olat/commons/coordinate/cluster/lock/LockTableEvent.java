@@ -0,0 +1,80 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.lock;
+
+import org.olat.core.util.event.MultiUserEvent;
+
+/**
+ * Replicate the changes of the lock table to the other nodes
+ * of the cluster.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LockTableEvent extends MultiUserEvent {
+
+	private static final long serialVersionUID = -6231089317283449135L;
+
+	public static final String ACQUIRED = "lock-acquired";
+	public static final String RELEASED = "lock-released";
+	public static final String RELEASED_ALL = "lock-released-all";
+
+	private final String asset;
+	private final Long ownerKey;
+	private final String windowId;
+	private final long creationTime;
+
+	private LockTableEvent(String command, String asset, Long ownerKey, String windowId, long creationTime) {
+		super(command);
+		this.asset = asset;
+		this.ownerKey = ownerKey;
+		this.windowId = windowId;
+		this.creationTime = creationTime;
+	}
+
+	public static LockTableEvent acquired(LockImpl lock) {
+		return new LockTableEvent(ACQUIRED, lock.getAsset(), lock.getOwner().getKey(), lock.getWindowId(),
+				lock.getCreationDate().getTime());
+	}
+
+	public static LockTableEvent released(String asset, Long ownerKey) {
+		return new LockTableEvent(RELEASED, asset, ownerKey, null, -1l);
+	}
+
+	public static LockTableEvent releasedAll(Long ownerKey) {
+		return new LockTableEvent(RELEASED_ALL, null, ownerKey, null, -1l);
+	}
+
+	public String getAsset() {
+		return asset;
+	}
+
+	public Long getOwnerKey() {
+		return ownerKey;
+	}
+
+	public String getWindowId() {
+		return windowId;
+	}
+
+	public long getCreationTime() {
+		return creationTime;
+	}
+}
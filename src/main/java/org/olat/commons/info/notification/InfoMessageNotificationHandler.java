@@ -117,8 +117,8 @@ public class InfoMessageNotificationHandler implements NotificationsHandler {
 					String tooltip = info.getMessage();
 					String infoBusinessPath = info.getBusinessPath() + "[InfoMessage:" + info.getKey() + "]";
 					String urlToSend = BusinessControlFactory.getInstance().getURLFromBusinessPathString(infoBusinessPath);
-					Date dateInfo = info.getModificationDate() == null ? info.getCreationDate() : info.getModificationDate();
-					SubscriptionListItem subListItem = new SubscriptionListItem(desc, tooltip, urlToSend, infoBusinessPath, dateInfo, CSS_CLASS_ICON);
+					// the messages are selected by creation date, the shared info is filtered with it too
+					SubscriptionListItem subListItem = new SubscriptionListItem(desc, tooltip, urlToSend, infoBusinessPath, info.getCreationDate(), CSS_CLASS_ICON);
 					si.addSubscriptionListItem(subListItem);
 				}
 			} catch (Exception e) {
@@ -142,4 +142,14 @@ public class InfoMessageNotificationHandler implements NotificationsHandler {
 	public String getType() {
 		return "InfoMessage";
 	}
+
+	@Override
+	public boolean isSubscriptionInfoShared() {
+		return true;
+	}
+
+	@Override
+	public boolean isNewsMarkedOnPublisher() {
+		return true;
+	}
 }
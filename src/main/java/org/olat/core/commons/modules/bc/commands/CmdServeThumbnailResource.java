@@ -28,13 +28,16 @@ package org.olat.core.commons.modules.bc.commands;
 
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.components.FolderComponent;
+import org.olat.core.commons.services.vfs.VFSRepositoryModule;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.dispatcher.impl.StaticMediaDispatcher;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.control.Controller;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.media.ForbiddenMediaResource;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.gui.media.NotFoundMediaResource;
+import org.olat.core.gui.media.RedirectMediaResource;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.util.vfs.VFSConstants;
 import org.olat.core.util.vfs.VFSLeaf;
@@ -46,9 +49,11 @@ public class CmdServeThumbnailResource implements FolderCommand {
 	
 	private int status = FolderCommandStatus.STATUS_SUCCESS;
 	
+	private final VFSRepositoryModule vfsRepositoryModule;
 	private final VFSRepositoryService vfsRepositoryservice;
 	
 	public CmdServeThumbnailResource() {
+		vfsRepositoryModule = CoreSpringFactory.getImpl(VFSRepositoryModule.class);
 		vfsRepositoryservice = CoreSpringFactory.getImpl(VFSRepositoryService.class);
 	}
 	
@@ -70,9 +75,12 @@ public class CmdServeThumbnailResource implements FolderCommand {
 			}
 			
 			if(vfsLeaf != null && vfsLeaf.canMeta() == VFSConstants.YES) {
-				VFSLeaf thumbnail = vfsRepositoryservice.getThumbnail(vfsLeaf, 200, 200, false);
+				VFSLeaf thumbnail = vfsRepositoryservice.getThumbnail(vfsLeaf, 200, 200, false, vfsRepositoryModule.getThumbnailMaxWait());
 				if(thumbnail != null) {
 					mr = new VFSMediaResource(thumbnail);
+				} else if(vfsRepositoryservice.isThumbnailAvailable(vfsLeaf)) {
+					// still in the queue, send a placeholder which is not cached
+					mr = new RedirectMediaResource(StaticMediaDispatcher.createStaticURIFor("images/transparent.gif"));
 				}
 			}
 			if(mr == null) {
@@ -333,9 +333,16 @@ public class ListRenderer {
 			}
 			
 			if(!isContainer && !xssErrors && vfsRepositoryService.isThumbnailAvailable(leaf, metadata) ) {
-				sb.append("<div class='o_thumbnail' style='background-image:url("); 
-				ubu.buildURI(sb, new String[] { PARAM_SERV_THUMBNAIL}, new String[] { "x" }, pathAndName, AJAXFlags.MODE_NORMAL);
-				sb.append("); background-repeat:no-repeat; background-position:50% 50%;'></div>");
+				if(vfsRepositoryService.isThumbnailRendered(leaf, 200, 200, false)) {
+					sb.append("<div class='o_thumbnail' style='background-image:url("); 
+					ubu.buildURI(sb, new String[] { PARAM_SERV_THUMBNAIL}, new String[] { "x" }, pathAndName, AJAXFlags.MODE_NORMAL);
+					sb.append("); background-repeat:no-repeat; background-position:50% 50%;'></div>");
+				} else {
+					// the thumbnail is rendered in background, the tooltip reloads it until it's there
+					sb.append("<div class='o_thumbnail o_thumbnail_pending' data-oo-thumbnail='"); 
+					ubu.buildURI(sb, new String[] { PARAM_SERV_THUMBNAIL}, new String[] { "x" }, pathAndName, AJAXFlags.MODE_NORMAL);
+					sb.append("' style='background-repeat:no-repeat; background-position:50% 50%;'></div>");
+				}
 				hasMeta = true;
 			}
 
@@ -365,7 +372,11 @@ public class ListRenderer {
 				  .append("  jQuery('#o_sel_doc_").append(pos).append("').tooltip({\n")
 				  .append("	   html: true,\n")
 				  .append("	   container: 'body',\n")
-				  .append("    title: function(){ return jQuery('#o_sel_doc_tooltip_").append(pos).append("').html(); }\n")
+				  .append("    title: function(){\n")
+				  .append("      var tip = jQuery('#o_sel_doc_tooltip_").append(pos).append("');\n")
+				  .append("      tip.find('.o_thumbnail_pending').css('background-image', function() { return 'url(' + jQuery(this).data('oo-thumbnail') + '?t=' + Date.now() + ')'; });\n")
+				  .append("      return tip.html();\n")
+				  .append("    }\n")
 				  .append("  });\n")
 				  .append("  jQuery('#o_sel_doc_").append(pos).append("').on('click', function(){\n")
 				  .append("	   jQuery('#o_sel_doc_").append(pos).append("').tooltip('hide');\n")
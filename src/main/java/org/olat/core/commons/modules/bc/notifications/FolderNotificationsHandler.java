@@ -197,4 +197,9 @@ public class FolderNotificationsHandler implements NotificationsHandler {
 	public String getType() {
 		return "FolderModule";
 	}
+
+	@Override
+	public boolean isSubscriptionInfoShared() {
+		return true;
+	}
 }
\ No newline at end of file
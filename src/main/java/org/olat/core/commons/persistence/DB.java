@@ -26,6 +26,8 @@
 
 package org.olat.core.commons.persistence;
 
+import java.util.Collection;
+
 import javax.persistence.EntityManager;
 
 import org.hibernate.stat.Statistics;
@@ -58,6 +60,21 @@ public interface DB {
 	 * @param object
 	 */
 	public void saveObject(Object object);
+	
+	/**
+	 * Save a list of new objects. The inserts are flushed in batches of
+	 * the JDBC batch size (hibernate.jdbc.batch_size). The JDBC driver can
+	 * only batch the inserts of entities which don't use an IDENTITY primary
+	 * key.<br>
+	 * If the list is larger than one batch, the objects are detached from the
+	 * entity manager after each batch to keep the cost of the flushes constant.
+	 * The changes made to these objects after the call are not saved unless they
+	 * are merged, and their lazy associations cannot be loaded anymore. A list
+	 * which fits in one batch stays managed as with saveObject.
+	 * 
+	 * @param objects The new objects to save
+	 */
+	public void persistInBatch(Collection<?> objects);
 
 	/**
 	 * Update an object.
@@ -29,7 +29,10 @@ package org.olat.core.commons.persistence;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Properties;
 
 import javax.persistence.Cache;
@@ -64,9 +67,11 @@ import org.olat.core.logging.Tracing;
 public class DBImpl implements DB, Destroyable {
 	private static final Logger log = Tracing.createLoggerFor(DBImpl.class);
 	private static final int MAX_DB_ACCESS_COUNT = 500;
+	private static final int DEFAULT_BATCH_SIZE = 50;
 	private static DBImpl INSTANCE;
 	
 	private String dbVendor;
+	private final int batchSize;
 	private static EntityManagerFactory emf;
 
 	private final ThreadLocal<ThreadLocalData> data = new ThreadLocal<>();
@@ -77,6 +82,7 @@ public class DBImpl implements DB, Destroyable {
 	 * [used by spring]
 	 */
 	public DBImpl(Properties databaseProperties) {
+		batchSize = getBatchSize(databaseProperties);
 		if(INSTANCE == null) {
 			INSTANCE = this;
 			try {
@@ -89,6 +95,17 @@ public class DBImpl implements DB, Destroyable {
 		}
 	}
 	
+	private static int getBatchSize(Properties databaseProperties) {
+		String size = databaseProperties.getProperty("hibernate.jdbc.batch_size");
+		try {
+			int val = size == null ? 0 : Integer.parseInt(size.trim());
+			return val > 0 ? val : DEFAULT_BATCH_SIZE;
+		} catch (NumberFormatException e) {
+			log.warn("Cannot parse hibernate.jdbc.batch_size: {}", size);
+			return DEFAULT_BATCH_SIZE;
+		}
+	}
+	
 	protected static DBImpl getInstance() {
 		return INSTANCE;
 	}
@@ -372,6 +389,51 @@ public class DBImpl implements DB, Destroyable {
 		}
 	}
 
+	@Override
+	public void persistInBatch(Collection<?> objects) {
+		if(objects == null || objects.isEmpty()) return;
+		
+		EntityManager em = getCurrentEntityManager();
+		EntityTransaction trx = em.getTransaction();
+		if (unusableTrx(trx)) { // some program bug
+			throw new DBRuntimeException("cannot save in a transaction that is rolledback or committed: " + objects.size() + " objects");
+		}
+		try {
+			if(objects.size() <= batchSize) {
+				// a single batch, the objects stay managed
+				for(Object object:objects) {
+					em.persist(object);
+				}
+				em.flush();
+			} else {
+				List<Object> batch = new ArrayList<>(batchSize);
+				for(Object object:objects) {
+					em.persist(object);
+					batch.add(object);
+					if(batch.size() >= batchSize) {
+						flushAndDetach(em, batch);
+					}
+				}
+				flushAndDetach(em, batch);
+			}
+		} catch (Exception e) { // we have some error
+			log.error("", e);
+			trx.setRollbackOnly();
+			getData().setError(e);
+			throw new DBRuntimeException("Batch save failed in transaction: " + objects.size() + " objects", e);
+		}
+	}
+	
+	private void flushAndDetach(EntityManager em, List<Object> batch) {
+		if(batch.isEmpty()) return;
+		
+		em.flush();
+		for(Object object:batch) {
+			em.detach(object);
+		}
+		batch.clear();
+	}
+
 	/**
 	 * Update an object.
 	 * 
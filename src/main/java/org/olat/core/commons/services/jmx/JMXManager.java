@@ -68,6 +68,40 @@ public class JMXManager {
 		return mBeanServer;
 	}
 	
+	/**
+	 * Register a standard MBean, replace the previous one registered
+	 * with the same name.
+	 * 
+	 * @param mbean The MBean
+	 * @param objectName The name of the MBean
+	 */
+	public void registerMBean(Object mbean, String objectName) {
+		if(mBeanServer == null) return;
+		
+		try {
+			ObjectName on = new ObjectName(objectName);
+			if(mBeanServer.isRegistered(on)) {
+				mBeanServer.unregisterMBean(on);
+			}
+			mBeanServer.registerMBean(mbean, on);
+		} catch (Exception e) {
+			log.error("Cannot register MBean: {}", objectName, e);
+		}
+	}
+	
+	public void unregisterMBean(String objectName) {
+		if(mBeanServer == null) return;
+		
+		try {
+			ObjectName on = new ObjectName(objectName);
+			if(mBeanServer.isRegistered(on)) {
+				mBeanServer.unregisterMBean(on);
+			}
+		} catch (Exception e) {
+			log.error("Cannot unregister MBean: {}", objectName, e);
+		}
+	}
+	
 	public List<String> dumpJmx(String objectName) {
 		try {
 			ObjectName on = new ObjectName(objectName);
@@ -67,5 +67,32 @@ public interface NotificationsHandler {
    * @return
    */
 	public String getType();
+	
+	/**
+	 * The email digest computes the subscription info of a publisher only once
+	 * per locale with the oldest compare date of its subscribers, and keeps for
+	 * every subscriber the list items newer than its own compare date. Return
+	 * true only if the info doesn't depend on the subscriber and the dates of
+	 * the list items are the dates compared with the compare date.
+	 * 
+	 * @return true if the subscription info can be shared by all the subscribers
+	 * 		of a publisher
+	 */
+	public default boolean isSubscriptionInfoShared() {
+		return false;
+	}
+	
+	/**
+	 * The email digest skips the publishers of these handlers if their latest
+	 * news date is older than the latest email of the subscribers. Return true
+	 * only if every change which produces news marks the publisher with
+	 * NotificationsManager.markPublisherNews(), the publishers of the other
+	 * handlers are always asked for news.
+	 * 
+	 * @return true if the latest news date of the publishers is reliable
+	 */
+	public default boolean isNewsMarkedOnPublisher() {
+		return false;
+	}
 }
 
@@ -27,6 +27,7 @@
 package org.olat.core.commons.services.notifications;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
@@ -136,6 +137,26 @@ public class SubscriptionInfo {
 		this.customUrl = customUrl;
 	}
 
+	/**
+	 * Copy the info for an other subscriber, only with the list items
+	 * newer than the specified date. The items without date are kept.
+	 * 
+	 * @param subscriberKey The key of the subscriber
+	 * @param compareDate The compare date of the subscriber
+	 * @return A copy of the info
+	 */
+	public SubscriptionInfo copyFor(Long subscriberKey, Date compareDate) {
+		List<SubscriptionListItem> items = new ArrayList<>(subsList.size());
+		for(SubscriptionListItem item:subsList) {
+			if(item.getDate() == null || item.getDate().after(compareDate)) {
+				items.add(item);
+			}
+		}
+		SubscriptionInfo copy = new SubscriptionInfo(subscriberKey, type, title, items);
+		copy.setCustomUrl(customUrl);
+		return copy;
+	}
+
 	/**
 	 * @return The number of subscription list items, meaning the number of news
 	 *         items for this subscription
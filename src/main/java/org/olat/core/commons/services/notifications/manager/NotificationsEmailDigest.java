@@ -0,0 +1,447 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.notifications.manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.TypedQuery;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.basesecurity.BaseSecurity;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.notifications.NotificationsHandler;
+import org.olat.core.commons.services.notifications.Publisher;
+import org.olat.core.commons.services.notifications.Subscriber;
+import org.olat.core.commons.services.notifications.SubscriptionInfo;
+import org.olat.core.commons.services.notifications.SubscriptionItem;
+import org.olat.core.commons.services.notifications.ui.NotificationSubscriptionController;
+import org.olat.core.gui.translator.Translator;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.Util;
+import org.olat.core.util.i18n.I18nManager;
+import org.olat.properties.Property;
+import org.olat.properties.PropertyManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * One run of the notifications emails. The digest starts with the publishers
+ * which have news since the oldest relevant date, loads only the identities
+ * subscribed to them and sends the emails with a pool of workers. The latest
+ * news date of the publishers is only used for the handlers which mark their
+ * news on them, the publishers of the other handlers are always asked. The
+ * subscription infos of the handlers which allow it are computed only once
+ * per publisher and locale, with the oldest compare date of the subscribers
+ * of the publisher, and filtered for every subscriber.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class NotificationsEmailDigest {
+	
+	private static final Logger log = Tracing.createLoggerFor(NotificationsEmailDigest.class);
+	
+	private static final int BATCH_SIZE = 500;
+	
+	private final DB dbInstance;
+	private final BaseSecurity securityManager;
+	private final PropertyManager propertyManager;
+	private final NotificationsManagerImpl notificationsManager;
+	
+	private final int workers;
+	private final Date defaultCompareDate;
+	private final List<String> newsMarkedTypes;
+	private final Map<Long,Date> oldestCompareDates = new HashMap<>();
+	private final Map<SharedInfoKey,CompletableFuture<SubscriptionInfo>> sharedInfos = new ConcurrentHashMap<>();
+	private final Map<String,HandlerStatistics> handlersStatistics = new ConcurrentHashMap<>();
+	private final AtomicInteger emails = new AtomicInteger();
+	
+	NotificationsEmailDigest(NotificationsManagerImpl notificationsManager, DB dbInstance,
+			BaseSecurity securityManager, PropertyManager propertyManager, int workers) {
+		this.notificationsManager = notificationsManager;
+		this.dbInstance = dbInstance;
+		this.securityManager = securityManager;
+		this.propertyManager = propertyManager;
+		this.workers = Math.max(1, workers);
+		defaultCompareDate = notificationsManager.getDefaultCompareDate();
+		newsMarkedTypes = notificationsManager.getNewsMarkedTypes();
+	}
+	
+	public void run() {
+		long start = System.nanoTime();
+		loadPublishersWithNews();
+		List<Long> identityKeys = loadIdentityKeys();
+		dbInstance.commitAndCloseSession();
+		log.info(Tracing.M_AUDIT, "Notifications: {} publishers with news for {} identities", oldestCompareDates.size(), identityKeys.size());
+		if(identityKeys.isEmpty()) {
+			return;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("oo-notifications-"));
+		try {
+			for(int i=0; i<identityKeys.size(); i += BATCH_SIZE) {
+				List<Long> batchKeys = identityKeys.subList(i, Math.min(identityKeys.size(), i + BATCH_SIZE));
+				if(!processBatch(batchKeys, executor)) {
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		log.info(Tracing.M_AUDIT, "Notifications: {} emails sent to {} identities in (ms): {}", emails.get(), identityKeys.size(), CodeHelper.nanoToMilliTime(start));
+		handlersStatistics.values().stream()
+			.sorted(Comparator.comparingLong(HandlerStatistics::getTime).reversed())
+			.forEach(stats -> log.info(Tracing.M_AUDIT, "Notifications handler {}: {} infos computed in (ms): {}, {} infos shared",
+					stats.getType(), stats.getComputed(), TimeUnit.NANOSECONDS.toMillis(stats.getTime()), stats.getShared()));
+	}
+	
+	/**
+	 * @param identityKeys The keys of the identities to process
+	 * @param executor The workers
+	 * @return false if the thread was interrupted
+	 */
+	private boolean processBatch(List<Long> identityKeys, ExecutorService executor) {
+		Map<Identity,List<Subscriber>> identitiesToSubscribers = loadSubscribers(identityKeys);
+		Map<Long,Date> latestEmails = loadLatestEmails(new ArrayList<>(identitiesToSubscribers.keySet()));
+		dbInstance.commitAndCloseSession();
+		
+		List<Future<?>> futures = new ArrayList<>(identitiesToSubscribers.size());
+		for(Map.Entry<Identity,List<Subscriber>> entry:identitiesToSubscribers.entrySet()) {
+			Identity identity = entry.getKey();
+			List<Subscriber> subscribers = entry.getValue();
+			Date latestEmail = latestEmails.get(identity.getKey());
+			futures.add(executor.submit(() -> processIdentity(identity, subscribers, latestEmail)));
+		}
+		
+		for(Future<?> future:futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				log.warn("Notifications emails interrupted");
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				log.error("", e.getCause());
+			}
+		}
+		return true;
+	}
+	
+	private void processIdentity(Identity identity, List<Subscriber> subscribers, Date latestEmail) {
+		try {
+			Roles roles = securityManager.getRoles(identity);
+			if(roles.isGuestOnly()) {
+				return;
+			}
+			
+			String userInterval = notificationsManager.getUserIntervalOrDefault(identity);
+			if("never".equals(userInterval)) {
+				return;
+			}
+			
+			long start = System.currentTimeMillis();
+			Date compareDate = notificationsManager.getCompareDateFromInterval(userInterval);
+			if(latestEmail != null && latestEmail.after(compareDate)) {
+				return;//nothing to do
+			}
+			
+			String langPrefs = null;
+			if(identity.getUser() != null && identity.getUser().getPreferences() != null) {
+				langPrefs = identity.getUser().getPreferences().getLanguage();
+			}
+			Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
+			
+			Subscriber latestSub = null;
+			List<SubscriptionItem> items = new ArrayList<>();
+			List<Subscriber> subsToUpdate = new ArrayList<>();
+			for(Subscriber sub:subscribers) {
+				Date latestEmailed = sub.getLatestEmailed();
+				if (latestEmailed == null || compareDate.after(latestEmailed)) {
+					if (latestEmailed == null || latestEmailed.before(defaultCompareDate)) {
+						//no notification older than a month
+						latestEmailed = defaultCompareDate;
+					}
+					SubscriptionItem subsitem = createSubscriptionItem(sub, locale, latestEmailed);
+					if (subsitem != null) {
+						items.add(subsitem);
+						subsToUpdate.add(sub);
+					}
+				}
+				latestSub = sub;
+			}
+			
+			if(!items.isEmpty()) {
+				Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
+				notificationsManager.notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, false);
+				emails.incrementAndGet();
+			}
+		} catch (Exception e) {
+			log.error("Cannot send the notifications of identity: {}", identity.getKey(), e);
+			dbInstance.rollback();
+		} finally {
+			dbInstance.commitAndCloseSession();
+		}
+	}
+	
+	private SubscriptionItem createSubscriptionItem(Subscriber subscriber, Locale locale, Date compareDate) {
+		try {
+			Publisher pub = subscriber.getPublisher();
+			NotificationsHandler notifHandler = notificationsManager.getNotificationsHandler(pub);
+			// do not create subscription item when deleted
+			if (notifHandler == null || !notificationsManager.isPublisherValid(pub)) {
+				return null;
+			}
+			
+			SubscriptionInfo subsInfo;
+			Date oldestCompareDate = oldestCompareDates.get(pub.getKey());
+			if(notifHandler.isSubscriptionInfoShared() && oldestCompareDate != null && !compareDate.before(oldestCompareDate)) {
+				SubscriptionInfo sharedInfo = getSharedSubscriptionInfo(notifHandler, subscriber, locale, oldestCompareDate);
+				subsInfo = sharedInfo == null ? null : sharedInfo.copyFor(subscriber.getKey(), compareDate);
+			} else {
+				subsInfo = createSubscriptionInfo(notifHandler, subscriber, locale, compareDate);
+			}
+			
+			if (subsInfo != null && subsInfo.hasNews()) {
+				return notificationsManager.createSubscriptionItem(subsInfo, subscriber, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML);
+			}
+			return null;
+		} catch (Exception e) {
+			log.error("Cannot generate a subscription item.", e);
+			return null;
+		}
+	}
+	
+	/**
+	 * The first worker which needs the info computes it, the others wait for it.
+	 */
+	private SubscriptionInfo getSharedSubscriptionInfo(NotificationsHandler notifHandler, Subscriber subscriber,
+			Locale locale, Date oldestCompareDate) {
+		SharedInfoKey key = new SharedInfoKey(subscriber.getPublisher().getKey(), locale);
+		CompletableFuture<SubscriptionInfo> future = new CompletableFuture<>();
+		CompletableFuture<SubscriptionInfo> sharedFuture = sharedInfos.putIfAbsent(key, future);
+		if(sharedFuture == null) {
+			try {
+				future.complete(createSubscriptionInfo(notifHandler, subscriber, locale, oldestCompareDate));
+			} catch (Exception e) {
+				future.completeExceptionally(e);
+			}
+			sharedFuture = future;
+		} else {
+			getStatistics(notifHandler).shared();
+		}
+		return sharedFuture.join();
+	}
+	
+	private SubscriptionInfo createSubscriptionInfo(NotificationsHandler notifHandler, Subscriber subscriber, Locale locale, Date compareDate) {
+		long start = System.nanoTime();
+		try {
+			return notifHandler.createSubscriptionInfo(subscriber, locale, compareDate);
+		} finally {
+			getStatistics(notifHandler).computed(System.nanoTime() - start);
+		}
+	}
+	
+	private HandlerStatistics getStatistics(NotificationsHandler notifHandler) {
+		return handlersStatistics.computeIfAbsent(notifHandler.getType(), HandlerStatistics::new);
+	}
+	
+	/**
+	 * Load the publishers which have news for at least one of their subscribers
+	 * and the oldest date to compare with.
+	 */
+	private void loadPublishersWithNews() {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("select pub.key, min(sub.latestEmailed) from notisub sub")
+		  .append(" inner join sub.publisher as pub")
+		  .append(" where sub.enabled=true and pub.state=:aState");
+		appendNewsFilter(sb);
+		sb.append(" group by pub.key");
+		
+		TypedQuery<Object[]> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("aState", NotificationsManagerImpl.PUB_STATE_OK);
+		List<Object[]> rawObjects = setNewsFilterParameters(query).getResultList();
+		for(Object[] rawObject:rawObjects) {
+			Long publisherKey = (Long)rawObject[0];
+			Date oldest = (Date)rawObject[1];
+			if(oldest == null || oldest.before(defaultCompareDate)) {
+				oldest = defaultCompareDate;
+			}
+			oldestCompareDates.put(publisherKey, oldest);
+		}
+	}
+	
+	private List<Long> loadIdentityKeys() {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("select distinct ident.key from notisub sub")
+		  .append(" inner join sub.publisher as pub")
+		  .append(" inner join sub.identity as ident")
+		  .append(" where sub.enabled=true and pub.state=:aState and ident.status<:status");
+		appendNewsFilter(sb);
+		sb.append(" order by ident.key");
+		
+		TypedQuery<Long> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("aState", NotificationsManagerImpl.PUB_STATE_OK)
+				.setParameter("status", Identity.STATUS_VISIBLE_LIMIT);
+		return setNewsFilterParameters(query).getResultList();
+	}
+	
+	private Map<Identity,List<Subscriber>> loadSubscribers(List<Long> identityKeys) {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("select sub from notisub sub")
+		  .append(" inner join fetch sub.publisher as pub")
+		  .append(" inner join fetch sub.identity as ident")
+		  .append(" inner join fetch ident.user as identUser")
+		  .append(" where ident.key in (:identityKeys) and sub.enabled=true and pub.state=:aState");
+		appendNewsFilter(sb);
+		sb.append(" order by ident.key");
+		
+		TypedQuery<Subscriber> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Subscriber.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("aState", NotificationsManagerImpl.PUB_STATE_OK);
+		List<Subscriber> subscribers = setNewsFilterParameters(query).getResultList();
+		
+		Map<Identity,List<Subscriber>> identitiesToSubscribers = new LinkedHashMap<>();
+		for(Subscriber subscriber:subscribers) {
+			identitiesToSubscribers
+				.computeIfAbsent(subscriber.getIdentity(), ident -> new ArrayList<>())
+				.add(subscriber);
+		}
+		return identitiesToSubscribers;
+	}
+	
+	/**
+	 * The publishers of the handlers which mark their news are only selected
+	 * if they have news for the subscriber, the others always.
+	 */
+	private void appendNewsFilter(StringBuilder sb) {
+		if(!newsMarkedTypes.isEmpty()) {
+			sb.append(" and (pub.type not in (:newsMarkedTypes)")
+			  .append(" or (pub.latestNewsDate>:since and sub.latestEmailed<pub.latestNewsDate))");
+		}
+	}
+	
+	private <T> TypedQuery<T> setNewsFilterParameters(TypedQuery<T> query) {
+		if(!newsMarkedTypes.isEmpty()) {
+			query.setParameter("newsMarkedTypes", newsMarkedTypes)
+			     .setParameter("since", defaultCompareDate);
+		}
+		return query;
+	}
+	
+	private Map<Long,Date> loadLatestEmails(List<Identity> identities) {
+		List<Property> properties = propertyManager
+				.findProperties(identities, null, null, NotificationsManagerImpl.LATEST_EMAIL_USER_PROP);
+		Map<Long,Date> latestEmails = new HashMap<>();
+		for(Property property:properties) {
+			if(property.getLongValue() != null) {
+				latestEmails.put(property.getIdentity().getKey(), new Date(property.getLongValue().longValue()));
+			}
+		}
+		return latestEmails;
+	}
+	
+	private static class SharedInfoKey {
+		
+		private final Long publisherKey;
+		private final Locale locale;
+		
+		public SharedInfoKey(Long publisherKey, Locale locale) {
+			this.publisherKey = publisherKey;
+			this.locale = locale;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(publisherKey, locale);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof SharedInfoKey) {
+				SharedInfoKey key = (SharedInfoKey)obj;
+				return publisherKey.equals(key.publisherKey) && Objects.equals(locale, key.locale);
+			}
+			return false;
+		}
+	}
+	
+	private static class HandlerStatistics {
+		
+		private final String type;
+		private final LongAdder time = new LongAdder();
+		private final LongAdder computed = new LongAdder();
+		private final LongAdder shared = new LongAdder();
+		
+		public HandlerStatistics(String type) {
+			this.type = type;
+		}
+		
+		public String getType() {
+			return type;
+		}
+		
+		public long getTime() {
+			return time.sum();
+		}
+		
+		public long getComputed() {
+			return computed.sum();
+		}
+		
+		public long getShared() {
+			return shared.sum();
+		}
+		
+		public void computed(long nanos) {
+			computed.increment();
+			time.add(nanos);
+		}
+		
+		public void shared() {
+			shared.increment();
+		}
+	}
+}
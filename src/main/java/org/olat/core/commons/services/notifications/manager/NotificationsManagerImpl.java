@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
@@ -71,7 +72,6 @@ import org.olat.core.gui.translator.Translator;
 import org.olat.core.helpers.Settings;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
-import org.olat.core.id.Roles;
 import org.olat.core.id.context.BusinessControlFactory;
 import org.olat.core.logging.AssertException;
 import org.apache.logging.log4j.Logger;
@@ -83,7 +83,6 @@ import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.core.util.event.EventFactory;
 import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.event.MultiUserEvent;
-import org.olat.core.util.i18n.I18nManager;
 import org.olat.core.util.mail.MailBundle;
 import org.olat.core.util.mail.MailManager;
 import org.olat.core.util.mail.MailerResult;
@@ -108,10 +107,9 @@ import org.springframework.beans.factory.InitializingBean;
 public class NotificationsManagerImpl implements NotificationsManager, UserDataDeletable, UserDataExportable, GenericEventListener, InitializingBean {
 	private static final Logger log = Tracing.createLoggerFor(NotificationsManagerImpl.class);
 
-	private static final int PUB_STATE_OK = 0;
+	static final int PUB_STATE_OK = 0;
 	private static final int PUB_STATE_NOT_OK = 1;
-	private static final int BATCH_SIZE = 500;
-	private static final String LATEST_EMAIL_USER_PROP = "noti_latest_email";
+	static final String LATEST_EMAIL_USER_PROP = "noti_latest_email";
 	private static final SubscriptionInfo NOSUBSINFO = new NoSubscriptionInfo();
 
 	private final OLATResourceable oresMyself = OresHelper.lookupType(NotificationsManagerImpl.class);
@@ -123,6 +121,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	private String defaultNotificationInterval;
 	private static final Map<String, Integer> INTERVAL_DEF_MAP = buildIntervalMap();
 	private Object lockObject = new Object();
+	private int digestWorkers = 4;
 	
 	private DB dbInstance;
 	private BaseSecurity securityManager;
@@ -162,6 +161,14 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	}
 
 
+	/**
+	 * [used by Spring]
+	 * @param digestWorkers The number of threads which send the notifications emails
+	 */
+	public void setDigestWorkers(int digestWorkers) {
+		this.digestWorkers = digestWorkers;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		coordinatorManager.getCoordinator().getEventBus().registerFor(this, null, asyncSubscription);
@@ -331,102 +338,16 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	public void notifyAllSubscribersByEmail() {
 		log.info(Tracing.M_AUDIT, "starting notification cronjob to send email");
 		WorkThreadInformations.setLongRunningTask("sendNotifications");
-		
-		int counter = 0;
-		int closeConnection = 0;
-		List<Identity> identities;
-		do {
-			identities = securityManager.loadVisibleIdentities(counter, BATCH_SIZE);
-			for(Identity identity:identities) {
-				Roles roles = securityManager.getRoles(identity);
-				if(roles.isGuestOnly()) {
-					continue;
-				}
-	
-				closeConnection++;
-				processSubscribersByEmail(identity);
-				if(closeConnection % 20 == 0) {
-					dbInstance.commitAndCloseSession();
-				}
-			}
-			counter += identities.size();
-			dbInstance.commitAndCloseSession();
-		} while(identities.size() == BATCH_SIZE);
-		
-		// done, purge last entry
-		WorkThreadInformations.unsetLongRunningTask("sendNotifications");
-		log.info(Tracing.M_AUDIT, "end notification cronjob to send email");
-	}
-	
-	private void processSubscribersByEmail(Identity ident) {
-		if(ident.getStatus().compareTo(Identity.STATUS_VISIBLE_LIMIT) >= 0) {
-			return;//send only to active user
-		}
-		
-		String userInterval = getUserIntervalOrDefault(ident);
-		if("never".equals(userInterval)) {
-			return;
-		}
-
-		long start = System.currentTimeMillis();
-		Date compareDate = getCompareDateFromInterval(userInterval);
-		Property p = propertyManager.findProperty(ident, null, null, null, LATEST_EMAIL_USER_PROP);
-		if(p != null) {
-		  	Date latestEmail = new Date(p.getLongValue());
-		  	if(latestEmail.after(compareDate)) {
-		  		return;//nothing to do
-		  	}
-		}
-
-		Date defaultCompareDate = getDefaultCompareDate();
-		List<Subscriber> subscribers = getSubscribers(ident, true);
-		if(subscribers.isEmpty()) {
-			return;
-		}
-		
-		String langPrefs = null;
-		if(ident.getUser() != null && ident.getUser().getPreferences() != null) {
-			langPrefs = ident.getUser().getPreferences().getLanguage();
-		}
-		Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
-		
-		boolean veto = false;
-		Subscriber latestSub = null;
-		List<SubscriptionItem> items = new ArrayList<>();
-		List<Subscriber> subsToUpdate = new ArrayList<>();
-		for(Subscriber sub:subscribers) {
-			if(!sub.isEnabled()) {
-				continue;
-			}
-			
-			Date latestEmail = sub.getLatestEmailed();
-		
-			SubscriptionItem subsitem = null;
-			if (latestEmail == null || compareDate.after(latestEmail)){
-				// no notif. ever sent until now
-				if (latestEmail == null) {
-					latestEmail = defaultCompareDate;
-				}	else if (latestEmail.before(defaultCompareDate)) {
-					//no notification older than a month
-					latestEmail = defaultCompareDate;
-				}
-				subsitem = createSubscriptionItem(sub, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML, latestEmail);
-			}	else if(latestEmail != null && latestEmail.after(compareDate)) {
-				//already send an email within the user's settings interval
-				//veto = true;
-			}
-			if (subsitem != null) {
-				items.add(subsitem);
-				subsToUpdate.add(sub);
-			}
-			latestSub = sub;
+		try {
+			new NotificationsEmailDigest(this, dbInstance, securityManager, propertyManager, digestWorkers).run();
+		} finally {
+			// done, purge last entry
+			WorkThreadInformations.unsetLongRunningTask("sendNotifications");
 		}
-		
-		Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
-		notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, veto);
+		log.info(Tracing.M_AUDIT, "end notification cronjob to send email");
 	}
 	
-	private void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
+	protected void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
 		if(veto) {
 			if(latestSub != null) {
 				log.info(Tracing.M_AUDIT, latestSub.getIdentity().getKey() + " already received notification email within prefs interval");
@@ -855,7 +776,20 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	 */
 	@Override
 	public NotificationsHandler getNotificationsHandler(Publisher publisher) {
-		String type = publisher.getType();
+		return getNotificationsHandlers().get(publisher.getType());
+	}
+	
+	/**
+	 * @return The types of the handlers which mark the news on their publishers
+	 */
+	protected List<String> getNewsMarkedTypes() {
+		return getNotificationsHandlers().values().stream()
+				.filter(NotificationsHandler::isNewsMarkedOnPublisher)
+				.map(NotificationsHandler::getType)
+				.collect(Collectors.toList());
+	}
+	
+	private Map<String,NotificationsHandler> getNotificationsHandlers() {
 		if (notificationHandlers == null) {
 			synchronized(lockObject) {
 				if (notificationHandlers == null) { // check again in synchronized-block, only one may create list
@@ -869,7 +803,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 				}
 			}	
 		}
-		return notificationHandlers.get(type);		
+		return notificationHandlers;
 	}
 
 	/**
@@ -1282,7 +1216,7 @@ public class NotificationsManagerImpl implements NotificationsManager, UserDataD
 	 * maybe the latest user-login could also be used.
 	 * @return Date
 	 */
-	private Date getDefaultCompareDate() {
+	protected Date getDefaultCompareDate() {
 		Calendar calNow = Calendar.getInstance();
 		calNow.add(Calendar.DAY_OF_MONTH, -30);
 		return calNow.getTime();
@@ -50,6 +50,15 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 	@Value("${vfs.largefiles.lowerborder}")
 	private long lowerBorder;
 	
+	@Value("${thumbnail.generator.threads:2}")
+	private int thumbnailThreads;
+	@Value("${thumbnail.generator.queue.size:2000}")
+	private int thumbnailQueueSize;
+	@Value("${thumbnail.generator.on.save:true}")
+	private boolean thumbnailOnSave;
+	@Value("${thumbnail.generator.max.wait:1500}")
+	private long thumbnailMaxWait;
+	
 	@Autowired
 	public VFSRepositoryModule(CoordinatorManager coordinatorManager) {
 		super(coordinatorManager);
@@ -123,5 +132,26 @@ public class VFSRepositoryModule extends AbstractSpringModule {
 	public long getLowerBorder() {
 		return lowerBorder;
 	}
-
+	
+	public int getThumbnailThreads() {
+		return thumbnailThreads;
+	}
+	
+	public int getThumbnailQueueSize() {
+		return thumbnailQueueSize;
+	}
+	
+	/**
+	 * @return true if the thumbnail of the folder view is generated after an upload
+	 */
+	public boolean isThumbnailOnSave() {
+		return thumbnailOnSave;
+	}
+	
+	/**
+	 * @return The max. time in milliseconds to wait for a thumbnail before sending a placeholder
+	 */
+	public long getThumbnailMaxWait() {
+		return thumbnailMaxWait;
+	}
 }
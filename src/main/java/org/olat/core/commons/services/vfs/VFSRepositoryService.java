@@ -46,6 +46,15 @@ public interface VFSRepositoryService {
 	
 	public VFSMetadata getMetadataFor(File file);
 	
+	/**
+	 * Load the metadata of the file but, unlike getMetadataFor, doesn't
+	 * create them if they don't exist and doesn't commit.
+	 * 
+	 * @param file The file
+	 * @return The metadata or null if the file has none
+	 */
+	public VFSMetadata getMetadataIfExists(File file);
+	
 	/**
 	 * Resolve the context type for the given metadata. This method is "light
 	 * weight" and does not trigger database queries
@@ -95,6 +104,15 @@ public interface VFSRepositoryService {
 	 */
 	public List<VFSMetadata> getChildren(VFSMetadataRef parentMetadata);
 	
+	/**
+	 * The list of direct children in the specified relative path, loaded
+	 * with a single query and without the author and the license.
+	 * 
+	 * @param relativePath The relative path
+	 * @return A list of metadata
+	 */
+	public List<VFSMetadata> getChildrenMetadataOnly(String relativePath);
+	
 	
 	public void cleanMetadatas();
 	
@@ -177,6 +195,16 @@ public interface VFSRepositoryService {
 	 */
 	public boolean isThumbnailAvailable(VFSItem item, VFSMetadata metadata);
 	
+	/**
+	 * Return the thumbnail, it's rendered in the thread of the caller if
+	 * needed. The transaction of the caller is not committed.
+	 * 
+	 * @param file The file
+	 * @param maxWidth
+	 * @param maxHeight
+	 * @param fill
+	 * @return The thumbnail or null if it cannot be rendered
+	 */
 	public VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill);
 	
 	/**
@@ -191,6 +219,31 @@ public interface VFSRepositoryService {
 	 */
 	public VFSLeaf getThumbnail(VFSLeaf file, VFSMetadata metadata, int maxWidth, int maxHeight, boolean fill);
 	
+	/**
+	 * Return the thumbnail if it's available or queue it with the priority
+	 * of the files viewed by a user and wait at most the specified time. A
+	 * negative time renders the thumbnail in the thread of the caller.
+	 * 
+	 * @param file The file
+	 * @param maxWidth
+	 * @param maxHeight
+	 * @param fill
+	 * @param maxWait The max. time to wait for the thumbnail in milliseconds
+	 * @return The thumbnail or null if it's not available, or not rendered in time
+	 */
+	public VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill, long maxWait);
+	
+	/**
+	 * Check on the file system only if the thumbnail is already rendered.
+	 * 
+	 * @param file The file
+	 * @param maxWidth
+	 * @param maxHeight
+	 * @param fill
+	 * @return true if the thumbnail file exists
+	 */
+	public boolean isThumbnailRendered(VFSLeaf file, int maxWidth, int maxHeight, boolean fill);
+	
 	public void resetThumbnails(VFSLeaf file);
 	
 	/**
@@ -226,6 +226,20 @@ public class VFSMetadataDAO {
 			.getResultList();
 	}
 	
+	/**
+	 * This is an exact match to find the direct children of a specific
+	 * directory, without fetching the author and the license.
+	 * 
+	 * @param relativePath The relative path
+	 * @return A list of metadata
+	 */
+	public List<VFSMetadata> getMetadatasOnly(String relativePath) {
+		return dbInstance.getCurrentEntityManager()
+			.createNamedQuery("metadataOnlyByRelativePath", VFSMetadata.class)
+			.setParameter("relativePath", relativePath)
+			.getResultList();
+	}
+	
 	/**
 	 * This is an exact match to find the direct children of a specific
 	 * directory.
@@ -295,9 +309,19 @@ public class VFSMetadataDAO {
 	}
 	
 	public void increaseDownloadCount(String relativePath, String filename) {
-		String updateQuery = "update vfsmetadatadownloadcount set downloadCount=downloadCount+1 where filename=:filename and relativePath=:relativePath";
+		increaseDownloadCount(relativePath, filename, 1);
+	}
+	
+	/**
+	 * @param relativePath The path to the file
+	 * @param filename The name of the file
+	 * @param increment The number of downloads to add to the counter
+	 */
+	public void increaseDownloadCount(String relativePath, String filename, int increment) {
+		String updateQuery = "update vfsmetadatadownloadcount set downloadCount=downloadCount+:increment where filename=:filename and relativePath=:relativePath";
 		dbInstance.getCurrentEntityManager()
 			.createQuery(updateQuery)
+			.setParameter("increment", increment)
 			.setParameter("filename", filename)
 			.setParameter("relativePath", relativePath)
 			.setHint("javax.persistence.query.timeout", 1000)
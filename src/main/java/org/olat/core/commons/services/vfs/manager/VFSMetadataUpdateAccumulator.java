@@ -0,0 +1,248 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.modules.bc.FolderModule;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accumulate the increments of the download counters and the files which
+ * size changed, and flush them in batches every flush interval. The
+ * downloads of the same file are summed up in one update, the size of a
+ * file is read and updated once per flush. The pending deltas are
+ * flushed at shutdown.
+ * <p>
+ * Every node of a cluster accumulates its own downloads, the counters
+ * are incremented relatively to the value in the database.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class VFSMetadataUpdateAccumulator implements InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(VFSMetadataUpdateAccumulator.class);
+	
+	private final ConcurrentHashMap<FileKey, Integer> downloads = new ConcurrentHashMap<>();
+	private final Set<FileKey> fileSizes = ConcurrentHashMap.newKeySet();
+	private ScheduledExecutorService flusher;
+	
+	@Value("${vfs.metadata.flush.interval:5000}")
+	private long flushInterval;
+	@Value("${vfs.metadata.flush.batch.size:100}")
+	private int batchSize;
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private FolderModule folderModule;
+	@Autowired
+	private VFSMetadataDAO metadataDao;
+	
+	@Override
+	public void afterPropertiesSet() {
+		if(flushInterval > 0) {
+			flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("oo-vfs-metadata-"));
+			flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	@Override
+	public void destroy() {
+		ScheduledExecutorService currentFlusher = flusher;
+		flusher = null;
+		if(currentFlusher != null) {
+			currentFlusher.shutdown();
+			try {
+				currentFlusher.awaitTermination(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+	}
+	
+	public void increaseDownloadCount(String relativePath, String filename) {
+		downloads.merge(new FileKey(relativePath, filename), Integer.valueOf(1), Integer::sum);
+	}
+	
+	/**
+	 * The size and the last modification date will be read from
+	 * the file system at the next flush.
+	 * 
+	 * @param relativePath The relative path of the file
+	 * @param filename The name of the file
+	 */
+	public void updateFileSize(String relativePath, String filename) {
+		fileSizes.add(new FileKey(relativePath, filename));
+	}
+	
+	/**
+	 * @return The number of downloads not yet written in the database
+	 */
+	public int getPendingDownloads() {
+		int pending = 0;
+		for(Integer count:downloads.values()) {
+			pending += count.intValue();
+		}
+		return pending;
+	}
+	
+	/**
+	 * @return The number of files which size is not yet updated in the database
+	 */
+	public int getPendingFileSizeUpdates() {
+		return fileSizes.size();
+	}
+	
+	/**
+	 * Write the pending deltas, a batch of updates per transaction.
+	 */
+	public synchronized void flush() {
+		try {
+			flushDownloads();
+			flushFileSizes();
+		} catch (Exception e) {
+			log.error("Cannot flush the metadata updates", e);
+			dbInstance.rollbackAndCloseSession();
+		} finally {
+			dbInstance.closeSession();
+		}
+	}
+	
+	private void flushDownloads() {
+		List<FileKey> keys = new ArrayList<>(downloads.keySet());
+		List<FileKey> batch = new ArrayList<>(batchSize);
+		List<Integer> increments = new ArrayList<>(batchSize);
+		for(FileKey key:keys) {
+			Integer increment = downloads.remove(key);
+			if(increment == null) continue;
+			
+			batch.add(key);
+			increments.add(increment);
+			if(batch.size() >= batchSize) {
+				writeDownloads(batch, increments);
+				batch.clear();
+				increments.clear();
+			}
+		}
+		if(!batch.isEmpty()) {
+			writeDownloads(batch, increments);
+		}
+	}
+	
+	private void writeDownloads(List<FileKey> batch, List<Integer> increments) {
+		try {
+			for(int i=0; i<batch.size(); i++) {
+				FileKey key = batch.get(i);
+				metadataDao.increaseDownloadCount(key.relativePath, key.filename, increments.get(i).intValue());
+			}
+			dbInstance.commit();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			// keep the increments for the next flush
+			for(int i=0; i<batch.size(); i++) {
+				downloads.merge(batch.get(i), increments.get(i), Integer::sum);
+			}
+			throw e;
+		}
+	}
+	
+	private void flushFileSizes() {
+		List<FileKey> keys = new ArrayList<>(fileSizes);
+		List<FileKey> batch = new ArrayList<>(batchSize);
+		for(FileKey key:keys) {
+			if(!fileSizes.remove(key)) continue;
+			
+			batch.add(key);
+			if(batch.size() >= batchSize) {
+				writeFileSizes(batch);
+				batch.clear();
+			}
+		}
+		if(!batch.isEmpty()) {
+			writeFileSizes(batch);
+		}
+	}
+	
+	private void writeFileSizes(List<FileKey> batch) {
+		try {
+			for(FileKey key:batch) {
+				File file = Paths.get(folderModule.getCanonicalRoot(), key.relativePath, key.filename).toFile();
+				if(file.exists()) {
+					Date lastModified = new Date(file.lastModified());
+					metadataDao.updateMetadata(file.length(), lastModified, key.relativePath, key.filename);
+				}
+			}
+			dbInstance.commit();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			fileSizes.addAll(batch);
+			throw e;
+		}
+	}
+	
+	private static final class FileKey {
+		
+		private final String relativePath;
+		private final String filename;
+		
+		public FileKey(String relativePath, String filename) {
+			this.relativePath = relativePath;
+			this.filename = filename;
+		}
+
+		@Override
+		public int hashCode() {
+			return relativePath.hashCode() + 31 * filename.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof FileKey) {
+				FileKey key = (FileKey)obj;
+				return relativePath.equals(key.relativePath) && filename.equals(key.filename);
+			}
+			return false;
+		}
+	}
+}
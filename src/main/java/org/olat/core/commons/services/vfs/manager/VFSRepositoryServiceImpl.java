@@ -44,11 +44,16 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.Adler32;
 import java.util.zip.Checksum;
 
 import org.apache.logging.log4j.Logger;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.olat.basesecurity.BaseSecurity;
 import org.olat.core.commons.modules.bc.FolderConfig;
 import org.olat.core.commons.modules.bc.FolderLicenseHandler;
@@ -76,21 +81,18 @@ import org.olat.core.commons.services.vfs.VFSVersionModule;
 import org.olat.core.commons.services.vfs.impl.VFSContextInfoUnknown;
 import org.olat.core.commons.services.vfs.impl.VFSContextInfoUnknownPathResolver;
 import org.olat.core.commons.services.vfs.manager.MetaInfoReader.Thumbnail;
+import org.olat.core.commons.services.vfs.manager.VFSThumbnailQueue.Priority;
+import org.olat.core.commons.services.vfs.manager.VFSThumbnailQueue.ThumbnailKey;
 import org.olat.core.commons.services.vfs.model.VFSFileStatistics;
 import org.olat.core.commons.services.vfs.model.VFSMetadataImpl;
 import org.olat.core.commons.services.vfs.model.VFSRevisionImpl;
 import org.olat.core.commons.services.vfs.model.VFSRevisionStatistics;
 import org.olat.core.commons.services.vfs.model.VFSThumbnailStatistics;
-import org.olat.core.gui.control.Event;
 import org.olat.core.id.Identity;
-import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.FileUtils;
 import org.olat.core.util.StringHelper;
-import org.olat.core.util.coordinate.CoordinatorManager;
-import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.io.ShieldInputStream;
-import org.olat.core.util.resource.OresHelper;
 import org.olat.core.util.vfs.LocalFileImpl;
 import org.olat.core.util.vfs.LocalFolderImpl;
 import org.olat.core.util.vfs.VFSConstants;
@@ -100,7 +102,6 @@ import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.core.util.vfs.VFSManager;
 import org.olat.core.util.vfs.version.RevisionFileImpl;
 import org.olat.core.util.vfs.version.VersionsFileImpl;
-import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -111,12 +112,12 @@ import org.springframework.stereotype.Service;
  *
  */
 @Service
-public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEventListener, InitializingBean {
+public class VFSRepositoryServiceImpl implements VFSRepositoryService {
 	
 	private static final Logger log = Tracing.createLoggerFor(VFSRepositoryServiceImpl.class);
-	private final OLATResourceable fileSizeSubscription = OresHelper.createOLATResourceableType("UpdateFileSizeAsync");
-	private final OLATResourceable incrementFileDownload = OresHelper.createOLATResourceableType("IncrementFileDownloadAsync");
 	private static final String CANONICAL_ROOT_REL_PATH = "/";
+	/** The size of the thumbnails of the folder view */
+	private static final int FOLDER_THUMBNAIL_SIZE = 200;
 	
 	@Autowired
 	private DB dbInstance;
@@ -129,6 +130,8 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	@Autowired
 	private VFSMetadataDAO metadataDao;
 	@Autowired
+	private VFSMetadataUpdateAccumulator metadataUpdateAccumulator;
+	@Autowired
 	private VFSStatsDAO statsDao;
 	@Autowired
 	private VFSThumbnailDAO thumbnailDao;
@@ -143,49 +146,12 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	@Autowired
 	private ThumbnailService thumbnailService;
 	@Autowired
-	private CoordinatorManager coordinatorManager;
+	private VFSThumbnailQueue thumbnailQueue;
 	@Autowired
 	private BaseSecurity securityManager;
 	// Autowired liste by setVfsContextInfoResolver() method
 	private List<VFSContextInfoResolver> vfsContextInfoResolver;
 	
-	@Override
-	public void afterPropertiesSet() throws Exception {
-		coordinatorManager.getCoordinator().getEventBus().registerFor(this, null, fileSizeSubscription);
-		coordinatorManager.getCoordinator().getEventBus().registerFor(this, null, incrementFileDownload);
-	}
-
-	@Override
-	public void event(Event event) {
-		if(event instanceof AsyncFileSizeUpdateEvent) {
-			processFileSizeUpdateEvent((AsyncFileSizeUpdateEvent)event);
-		} else if(event instanceof AsyncIncrementFileDownloadEvent) {
-			processIncrementFileDownnload((AsyncIncrementFileDownloadEvent)event);
-		}
-	}
-	
-	private void processFileSizeUpdateEvent(AsyncFileSizeUpdateEvent event) {
-		File file = toFile(event.getRelativePath(), event.getFilename());
-		if(file.exists()) {
-			try {
-				Date lastModified = new Date(file.lastModified());
-				metadataDao.updateMetadata(file.length(), lastModified, event.getRelativePath(), event.getFilename());
-				dbInstance.commit();
-			} catch (Exception e) {
-				log.error("Cannot update file size of: " + event.getRelativePath() + " " + event.getFilename(), e);
-			}
-		}
-	}
-	
-	private void processIncrementFileDownnload(AsyncIncrementFileDownloadEvent event) {
-		try {
-			metadataDao.increaseDownloadCount(event.getRelativePath(), event.getFilename());
-			dbInstance.commit();
-		} catch (Exception e) {
-			log.error("Cannot increment file downloads of: " + event.getRelativePath() + " " + event.getFilename(), e);
-		}
-	}
-	
 	@Override
 	public VFSMetadata getMetadataByUUID(String uuid) {
 		if(StringHelper.containsNonWhitespace(uuid)) {
@@ -264,6 +230,18 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		return getMetadataFor(file);
 	}
 
+	@Override
+	public VFSMetadata getMetadataIfExists(File file) {
+		String relativePath = getRelativePath(file.getParentFile());
+		if(relativePath.equals("..")) {
+			return null;
+		}
+		if(relativePath.equals("")) {
+			relativePath = CANONICAL_ROOT_REL_PATH;
+		}
+		return metadataDao.getMetadata(relativePath, file.getName(), file.isDirectory());
+	}
+
 	@Override
 	public VFSMetadata getMetadataFor(File file) {
 		String relativePath = getRelativePath(file.getParentFile());
@@ -285,8 +263,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 			VFSMetadata parent = getMetadataFor(file.getParentFile());
 			metadata = metadataDao.createMetadata(uuid, relativePath, filename, new Date(), size, directory, uri, "file", parent);
 		} else if(file.isFile() && (file.length() != metadata.getFileSize() || !file.exists() != metadata.isDeleted())) {
-			AsyncFileSizeUpdateEvent event = new AsyncFileSizeUpdateEvent(relativePath, filename);
-			coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, fileSizeSubscription);
+			metadataUpdateAccumulator.updateFileSize(relativePath, filename);
 		}
 		dbInstance.commit();
 		return metadata;
@@ -361,8 +338,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		VFSMetadata metadata = metadataDao.getMetadata(relativePath, filename, file.isDirectory());
 		if(metadata != null && !metadata.isDirectory()
 				&& (metadata.getFileSize() != file.length() || file.lastModified() != metadata.getFileLastModified().getTime())) {
-			AsyncFileSizeUpdateEvent event = new AsyncFileSizeUpdateEvent(relativePath, filename);
-			coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, fileSizeSubscription);
+			metadataUpdateAccumulator.updateFileSize(relativePath, filename);
 		}
 		return metadata;
 	}
@@ -395,6 +371,15 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		return metadataDao.getMetadatas(parentMetadata);
 	}
 
+	@Override
+	public List<VFSMetadata> getChildrenMetadataOnly(String relativePath) {
+		if(relativePath == null) return new ArrayList<>();
+		if(!relativePath.equals(CANONICAL_ROOT_REL_PATH) && relativePath.startsWith("/")) {
+			relativePath = relativePath.substring(1, relativePath.length());
+		}
+		return metadataDao.getMetadatasOnly(relativePath);
+	}
+
 	@Override
 	public List<VFSMetadata> getNewest(VFSMetadata ancestorMetadata, int maxResults) {
 		File file = toFile(ancestorMetadata);
@@ -462,6 +447,15 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		String relativePath = getContainerRelativePath(leaf);
 		Date lastModified = new Date(leaf.getLastModified());
 		metadataDao.updateMetadata(leaf.getSize(), lastModified, relativePath, leaf.getName());
+		
+		if(vfsModule.isThumbnailOnSave() && relativePath != null && thumbnailService.isThumbnailPossible(leaf)) {
+			// generate the thumbnail of the folder view in background
+			VFSMetadata metadata = metadataDao.getMetadata(relativePath, leaf.getName(), false);
+			if(metadata != null && (metadata.getCannotGenerateThumbnails() == null || !metadata.getCannotGenerateThumbnails().booleanValue())) {
+				// the metadata can be new, the queue need to see it
+				afterCommit(() -> queueThumbnail(leaf, relativePath, metadata, false, FOLDER_THUMBNAIL_SIZE, FOLDER_THUMBNAIL_SIZE, Priority.BACKGROUND, 0l));
+			}
+		}
 	}
 
 	@Override
@@ -654,8 +648,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 	public void increaseDownloadCount(VFSLeaf item) {
 		String relPath = getContainerRelativePath(item);
 		if(StringHelper.containsNonWhitespace(relPath)) {
-			AsyncIncrementFileDownloadEvent event = new AsyncIncrementFileDownloadEvent(relPath, item.getName());
-			coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, incrementFileDownload);
+			metadataUpdateAccumulator.increaseDownloadCount(relPath, item.getName());
 		}
 	}
 	
@@ -668,7 +661,7 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		if(relativePath != null) {
 			VFSThumbnailMetadata thumbnail = thumbnailDao.findThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
 			if(thumbnail == null) {
-				thumbnailLeaf = generateThumbnail(file, metadata, fill, maxWidth, maxHeight);
+				thumbnailLeaf = renderThumbnailNow(file, relativePath, metadata, fill, maxWidth, maxHeight);
 			} else {
 				VFSItem item = parentContainer.resolve(thumbnail.getFilename());
 				if(item instanceof VFSLeaf) {
@@ -681,6 +674,11 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 
 	@Override
 	public VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill) {
+		return getThumbnail(file, maxWidth, maxHeight, fill, -1l);
+	}
+	
+	@Override
+	public VFSLeaf getThumbnail(VFSLeaf file, int maxWidth, int maxHeight, boolean fill, long maxWait) {
 		VFSLeaf thumbnailLeaf = null;
 		
 		VFSContainer parentContainer = getSecureParentContainer(file);
@@ -690,9 +688,14 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 			if(thumbnail == null) {
 				VFSMetadata metadata = metadataDao.getMetadata(relativePath, file.getName(), false);
 				if(metadata == null) {// fallback and generated the needed database entries
+					// the new metadata is not visible to the queue before the commit
 					metadata = getMetadataFor(file);
+					thumbnailLeaf = renderThumbnailNow(file, relativePath, metadata, fill, maxWidth, maxHeight);
+				} else if(maxWait < 0) {
+					thumbnailLeaf = renderThumbnailNow(file, relativePath, metadata, fill, maxWidth, maxHeight);
+				} else {
+					thumbnailLeaf = queueThumbnail(file, relativePath, metadata, fill, maxWidth, maxHeight, Priority.VIEW, maxWait);
 				}
-				thumbnailLeaf = generateThumbnail(file, metadata, fill, maxWidth, maxHeight);
 			} else {
 				VFSItem item = parentContainer.resolve(thumbnail.getFilename());
 				if(item instanceof VFSLeaf) {
@@ -706,6 +709,88 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		return thumbnailLeaf;
 	}
 	
+	/**
+	 * Render the thumbnail in the thread and the transaction of the caller. If
+	 * the queue is already rendering it, wait for it as the folder view does.
+	 * 
+	 * @return The thumbnail or null if it cannot be rendered or it's not rendered in time
+	 */
+	private VFSLeaf renderThumbnailNow(VFSLeaf file, String relativePath, VFSMetadata metadata, boolean fill, int maxWidth, int maxHeight) {
+		if(metadata == null) return null;
+		
+		ThumbnailKey key = new ThumbnailKey(relativePath, file.getName(), maxWidth, maxHeight, fill);
+		CompletableFuture<VFSLeaf> future = thumbnailQueue.getQueued(key);
+		if(future != null) {
+			return waitThumbnail(key, future, vfsModule.getThumbnailMaxWait());
+		}
+		return generateThumbnail(file, metadata, fill, maxWidth, maxHeight);
+	}
+	
+	/**
+	 * Queue the thumbnail and wait for it. The thumbnail is rendered in an
+	 * other transaction, the metadata need to be committed.
+	 * 
+	 * @param maxWait The max. time to wait in milliseconds, 0 to not wait
+	 * @return The thumbnail or null if it's not rendered in time
+	 */
+	private VFSLeaf queueThumbnail(VFSLeaf file, String relativePath, VFSMetadata metadata, boolean fill, int maxWidth, int maxHeight,
+			Priority priority, long maxWait) {
+		if(metadata == null || metadata.getKey() == null) return null;
+		
+		final Long metadataKey = metadata.getKey();
+		ThumbnailKey key = new ThumbnailKey(relativePath, file.getName(), maxWidth, maxHeight, fill);
+		CompletableFuture<VFSLeaf> future = thumbnailQueue.submit(key, priority,
+				() -> renderThumbnail(file, relativePath, metadataKey, fill, maxWidth, maxHeight));
+		if(future == null) {
+			// the queue is full, the users don't wait for the background thumbnails
+			return priority == Priority.VIEW ? generateThumbnail(file, metadata, fill, maxWidth, maxHeight) : null;
+		}
+		if(maxWait <= 0) {
+			return null;
+		}
+		return waitThumbnail(key, future, maxWait);
+	}
+	
+	private VFSLeaf waitThumbnail(ThumbnailKey key, CompletableFuture<VFSLeaf> future, long maxWait) {
+		try {
+			return future.get(maxWait, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			log.debug("Thumbnail not rendered in time: {}", key);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			log.error("Cannot generate thumbnail: {}", key, e);
+		}
+		return null;
+	}
+	
+	/**
+	 * Render the thumbnail in a thread of the queue of thumbnails.
+	 */
+	private VFSLeaf renderThumbnail(VFSLeaf file, String relativePath, Long metadataKey, boolean fill, int maxWidth, int maxHeight) {
+		VFSLeaf thumbnailLeaf = null;
+		try {
+			VFSMetadata metadata = metadataDao.loadMetadata(metadataKey);
+			if(metadata != null && file.exists()) {
+				// the thumbnail can be rendered by an other request since it was queued
+				VFSThumbnailMetadata thumbnail = thumbnailDao.findThumbnail(relativePath, file.getName(), fill, maxWidth, maxHeight);
+				if(thumbnail == null) {
+					thumbnailLeaf = generateThumbnail(file, metadata, fill, maxWidth, maxHeight);
+				} else {
+					VFSItem item = getSecureParentContainer(file).resolve(thumbnail.getFilename());
+					if(item instanceof VFSLeaf) {
+						thumbnailLeaf = (VFSLeaf)item;
+					}
+				}
+			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			throw e;
+		}
+		return thumbnailLeaf;
+	}
+	
 	private VFSLeaf generateThumbnail(VFSLeaf file, VFSMetadata metadata, boolean fill, int maxWidth, int maxHeight) {
 		String name = file.getName();
 		String thumbnailName = generateFilenameForThumbnail(name, fill, maxWidth, maxHeight);
@@ -762,6 +847,29 @@ public class VFSRepositoryServiceImpl implements VFSRepositoryService, GenericEv
 		return "jpg";
 	}
 
+	/**
+	 * Run the task after the commit of the current transaction, the task
+	 * is dropped if the transaction is rolled back.
+	 * 
+	 * @param task The task
+	 */
+	private void afterCommit(Runnable task) {
+		dbInstance.getCurrentEntityManager().unwrap(SessionImplementor.class).getActionQueue()
+			.registerProcess((success, session) -> {
+				if(success) {
+					task.run();
+				}
+			});
+	}
+	
+	@Override
+	public boolean isThumbnailRendered(VFSLeaf file, int maxWidth, int maxHeight, boolean fill) {
+		VFSContainer parentContainer = getSecureParentContainer(file);
+		String thumbnailName = generateFilenameForThumbnail(file.getName(), fill, maxWidth, maxHeight);
+		VFSItem item = parentContainer.resolve(thumbnailName);
+		return item instanceof VFSLeaf && item.exists();
+	}
+
 	@Override
 	public boolean isThumbnailAvailable(VFSItem item, VFSMetadata metadata) {
 		if(metadata == null) return false;
@@ -0,0 +1,365 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.commons.services.vfs.VFSRepositoryModule;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.vfs.VFSLeaf;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * A bounded pool of threads which renders the thumbnails. The requests
+ * are deduplicated per thumbnail (file, size and fill), a request for
+ * a thumbnail already in the queue returns the future of the queued one.
+ * The thumbnails requested by a user are rendered before the ones
+ * generated in background (after upload); a queued background request
+ * is promoted if a user asks for the same thumbnail.
+ * <p>
+ * The background requests are rejected if the queue is full, the requests
+ * of the users only if the queue is twice full. The caller decides what to
+ * do with a rejected request.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class VFSThumbnailQueue implements VFSThumbnailQueueMBean, InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(VFSThumbnailQueue.class);
+	private static final String MBEAN_NAME = "org.olat.core.commons.services.vfs:type=VFSThumbnailQueue";
+	
+	private int capacity;
+	private ThreadPoolExecutor executor;
+	private final AtomicLong sequence = new AtomicLong();
+	private final ConcurrentHashMap<ThumbnailKey, ThumbnailTask> tasks = new ConcurrentHashMap<>();
+	
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder deduplicated = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder rendered = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder renderTime = new LongAdder();
+	private final LongAccumulator maxRenderTime = new LongAccumulator(Long::max, 0l);
+	
+	@Autowired
+	private JMXManager jmxManager;
+	@Autowired
+	private VFSRepositoryModule vfsModule;
+	
+	@Override
+	public void afterPropertiesSet() {
+		start(vfsModule.getThumbnailThreads(), vfsModule.getThumbnailQueueSize());
+		if(jmxManager != null) {
+			jmxManager.registerMBean(this, MBEAN_NAME);
+		}
+	}
+	
+	@Override
+	public void destroy() {
+		if(jmxManager != null) {
+			jmxManager.unregisterMBean(MBEAN_NAME);
+		}
+		stop();
+	}
+	
+	void start(int threads, int queueSize) {
+		capacity = Math.max(1, queueSize);
+		int poolSize = Math.max(1, threads);
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0l, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<>(), new ThumbnailThreadFactory());
+	}
+	
+	void stop() {
+		if(executor != null) {
+			List<Runnable> pending = executor.shutdownNow();
+			for(Runnable task:pending) {
+				((ThumbnailTask)task).cancel();
+			}
+			executor = null;
+		}
+	}
+	
+	/**
+	 * Queue the rendering of a thumbnail.
+	 * 
+	 * @param key The identifier of the thumbnail
+	 * @param priority The priority
+	 * @param renderer The function which renders the thumbnail and returns it
+	 * @return A future of the thumbnail (which can be null) or null if the queue is full
+	 */
+	public CompletableFuture<VFSLeaf> submit(ThumbnailKey key, Priority priority, Supplier<VFSLeaf> renderer) {
+		submitted.increment();
+		
+		ThumbnailTask task = new ThumbnailTask(key, priority, sequence.incrementAndGet(), renderer);
+		ThumbnailTask queuedTask = tasks.putIfAbsent(key, task);
+		if(queuedTask != null) {
+			deduplicated.increment();
+			if(priority.ordinal() < queuedTask.priority.ordinal()) {
+				promote(queuedTask, priority);
+			}
+			return queuedTask.future;
+		}
+		
+		int limit = priority == Priority.VIEW ? 2 * capacity : capacity;
+		if(getQueueDepth() >= limit || !execute(task)) {
+			tasks.remove(key, task);
+			rejected.increment();
+			return null;
+		}
+		return task.future;
+	}
+	
+	private boolean execute(ThumbnailTask task) {
+		ThreadPoolExecutor currentExecutor = executor;
+		if(currentExecutor == null) {
+			return false;
+		}
+		try {
+			currentExecutor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			log.debug("Thumbnail rejected: {}", task.key);
+			return false;
+		}
+	}
+	
+	private void promote(ThumbnailTask task, Priority priority) {
+		ThreadPoolExecutor currentExecutor = executor;
+		if(currentExecutor == null) return;
+		
+		synchronized(task) {
+			// the priority cannot be changed while the task is in the priority queue
+			if(priority.ordinal() < task.priority.ordinal() && currentExecutor.getQueue().remove(task)) {
+				task.priority = priority;
+				if(!execute(task)) {
+					task.cancel();
+				}
+			}
+		}
+	}
+	
+	public boolean isQueued(ThumbnailKey key) {
+		return tasks.containsKey(key);
+	}
+	
+	/**
+	 * @param key The identifier of the thumbnail
+	 * @return The future of the thumbnail if it's queued or rendered, or null
+	 */
+	public CompletableFuture<VFSLeaf> getQueued(ThumbnailKey key) {
+		ThumbnailTask task = tasks.get(key);
+		return task == null ? null : task.future;
+	}
+
+	@Override
+	public int getQueueDepth() {
+		ThreadPoolExecutor currentExecutor = executor;
+		return currentExecutor == null ? 0 : currentExecutor.getQueue().size();
+	}
+
+	@Override
+	public long getSubmitted() {
+		return submitted.sum();
+	}
+
+	@Override
+	public long getDeduplicated() {
+		return deduplicated.sum();
+	}
+
+	@Override
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public long getRendered() {
+		return rendered.sum();
+	}
+
+	@Override
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	@Override
+	public double getAverageRenderTime() {
+		long count = rendered.sum() + failed.sum();
+		return count == 0 ? 0.0d : ((double)renderTime.sum()) / count;
+	}
+
+	@Override
+	public long getMaxRenderTime() {
+		return maxRenderTime.get();
+	}
+
+	@Override
+	public void reset() {
+		submitted.reset();
+		deduplicated.reset();
+		rejected.reset();
+		rendered.reset();
+		failed.reset();
+		renderTime.reset();
+		maxRenderTime.reset();
+	}
+	
+	/**
+	 * The users wait for the thumbnails with the priority VIEW,
+	 * nobody waits for the ones with the priority BACKGROUND.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	public enum Priority {
+		VIEW,
+		BACKGROUND
+	}
+	
+	private class ThumbnailTask implements Runnable, Comparable<ThumbnailTask> {
+		
+		private final ThumbnailKey key;
+		private final long sequenceNumber;
+		private final Supplier<VFSLeaf> renderer;
+		private final CompletableFuture<VFSLeaf> future = new CompletableFuture<>();
+		private volatile Priority priority;
+		
+		public ThumbnailTask(ThumbnailKey key, Priority priority, long sequenceNumber, Supplier<VFSLeaf> renderer) {
+			this.key = key;
+			this.priority = priority;
+			this.sequenceNumber = sequenceNumber;
+			this.renderer = renderer;
+		}
+		
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			VFSLeaf thumbnail = null;
+			try {
+				thumbnail = renderer.get();
+				rendered.increment();
+			} catch (Exception e) {
+				failed.increment();
+				log.error("Cannot generate thumbnail: {}", key, e);
+			} finally {
+				long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				renderTime.add(millis);
+				maxRenderTime.accumulate(millis);
+				tasks.remove(key, this);
+				future.complete(thumbnail);
+			}
+		}
+		
+		public void cancel() {
+			tasks.remove(key, this);
+			future.complete(null);
+		}
+
+		@Override
+		public int compareTo(ThumbnailTask o) {
+			int c = priority.compareTo(o.priority);
+			if(c == 0) {
+				c = Long.compare(sequenceNumber, o.sequenceNumber);
+			}
+			return c;
+		}
+	}
+	
+	/**
+	 * Identify a thumbnail: the file, the size and the fill flag.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	public static final class ThumbnailKey {
+		
+		private final String relativePath;
+		private final String filename;
+		private final int maxWidth;
+		private final int maxHeight;
+		private final boolean fill;
+		
+		public ThumbnailKey(String relativePath, String filename, int maxWidth, int maxHeight, boolean fill) {
+			this.relativePath = relativePath;
+			this.filename = filename;
+			this.maxWidth = maxWidth;
+			this.maxHeight = maxHeight;
+			this.fill = fill;
+		}
+
+		@Override
+		public int hashCode() {
+			return (relativePath == null ? 983 : relativePath.hashCode())
+					+ (filename == null ? 3847 : filename.hashCode())
+					+ (31 * maxWidth) + (17 * maxHeight) + (fill ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof ThumbnailKey) {
+				ThumbnailKey key = (ThumbnailKey)obj;
+				return maxWidth == key.maxWidth && maxHeight == key.maxHeight && fill == key.fill
+						&& ((relativePath == null && key.relativePath == null) || (relativePath != null && relativePath.equals(key.relativePath)))
+						&& ((filename == null && key.filename == null) || (filename != null && filename.equals(key.filename)));
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return relativePath + "/" + filename + " (" + maxWidth + "x" + maxHeight + (fill ? ", fill" : "") + ")";
+		}
+	}
+	
+	private static class ThumbnailThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "thumbnail-generator-" + threadNumber.getAndIncrement());
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			return t;
+		}
+	}
+}
@@ -19,33 +19,45 @@
  */
 package org.olat.core.commons.services.vfs.manager;
 
-import org.olat.core.util.event.MultiUserEvent;
-
 /**
- * 
- * Initial date: 15 mars 2019<br>
- * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ * The JMX view of the metrics of the queue of thumbnails.
+ *
+ * Initial date: 18 oct. 2026<br>
  *
  */
-public class AsyncIncrementFileDownloadEvent extends MultiUserEvent {
-
-	private static final long serialVersionUID = 5439824954399187557L;
-	public static final String ASYNC_FILE_SIZE = "async-file-size-updates";
+public interface VFSThumbnailQueueMBean {
 	
-	private String filename;
-	private String relativePath;
+	/**
+	 * @return The number of thumbnails waiting to be rendered
+	 */
+	public int getQueueDepth();
 	
-	public AsyncIncrementFileDownloadEvent(String relativePath, String filename) {
-		super(ASYNC_FILE_SIZE);
-		this.filename = filename;
-		this.relativePath = relativePath;
-	}
-
-	public String getFilename() {
-		return filename;
-	}
+	public long getSubmitted();
+	
+	/**
+	 * @return The number of requests for a thumbnail already queued
+	 */
+	public long getDeduplicated();
+	
+	/**
+	 * @return The number of requests rejected because the queue was full
+	 */
+	public long getRejected();
+	
+	public long getRendered();
+	
+	public long getFailed();
+	
+	/**
+	 * @return The average time in milliseconds to render a thumbnail
+	 */
+	public double getAverageRenderTime();
+	
+	/**
+	 * @return The max. time in milliseconds to render a thumbnail
+	 */
+	public long getMaxRenderTime();
+	
+	public void reset();
 
-	public String getRelativePath() {
-		return relativePath;
-	}
 }
@@ -52,6 +52,7 @@ import org.olat.core.util.StringHelper;
 @Entity(name="filemetadata")
 @Table(name="o_vfs_metadata")
 @NamedQuery(name="metadataOnlyByParent", query="select metadata from filemetadata metadata where metadata.parent.key=:parentKey")
+@NamedQuery(name="metadataOnlyByRelativePath", query="select metadata from filemetadata metadata where metadata.relativePath=:relativePath")
 public class VFSMetadataImpl implements Persistable, VFSMetadata {
 
 	private static final long serialVersionUID = 1360000029480576628L;
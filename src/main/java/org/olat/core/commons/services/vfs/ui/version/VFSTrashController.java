@@ -432,6 +432,8 @@ public class VFSTrashController extends FormBasicController implements ProgressD
 			cmc.deactivate();
 		}
 		cleanup();
+		// called by the background task
+		signalDirtyComponents();
 	}
 	
 	private static class AscendingRevisionNrComparator implements Comparator<VFSRevision> {
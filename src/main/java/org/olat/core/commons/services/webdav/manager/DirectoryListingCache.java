@@ -0,0 +1,130 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.webdav.manager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.olat.core.commons.services.vfs.VFSMetadata;
+import org.olat.core.util.vfs.VFSItem;
+
+/**
+ * A small LRU cache of the directory listings of a WebDAV session. A listing
+ * is valid as long as the last modification date of the directory doesn't
+ * change, which is the case if a file is added, removed or renamed.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class DirectoryListingCache {
+	
+	private static final int MAX_LISTINGS = 32;
+	
+	private final Map<String,Listing> listings = new LinkedHashMap<String,Listing>(16, 0.75f, true) {
+		private static final long serialVersionUID = 5873208473649186574L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,Listing> eldest) {
+			return size() > MAX_LISTINGS;
+		}
+	};
+	
+	/**
+	 * @param path The path of the directory
+	 * @param lastModified The current last modification date of the directory
+	 * @return The listing or null if not cached or outdated
+	 */
+	public synchronized Listing get(String path, long lastModified) {
+		String key = normalize(path);
+		Listing listing = listings.get(key);
+		if(listing != null && listing.getLastModified() != lastModified) {
+			listings.remove(key);
+			listing = null;
+		}
+		return listing;
+	}
+	
+	public synchronized void put(String path, Listing listing) {
+		listings.put(normalize(path), listing);
+	}
+	
+	/**
+	 * Remove the listing of the specified directory and of its parent.
+	 * 
+	 * @param path The path of a file or a directory
+	 */
+	public synchronized void invalidate(String path) {
+		String key = normalize(path);
+		listings.remove(key);
+		int lastSlash = key.lastIndexOf('/');
+		if(lastSlash >= 0) {
+			listings.remove(key.substring(0, lastSlash));
+		}
+	}
+	
+	public synchronized int size() {
+		return listings.size();
+	}
+	
+	private static String normalize(String path) {
+		if(path == null) {
+			return "";
+		}
+		return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+	}
+	
+	static class Listing {
+		
+		private final long lastModified;
+		private final List<VFSItem> items;
+		private final Map<String,VFSMetadata> metadata;
+		
+		public Listing(long lastModified, List<VFSItem> items, Map<String,VFSMetadata> metadata) {
+			this.lastModified = lastModified;
+			this.items = Collections.unmodifiableList(items);
+			this.metadata = metadata;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		public List<VFSItem> getItems() {
+			return items;
+		}
+		
+		/**
+		 * @return true if the metadata of the files were loaded
+		 */
+		public boolean hasMetadata() {
+			return metadata != null;
+		}
+		
+		/**
+		 * @param filename The name of a file of the directory
+		 * @return The metadata or null
+		 */
+		public VFSMetadata getMetadata(String filename) {
+			return metadata == null ? null : metadata.get(filename);
+		}
+	}
+}
@@ -19,6 +19,7 @@
  */
 package org.olat.core.commons.services.webdav.manager;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -26,12 +27,14 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
 
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
 import org.olat.core.commons.services.webdav.servlets.ConcurrentDateFormat;
 import org.olat.core.commons.services.webdav.servlets.WebResource;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.vfs.JavaIOItem;
+import org.olat.core.util.vfs.LocalFileImpl;
 import org.olat.core.util.vfs.VFSConstants;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSItem;
@@ -49,7 +52,9 @@ public class VFSResource implements WebResource {
 	private final VFSItem item;
 	private final String path;
 	private String mimeType;
-    private volatile String weakETag;
+	private VFSMetadata metadata;
+	private boolean metadataLoaded;
+    private volatile String eTag;
 
 	public VFSResource(VFSItem item, String path) {
 		this.item = item;
@@ -100,21 +105,58 @@ public class VFSResource implements WebResource {
 		return (item instanceof VFSLeaf ? ((VFSLeaf)item).getSize() : null);
 	}
 
+	/**
+	 * Set the metadata of the item if it was already loaded. A null
+	 * value means that the item has no metadata.
+	 * 
+	 * @param metadata The metadata of the item
+	 */
+	public void setMetadata(VFSMetadata metadata) {
+		this.metadata = metadata;
+		this.metadataLoaded = true;
+	}
+	
+	/**
+	 * The metadata are only loaded, never created, the ETag of a file
+	 * without metadata is computed without them.
+	 */
+	private VFSMetadata getMetadata() {
+		if(!metadataLoaded && item instanceof LocalFileImpl && item.canMeta() == VFSConstants.YES) {
+			try {
+				File file = ((LocalFileImpl)item).getBasefile();
+				metadata = CoreSpringFactory.getImpl(VFSRepositoryService.class).getMetadataIfExists(file);
+			} catch (Exception e) {
+				log.error("Cannot load metadata: " + item, e);
+			}
+			metadataLoaded = true;
+		}
+		return metadata;
+	}
+
+	/**
+	 * The strong ETag is made of the UUID and revision number of the metadata,
+	 * the size and the last modification date of the file. Without metadata,
+	 * the weak ETag is only made of the size and the last modification.
+	 */
 	@Override
 	public String getETag() {
-	       if (weakETag == null) {
+	       if (eTag == null) {
 	            synchronized (this) {
-	                if (weakETag == null) {
+	                if (eTag == null) {
 	                    long contentLength = getContentLength();
 	                    long lastModified = getLastModified();
-	                    if ((contentLength >= 0) || (lastModified >= 0)) {
-	                        weakETag = "W/\"" + contentLength + "-" +
+	                    VFSMetadata meta = getMetadata();
+	                    if (meta != null && meta.getUuid() != null) {
+	                        eTag = "\"" + meta.getUuid() + "-" + meta.getRevisionNr() + "-"
+	                                + contentLength + "-" + lastModified + "\"";
+	                    } else if ((contentLength >= 0) || (lastModified >= 0)) {
+	                        eTag = "W/\"" + contentLength + "-" +
 	                                   lastModified + "\"";
 	                    }
 	                }
 	            }
 	        }
-	        return weakETag;
+	        return eTag;
 	}
 
 	@Override
@@ -132,6 +174,11 @@ public class VFSResource implements WebResource {
 		return (item instanceof VFSLeaf ? ((VFSLeaf)item).getInputStream() : null);
 	}
 
+	@Override
+	public File getFile() {
+		return (item instanceof LocalFileImpl ? ((LocalFileImpl)item).getBasefile() : null);
+	}
+
 	@Override
 	public long getCreation() {
         try {
@@ -19,11 +19,16 @@
  */
 package org.olat.core.commons.services.webdav.manager;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.FolderLicenseHandler;
@@ -35,12 +40,15 @@ import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.SubscriptionContext;
 import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.commons.services.webdav.manager.DirectoryListingCache.Listing;
 import org.olat.core.commons.services.webdav.servlets.WebResource;
 import org.olat.core.commons.services.webdav.servlets.WebResourceRoot;
 import org.olat.core.id.Identity;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.FileUtils;
+import org.olat.core.util.vfs.LocalFolderImpl;
+import org.olat.core.util.vfs.NamedContainerImpl;
 import org.olat.core.util.vfs.Quota;
 import org.olat.core.util.vfs.QuotaExceededException;
 import org.olat.core.util.vfs.VFSConstants;
@@ -64,6 +72,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 	
 	private final Identity identity;
 	private final VFSContainer base;
+	private final DirectoryListingCache listingCache = new DirectoryListingCache();
 	
 	public VFSResourceRoot(Identity identity, VFSContainer root) {
 		this.identity = identity;
@@ -125,6 +134,84 @@ public class VFSResourceRoot implements WebResourceRoot  {
 		return new VFSResource(file, path);
 	}
 
+	@Override
+	public List<WebResource> listResources(String path) {
+		VFSItem file = resolveFile(path);
+		if(!(file instanceof VFSContainer)) {
+			return Collections.emptyList();
+		}
+		
+		VFSContainer container = (VFSContainer)file;
+		File directory = getDirectory(container);
+		Listing listing = null;
+		if(directory != null) {
+			long lastModified = directory.lastModified();
+			listing = listingCache.get(path, lastModified);
+			if(listing == null) {
+				List<VFSItem> items = container.getItems(new WebDAVFileSystemFilter());
+				listing = new Listing(lastModified, items, loadMetadata(container));
+				listingCache.put(path, listing);
+			}
+		} else {
+			List<VFSItem> items = container.getItems(new WebDAVFileSystemFilter());
+			listing = new Listing(-1l, items, null);
+		}
+		
+		String parentPath = path.endsWith("/") ? path : path + "/";
+		List<WebResource> resources = new ArrayList<>(listing.getItems().size());
+		for(VFSItem item:listing.getItems()) {
+			VFSResource resource = new VFSResource(item, parentPath + item.getName());
+			if(listing.hasMetadata() && item instanceof VFSLeaf) {
+				resource.setMetadata(listing.getMetadata(item.getName()));
+			}
+			resources.add(resource);
+		}
+		return resources;
+	}
+	
+	/**
+	 * @param container The container
+	 * @return The directory in the file system if the container is a
+	 * 		plain local folder, or null if the container is virtual
+	 */
+	private File getDirectory(VFSContainer container) {
+		if(container instanceof LocalFolderImpl) {
+			return ((LocalFolderImpl)container).getBasefile();
+		}
+		if(container instanceof NamedContainerImpl) {
+			return getDirectory(((NamedContainerImpl)container).getDelegate());
+		}
+		return null;
+	}
+	
+	/**
+	 * Load the metadata of all the files in the container with a single query.
+	 * 
+	 * @param container The container
+	 * @return A map filename to metadata or null if the container has no metadata
+	 */
+	private Map<String,VFSMetadata> loadMetadata(VFSContainer container) {
+		String relPath = container.getRelPath();
+		if(relPath == null || container.canMeta() != VFSConstants.YES) {
+			return null;
+		}
+		
+		try {
+			List<VFSMetadata> children = CoreSpringFactory.getImpl(VFSRepositoryService.class)
+					.getChildrenMetadataOnly(relPath);
+			Map<String,VFSMetadata> metadata = new HashMap<>();
+			for(VFSMetadata child:children) {
+				if(!child.isDirectory()) {
+					metadata.put(child.getFilename(), child);
+				}
+			}
+			return metadata;
+		} catch (Exception e) {
+			log.error("Cannot load metadata of: " + relPath, e);
+			return null;
+		}
+	}
+
 	@Override
 	public Collection<VFSItem> list(String path) {
 		VFSItem file = resolveFile(path);
@@ -154,6 +241,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 			String name = path.substring(lastSlash + 1);
 			VFSContainer folder = (VFSContainer)parentItem;
 			if(folder.canWrite() == VFSConstants.YES) {
+				listingCache.invalidate(path);
 				VFSContainer dir = folder.createChildContainer(name);
 				return dir != null && dir.exists();
 			}
@@ -202,6 +290,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 		if(childLeaf == null) {
 			return false;
 		}
+		listingCache.invalidate(path);
 		
 		try {
 	        copyVFS(childLeaf, is);
@@ -310,6 +399,7 @@ public class VFSResourceRoot implements WebResourceRoot  {
 					status = item.delete();
 				}
 				deleted = (status == VFSConstants.YES || status == VFSConstants.SUCCESS);
+				listingCache.invalidate(resource.getPath());
 			}
 		}
 		return deleted;
@@ -17,6 +17,7 @@
 package org.olat.core.commons.services.webdav.servlets;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,6 +25,8 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
@@ -39,6 +42,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.logging.log4j.Logger;
+import org.olat.core.gui.media.LocalFileDelivery;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.servlets.URLEncoder;
 
@@ -129,6 +133,11 @@ public abstract class DefaultDispatcher implements Serializable {
      */
     private boolean useAcceptRanges = true;
 
+    /**
+     * Should the local files be delivered by the container if it supports sendfile?
+     */
+    private boolean useSendfile = true;
+
     /**
      * Full range marker.
      */
@@ -515,15 +524,24 @@ public abstract class DefaultDispatcher implements Serializable {
                     copy(resource, renderResult, writer, encoding);
                 } else {
                     // Output is via an InputStream
-                    if (resource.isDirectory()) {
-                        renderResult = null;
+                    File file = resource.isFile() ? resource.getFile() : null;
+                    if (file != null) {
+                        // Local files are delivered by the container or
+                        // read directly with their file channel
+                        if (!sendfile(request, file, 0, contentLength - 1)) {
+                            LocalFileDelivery.transfer(file, 0, contentLength - 1, ostream);
+                        }
                     } else {
-                        renderResult = resource.getInputStream();
-                    }
-                    // If a stream was configured, it needs to be copied to
-                    // the output (this method closes the stream)
-                    if (renderResult != null) {
-                        copy(renderResult, ostream);
+                        if (resource.isDirectory()) {
+                            renderResult = null;
+                        } else {
+                            renderResult = resource.getInputStream();
+                        }
+                        // If a stream was configured, it needs to be copied to
+                        // the output (this method closes the stream)
+                        if (renderResult != null) {
+                            copy(renderResult, ostream);
+                        }
                     }
                 }
             }
@@ -563,7 +581,10 @@ public abstract class DefaultDispatcher implements Serializable {
                         // Silent catch
                     }
                     if (ostream != null) {
-                        copy(resource, ostream, range);
+                        File file = resource.getFile();
+                        if (file == null || !sendfile(request, file, range.start, range.end)) {
+                            copy(resource, ostream, range);
+                        }
                     } else {
                         // we should not get here
                         throw new IllegalStateException();
@@ -681,8 +702,9 @@ public abstract class DefaultDispatcher implements Serializable {
             if (headerValueTime == (-1L)) {
 
                 // If the ETag the client gave does not match the entity
-                // etag, then the entire entity is returned.
-                if (!eTag.equals(headerValue.trim()))
+                // etag, then the entire entity is returned. Weak ETags
+                // never match (strong comparison).
+                if (eTag == null || eTag.startsWith("W/") || !eTag.equals(headerValue.trim()))
                     return FULL;
 
             } else {
@@ -1054,6 +1076,12 @@ public abstract class DefaultDispatcher implements Serializable {
                       Range range)
         throws IOException {
 
+        File file = resource.getFile();
+        if (file != null) {
+            LocalFileDelivery.transfer(file, range.start, range.end, ostream);
+            return;
+        }
+
         IOException exception = null;
 
         InputStream resourceInputStream = resource.getInputStream();
@@ -1087,6 +1115,21 @@ public abstract class DefaultDispatcher implements Serializable {
                       Iterator<Range> ranges, String contentType)
         throws IOException {
 
+        File file = resource.getFile();
+        if (file != null) {
+            // One channel for all the ranges
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                while (ranges.hasNext()) {
+                    Range currentRange = ranges.next();
+                    writeRangeHeader(ostream, currentRange, contentType);
+                    LocalFileDelivery.transfer(channel, currentRange.start, currentRange.end, ostream);
+                }
+            }
+            ostream.println();
+            ostream.print("--" + mimeSeparation + "--");
+            return;
+        }
+
         IOException exception = null;
 
         while ( (exception == null) && (ranges.hasNext()) ) {
@@ -1097,14 +1140,7 @@ public abstract class DefaultDispatcher implements Serializable {
                 Range currentRange = ranges.next();
 
                 // Writing MIME header.
-                ostream.println();
-                ostream.println("--" + mimeSeparation);
-                if (contentType != null)
-                    ostream.println("Content-Type: " + contentType);
-                ostream.println("Content-Range: bytes " + currentRange.start
-                               + "-" + currentRange.end + "/"
-                               + currentRange.length);
-                ostream.println();
+                writeRangeHeader(ostream, currentRange, contentType);
 
                 // Printing content
                 exception = copyRange(istream, ostream, currentRange.start,
@@ -1122,6 +1158,34 @@ public abstract class DefaultDispatcher implements Serializable {
     }
 
 
+    private void writeRangeHeader(ServletOutputStream ostream, Range range, String contentType)
+        throws IOException {
+        ostream.println();
+        ostream.println("--" + mimeSeparation);
+        if (contentType != null)
+            ostream.println("Content-Type: " + contentType);
+        ostream.println("Content-Range: bytes " + range.start
+                       + "-" + range.end + "/"
+                       + range.length);
+        ostream.println();
+    }
+
+
+    /**
+     * Delegate the delivery of the range of the file to the container
+     * if it supports sendfile.
+     *
+     * @param request The servlet request we are processing
+     * @param file The file to deliver
+     * @param start Start of the range (inclusive)
+     * @param end End of the range (inclusive)
+     * @return true if the container will deliver the file
+     */
+    private boolean sendfile(HttpServletRequest request, File file, long start, long end) {
+        return useSendfile && LocalFileDelivery.sendfile(request, file, start, end);
+    }
+
+
     /**
      * Copy the contents of the specified input stream to the specified
      * output stream, and ensure that both streams are closed before returning
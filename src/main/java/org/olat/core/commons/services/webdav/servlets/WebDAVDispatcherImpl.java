@@ -612,42 +612,29 @@ public class WebDAVDispatcherImpl
         generatedXML.writeElement("D", DEFAULT_NAMESPACE, "multistatus", XMLWriter.OPENING);
 
         if (depth == 0) {
-            parseProperties(req, generatedXML, path, type,
+            parseProperties(req, generatedXML, resource, type,
                             properties);
         } else {
             // The stack always contains the object of the current level
-            Stack<String> stack = new Stack<>();
-            stack.push(path);
+            Stack<WebResource> stack = new Stack<>();
+            stack.push(resource);
 
             // Stack of the objects one level below
-            Stack<String> stackBelow = new Stack<>();
+            Stack<WebResource> stackBelow = new Stack<>();
 
             while ((!stack.isEmpty()) && (depth >= 0)) {
 
-                final String currentPath = stack.pop();
-                parseProperties(req, generatedXML, currentPath, type, properties);
+                final WebResource currentResource = stack.pop();
+                parseProperties(req, generatedXML, currentResource, type, properties);
 
-                resource = resources.getResource(currentPath);
+                if (currentResource.isDirectory() && (depth > 0)) {
 
-                if (resource.isDirectory() && (depth > 0)) {
-
-                    Collection<VFSItem> entries = resources.list(currentPath);
-                    for (VFSItem entry : entries) {
-                        String newPath = currentPath;
-                        if (!(newPath.endsWith("/")))
-                                newPath += "/";
-                        newPath += entry.getName();
-                        stackBelow.push(newPath);
-                    }
+                    // The resources are listed with their metadata
+                    stackBelow.addAll(resources.listResources(currentResource.getPath()));
 
                     // Displaying the lock-null resources present in that
                     // collection
-                    String lockPath = currentPath;
-                    if (lockPath.endsWith("/")) {
-                        lockPath = lockPath.substring(0, lockPath.length() - 1);
-                    }
-                    
-                    List<String> currentLockNullResources = lockManager.getLockNullResource(resource);
+                    List<String> currentLockNullResources = lockManager.getLockNullResource(currentResource);
                     if (currentLockNullResources != null) {
                         for(String lockNullPath : currentLockNullResources) {
                             parseLockNullProperties(req, generatedXML, lockNullPath, type, properties);
@@ -660,9 +647,6 @@ public class WebDAVDispatcherImpl
                     stack = stackBelow;
                     stackBelow = new Stack<>();
                 }
-
-                generatedXML.sendData();
-
             }
         }
 
@@ -1984,6 +1968,30 @@ public class WebDAVDispatcherImpl
 
         final WebResourceRoot resources = getResources(req);
         final WebResource resource = resources.getResource(path);
+        parseProperties(req, generatedXML, resource, type, propertiesVector);
+    }
+
+
+    /**
+     * Propfind helper method.
+     *
+     * @param req The servlet request
+     * @param generatedXML XML response to the Propfind request
+     * @param resource The current resource
+     * @param type Propfind type
+     * @param propertiesVector If the propfind type is find properties by
+     * name, then this Vector contains those properties
+     */
+    private void parseProperties(HttpServletRequest req,
+                                 XMLWriter generatedXML,
+                                 final WebResource resource, int type,
+                                 Vector<String> propertiesVector) {
+
+        final String path = resource.getPath();
+        // Exclude any resource in the /WEB-INF and /META-INF subdirectories
+        if (isSpecialPath(path))
+            return;
+
         if (!resource.exists()) {
             // File is in directory listing but doesn't appear to exist
             // Broken symlink or odd permission settings?
@@ -16,6 +16,7 @@
  */
 package org.olat.core.commons.services.webdav.servlets;
 
+import java.io.File;
 import java.io.InputStream;
 
 /**
@@ -68,8 +69,8 @@ public interface WebResource {
     long getContentLength();
 
     /**
-     * Return the strong ETag if available (currently not supported) else return
-     * the weak ETag calculated from the content length and last modified.
+     * Return the strong ETag if available else return the weak ETag
+     * calculated from the content length and last modified.
      *
      * @return  The ETag for this resource
      */
@@ -94,6 +95,12 @@ public interface WebResource {
      */
     InputStream getInputStream();
     
+    /**
+     * @return The local file if the resource is backed by a file in the
+     *          file system, or <code>null</code>
+     */
+    File getFile();
+    
     /**
      * The time the file was created. If not available, the result of
      * {@link #getLastModified()} will be returned.
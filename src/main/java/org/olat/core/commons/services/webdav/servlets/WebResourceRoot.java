@@ -18,6 +18,7 @@ package org.olat.core.commons.services.webdav.servlets;
 
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 import org.olat.core.util.vfs.QuotaExceededException;
 import org.olat.core.util.vfs.VFSItem;
@@ -57,6 +58,20 @@ public interface WebResourceRoot {
      */
     Collection<VFSItem> list(String path);
 
+    /**
+     * Obtain the resources of all of the files and directories located
+     * in the specified directory, with the metadata needed by PROPFIND.
+     * The path of the resources is the path of the directory followed
+     * by their names.
+     *
+     * @param path  The path for the resource of interest relative to the root
+     *              of the web application. It must start with '/'.
+     *
+     * @return  The list of resources. If path does not refer to a directory
+     *          then an empty list will be returned.
+     */
+    List<WebResource> listResources(String path);
+
     /**
      * Create a new directory at the given path.
      *
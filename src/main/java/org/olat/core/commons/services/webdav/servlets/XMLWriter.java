@@ -49,6 +49,13 @@ public class XMLWriter {
     public static final int NO_CONTENT = 2;
 
 
+    /**
+     * Size of the buffer which triggers the writing of the data to
+     * the writer.
+     */
+    private static final int FLUSH_SIZE = 8192;
+
+
     // ----------------------------------------------------- Instance Variables
 
 
@@ -64,6 +71,12 @@ public class XMLWriter {
     protected final Writer writer;
 
 
+    /**
+     * Exception raised while writing to the writer, rethrown by sendData.
+     */
+    private IOException writeException;
+
+
     // ----------------------------------------------------------- Constructors
 
 
@@ -137,41 +150,42 @@ public class XMLWriter {
             switch (type) {
             case OPENING:
                 if (namespaceInfo != null) {
-                    buffer.append("<" + namespace + ":" + name + " xmlns:"
-                                  + namespace + "=\""
-                                  + namespaceInfo + "\">");
+                    buffer.append('<').append(namespace).append(':').append(name)
+                          .append(" xmlns:").append(namespace).append("=\"")
+                          .append(namespaceInfo).append("\">");
                 } else {
-                    buffer.append("<" + namespace + ":" + name + ">");
+                    buffer.append('<').append(namespace).append(':').append(name).append('>');
                 }
                 break;
             case CLOSING:
-                buffer.append("</" + namespace + ":" + name + ">\n");
+                buffer.append("</").append(namespace).append(':').append(name).append(">\n");
                 break;
             case NO_CONTENT:
             default:
                 if (namespaceInfo != null) {
-                    buffer.append("<" + namespace + ":" + name + " xmlns:"
-                                  + namespace + "=\""
-                                  + namespaceInfo + "\"/>");
+                    buffer.append('<').append(namespace).append(':').append(name)
+                          .append(" xmlns:").append(namespace).append("=\"")
+                          .append(namespaceInfo).append("\"/>");
                 } else {
-                    buffer.append("<" + namespace + ":" + name + "/>");
+                    buffer.append('<').append(namespace).append(':').append(name).append("/>");
                 }
                 break;
             }
         } else {
             switch (type) {
             case OPENING:
-                buffer.append("<" + name + ">");
+                buffer.append('<').append(name).append('>');
                 break;
             case CLOSING:
-                buffer.append("</" + name + ">\n");
+                buffer.append("</").append(name).append(">\n");
                 break;
             case NO_CONTENT:
             default:
-                buffer.append("<" + name + "/>");
+                buffer.append('<').append(name).append("/>");
                 break;
             }
         }
+        writeIfFull();
     }
 
 
@@ -182,6 +196,7 @@ public class XMLWriter {
      */
     public void writeText(String text) {
         buffer.append(text);
+        writeIfFull();
     }
 
 
@@ -191,7 +206,8 @@ public class XMLWriter {
      * @param data Data to append
      */
     public void writeData(String data) {
-        buffer.append("<![CDATA[" + data + "]]>");
+        buffer.append("<![CDATA[").append(data).append("]]>");
+        writeIfFull();
     }
 
 
@@ -209,8 +225,30 @@ public class XMLWriter {
     public void sendData()
         throws IOException {
         if (writer != null) {
-            writer.write(buffer.toString());
-            buffer = new StringBuilder();
+            if (writeException != null) {
+                throw writeException;
+            }
+            writer.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+
+    /**
+     * If a writer is set, the XML is streamed to the writer as soon as the
+     * buffer is full. An exception is kept and thrown by sendData.
+     */
+    private void writeIfFull() {
+        if (writer != null && buffer.length() >= FLUSH_SIZE) {
+            try {
+                if (writeException == null) {
+                    writer.append(buffer);
+                }
+            } catch (IOException e) {
+                writeException = e;
+            } finally {
+                buffer.setLength(0);
+            }
         }
     }
 
@@ -1176,13 +1176,9 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 	 */
 	public String buildURIFor(Window win, String timestampId, String moduleUri) {
 		URLBuilder ubu = new URLBuilder(uriPrefix, win.getInstanceId(), timestampId, csrfToken);
-		try(StringOutput so = new StringOutput()) {
-			ubu.buildURI(so, null, null, moduleUri, 0);
-			return so.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			return null;
-		}
+		StringOutput so = StringOutputPool.allocStringBuilder(128);
+		ubu.buildURI(so, null, null, moduleUri, 0);
+		return StringOutputPool.freePop(so);
 	}	
 
 	private String buildURIForRedirect(String moduleUri) {
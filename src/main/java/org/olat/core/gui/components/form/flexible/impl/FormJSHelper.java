@@ -25,17 +25,15 @@
 */
 package org.olat.core.gui.components.form.flexible.impl;
 
-import java.io.IOException;
 import java.util.Iterator;
 import java.util.Set;
 
-import org.apache.logging.log4j.Logger;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.olat.core.gui.components.form.flexible.FormItem;
 import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.logging.OLATRuntimeException;
-import org.olat.core.logging.Tracing;
 
 /**
  * Description:<br>
@@ -46,8 +44,6 @@ import org.olat.core.logging.Tracing;
  * @author patrickb
  */
 public class FormJSHelper {
-	
-	private static final Logger log = Tracing.createLoggerFor(FormJSHelper.class);
 
 	private static final String[] EXTJSACTIONS = { "dblclick", "click", "change", "keyup" };
 
@@ -167,29 +163,25 @@ public class FormJSHelper {
 	 * @return The code
 	 */
 	public static String getXHRFnCallFor(Form form, String id, int actionIndex, boolean dirtyCheck, boolean pushState, boolean submit, NameValuePair... pairs) {
-		try(StringOutput sb = new StringOutput(128)) {
-			sb.append("o_ffXHREvent('")
-			  .append(form.getFormName()).append("','")
-			  .append(form.getDispatchFieldId()).append("','")
-			  .append(id).append("','")
-			  .append(form.getEventFieldId()).append("','")
-			  .append(FormEvent.ON_DOTDOTDOT[actionIndex])
-			  .append("',").append(dirtyCheck)
-			  .append(",").append(pushState)
-			  .append(",").append(submit);
-	
-			if(pairs != null && pairs.length > 0) {
-				for(NameValuePair pair:pairs) {
-					sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
-				}
+		StringOutput sb = StringOutputPool.allocStringBuilder(128);
+		sb.append("o_ffXHREvent('")
+		  .append(form.getFormName()).append("','")
+		  .append(form.getDispatchFieldId()).append("','")
+		  .append(id).append("','")
+		  .append(form.getEventFieldId()).append("','")
+		  .append(FormEvent.ON_DOTDOTDOT[actionIndex])
+		  .append("',").append(dirtyCheck)
+		  .append(",").append(pushState)
+		  .append(",").append(submit);
+
+		if(pairs != null && pairs.length > 0) {
+			for(NameValuePair pair:pairs) {
+				sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
 			}
-	
-			sb.append(")");
-			return sb.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			return "";
 		}
+
+		sb.append(")");
+		return StringOutputPool.freePop(sb);
 	}
 	
 	/**
@@ -203,27 +195,23 @@ public class FormJSHelper {
 	 * @return The code
 	 */
 	public static String getXHRNFFnCallFor(Form form, String id, int actionIndex, NameValuePair... pairs) {
-		try(StringOutput sb = new StringOutput(128)) {
-			sb.append("o_ffXHRNFEvent('")
-			  .append(form.getFormName()).append("','")
-			  .append(form.getDispatchFieldId()).append("','")
-			  .append(id).append("','")
-			  .append(form.getEventFieldId()).append("','")
-			  .append(FormEvent.ON_DOTDOTDOT[actionIndex])
-			  .append("'");
-	
-			if(pairs != null && pairs.length > 0) {
-				for(NameValuePair pair:pairs) {
-					sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
-				}
+		StringOutput sb = StringOutputPool.allocStringBuilder(128);
+		sb.append("o_ffXHRNFEvent('")
+		  .append(form.getFormName()).append("','")
+		  .append(form.getDispatchFieldId()).append("','")
+		  .append(id).append("','")
+		  .append(form.getEventFieldId()).append("','")
+		  .append(FormEvent.ON_DOTDOTDOT[actionIndex])
+		  .append("'");
+
+		if(pairs != null && pairs.length > 0) {
+			for(NameValuePair pair:pairs) {
+				sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
 			}
-	
-			sb.append(")");
-		return sb.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			return "";
 		}
+
+		sb.append(")");
+		return StringOutputPool.freePop(sb);
 	}
 	
 	public static String generateXHRFnCallVariables(Form form, String id, int actionIndex) {
@@ -237,20 +225,16 @@ public class FormJSHelper {
 	}
 	
 	public static String getXHRSubmit(Form form, NameValuePair... pairs) {
-		try(StringOutput sb = new StringOutput(128)) {
-			sb.append("o_ffXHRNFEvent('")
-			   .append(form.getFormName()).append("'");
-			if(pairs != null && pairs.length > 0) {
-				for(NameValuePair pair:pairs) {
-					sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
-				}
+		StringOutput sb = StringOutputPool.allocStringBuilder(128);
+		sb.append("o_ffXHRNFEvent('")
+		   .append(form.getFormName()).append("'");
+		if(pairs != null && pairs.length > 0) {
+			for(NameValuePair pair:pairs) {
+				sb.append(",'").append(pair.getName()).append("','").append(pair.getValue()).append("'");
 			}
-			sb.append(")");
-			return sb.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			return "";
 		}
+		sb.append(")");
+		return StringOutputPool.freePop(sb);
 	}
 
 	/**
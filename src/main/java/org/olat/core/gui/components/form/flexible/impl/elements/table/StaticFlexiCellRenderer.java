@@ -19,20 +19,18 @@
  */
 package org.olat.core.gui.components.form.flexible.impl.elements.table;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.components.form.flexible.impl.Form;
 import org.olat.core.gui.components.form.flexible.impl.FormJSHelper;
 import org.olat.core.gui.components.form.flexible.impl.NameValuePair;
 import org.olat.core.gui.control.winmgr.AJAXFlags;
 import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.gui.render.URLBuilder;
 import org.olat.core.gui.translator.Translator;
-import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 
 /**
@@ -42,8 +40,6 @@ import org.olat.core.util.StringHelper;
  *
  */
 public class StaticFlexiCellRenderer implements FlexiCellRenderer, ActionDelegateCellRenderer {
-	
-	private static final Logger log = Tracing.createLoggerFor(StaticFlexiCellRenderer.class);
 
 	private String label;
 	private String action;
@@ -252,20 +248,15 @@ public class StaticFlexiCellRenderer implements FlexiCellRenderer, ActionDelegat
 	}
 	
 	private void renderOpenTab(StringOutput target, FlexiTableElementImpl ftE, NameValuePair actionPair, URLBuilder ubu) {
-		String jsCode;
 		URLBuilder subu = ubu.createCopyFor(ftE.getRootForm().getInitialComponent());
-		try(StringOutput href = new StringOutput()) {
-			href.append("o_openTab('");
-			subu.buildURI(href, AJAXFlags.MODE_NORMAL,
-					new NameValuePair("dispatchuri", ftE.getFormDispatchId()),
-					new NameValuePair("dispatchevent", "1"),
-					actionPair);
-			href.append("')");
-			jsCode = href.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			jsCode = "";
-		}
+		StringOutput href = StringOutputPool.allocStringBuilder(128);
+		href.append("o_openTab('");
+		subu.buildURI(href, AJAXFlags.MODE_NORMAL,
+				new NameValuePair("dispatchuri", ftE.getFormDispatchId()),
+				new NameValuePair("dispatchevent", "1"),
+				actionPair);
+		href.append("')");
+		String jsCode = StringOutputPool.freePop(href);
 		target.append("<a href=\"javascript:").append(jsCode).append(";\"");
 	}
 	
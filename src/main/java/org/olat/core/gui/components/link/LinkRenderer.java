@@ -26,11 +26,9 @@
 
 package org.olat.core.gui.components.link;
 
-import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.components.Component;
 import org.olat.core.gui.components.DefaultComponentRenderer;
 import org.olat.core.gui.components.form.flexible.elements.FormLink;
@@ -42,9 +40,9 @@ import org.olat.core.gui.control.winmgr.AJAXFlags;
 import org.olat.core.gui.render.RenderResult;
 import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.gui.render.URLBuilder;
 import org.olat.core.gui.translator.Translator;
-import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 
 /**
@@ -53,7 +51,6 @@ import org.olat.core.util.StringHelper;
  *
  */
 public class LinkRenderer extends DefaultComponentRenderer {
-	private static final Logger log = Tracing.createLoggerFor(LinkRenderer.class);
 	private static final Pattern singleQuote = Pattern.compile("\'");
 	private static final Pattern doubleQutoe = Pattern.compile("\"");
 
@@ -320,17 +317,15 @@ public class LinkRenderer extends DefaultComponentRenderer {
 	private void renderHrefAndOnclickLink(Renderer renderer, StringOutput sb, Link link, URLBuilder ubu) {
 		String command = link.getCommand();
 		if(link.isPopup()) {
-			try(StringOutput href = new StringOutput()) {
-				LinkPopupSettings popup = link.getPopup();
-				ubu.buildURI(href, new String[] { VelocityContainer.COMMAND_ID }, new String[] { command }, null, AJAXFlags.MODE_NORMAL);
-				boolean hasUrl = StringHelper.containsNonWhitespace(link.getUrl());
-				String hrefUrl = hasUrl ? link.getUrl() : "javascript:;";
-				sb.append("href=\"").append(hrefUrl).append("\" onclick=\"o_openPopUp('").append(href).append("','")
-				  .append(popup.getTarget()).append("',").append(popup.getWidth())
-				  .append(",").append(popup.getHeight()).append("); return false;\" ");
-			} catch(IOException e) {
-				log.error("", e);
-			}
+			StringOutput href = StringOutputPool.allocStringBuilder(128);
+			LinkPopupSettings popup = link.getPopup();
+			ubu.buildURI(href, new String[] { VelocityContainer.COMMAND_ID }, new String[] { command }, null, AJAXFlags.MODE_NORMAL);
+			boolean hasUrl = StringHelper.containsNonWhitespace(link.getUrl());
+			String hrefUrl = hasUrl ? link.getUrl() : "javascript:;";
+			sb.append("href=\"").append(hrefUrl).append("\" onclick=\"o_openPopUp('").append(href).append("','")
+			  .append(popup.getTarget()).append("',").append(popup.getWidth())
+			  .append(",").append(popup.getHeight()).append("); return false;\" ");
+			StringOutputPool.free(href);
 		} else if(link.isNewWindow()) {
 			if(link.isNewWindowAfterDispatchUrl()) {
 				AJAXFlags flags = renderer.getGlobalSettings().getAjaxFlags();
@@ -338,12 +333,10 @@ public class LinkRenderer extends DefaultComponentRenderer {
 				ubu.buildHrefAndOnclick(sb, link.getUrl(), null, iframePostEnabled, !link.isSuppressDirtyFormWarning(), true,
 						new NameValuePair(VelocityContainer.COMMAND_ID, command), new NameValuePair("oo-opennewwindow-oo", "true"));
 			} else {
-				try(StringOutput href = new StringOutput()) {
-					ubu.buildURI(href, new String[] { VelocityContainer.COMMAND_ID }, new String[] { command }, null, AJAXFlags.MODE_NORMAL);
-					sb.append("href=\"javascript:;\" onclick=\"o_openTab('").append(href).append("'); return false;\" ");
-				} catch(IOException e) {
-					log.error("", e);
-				}
+				StringOutput href = StringOutputPool.allocStringBuilder(128);
+				ubu.buildURI(href, new String[] { VelocityContainer.COMMAND_ID }, new String[] { command }, null, AJAXFlags.MODE_NORMAL);
+				sb.append("href=\"javascript:;\" onclick=\"o_openTab('").append(href).append("'); return false;\" ");
+				StringOutputPool.free(href);
 			}
 		} else {
 			AJAXFlags flags = renderer.getGlobalSettings().getAjaxFlags();
@@ -368,32 +361,28 @@ public class LinkRenderer extends DefaultComponentRenderer {
 			} else {
 				String dispatchUri = flexiLink.getFormDispatchId();
 				URLBuilder subu = ubu.createCopyFor(flexiLink.getRootForm().getInitialComponent());
-				try(StringOutput href = new StringOutput()) {
-					subu.buildURI(href, AJAXFlags.MODE_NORMAL,
-							new NameValuePair("dispatchuri", dispatchUri),
-							new NameValuePair("dispatchevent", "2"),
-							new NameValuePair(Form.FORM_CSRF, renderer.getCsrfToken()));
-					sb.append("href=\"javascript:;\" onclick=\"o_openTab('").append(href).append("'); return false;\" ");
-				} catch(IOException e) {
-					log.error("", e);
-				}
-			}
-		} else if(flexiLink.isPopup()) {
-			LinkPopupSettings popup = link.getPopup();
-			String dispatchUri = flexiLink.getFormDispatchId();
-			URLBuilder subu = ubu.createCopyFor(flexiLink.getRootForm().getInitialComponent());
-			try(StringOutput href = new StringOutput()) {
+				StringOutput href = StringOutputPool.allocStringBuilder(128);
 				subu.buildURI(href, AJAXFlags.MODE_NORMAL,
 						new NameValuePair("dispatchuri", dispatchUri),
 						new NameValuePair("dispatchevent", "2"),
 						new NameValuePair(Form.FORM_CSRF, renderer.getCsrfToken()));
-				sb.append("href=\"javascript:;\" onclick=\"o_openPopUp('").append(href).append("','")
-				  .append(popup.getTarget()).append("',").append(popup.getWidth())
-				  .append(",").append(popup.getHeight()).append(",").append(popup.isMenuBar())
-				  .append("); return false;\" ");
-			} catch(IOException e) {
-				log.error("", e);
+				sb.append("href=\"javascript:;\" onclick=\"o_openTab('").append(href).append("'); return false;\" ");
+				StringOutputPool.free(href);
 			}
+		} else if(flexiLink.isPopup()) {
+			LinkPopupSettings popup = link.getPopup();
+			String dispatchUri = flexiLink.getFormDispatchId();
+			URLBuilder subu = ubu.createCopyFor(flexiLink.getRootForm().getInitialComponent());
+			StringOutput href = StringOutputPool.allocStringBuilder(128);
+			subu.buildURI(href, AJAXFlags.MODE_NORMAL,
+					new NameValuePair("dispatchuri", dispatchUri),
+					new NameValuePair("dispatchevent", "2"),
+					new NameValuePair(Form.FORM_CSRF, renderer.getCsrfToken()));
+			sb.append("href=\"javascript:;\" onclick=\"o_openPopUp('").append(href).append("','")
+			  .append(popup.getTarget()).append("',").append(popup.getWidth())
+			  .append(",").append(popup.getHeight()).append(",").append(popup.isMenuBar())
+			  .append("); return false;\" ");
+			StringOutputPool.free(href);
 		} else if(link.isForceFlexiDirtyFormWarning()) {
 			sb.append("href=\"javascript:")
 			  .append(FormJSHelper.getJSFnCallFor(flexiLink.getRootForm(), elementId, 1))
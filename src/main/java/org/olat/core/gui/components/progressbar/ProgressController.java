@@ -60,6 +60,7 @@ public class ProgressController extends BasicController implements ProgressDeleg
 
 	public void setMax(float i) {
 		progressBar.setMax(i);
+		signalDirtyComponents();
 	}
 
 	public void setPercentagesEnabled(boolean percentagesEnabled) {
@@ -69,11 +70,14 @@ public class ProgressController extends BasicController implements ProgressDeleg
 	@Override
 	public void setActual(float i) {
 		progressBar.setActual(i);
+		// the progress is set by a background task
+		signalDirtyComponents();
 	}
 
 	@Override
 	public void setInfo(String message) {
 		progressBar.setInfo(message);
+		signalDirtyComponents();
 	}
 	
 	public void setUnitLabel(String label) {
@@ -83,6 +87,7 @@ public class ProgressController extends BasicController implements ProgressDeleg
 	@Override
 	public void finished() {
 		progressBar.setActual(0.0f);
+		signalDirtyComponents();
 	}
 
 	@Override
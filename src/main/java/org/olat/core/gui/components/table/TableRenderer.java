@@ -26,7 +26,6 @@
 
 package org.olat.core.gui.components.table;
 
-import java.io.IOException;
 import java.util.List;
 
 import org.apache.logging.log4j.Logger;
@@ -37,6 +36,7 @@ import org.olat.core.gui.control.winmgr.AJAXFlags;
 import org.olat.core.gui.render.RenderResult;
 import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.gui.render.URLBuilder;
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.logging.Tracing;
@@ -279,12 +279,10 @@ public class TableRenderer extends DefaultComponentRenderer {
 			target.append("\">");
 			String action = cd.getAction(i);
 			if (action != null) {
-				try(StringOutput so = new StringOutput(100)) {
-					cd.renderValue(so, i, renderer);
-					appendSingleDataRowActionColumn(target, ubu, table, iframePostEnabled, i, currentPosInModel, j, cd, action, so.toString());
-				} catch(IOException e) {
-					log.error("", e);
-				}
+				StringOutput so = StringOutputPool.allocStringBuilder(100);
+				cd.renderValue(so, i, renderer);
+				appendSingleDataRowActionColumn(target, ubu, table, iframePostEnabled, i, currentPosInModel, j, cd, action, so.toString());
+				StringOutputPool.free(so);
 			} else {
 				cd.renderValue(target, i, renderer);
 			}
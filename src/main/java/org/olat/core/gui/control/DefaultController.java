@@ -156,6 +156,17 @@ public abstract class DefaultController implements Controller, ControllerEventLi
 		}
 		return newWControl.getWindowBackOffice().getWindow();
 	}
+	
+	/**
+	 * Signal the window that some components of the controller were changed
+	 * outside of a request of the window, e.g. by a background task. The window
+	 * pushes them to the browser if its push channel is open.
+	 */
+	protected void signalDirtyComponents() {
+		if (newWControl != null && newWControl.getWindowBackOffice() != null) {
+			newWControl.getWindowBackOffice().signalDirtyComponents();
+		}
+	}
 
 	@Override
 	public WindowControl getWindowControlForDebug() {
@@ -114,6 +114,14 @@ public interface WindowBackOffice extends Disposable{
 	 */
 	public void sendCommandTo(Command wco);
 	
+	/**
+	 * Signal that some components of the window may have changed outside of
+	 * a request of the window, e.g. after an event of the event bus. The dirty
+	 * components are rendered asynchronously and sent to the browser if it
+	 * has a push channel open.
+	 */
+	public void signalDirtyComponents();
+	
 	/**
 	 * gets the data
 	 * @see putData(String key, Object value)
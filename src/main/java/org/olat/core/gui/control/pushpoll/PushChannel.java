@@ -0,0 +1,156 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.Session;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.UserSession;
+
+/**
+ * The push channel of a browser window. The channel is registered
+ * by the AJAX controller of the window and is connected as soon as
+ * the browser opens the web socket with the token of the channel.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class PushChannel {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushChannel.class);
+	
+	private final String token;
+	private final Source source;
+	private final UserSession usess;
+	private volatile Session session;
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	
+	PushChannel(String token, Source source, UserSession usess) {
+		this.token = token;
+		this.source = source;
+		this.usess = usess;
+	}
+
+	public String getToken() {
+		return token;
+	}
+	
+	Source getSource() {
+		return source;
+	}
+	
+	/**
+	 * @return The user session which registered the channel
+	 */
+	UserSession getUserSession() {
+		return usess;
+	}
+	
+	public boolean isConnected() {
+		Session s = session;
+		return s != null && s.isOpen();
+	}
+	
+	void connect(Session newSession) {
+		Session previousSession = session;
+		session = newSession;
+		if(previousSession != null && previousSession != newSession) {
+			close(previousSession, CloseCodes.NORMAL_CLOSURE, "replaced");
+		}
+	}
+	
+	void disconnect(Session closedSession) {
+		if(session == closedSession) {
+			session = null;
+		}
+	}
+	
+	void close() {
+		Session s = session;
+		session = null;
+		if(s != null) {
+			close(s, CloseCodes.GOING_AWAY, "closed");
+		}
+	}
+	
+	/**
+	 * @return true if the push wasn't already scheduled
+	 */
+	boolean markScheduled() {
+		return scheduled.compareAndSet(false, true);
+	}
+	
+	void unmarkScheduled() {
+		scheduled.set(false);
+	}
+	
+	/**
+	 * The basic remote of the web socket doesn't allow concurrent
+	 * messages, the channel is used by a single push at once.
+	 * 
+	 * @param message The message
+	 * @return true if the message was sent
+	 */
+	synchronized boolean send(String message) {
+		Session s = session;
+		if(s == null || !s.isOpen()) {
+			return false;
+		}
+		
+		try {
+			s.getBasicRemote().sendText(message);
+			return true;
+		} catch (IOException e) {
+			log.debug("Cannot push to channel: {}", token, e);
+			disconnect(s);
+			return false;
+		}
+	}
+	
+	private void close(Session s, CloseCodes code, String reason) {
+		try {
+			if(s.isOpen()) {
+				s.close(new CloseReason(code, reason));
+			}
+		} catch (IOException e) {
+			log.debug("Cannot close push channel: {}", token, e);
+		}
+	}
+	
+	/**
+	 * The source of the commands of the channel.
+	 */
+	public interface Source {
+		
+		/**
+		 * Render the dirty components of the window.
+		 * 
+		 * @return The commands as JSON or null if nothing changed
+		 */
+		public String collectCommands();
+		
+	}
+}
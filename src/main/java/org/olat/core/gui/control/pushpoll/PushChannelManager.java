@@ -0,0 +1,237 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.websocket.DeploymentException;
+import javax.websocket.Session;
+import javax.websocket.server.ServerContainer;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.admin.sysinfo.manager.SessionStatsManager;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.logging.activity.ThreadLocalUserActivityLoggerInstaller;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.UserSession;
+import org.olat.core.util.WebappHelper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Manage the push channels of the browser windows. The windows are
+ * signaled when an event is delivered to one of their controllers, or
+ * by the controllers which change their components in a background task
+ * (DefaultController.signalDirtyComponents(), e.g. the progress bars). The
+ * dirty components are then rendered in a background thread and sent
+ * through the web socket of the window. The signals are coalesced, a
+ * window is rendered at most once per push delay.<br>
+ * The polling of the browser stays as fallback, with a longer period
+ * if the web socket is open.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class PushChannelManager implements InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushChannelManager.class);
+	
+	public static final String PATH_PUSH = "/push/";
+	static final String TOKEN_PARAMETER = "token";
+	
+	@Value("${push.enabled:true}")
+	private boolean enabled;
+	@Value("${push.delay:100}")
+	private long pushDelay;
+	@Value("${push.workers:2}")
+	private int workers;
+	@Value("${push.poll.period:30000}")
+	private int pollPeriod;
+	
+	private boolean endpointDeployed = false;
+	private ScheduledExecutorService pushExecutor;
+	private final ConcurrentMap<String,PushChannel> channels = new ConcurrentHashMap<>();
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private SessionStatsManager statsManager;
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		pushExecutor = Executors.newScheduledThreadPool(Math.max(1, workers), new CustomizableThreadFactory("oo-push-"));
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(pushExecutor != null) {
+			pushExecutor.shutdownNow();
+		}
+		for(PushChannel channel:channels.values()) {
+			channel.close();
+		}
+		channels.clear();
+	}
+	
+	/**
+	 * Deploy the web socket end point, need to be done before the
+	 * first web socket request.
+	 * 
+	 * @param servletContext The servlet context
+	 */
+	public void deployEndpoint(ServletContext servletContext) {
+		if(!enabled) return;
+		
+		Object container = servletContext.getAttribute(ServerContainer.class.getName());
+		if(container instanceof ServerContainer) {
+			try {
+				ServerEndpointConfig config = ServerEndpointConfig.Builder
+						.create(PushEndpoint.class, PATH_PUSH + "{" + TOKEN_PARAMETER + "}")
+						.configurator(new PushEndpointConfigurator())
+						.build();
+				((ServerContainer)container).addEndpoint(config);
+				endpointDeployed = true;
+				log.info("Push channel deployed at: {}", PATH_PUSH);
+			} catch (DeploymentException | IllegalStateException e) {
+				log.error("Cannot deploy the push channel, fallback to polling", e);
+			}
+		} else {
+			log.warn("No web socket container found, fallback to polling");
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled && endpointDeployed;
+	}
+	
+	/**
+	 * @return The poll period of the browser windows with an open push channel
+	 */
+	public int getPollPeriod() {
+		return pollPeriod;
+	}
+	
+	public String getPushUri(PushChannel channel) {
+		return WebappHelper.getServletContextPath() + PATH_PUSH + channel.getToken();
+	}
+	
+	public int getNumOfChannels() {
+		return channels.size();
+	}
+	
+	/**
+	 * @param source The source of the commands
+	 * @param usess The user session of the window, only a web socket of this session can connect the channel
+	 * @return The channel
+	 */
+	public PushChannel register(PushChannel.Source source, UserSession usess) {
+		String token = UUID.randomUUID().toString().replace("-", "");
+		PushChannel channel = new PushChannel(token, source, usess);
+		channels.put(token, channel);
+		return channel;
+	}
+	
+	public void unregister(PushChannel channel) {
+		if(channel == null) return;
+		
+		channels.remove(channel.getToken());
+		channel.close();
+	}
+	
+	/**
+	 * @param token The token of the channel
+	 * @param session The web socket
+	 * @param usess The user session of the HTTP session which opened the web socket
+	 * @return The channel or null if the token is unknown or the channel belongs to an other session
+	 */
+	PushChannel connect(String token, Session session, UserSession usess) {
+		if(!StringHelper.containsNonWhitespace(token) || usess == null || !usess.isAuthenticated()) {
+			return null;
+		}
+		
+		PushChannel channel = channels.get(token);
+		if(channel != null && channel.getUserSession() != usess) {
+			log.warn("Push channel opened by an other session: {}", token);
+			channel = null;
+		} else if(channel != null) {
+			channel.connect(session);
+			// changes between the rendering of the page and the connection
+			signal(channel);
+		}
+		return channel;
+	}
+	
+	void disconnect(String token, Session session) {
+		if(token == null) return;
+		
+		PushChannel channel = channels.get(token);
+		if(channel != null) {
+			channel.disconnect(session);
+		}
+	}
+	
+	/**
+	 * Signal that the window of the channel may have dirty components. The
+	 * method doesn't block, the components are rendered asynchronously.
+	 * 
+	 * @param channel The channel
+	 */
+	public void signal(PushChannel channel) {
+		if(channel != null && channel.isConnected() && channel.markScheduled()) {
+			try {
+				pushExecutor.schedule(() -> push(channel), pushDelay, TimeUnit.MILLISECONDS);
+			} catch (Exception e) {
+				channel.unmarkScheduled();
+				log.debug("Cannot schedule push", e);
+			}
+		}
+	}
+	
+	private void push(PushChannel channel) {
+		channel.unmarkScheduled();
+		if(!channel.isConnected()) return;
+		
+		ThreadLocalUserActivityLoggerInstaller.runWithUserActivityLogger(() -> {
+			try {
+				String commands = channel.getSource().collectCommands();
+				dbInstance.commitAndCloseSession();
+				if(commands != null && channel.send(commands)) {
+					statsManager.incrementAuthenticatedPush();
+				}
+			} catch (Exception e) {
+				dbInstance.rollbackAndCloseSession();
+				log.error("Error while pushing to channel: {}", channel.getToken(), e);
+			}
+		}, ThreadLocalUserActivityLoggerInstaller.createEmptyUserActivityLogger());
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.UserSession;
+
+/**
+ * The web socket end point of the push channels. The browser only
+ * listens, the messages sent by the browser are ignored. The token
+ * in the path is only known by the window which registered the
+ * channel and the channel is only connected to a web socket opened
+ * with the same user session (see PushEndpointConfigurator).
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class PushEndpoint extends Endpoint {
+	
+	private static final Logger log = Tracing.createLoggerFor(PushEndpoint.class);
+
+	@Override
+	public void onOpen(Session session, EndpointConfig config) {
+		String token = session.getPathParameters().get(PushChannelManager.TOKEN_PARAMETER);
+		Object usess = config.getUserProperties().get(PushEndpointConfigurator.USER_SESSION_PROPERTY);
+		PushChannel channel = null;
+		if(usess instanceof UserSession) {
+			channel = getPushChannelManager().connect(token, session, (UserSession)usess);
+		}
+		if(channel == null) {
+			try {
+				session.close(new CloseReason(CloseCodes.VIOLATED_POLICY, "unknown channel"));
+			} catch (Exception e) {
+				log.debug("", e);
+			}
+		}
+	}
+
+	@Override
+	public void onClose(Session session, CloseReason closeReason) {
+		String token = session.getPathParameters().get(PushChannelManager.TOKEN_PARAMETER);
+		getPushChannelManager().disconnect(token, session);
+	}
+
+	@Override
+	public void onError(Session session, Throwable e) {
+		log.debug("Error on push channel", e);
+	}
+	
+	private PushChannelManager getPushChannelManager() {
+		return CoreSpringFactory.getImpl(PushChannelManager.class);
+	}
+}
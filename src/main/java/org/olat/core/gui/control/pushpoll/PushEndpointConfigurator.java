@@ -0,0 +1,64 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import javax.servlet.http.HttpSession;
+import javax.websocket.HandshakeResponse;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.helpers.Settings;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.UserSession;
+import org.olat.core.util.session.UserSessionManager;
+
+/**
+ * Accept only the web sockets opened by a page of this server and bind
+ * them to the user session of the HTTP session which opened them. The
+ * end point verifies that the channel of the token was registered by
+ * the same user session.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class PushEndpointConfigurator extends ServerEndpointConfig.Configurator {
+	
+	static final String USER_SESSION_PROPERTY = "oo-push-usersession";
+
+	@Override
+	public boolean checkOrigin(String originHeaderValue) {
+		return StringHelper.containsNonWhitespace(originHeaderValue)
+				&& originHeaderValue.equalsIgnoreCase(Settings.createServerURI());
+	}
+
+	@Override
+	public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+		sec.getUserProperties().remove(USER_SESSION_PROPERTY);
+		Object httpSession = request.getHttpSession();
+		if(httpSession instanceof HttpSession) {
+			UserSession usess = CoreSpringFactory.getImpl(UserSessionManager.class)
+					.getUserSessionIfAlreadySet((HttpSession)httpSession);
+			if(usess != null) {
+				sec.getUserProperties().put(USER_SESSION_PROPERTY, usess);
+			}
+		}
+	}
+}
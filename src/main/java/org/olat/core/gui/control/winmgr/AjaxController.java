@@ -58,6 +58,8 @@ import org.olat.core.gui.control.ChiefController;
 import org.olat.core.gui.control.DefaultController;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowBackOffice;
+import org.olat.core.gui.control.pushpoll.PushChannel;
+import org.olat.core.gui.control.pushpoll.PushChannelManager;
 import org.olat.core.gui.control.pushpoll.WindowCommand;
 import org.olat.core.gui.media.DefaultMediaResource;
 import org.olat.core.gui.media.MediaResource;
@@ -105,10 +107,13 @@ public class AjaxController extends DefaultController {
 	private long creationTime = System.currentTimeMillis();
 	private boolean ajaxEnabled;
 	
-	private WindowBackOffice wboImpl;
+	private final WindowBackOfficeImpl wboImpl;
+	private PushChannel pushChannel;
 	
 	@Autowired
 	private SessionStatsManager statsManager;
+	@Autowired
+	private PushChannelManager pushChannelManager;
 
 	AjaxController(UserRequest ureq, final WindowBackOfficeImpl wboImpl, boolean ajaxEnabled) {
 		super(null);
@@ -120,6 +125,7 @@ public class AjaxController extends DefaultController {
 		
 		myContent = new VelocityContainer("jsserverpart", VELOCITY_ROOT + "/serverpart.html", null, this);
 		myContent.contextPut("pollperiod", Integer.valueOf(pollperiod));
+		myContent.contextPut("defaultpollperiod", Integer.valueOf(DEFAULT_POLLPERIOD));
 		
 		// create a mapper to not block main traffic when polling (or vica versa)
 		final Window window = wboImpl.getWindow();
@@ -179,6 +185,13 @@ public class AjaxController extends DefaultController {
 		final String csrfToken = ureq.getUserSession().getCsrfToken();
 		myContent.contextPut("csrfToken", csrfToken);
 		
+		// the push channel, the poll above stays as fallback
+		if (ajaxEnabled && pushChannelManager.isEnabled()) {
+			pushChannel = pushChannelManager.register(this::collectPushCommands, ureq.getUserSession());
+			myContent.contextPut("pushuri", pushChannelManager.getPushUri(pushChannel));
+			myContent.contextPut("pushpollperiod", Integer.valueOf(pushChannelManager.getPollPeriod()));
+		}
+		
 		mainP = new Panel("ajaxMainPanel");
 		mainP.setContent(myContent);
 		
@@ -238,6 +251,42 @@ public class AjaxController extends DefaultController {
 		//
 	}
 	
+	/**
+	 * Render the dirty components for the push channel. It's the same as
+	 * the poll without the check of the reload of the window which needs
+	 * a request.
+	 * 
+	 * @return The commands as JSON or null if nothing changed
+	 */
+	private String collectPushCommands() {
+		Window window = wboImpl.getWindow();
+		try {
+			wboImpl.fireCycleEvent(Window.BEFORE_INLINE_RENDERING);
+			Command updateDirtyCom = window.handleDirties();
+			wboImpl.fireCycleEvent(Window.AFTER_INLINE_RENDERING);
+			if (updateDirtyCom == null) {
+				return null;
+			}
+			synchronized (windowcommands) { //o_clusterOK by:fj
+				windowcommands.add(new WindowCommand(wboImpl, updateDirtyCom));
+			}
+			return getAndClearJSON(true).toString();
+		} catch (CannotReplaceDOMFragmentException e) {
+			log.error("", e);
+			// the poll will redirect the window
+			return "{\"cmdcnt\":0,\"poll\":true}";
+		}
+	}
+	
+	/**
+	 * Signal the push channel that some components may be dirty.
+	 */
+	public void signalPushChannel() {
+		if (pushChannel != null) {
+			pushChannelManager.signal(pushChannel);
+		}
+	}
+	
 	public void pushResource(UserRequest ureq, Writer sb, boolean wrapHTML) throws IOException {
 		if (wrapHTML) {
 			// most ajax responses are a lot smaller than 16k
@@ -410,6 +459,10 @@ public class AjaxController extends DefaultController {
 		mappers.add(mKey);
 		mappers.add(sbmKey);
 		CoreSpringFactory.getImpl(MapperService.class).cleanUp(mappers);
+		if (pushChannel != null) {
+			pushChannelManager.unregister(pushChannel);
+			pushChannel = null;
+		}
 		if (ajaxEnabled && pollCount == 0) {
 			//the controller should be older than 40s otherwise poll may not started yet
 			if ((System.currentTimeMillis() - creationTime) > 40000) log.warn("Client did not send a single polling request though ajax is enabled!");
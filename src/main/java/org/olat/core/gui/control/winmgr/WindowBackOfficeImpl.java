@@ -178,6 +178,11 @@ public class WindowBackOfficeImpl implements WindowBackOffice {
 		if (ajaxC != null) ajaxC.sendCommandTo(new WindowCommand(this,wco));
 	}
 	
+	@Override
+	public void signalDirtyComponents() {
+		if (ajaxC != null) ajaxC.signalPushChannel();
+	}
+	
 	public void pushCommands(UserRequest ureq, HttpServletRequest request, HttpServletResponse response) {
 		try {
 			boolean acceptJson = ServletUtil.acceptJson(request);
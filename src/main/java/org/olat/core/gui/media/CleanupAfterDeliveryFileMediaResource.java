@@ -53,6 +53,12 @@ public class CleanupAfterDeliveryFileMediaResource extends FileMediaResource {
 		return false;
 	}
 
+	@Override
+	public File getLocalFile() {
+		// the file is deleted before the container can send it
+		return null;
+	}
+
 	@Override
 	public void release() {
 		FileUtils.deleteFile(file);
@@ -0,0 +1,147 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Deliver a range of a local file. If the servlet container supports it,
+ * the file is delivered by the container with sendfile and the thread
+ * is released immediately. If not, the range is read with positional
+ * reads of the file channel, without skipping through an input stream
+ * and without an intermediate buffered stream.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LocalFileDelivery {
+	
+	public static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	public static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	public static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	public static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+	
+	/**
+	 * Under this size, a simple copy is as fast as the sendfile.
+	 */
+	public static final long SENDFILE_MIN_SIZE = 48l * 1024l;
+	public static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+	
+	private LocalFileDelivery() {
+		//
+	}
+	
+	/**
+	 * Delegate the delivery of the range of the file to the servlet container.
+	 * The content length and the headers must be set before, and nothing
+	 * can be written in the response after. The file must be available after
+	 * the request is processed by the application.
+	 * 
+	 * @param request The request
+	 * @param file The file to deliver
+	 * @param start The start of the range (inclusive)
+	 * @param end The end of the range (inclusive)
+	 * @return true if the container will deliver the file
+	 */
+	public static boolean sendfile(HttpServletRequest request, File file, long start, long end) {
+		if(end - start + 1 < SENDFILE_MIN_SIZE
+				|| !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+			return false;
+		}
+		
+		try {
+			request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+		} catch (IOException e) {
+			return false;
+		}
+		request.setAttribute(SENDFILE_START_ATTR, Long.valueOf(start));
+		// the end of the sendfile range is exclusive
+		request.setAttribute(SENDFILE_END_ATTR, Long.valueOf(end + 1));
+		return true;
+	}
+	
+	/**
+	 * Copy the range of the file to the output stream. The output stream
+	 * is not closed.
+	 * 
+	 * @param file The file
+	 * @param start The start of the range (inclusive)
+	 * @param end The end of the range (inclusive)
+	 * @param out The output stream
+	 * @throws IOException
+	 */
+	public static void transfer(File file, long start, long end, OutputStream out) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			transfer(channel, start, end, out);
+		}
+	}
+	
+	/**
+	 * Copy the range of the channel to the output stream. The position
+	 * of the channel is not changed.
+	 * 
+	 * @param channel The file channel
+	 * @param start The start of the range (inclusive)
+	 * @param end The end of the range (inclusive)
+	 * @param out The output stream
+	 * @throws IOException
+	 */
+	public static void transfer(FileChannel channel, long start, long end, OutputStream out) throws IOException {
+		long position = start;
+		long remaining = end - start + 1;
+		if(out instanceof FileOutputStream) {
+			// file to file can be done by the kernel
+			FileChannel target = ((FileOutputStream)out).getChannel();
+			while(remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, target);
+				if(transferred <= 0) {
+					throw new EOFException("Unexpected end of file at: " + position);
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+		} else {
+			byte[] buffer = new byte[(int)Math.min(TRANSFER_BUFFER_SIZE, Math.max(remaining, 1))];
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+			while(remaining > 0) {
+				byteBuffer.clear();
+				if(remaining < buffer.length) {
+					byteBuffer.limit((int)remaining);
+				}
+				int read = channel.read(byteBuffer, position);
+				if(read < 0) {
+					throw new EOFException("Unexpected end of file at: " + position);
+				}
+				out.write(buffer, 0, read);
+				position += read;
+				remaining -= read;
+			}
+		}
+	}
+}
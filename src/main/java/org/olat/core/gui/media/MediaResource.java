@@ -26,6 +26,7 @@
 
 package org.olat.core.gui.media;
 
+import java.io.File;
 import java.io.InputStream;
 
 import javax.servlet.http.HttpServletResponse;
@@ -57,6 +58,17 @@ public interface MediaResource {
 	 */
 	public Long getLastModified();
 	
+	/**
+	 * If the content of the resource is exactly the content of a local file,
+	 * the file can be delivered without streaming it through the application.
+	 * The file must still exist after the call of {@link #release()}.
+	 * 
+	 * @return The local file with the content of the resource or null
+	 */
+	public default File getLocalFile() {
+		return null;
+	}
+	
 	/**
 	 * 
 	 * @return The cache duration in seconds. If 0, all the headers
@@ -85,6 +85,11 @@ public class NamedFileMediaResource extends FileMediaResource {
 		hres.setHeader("Content-Description", StringHelper.urlEncodeUTF8(fileDescription));
 	}
 
+	@Override
+	public File getLocalFile() {
+		return deleteAfterDelivery ? null : file;
+	}
+
 	@Override
 	public void release() {
 		if (deleteAfterDelivery && file.exists()) {
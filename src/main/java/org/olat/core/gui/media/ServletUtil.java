@@ -28,6 +28,7 @@ package org.olat.core.gui.media;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -183,6 +184,12 @@ public class ServletUtil {
 			// maybe some more preparations
 			mr.prepare(httpResp);
 			
+			File localFile = mr.getLocalFile();
+			if(localFile != null && localFile.isFile() && !Settings.isDebuging()) {
+				serveLocalFile(httpReq, httpResp, localFile, ranges);
+				return;
+			}
+			
 			in = mr.getInputStream();
 
 			// serve the Resource
@@ -238,6 +245,39 @@ public class ServletUtil {
 		}
 	}
 	
+	private static void serveLocalFile(HttpServletRequest httpReq, HttpServletResponse httpResp, File file, List<Range> ranges)
+	throws IOException {
+		long start = 0l;
+		long end = file.length() - 1;
+		boolean partial = ranges != null && ranges.size() == 1;
+		if (partial) {
+			Range range = ranges.get(0);
+			httpResp.addHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.length);
+			httpResp.setContentLengthLong(range.end - range.start + 1);
+			httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			start = range.start;
+			end = range.end;
+		} else {
+			httpResp.setContentLengthLong(end + 1);
+		}
+		
+		if(end < start || LocalFileDelivery.sendfile(httpReq, file, start, end)) {
+			return;
+		}
+
+		SessionStatsManager stats = partial ? CoreSpringFactory.getImpl(SessionStatsManager.class) : null;
+		try {
+			if(stats != null) {
+				stats.incrementConcurrentStreamCounter();
+			}
+			LocalFileDelivery.transfer(file, start, end, httpResp.getOutputStream());
+		} finally {
+			if(stats != null) {
+				stats.decrementConcurrentStreamCounter();
+			}
+		}
+	}
+	
 	public static final void handleIOException(String msg, Exception e) {
 		try {
 			String className = e.getClass().getSimpleName();
@@ -323,6 +363,9 @@ public class ServletUtil {
             // is returned.
             if (lastModified > (headerValueTime + 1000))
                 return Collections.emptyList();
+        } else {
+            // The media resources have no entity tag, it cannot match
+            return Collections.emptyList();
         }
     }
 
@@ -19,15 +19,18 @@
  */
 package org.olat.core.gui.render;
 
-import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * the pool is based on the implementation of Slobodan Celenkovic:<br/>
- * http://www.jroller.com/slobodan/date/20050309<br/>
+ * A pool of string outputs without contention: every thread has its
+ * own small pool. The buffers are sorted in 3 size classes (smaller than
+ * 4KB, smaller than 64KB and larger), the medium and large ones are
+ * held with soft references. The buffers larger than 512K characters are
+ * never pooled and a thread doesn't retain more than 1M characters.
+ * <p>
+ * A buffer can be freed by an other thread than the one which allocated
+ * it, it simply lands in the pool of the second one.
  * 
  * Initial date: 10.01.2013<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -35,102 +38,239 @@ import java.util.List;
  */
 public class StringOutputPool {
 
-	/** Max pool size */
-  protected final static int MAX_STR_BUILDER_POOL_SIZE = 50;
-
-  /** General purpose pool for StringBuilder instances. */
-  private static List<Reference<StringOutput>> stringBuilders = new ArrayList<>(MAX_STR_BUILDER_POOL_SIZE+1);
-
-  /** Auxiliary pool for small size builders. It is a simple sparse array with
-      elements not sorted. Buffers are simply placed in and taken out. In
-      general, when storing buffers preference is given to large buffers. */
-  private static final StringOutput auxStringBuilders[] =
-    new StringOutput[ 10 ];
-
-
-  /** Allocates a string builder instance using recycling. Doesn't guarantee
-      that the returned object will have the requested size!
-      @param size (optional) builder size
-      @return builder instance */
-  public static StringOutput allocStringBuilder(final int size)  {
-    assert size > 0;
-    if ( size < 4096 ) {        // Smaller buffer? -> use auxiliary pool
-      synchronized ( auxStringBuilders ) {
-        for(int index=0; index < auxStringBuilders.length; index++)
-          if ((auxStringBuilders[index] != null) &&
-              (auxStringBuilders[index].capacity() >= size)) {
-          	StringOutput res = auxStringBuilders[ index ];
-            auxStringBuilders[ index ] = null;
-            return res;
-          }
-      }
-      return new StringOutput(size);
-    } else {// Bigger buffers? -> use primary pool
-      synchronized ( stringBuilders ) { // pool lookup
-        if ( stringBuilders.isEmpty())  {
-        	return new StringOutput(size);
-        }
-
-        StringOutput res =null;
-        for (Iterator<Reference<StringOutput>> seq=stringBuilders.iterator(); seq.hasNext(); ) {
-          res = seq.next().get();
-          if ( res == null ) {
-          	seq.remove(); // no longer available, cleanup
-          }  else if ( res.capacity() >= size ) {
-            seq.remove();
-            return res;
-          }
-        } // for
-      } // sync
-    } // else
+	private static final int SMALL_CAPACITY = 4096;
+	private static final int MEDIUM_CAPACITY = 65536;
+	private static final int MAX_POOLED_CAPACITY = 524288;
+	private static final int MAX_RETAINED_CAPACITY = 1048576;
+	
+	private static final int SMALL_SLOTS = 8;
+	private static final int MEDIUM_SLOTS = 4;
+	private static final int LARGE_SLOTS = 2;
+	
+	private static final ThreadLocal<LocalPool> localPools = ThreadLocal.withInitial(LocalPool::new);
+	
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+	private static final LongAdder allocatedChars = new LongAdder();
+	private static final LongAdder discarded = new LongAdder();
+	
+	private StringOutputPool() {
+		//
+	}
 
-    return new StringOutput(size);
-  } // allocStringBuilder
-  
-  /** Supplies object instance for recycling. The object could have been
-  allocated using any means. Caller must not continue using it after this
-  method call.
-  @param obj discarded builder instance */
+	/**
+	 * Allocates a string builder instance using recycling. Doesn't guarantee
+	 * that the returned object will have the requested size!
+	 * 
+	 * @param size (optional) builder size
+	 * @return builder instance
+	 */
+	public static StringOutput allocStringBuilder(final int size) {
+		assert size > 0;
+		StringOutput res = localPools.get().alloc(size);
+		if(res == null) {
+			misses.increment();
+			allocatedChars.add(size);
+			res = new StringOutput(size);
+		} else {
+			hits.increment();
+		}
+		return res;
+	}
+	
+	/**
+	 * Supplies object instance for recycling. The object could have been
+	 * allocated using any means. Caller must not continue using it after this
+	 * method call.
+	 * 
+	 * @param obj discarded builder instance
+	 */
 	public static void free(final StringOutput obj) {
-		if ( obj.capacity() < 4096 ) { // Smaller buffer? -> use auxiliary pool
-		  synchronized ( auxStringBuilders ) {
-		    int minIndex =-1, minSize = Integer.MAX_VALUE, size =0;
-		    for(int index=0; index < auxStringBuilders.length; index++) {
-		      if ( auxStringBuilders[index] == null ) {
-		        obj.setLength(0);
-		        auxStringBuilders[ index ] = obj;
-		        return;
-		      }
+		if(obj == null) return;
 		
-		      if ((size= auxStringBuilders[index].capacity()) < minSize) {
-		        minIndex = index;
-		        minSize = size;
-		      }
-		    }
-		
-		    if ( minSize < obj.capacity() ) {
-		      obj.setLength(0);
-		      auxStringBuilders[minIndex] = obj;
-		    }
-		  }
-		} else if(obj.capacity() < 250000) {
-			// Bigger buffers? -> use primary pool, too big, don't return it to prevent memory leak
-		  synchronized ( stringBuilders ) {
-	      obj.setLength(0);
-		    stringBuilders.add(0, new SoftReference<>(obj));
-		    if ( stringBuilders.size() > MAX_STR_BUILDER_POOL_SIZE ) {
-		      stringBuilders.remove(MAX_STR_BUILDER_POOL_SIZE);
-		    }
-		  }
+		if(obj.capacity() > MAX_POOLED_CAPACITY || !localPools.get().free(obj)) {
+			// too big, don't retain it to prevent memory leak
+			discarded.increment();
 		}
-	} // free
+	}
 	
-	/** Frees the string builder and returns its contents before cleanup.
-	  @param obj buffer to free
-	  @return buffer's contents before cleanup */
+	/**
+	 * Frees the string builder and returns its contents before cleanup.
+	 * 
+	 * @param obj buffer to free
+	 * @return buffer's contents before cleanup
+	 */
 	public static String freePop(final StringOutput obj) {
 		String res = obj.toString();
-		free( obj );
+		free(obj);
 		return res;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Drops the pool of the current thread. Don't call it after every
+	 * request, the pool is made to be reused by the next requests of
+	 * the thread and its retention is already limited by the size
+	 * classes and the soft references. Only call it before a thread
+	 * which used the pool terminates.
+	 */
+	public static void release() {
+		localPools.remove();
+	}
+	
+	/**
+	 * @return The number of allocations served by the pool
+	 */
+	public static long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return The number of allocations of new buffers
+	 */
+	public static long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return The bytes allocated for new buffers (2 bytes per character)
+	 */
+	public static long getAllocatedBytes() {
+		return allocatedChars.sum() * 2l;
+	}
+	
+	/**
+	 * @return The number of freed buffers which were not retained
+	 */
+	public static long getDiscarded() {
+		return discarded.sum();
+	}
+	
+	/**
+	 * The pool of a thread. It's only accessed by its thread.
+	 * 
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	private static class LocalPool {
+		
+		private final StringOutput[] small = new StringOutput[SMALL_SLOTS];
+		@SuppressWarnings("unchecked")
+		private final SoftReference<StringOutput>[] medium = new SoftReference[MEDIUM_SLOTS];
+		@SuppressWarnings("unchecked")
+		private final SoftReference<StringOutput>[] large = new SoftReference[LARGE_SLOTS];
+		
+		StringOutput alloc(int size) {
+			if(size < SMALL_CAPACITY) {
+				for(int i=small.length; i-->0; ) {
+					StringOutput so = small[i];
+					if(so != null && so.capacity() >= size) {
+						small[i] = null;
+						return so;
+					}
+				}
+				return null;
+			}
+			return alloc(size < MEDIUM_CAPACITY ? medium : large, size);
+		}
+		
+		private StringOutput alloc(SoftReference<StringOutput>[] slots, int size) {
+			for(int i=slots.length; i-->0; ) {
+				StringOutput so = slots[i] == null ? null : slots[i].get();
+				if(so != null && so.capacity() >= size) {
+					slots[i] = null;
+					return so;
+				}
+			}
+			return null;
+		}
+		
+		boolean free(StringOutput obj) {
+			int capacity = obj.capacity();
+			if(isPooled(obj) || retainedCapacity() + capacity > MAX_RETAINED_CAPACITY) {
+				return false;
+			}
+			
+			obj.setLength(0);
+			if(capacity < SMALL_CAPACITY) {
+				int minIndex = -1;
+				int minCapacity = Integer.MAX_VALUE;
+				for(int i=0; i<small.length; i++) {
+					if(small[i] == null) {
+						small[i] = obj;
+						return true;
+					}
+					if(small[i].capacity() < minCapacity) {
+						minIndex = i;
+						minCapacity = small[i].capacity();
+					}
+				}
+				// preference is given to the large buffers
+				if(minCapacity < capacity) {
+					small[minIndex] = obj;
+					return true;
+				}
+				return false;
+			}
+			return free(capacity < MEDIUM_CAPACITY ? medium : large, obj);
+		}
+		
+		private boolean free(SoftReference<StringOutput>[] slots, StringOutput obj) {
+			int minIndex = -1;
+			int minCapacity = Integer.MAX_VALUE;
+			for(int i=0; i<slots.length; i++) {
+				StringOutput so = slots[i] == null ? null : slots[i].get();
+				if(so == null) {
+					slots[i] = new SoftReference<>(obj);
+					return true;
+				}
+				if(so.capacity() < minCapacity) {
+					minIndex = i;
+					minCapacity = so.capacity();
+				}
+			}
+			if(minCapacity < obj.capacity()) {
+				slots[minIndex] = new SoftReference<>(obj);
+				return true;
+			}
+			return false;
+		}
+		
+		/**
+		 * Prevent that a buffer freed twice is allocated twice.
+		 */
+		private boolean isPooled(StringOutput obj) {
+			for(StringOutput so:small) {
+				if(so == obj) return true;
+			}
+			return isPooled(medium, obj) || isPooled(large, obj);
+		}
+		
+		private boolean isPooled(SoftReference<StringOutput>[] slots, StringOutput obj) {
+			for(SoftReference<StringOutput> ref:slots) {
+				if(ref != null && ref.get() == obj) return true;
+			}
+			return false;
+		}
+		
+		private int retainedCapacity() {
+			int capacity = 0;
+			for(StringOutput so:small) {
+				if(so != null) {
+					capacity += so.capacity();
+				}
+			}
+			return capacity + retainedCapacity(medium) + retainedCapacity(large);
+		}
+		
+		private int retainedCapacity(SoftReference<StringOutput>[] slots) {
+			int capacity = 0;
+			for(SoftReference<StringOutput> ref:slots) {
+				StringOutput so = ref == null ? null : ref.get();
+				if(so != null) {
+					capacity += so.capacity();
+				}
+			}
+			return capacity;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Register the counters of the {@link StringOutputPool} in JMX.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class StringOutputPoolMetrics implements StringOutputPoolMetricsMBean, InitializingBean, DisposableBean {
+	
+	private static final String MBEAN_NAME = "org.olat.core.gui.render:type=StringOutputPool";
+	
+	private JMXManager jmxManager;
+	
+	/**
+	 * [used by Spring]
+	 * @param jmxManager
+	 */
+	public void setJmxManager(JMXManager jmxManager) {
+		this.jmxManager = jmxManager;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		jmxManager.registerMBean(this, MBEAN_NAME);
+	}
+
+	@Override
+	public void destroy() {
+		jmxManager.unregisterMBean(MBEAN_NAME);
+	}
+
+	@Override
+	public long getHits() {
+		return StringOutputPool.getHits();
+	}
+
+	@Override
+	public long getMisses() {
+		return StringOutputPool.getMisses();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hits = StringOutputPool.getHits();
+		long total = hits + StringOutputPool.getMisses();
+		return total == 0 ? 0.0d : ((double)hits) / total;
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return StringOutputPool.getAllocatedBytes();
+	}
+
+	@Override
+	public long getDiscarded() {
+		return StringOutputPool.getDiscarded();
+	}
+}
@@ -17,35 +17,39 @@
  * frentix GmbH, http://www.frentix.com
  * <p>
  */
-package org.olat.core.commons.services.vfs.manager;
-
-import org.olat.core.util.event.MultiUserEvent;
+package org.olat.core.gui.render;
 
 /**
+ * The JMX view of the counters of the pool of string outputs.
  * 
- * Initial date: 15 mars 2019<br>
- * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
+ * Initial date: 18 oct. 2026<br>
  *
  */
-public class AsyncFileSizeUpdateEvent extends MultiUserEvent {
-
-	private static final long serialVersionUID = 5439824954399187557L;
-	public static final String ASYNC_FILE_SIZE = "async-file-size-updates";
+public interface StringOutputPoolMetricsMBean {
 	
-	private String filename;
-	private String relativePath;
+	/**
+	 * @return The number of allocations served by the pool
+	 */
+	public long getHits();
 	
-	public AsyncFileSizeUpdateEvent(String relativePath, String filename) {
-		super(ASYNC_FILE_SIZE);
-		this.filename = filename;
-		this.relativePath = relativePath;
-	}
-
-	public String getFilename() {
-		return filename;
-	}
+	/**
+	 * @return The number of allocations of new buffers
+	 */
+	public long getMisses();
+	
+	/**
+	 * @return The ratio of the allocations served by the pool
+	 */
+	public double getHitRatio();
+	
+	/**
+	 * @return The bytes allocated for new buffers
+	 */
+	public long getAllocatedBytes();
+	
+	/**
+	 * @return The number of freed buffers which were not retained
+	 */
+	public long getDiscarded();
 
-	public String getRelativePath() {
-		return relativePath;
-	}
 }
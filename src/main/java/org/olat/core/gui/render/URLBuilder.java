@@ -26,12 +26,10 @@
 
 package org.olat.core.gui.render;
 
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.regex.Pattern;
 
-import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.Component;
 import org.olat.core.gui.components.Window;
@@ -39,7 +37,6 @@ import org.olat.core.gui.components.form.flexible.impl.Form;
 import org.olat.core.gui.components.form.flexible.impl.NameValuePair;
 import org.olat.core.gui.control.winmgr.AJAXFlags;
 import org.olat.core.logging.AssertException;
-import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 
 /**
@@ -48,8 +45,6 @@ import org.olat.core.util.StringHelper;
  */
 public class URLBuilder {
 	
-	private static final Logger log = Tracing.createLoggerFor(URLBuilder.class);
-	
 	private static final Pattern p1 = Pattern.compile("\\+");
 	private static final Pattern p2 = Pattern.compile("%2F");
 
@@ -106,46 +101,39 @@ public class URLBuilder {
 	}
 	
 	public void buildURI(StringOutput buf, String[] keys, String[] values, String modURI, int mode, boolean csrf) {
-		try(StringOutput result = new StringOutput(100)) {
-			result.append(uriPrefix);
-			encodeParams(result, mode);
-			
-			if (keys != null) {
-				for (int i = 0; i < keys.length; i++) {
-					result.append(UserRequest.PARAM_DELIM)
-					      .append(keys[i])
-					      .append(UserRequest.PARAM_DELIM)
-					      .append(values[i]);
-				}
-			}
-			
-			if(csrf) {
+		StringOutput result = StringOutputPool.allocStringBuilder(100);
+		result.append(uriPrefix);
+		encodeParams(result, mode);
+		
+		if (keys != null) {
+			for (int i = 0; i < keys.length; i++) {
 				result.append(UserRequest.PARAM_DELIM)
-				      .append(Form.FORM_CSRF)
+				      .append(keys[i])
 				      .append(UserRequest.PARAM_DELIM)
-				      .append(csrfToken);
+				      .append(values[i]);
 			}
-			
-			result.append("/");
-			if (modURI != null) {
-				result.append(modURI);
-			}
-			buf.append(encodeUrl(result.toString()));
-		} catch(IOException e) {
-			log.error("", e);
 		}
+		
+		if(csrf) {
+			result.append(UserRequest.PARAM_DELIM)
+			      .append(Form.FORM_CSRF)
+			      .append(UserRequest.PARAM_DELIM)
+			      .append(csrfToken);
+		}
+		
+		result.append("/");
+		if (modURI != null) {
+			result.append(modURI);
+		}
+		buf.append(encodeUrl(StringOutputPool.freePop(result)));
 	}
 	
 	public String getJavascriptURI() {
-		try(StringOutput result = new StringOutput(100)) {
-			result.append(uriPrefix);
-			encodeParams(result, AJAXFlags.MODE_TOBGIFRAME);
-			result.append("/");
-			return result.toString();
-		} catch(IOException e) {
-			log.error("", e);
-			return null;
-		}
+		StringOutput result = StringOutputPool.allocStringBuilder(100);
+		result.append(uriPrefix);
+		encodeParams(result, AJAXFlags.MODE_TOBGIFRAME);
+		result.append("/");
+		return StringOutputPool.freePop(result);
 	}
 	
 
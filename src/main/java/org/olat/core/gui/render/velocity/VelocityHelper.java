@@ -26,7 +26,6 @@
 
 package org.olat.core.gui.render.velocity;
 
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Properties;
 import java.util.Set;
@@ -42,6 +41,8 @@ import org.olat.core.logging.AssertException;
 import org.olat.core.logging.OLATRuntimeException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
+import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.util.WebappHelper;
 
 /**
@@ -180,17 +181,19 @@ public class VelocityHelper {
 	 * @return String
 	 */
 	public String evaluateVTL(String vtlInput, Context c) {
-		StringWriter wOut = new StringWriter(10000);
+		StringOutput wOut = StringOutputPool.allocStringBuilder(10000);
 
 		try {
 			ve.evaluate(c, wOut, "internalEvaluator", vtlInput);
 		} catch (MethodInvocationException me) {
+			StringOutputPool.free(wOut);
 			throw new OLATRuntimeException(VelocityHelper.class, "MethodInvocationException occured while merging template: methName:"
 					+ me.getMethodName() + ", refName:" + me.getReferenceName(), me);
 		} catch (Exception e) {
+			StringOutputPool.free(wOut);
 			throw new OLATRuntimeException(VelocityHelper.class, "exception occured while merging template: " + e.getMessage(), e);
 		}
-		return wOut.toString();
+		return StringOutputPool.freePop(wOut);
 	}
 	
 }
@@ -242,6 +242,11 @@ public class WindowControlMocker implements WindowControl{
 			//
 		}
 
+		@Override
+		public void signalDirtyComponents() {
+			//
+		}
+
 		@Override
 		public List<ZIndexWrapper> getGuiMessages() {
 			return Collections.emptyList();
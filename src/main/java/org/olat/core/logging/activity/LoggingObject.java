@@ -69,6 +69,10 @@ public class LoggingObject implements CreateInfo, Persistable {
 	@Temporal(TemporalType.TIMESTAMP)
 	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
 	private Date creationDate;
+	/** Set by the database when the line is written, the creation date is the date of the action */
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="insertdate", nullable=true, insertable=false, updatable=false)
+	private Date insertDate;
 	
 	// technical fields
 	@Column(name="sourceclass", nullable=true, insertable=true, updatable=true)
@@ -248,6 +252,10 @@ public class LoggingObject implements CreateInfo, Persistable {
 		return creationDate;
 	}
 	
+	public Date getInsertDate() {
+		return insertDate;
+	}
+	
 	public String getSourceClass() {
 		return sourceClass;
 	}
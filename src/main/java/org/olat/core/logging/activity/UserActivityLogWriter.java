@@ -0,0 +1,633 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManager;
+
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.WebappHelper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Write the lines of the user activity log in the background. The logging
+ * objects are queued in a bounded queue and persisted in batches by a single
+ * writer thread, every flush interval or as soon as a batch is full.
+ * <p>
+ * If the queue is full, the request thread appends the logging object to
+ * a spill file (which slows it down and acts as backpressure), if the file
+ * cannot be written the log is dropped. The spill file is forced to the disk
+ * after every write. If a batch cannot be persisted, its lines are retried
+ * one by one, the lines which still fail are moved to a quarantine file and
+ * never retried automatically. If no line can be written and the database
+ * doesn't answer, the batch is spilled. The spill file is replayed by the
+ * writer when the queue has room again, or at the next start after a crash.
+ * At shutdown, the queue is drained, after a crash the lines which were
+ * only in the queue or held back for their duration are lost.
+ * <p>
+ * The simple duration of a log line is the time until the next log line of
+ * the same session. The last line of a session is held back by the writer
+ * until the next line sets its duration, at most for the hold time, the
+ * duration is then written with the line. If the line was already written,
+ * the duration is set with an update query.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class UserActivityLogWriter implements InitializingBean, DisposableBean {
+
+	private static final Logger log = Tracing.createLoggerFor(UserActivityLogWriter.class);
+
+	private static final String SPILL_FILENAME = "spill.ser";
+	private static final String REPLAY_FILENAME = "replay.ser";
+	private static final String QUARANTINE_FILENAME = "quarantine.ser";
+
+	private DB dbInstance;
+	private boolean asynchronous = true;
+	private int queueSize = 10000;
+	private int batchSize = 200;
+	private long flushInterval = 1000l;
+	private long durationHoldTime = 5000l;
+	private Path spillDirectory;
+
+	private BlockingQueue<PendingLog> queue;
+	private final Queue<PendingLog> durationUpdates = new ConcurrentLinkedQueue<>();
+	/** The lines waiting for their duration, only used by the writer thread */
+	private final List<PendingLog> held = new ArrayList<>();
+	private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+	private final Object spillLock = new Object();
+	private ScheduledExecutorService writer;
+
+	private final LongAdder written = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder spilled = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder quarantined = new LongAdder();
+	private final LongAdder durationUpdated = new LongAdder();
+
+	/**
+	 * [used by Spring]
+	 * @param dbInstance
+	 */
+	public void setDbInstance(DB dbInstance) {
+		this.dbInstance = dbInstance;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param asynchronous false to write the logs in the transaction of the request
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param queueSize The max. number of logs waiting to be written
+	 */
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param batchSize The number of logs written in one transaction
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param flushInterval The interval in milliseconds between two flushes
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param durationHoldTime The max. time in milliseconds a line is held back to wait for its duration
+	 */
+	public void setDurationHoldTime(long durationHoldTime) {
+		this.durationHoldTime = durationHoldTime;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param spillDirectory The directory of the spill file, default is olatdata/system/activitylog
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		if(StringHelper.containsNonWhitespace(spillDirectory)) {
+			this.spillDirectory = Paths.get(spillDirectory);
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if(spillDirectory == null) {
+			spillDirectory = Paths.get(WebappHelper.getUserDataRoot(), "system", "activitylog");
+		}
+		if(asynchronous) {
+			queue = new ArrayBlockingQueue<>(Math.max(queueSize, batchSize));
+			writer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("oo-activitylog-"));
+			writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+			log.info("User activity log written asynchronously (queue: {}, batch: {}, interval: {}ms)", queueSize, batchSize, flushInterval);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		ScheduledExecutorService currentWriter = writer;
+		writer = null;
+		if(currentWriter != null) {
+			currentWriter.shutdown();
+			try {
+				if(!currentWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+					currentWriter.shutdownNow();
+				}
+			} catch (InterruptedException e) {
+				currentWriter.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+			// what is still held back and in the queue
+			List<PendingLog> remaining = new ArrayList<>(held);
+			held.clear();
+			queue.drainTo(remaining);
+			if(!remaining.isEmpty()) {
+				writeBatch(remaining);
+			}
+			writeDurationUpdates();
+		}
+		log.info("User activity log writer stopped (written: {}, spilled: {}, dropped: {})", getWritten(), getSpilled(), getDropped());
+	}
+
+	public long getWritten() {
+		return written.sum();
+	}
+
+	public long getBatches() {
+		return batches.sum();
+	}
+
+	public long getSpilled() {
+		return spilled.sum();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return The number of lines moved to the quarantine file
+	 */
+	public long getQuarantined() {
+		return quarantined.sum();
+	}
+
+	/**
+	 * @return The number of durations set with an update query
+	 */
+	public long getDurationUpdated() {
+		return durationUpdated.sum();
+	}
+
+	public int getQueueSize() {
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * Queue the logging object or write it in the current transaction
+	 * if the writer is synchronous. The creation date of the logging
+	 * object must be set.
+	 * 
+	 * @param logObj The logging object
+	 * @param awaitDuration true if the duration will be set by the next line of the session
+	 * @return A handle to update the simple duration
+	 */
+	public PendingLog write(LoggingObject logObj, boolean awaitDuration) {
+		PendingLog pending = new PendingLog(logObj, awaitDuration);
+		if(writer == null) {
+			pending.take();
+			dbInstance.saveObject(logObj);
+		} else if(!queue.offer(pending)) {
+			// backpressure: the request pays the write to the disk
+			pending.take();
+			spill(Collections.singletonList(logObj));
+		} else if(queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+			try {
+				writer.execute(this::flush);
+			} catch (Exception e) {
+				flushRequested.set(false);
+				log.debug("", e);
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * Set the simple duration of a log line to the time elapsed until the
+	 * specified date.
+	 * 
+	 * @param previous The handle of the previous log line of the session
+	 * @param date The date of the new log line
+	 */
+	public void updateDuration(PendingLog previous, Date date) {
+		Date creationDate = previous.logObj.getCreationDate();
+		if(creationDate == null || date == null) {
+			return;
+		}
+		long duration = Math.max(0l, date.getTime() - creationDate.getTime());
+		if(!previous.setDuration(duration)) {
+			// already written or being written
+			if(writer == null) {
+				updateDuration(previous.logObj.getKey(), duration);
+			} else {
+				durationUpdates.offer(previous);
+			}
+		}
+	}
+
+	private void updateDuration(Long key, long duration) {
+		if(key == null) {
+			return;
+		}
+		dbInstance.getCurrentEntityManager()
+			.createQuery("update loggingobject set simpleDuration=:duration where key=:key")
+			.setParameter("duration", Long.valueOf(duration))
+			.setParameter("key", key)
+			.executeUpdate();
+		durationUpdated.increment();
+	}
+
+	/**
+	 * Write the queued logs which are ready, the pending updates of
+	 * durations and replay the spilled logs if there is room. Only
+	 * called by the writer thread.
+	 */
+	void flush() {
+		flushRequested.set(false);
+		try {
+			List<PendingLog> candidates = new ArrayList<>(held);
+			held.clear();
+			queue.drainTo(candidates);
+			
+			long now = System.currentTimeMillis();
+			List<PendingLog> ready = new ArrayList<>(candidates.size());
+			for(PendingLog pending:candidates) {
+				if(pending.isReady(now, durationHoldTime)) {
+					ready.add(pending);
+				} else {
+					held.add(pending);
+				}
+			}
+			// don't hold more lines than the queue can contain, the oldest first
+			while(held.size() > queueSize) {
+				ready.add(held.remove(0));
+			}
+			
+			for(int i=0; i<ready.size(); i+=batchSize) {
+				writeBatch(ready.subList(i, Math.min(ready.size(), i + batchSize)));
+			}
+			writeDurationUpdates();
+			if(queue.size() < queueSize / 2) {
+				replaySpilledLogs();
+			}
+		} catch (Exception e) {
+			log.error("", e);
+		}
+	}
+
+	private void writeBatch(List<PendingLog> batch) {
+		List<LoggingObject> logObjs = new ArrayList<>(batch.size());
+		for(PendingLog pending:batch) {
+			logObjs.add(pending.take());
+		}
+		persist(logObjs);
+	}
+
+	/**
+	 * Persist the batch, if it fails retry its lines one by one and move the
+	 * lines which still fail to the quarantine file. If none can be written
+	 * and the database doesn't answer, the lines are spilled.
+	 * 
+	 * @param logObjs The logging objects
+	 * @return false if the database is not available
+	 */
+	private boolean persist(List<LoggingObject> logObjs) {
+		if(persistBatch(logObjs)) {
+			return true;
+		}
+		
+		List<LoggingObject> failed = new ArrayList<>();
+		for(LoggingObject logObj:logObjs) {
+			if(!persistBatch(Collections.singletonList(logObj))) {
+				failed.add(logObj);
+			}
+		}
+		if(failed.isEmpty()) {
+			return true;
+		}
+		if(failed.size() == logObjs.size() && !isDatabaseAvailable()) {
+			log.error("Cannot write {} lines of the user activity log, spill them", failed.size());
+			spill(failed);
+			return false;
+		}
+		quarantine(failed);
+		return true;
+	}
+
+	private boolean persistBatch(List<LoggingObject> logObjs) {
+		try {
+			EntityManager em = dbInstance.getCurrentEntityManager();
+			em.unwrap(Session.class).setJdbcBatchSize(Integer.valueOf(batchSize));
+			for(LoggingObject logObj:logObjs) {
+				em.persist(logObj);
+			}
+			dbInstance.commitAndCloseSession();
+			written.add(logObjs.size());
+			batches.increment();
+			return true;
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.warn("Cannot write {} lines of the user activity log", logObjs.size(), e);
+			for(LoggingObject logObj:logObjs) {
+				logObj.setKey(null);
+			}
+			return false;
+		}
+	}
+
+	private boolean isDatabaseAvailable() {
+		try {
+			dbInstance.getCurrentEntityManager()
+				.createQuery("select log.key from loggingobject log where log.key=:key", Long.class)
+				.setParameter("key", Long.valueOf(0l))
+				.getResultList();
+			dbInstance.commitAndCloseSession();
+			return true;
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.debug("", e);
+			return false;
+		}
+	}
+
+	private void writeDurationUpdates() {
+		if(durationUpdates.isEmpty()) {
+			return;
+		}
+
+		try {
+			PendingLog pending;
+			while((pending = durationUpdates.poll()) != null) {
+				updateDuration(pending.logObj.getKey(), pending.getWrittenDuration());
+			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.error("Cannot update the duration of the user activity log", e);
+		}
+	}
+
+	/**
+	 * Append the logging objects to the spill file.
+	 * 
+	 * @param logObjs The logging objects
+	 */
+	private void spill(List<LoggingObject> logObjs) {
+		synchronized(spillLock) {
+			try {
+				append(spillDirectory.resolve(SPILL_FILENAME), logObjs);
+				spilled.add(logObjs.size());
+			} catch (IOException e) {
+				dropped.add(logObjs.size());
+				log.error("Cannot spill {} lines of the user activity log, they are lost", logObjs.size(), e);
+			}
+		}
+	}
+
+	/**
+	 * Append the logging objects which cannot be written to the quarantine
+	 * file. The file has the format of the spill file, it is not replayed.
+	 * 
+	 * @param logObjs The logging objects
+	 */
+	private void quarantine(List<LoggingObject> logObjs) {
+		synchronized(spillLock) {
+			Path quarantineFile = spillDirectory.resolve(QUARANTINE_FILENAME);
+			try {
+				append(quarantineFile, logObjs);
+				quarantined.add(logObjs.size());
+				log.error("{} lines of the user activity log cannot be written, moved to: {}", logObjs.size(), quarantineFile);
+			} catch (IOException e) {
+				dropped.add(logObjs.size());
+				log.error("Cannot quarantine {} lines of the user activity log, they are lost", logObjs.size(), e);
+			}
+		}
+	}
+
+	/**
+	 * Append the records to the file and force them to the disk. A record
+	 * is the length of the serialized object followed by the serialized object.
+	 */
+	private void append(Path file, List<LoggingObject> logObjs) throws IOException {
+		Files.createDirectories(spillDirectory);
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+			for(LoggingObject logObj:logObjs) {
+				byte[] data = serialize(logObj);
+				out.writeInt(data.length);
+				out.write(data);
+			}
+			out.flush();
+			channel.force(true);
+		}
+	}
+
+	private void replaySpilledLogs() {
+		Path replayFile = spillDirectory.resolve(REPLAY_FILENAME);
+		synchronized(spillLock) {
+			Path spillFile = spillDirectory.resolve(SPILL_FILENAME);
+			try {
+				if(!Files.exists(replayFile) && Files.exists(spillFile)) {
+					Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+				}
+			} catch (IOException e) {
+				log.error("Cannot replay the spilled user activity log", e);
+				return;
+			}
+		}
+		if(!Files.exists(replayFile)) {
+			return;
+		}
+
+		int count = 0;
+		boolean ok = true;
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(replayFile)))) {
+			LoggingObject logObj;
+			while((logObj = readRecord(in)) != null) {
+				batch.add(logObj);
+				if(batch.size() >= batchSize) {
+					if(ok) {
+						// if the database is not available, the rest is spilled again
+						ok = persist(batch);
+						count += batch.size();
+					} else {
+						spill(batch);
+					}
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			log.error("Spilled user activity log is corrupted after {} lines", count, e);
+		}
+		
+		if(!batch.isEmpty()) {
+			if(ok) {
+				persist(batch);
+				count += batch.size();
+			} else {
+				spill(batch);
+			}
+		}
+
+		try {
+			Files.delete(replayFile);
+			log.info("{} lines of the spilled user activity log replayed", count);
+		} catch (IOException e) {
+			log.error("Cannot delete the replayed user activity log", e);
+		}
+	}
+
+	private static LoggingObject readRecord(DataInputStream in) throws IOException, ClassNotFoundException {
+		int length;
+		try {
+			length = in.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		byte[] data = new byte[length];
+		in.readFully(data);
+		try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return (LoggingObject)ois.readObject();
+		}
+	}
+
+	private static byte[] serialize(LoggingObject logObj) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+		try(ObjectOutputStream oos = new ObjectOutputStream(out)) {
+			oos.writeObject(logObj);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * The handle of a queued logging object. The logging object is only
+	 * modified by the request threads until the writer takes it, the
+	 * duration set later is kept in the handle for the update query.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	public static class PendingLog {
+
+		private final LoggingObject logObj;
+		private final boolean awaitDuration;
+		private final long queued = System.currentTimeMillis();
+		private boolean taken = false;
+		private boolean durationSet = false;
+		private long writtenDuration = 0l;
+
+		private PendingLog(LoggingObject logObj, boolean awaitDuration) {
+			this.logObj = logObj;
+			this.awaitDuration = awaitDuration;
+		}
+
+		/**
+		 * @param duration The duration
+		 * @return true if the duration will be written with the logging object
+		 */
+		private synchronized boolean setDuration(long duration) {
+			if(taken) {
+				writtenDuration = duration;
+				return false;
+			}
+			logObj.setSimpleDuration(duration);
+			durationSet = true;
+			return true;
+		}
+
+		private synchronized long getWrittenDuration() {
+			return writtenDuration;
+		}
+
+		/**
+		 * @param now The current time
+		 * @param holdTime The max. time to wait for the duration
+		 * @return true if the line can be written
+		 */
+		private synchronized boolean isReady(long now, long holdTime) {
+			return durationSet || !awaitDuration || now - queued >= holdTime;
+		}
+
+		private synchronized LoggingObject take() {
+			taken = true;
+			return logObj;
+		}
+	}
+}
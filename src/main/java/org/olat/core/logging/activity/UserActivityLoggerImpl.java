@@ -26,6 +26,7 @@
 
 package org.olat.core.logging.activity;
 
+import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -71,8 +72,9 @@ import org.olat.core.util.session.UserSessionManager;
  * clicks - hence the simpleDuration can only be useful to some extend.
  * The plan is to introduce a semanticDuration or some other concept later.
  * Anyway, for the simpleDuration the UserActivityLoggerImpl stores
- * the last LoggingObject (the actual hibernate object) into the session
- * for comparison later.
+ * a handle to the last LoggingObject into the session for comparison
+ * later. The LoggingObjects are written by the UserActivityLogWriter,
+ * asynchronously by default.
  * <p>
  * 
  * <P>
@@ -718,6 +720,9 @@ public class UserActivityLoggerImpl implements IUserActivityLogger {
 		logObj.setSourceClass(callingClass.getCanonicalName());
 		logObj.setResourceAdminAction(actionType.equals(ActionType.admin)?true:false);
 		
+		// the line can be written later, the creation date is the date of the action
+		logObj.setCreationDate(new Date());
+		
 		// and store it
 		DB db = DBFactory.getInstance();
 		if (db!=null && db.isError()) {
@@ -726,7 +731,18 @@ public class UserActivityLoggerImpl implements IUserActivityLogger {
 			//@TODO: lower to log_.info once we checked that it doesn't occur very often (best for 6.4)
 			log_.warn("log: DB is in Error state therefore the UserActivityLoggerImpl cannot store the following logging action into the loggingtable: "+logObj);
 		} else {
-			DBFactory.getInstance().saveObject(logObj);
+			UserActivityLogWriter logWriter = CoreSpringFactory.getImpl(UserActivityLogWriter.class);
+			if(session_ != null) {
+				// simpleDuration: the time between the last log of the session and this one
+				Object lastLog = session_.getEntry(USESS_KEY_USER_ACTIVITY_LOGGING_LAST_LOG);
+				if(lastLog instanceof UserActivityLogWriter.PendingLog) {
+					logWriter.updateDuration((UserActivityLogWriter.PendingLog)lastLog, logObj.getCreationDate());
+				}
+			}
+			UserActivityLogWriter.PendingLog pendingLog = logWriter.write(logObj, session_ != null);
+			if(session_ != null) {
+				session_.putEntry(USESS_KEY_USER_ACTIVITY_LOGGING_LAST_LOG, pendingLog);
+			}
 		}
 		if (log_.isDebugEnabled()) {
 			Long logEnd = System.currentTimeMillis();
@@ -44,6 +44,7 @@ import org.olat.core.dispatcher.DispatcherModule;
 import org.olat.core.dispatcher.mapper.GlobalMapperRegistry;
 import org.olat.core.dispatcher.mapper.MapperDispatcher;
 import org.olat.core.extensions.ExtManager;
+import org.olat.core.gui.control.pushpoll.PushChannelManager;
 import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.helpers.Settings;
 import org.apache.logging.log4j.Logger;
@@ -95,6 +96,9 @@ public class OpenOLATServlet extends HttpServlet {
 		webDAVDispatcher = CoreSpringFactory.getImpl(WebDAVDispatcher.class);
 		dispatchers.put(DispatcherModule.WEBDAV_PATH, webDAVDispatcher);
 		
+		// the web socket end point must be deployed before the first request
+		CoreSpringFactory.getImpl(PushChannelManager.class).deployEndpoint(servletConfig.getServletContext());
+		
 		Settings settings = CoreSpringFactory.getImpl(Settings.class);
 		if(StringHelper.containsNonWhitespace(settings.getLegacyContext())) {
 			legacyContext = settings.getLegacyContext();
@@ -0,0 +1,260 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.cache;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+
+/**
+ * The metrics of a named cache. The counters are updated by
+ * the {@link InstrumentedCacheWrapper} and by the eviction listener
+ * of the cache implementation.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+
+	private static final Logger log = Tracing.createLoggerFor(CacheMetrics.class);
+
+	private static final int MEMORY_SAMPLE_SIZE = 50;
+	private static final long[] LOAD_TIME_BOUNDS = new long[] { 1l, 10l, 100l, 1000l };
+
+	private final String name;
+	private final CacheWrapper<?,?> cache;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder puts = new LongAdder();
+	private final LongAdder removals = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+	private final LongAccumulator maxLoadTime = new LongAccumulator(Long::max, 0l);
+	private final LongAdder[] loadTimeHistogram = new LongAdder[LOAD_TIME_BOUNDS.length + 1];
+
+	/**
+	 * @param name The name of the cache
+	 * @param cache The not instrumented cache, used to calculate the size and the memory
+	 */
+	public CacheMetrics(String name, CacheWrapper<?,?> cache) {
+		this.name = name;
+		this.cache = cache;
+		for(int i=loadTimeHistogram.length; i-->0; ) {
+			loadTimeHistogram[i] = new LongAdder();
+		}
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	public void hit() {
+		hits.increment();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public void miss() {
+		misses.increment();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0.0d : (h * 100.0d) / total;
+	}
+
+	public void put() {
+		puts.increment();
+	}
+
+	@Override
+	public long getPuts() {
+		return puts.sum();
+	}
+
+	public void remove() {
+		removals.increment();
+	}
+
+	@Override
+	public long getRemovals() {
+		return removals.sum();
+	}
+
+	public void evicted(int numOfEntries) {
+		evictions.add(numOfEntries);
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * @param nanos The time in nanoseconds needed to load the value
+	 */
+	public void load(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		loads.increment();
+		loadTime.add(millis);
+		maxLoadTime.accumulate(millis);
+
+		int bucket = 0;
+		for( ; bucket<LOAD_TIME_BOUNDS.length && millis >= LOAD_TIME_BOUNDS[bucket]; bucket++);
+		loadTimeHistogram[bucket].increment();
+	}
+
+	@Override
+	public long getLoads() {
+		return loads.sum();
+	}
+
+	@Override
+	public double getAverageLoadTime() {
+		long l = loads.sum();
+		return l == 0 ? 0.0d : ((double)loadTime.sum()) / l;
+	}
+
+	@Override
+	public long getMaxLoadTime() {
+		return maxLoadTime.get();
+	}
+
+	@Override
+	public String getLoadTimeHistogram() {
+		StringBuilder sb = new StringBuilder(64);
+		for(int i=0; i<loadTimeHistogram.length; i++) {
+			if(i > 0) {
+				sb.append(", ");
+			}
+			if(i < LOAD_TIME_BOUNDS.length) {
+				sb.append("<").append(LOAD_TIME_BOUNDS[i]).append("ms");
+			} else {
+				sb.append(">=").append(LOAD_TIME_BOUNDS[i - 1]).append("ms");
+			}
+			sb.append(": ").append(loadTimeHistogram[i].sum());
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public long getEstimatedMemory() {
+		int size = cache.size();
+		if(size == 0) {
+			return 0l;
+		}
+
+		int sampled = 0;
+		long sampledBytes = 0l;
+		Iterator<?> keys = cache.iterateKeys();
+		try {
+			for( ; keys.hasNext() && sampled < MEMORY_SAMPLE_SIZE; ) {
+				Object value = getValue(keys.next());
+				if(value instanceof Serializable) {
+					sampledBytes += serializedSize(value);
+					sampled++;
+				} else if(value != null) {
+					return -1l;
+				}
+			}
+		} catch (Exception e) {
+			log.debug("Cannot estimate the memory of cache: {}", name, e);
+			return -1l;
+		} finally {
+			if(keys instanceof AutoCloseable) {
+				try {
+					((AutoCloseable)keys).close();
+				} catch (Exception e) {
+					log.debug("", e);
+				}
+			}
+		}
+		return sampled == 0 ? 0l : (sampledBytes / sampled) * size;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object getValue(Object key) {
+		return ((CacheWrapper<Object,?>)cache).get(key);
+	}
+
+	private static long serializedSize(Object value) throws IOException {
+		CountingOutputStream counter = new CountingOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(counter)) {
+			out.writeObject(value);
+		}
+		return counter.count;
+	}
+
+	@Override
+	public void reset() {
+		hits.reset();
+		misses.reset();
+		puts.reset();
+		removals.reset();
+		evictions.reset();
+		loads.reset();
+		loadTime.reset();
+		maxLoadTime.reset();
+		for(LongAdder bucket:loadTimeHistogram) {
+			bucket.reset();
+		}
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count = 0l;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
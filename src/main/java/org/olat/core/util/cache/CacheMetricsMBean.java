@@ -0,0 +1,80 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.cache;
+
+/**
+ * The JMX view of the metrics of a named cache.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface CacheMetricsMBean {
+
+	public String getName();
+
+	public long getHits();
+
+	public long getMisses();
+
+	/**
+	 * @return The ratio hits / (hits + misses) in percent
+	 */
+	public double getHitRatio();
+
+	public long getPuts();
+
+	public long getRemovals();
+
+	public long getEvictions();
+
+	public int getSize();
+
+	/**
+	 * @return The number of values loaded by computeIfAbsent
+	 */
+	public long getLoads();
+
+	/**
+	 * @return The average time in milliseconds to load a value
+	 */
+	public double getAverageLoadTime();
+
+	/**
+	 * @return The max. time in milliseconds to load a value
+	 */
+	public long getMaxLoadTime();
+
+	/**
+	 * @return The number of loads per time range (<1ms, <10ms, <100ms, <1s, >=1s)
+	 */
+	public String getLoadTimeHistogram();
+
+	/**
+	 * The estimation is made by serializing a sample of the values. It's
+	 * an expensive operation and can return -1 if the values are not
+	 * serializable.
+	 *
+	 * @return The estimated size in bytes of the values of the cache
+	 */
+	public long getEstimatedMemory();
+
+	public void reset();
+
+}
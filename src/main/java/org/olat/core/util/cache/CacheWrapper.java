@@ -27,6 +27,7 @@ package org.olat.core.util.cache;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 
@@ -123,6 +124,14 @@ public interface CacheWrapper<U, V> {
 	 */
 	public Iterator<U> iterateKeys();
 	
+	/**
+	 * Iterate over the keys without copying the whole set of keys.
+	 * In the case of distributed cache, the keys can be partial.
+	 * 
+	 * @param action The action called for every key
+	 */
+	public void forEachKey(Consumer<? super U> action);
+	
 	public void clear();
 	
 	/**
@@ -0,0 +1,157 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.cache;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A decorator which records the hits, misses, puts, removals and the
+ * time needed to load the values of computeIfAbsent in the metrics
+ * of the cache.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class InstrumentedCacheWrapper<U, V> implements CacheWrapper<U, V> {
+
+	private final CacheWrapper<U, V> delegate;
+	private final CacheMetrics metrics;
+
+	public InstrumentedCacheWrapper(CacheWrapper<U, V> delegate, CacheMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public boolean containsKey(U key) {
+		return delegate.containsKey(key);
+	}
+
+	@Override
+	public V get(U key) {
+		V value = delegate.get(key);
+		if(value == null) {
+			metrics.miss();
+		} else {
+			metrics.hit();
+		}
+		return value;
+	}
+
+	@Override
+	public V update(U key, V value) {
+		metrics.put();
+		return delegate.update(key, value);
+	}
+
+	@Override
+	public V put(U key, V value) {
+		metrics.put();
+		return delegate.put(key, value);
+	}
+
+	@Override
+	public V putIfAbsent(U key, V value) {
+		V previous = delegate.putIfAbsent(key, value);
+		if(previous == null) {
+			metrics.put();
+		}
+		return previous;
+	}
+
+	@Override
+	public V replace(U key, V value) {
+		V previous = delegate.replace(key, value);
+		if(previous != null) {
+			metrics.put();
+		}
+		return previous;
+	}
+
+	@Override
+	public V computeIfAbsent(U key, Function<? super U, ? extends V> mappingFunction) {
+		final boolean[] loaded = new boolean[] { false };
+		V value = delegate.computeIfAbsent(key, k -> {
+			loaded[0] = true;
+			long start = System.nanoTime();
+			try {
+				return mappingFunction.apply(k);
+			} finally {
+				metrics.load(System.nanoTime() - start);
+			}
+		});
+
+		if(loaded[0]) {
+			metrics.miss();
+			if(value != null) {
+				metrics.put();
+			}
+		} else {
+			metrics.hit();
+		}
+		return value;
+	}
+
+	@Override
+	public List<U> getKeys() {
+		return delegate.getKeys();
+	}
+
+	@Override
+	public V remove(U key) {
+		V value = delegate.remove(key);
+		if(value != null) {
+			metrics.remove();
+		}
+		return value;
+	}
+
+	@Override
+	public int size() {
+		return delegate.size();
+	}
+
+	@Override
+	public Iterator<U> iterateKeys() {
+		return delegate.iterateKeys();
+	}
+
+	@Override
+	public void forEachKey(Consumer<? super U> action) {
+		delegate.forEachKey(action);
+	}
+
+	@Override
+	public void clear() {
+		delegate.clear();
+	}
+
+	@Override
+	public void addListener(Object obj) {
+		delegate.addListener(obj);
+	}
+}
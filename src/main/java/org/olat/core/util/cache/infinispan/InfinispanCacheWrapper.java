@@ -28,9 +28,11 @@ package org.olat.core.util.cache.infinispan;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.infinispan.Cache;
+import org.infinispan.commons.util.CloseableIterator;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.util.cache.CacheWrapper;
 
@@ -123,6 +125,15 @@ public class InfinispanCacheWrapper<U,V> implements CacheWrapper<U,V> {
 		return cache.keySet().iterator();
 	}
 
+	@Override
+	public void forEachKey(Consumer<? super U> action) {
+		try(CloseableIterator<U> it = cache.keySet().iterator()) {
+			while(it.hasNext()) {
+				action.accept(it.next());
+			}
+		}
+	}
+
 	@Override
 	public void clear() {
 		cache.clear();
@@ -25,15 +25,28 @@
 */ 
 package org.olat.core.util.cache.infinispan;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.ObjectName;
+
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
 import org.infinispan.transaction.TransactionMode;
 import org.infinispan.util.concurrent.IsolationLevel;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.util.cache.CacheMetrics;
 import org.olat.core.util.cache.CacheWrapper;
+import org.olat.core.util.cache.InstrumentedCacheWrapper;
 import org.olat.core.util.coordinate.Cacher;
 
 /**
@@ -46,12 +59,43 @@ import org.olat.core.util.coordinate.Cacher;
  */
 public class InfinispanCacher implements Cacher {
 	
+	private static final String MBEAN_DOMAIN = "org.olat.core.util.cache:type=CacheMetrics,name=";
+	
 	private EmbeddedCacheManager cacheManager;
+	private JMXManager jmxManager;
+	private final ConcurrentMap<String,CacheMetrics> metrics = new ConcurrentHashMap<>();
 	
 	public InfinispanCacher(EmbeddedCacheManager cacheManager) {
 		this.cacheManager = cacheManager;
 	}
 	
+	/**
+	 * [used by Spring]
+	 * @param jmxManager
+	 */
+	public void setJmxManager(JMXManager jmxManager) {
+		this.jmxManager = jmxManager;
+	}
+	
+	/**
+	 * [used by Spring]
+	 */
+	public void destroy() {
+		if(jmxManager != null) {
+			for(String cacheName:metrics.keySet()) {
+				jmxManager.unregisterMBean(MBEAN_DOMAIN + ObjectName.quote(cacheName));
+			}
+		}
+		metrics.clear();
+	}
+	
+	/**
+	 * @return The metrics of the caches created by this cacher
+	 */
+	public List<CacheMetrics> getCacheMetrics() {
+		return new ArrayList<>(metrics.values());
+	}
+	
 	@Override
 	public EmbeddedCacheManager getCacheContainer() {
 		return cacheManager;
@@ -65,7 +109,18 @@ public class InfinispanCacher implements Cacher {
 		}
 		
 		Cache<U, V> cache = cacheManager.getCache(cacheName);
-		return new InfinispanCacheWrapper<>(cache);
+		InfinispanCacheWrapper<U,V> wrapper = new InfinispanCacheWrapper<>(cache);
+		CacheMetrics cacheMetrics = metrics.computeIfAbsent(cacheName, name -> createMetrics(name, wrapper));
+		return new InstrumentedCacheWrapper<>(wrapper, cacheMetrics);
+	}
+	
+	private CacheMetrics createMetrics(String cacheName, InfinispanCacheWrapper<?,?> wrapper) {
+		CacheMetrics cacheMetrics = new CacheMetrics(cacheName, wrapper);
+		wrapper.addListener(new EvictionListener(cacheMetrics));
+		if(jmxManager != null) {
+			jmxManager.registerMBean(cacheMetrics, MBEAN_DOMAIN + ObjectName.quote(cacheName));
+		}
+		return cacheMetrics;
 	}
 	
 	private void createInfinispanConfiguration(String cacheName) {	
@@ -95,4 +150,19 @@ public class InfinispanCacher implements Cacher {
 			cacheManager.defineConfiguration(cacheName, configurationOverride);
 		}
 	}	
-}
\ No newline at end of file
+
+	@Listener(observation = Listener.Observation.POST)
+	public static class EvictionListener {
+		
+		private final CacheMetrics cacheMetrics;
+		
+		public EvictionListener(CacheMetrics cacheMetrics) {
+			this.cacheMetrics = cacheMetrics;
+		}
+		
+		@CacheEntriesEvicted
+		public void evicted(CacheEntriesEvictedEvent<?,?> event) {
+			cacheMetrics.evicted(event.getEntries().size());
+		}
+	}
+}
@@ -68,6 +68,16 @@ public interface Locker {
 	 */
 	public boolean isLocked(OLATResourceable ores, String locksubkey);
 	
+	/**
+	 * Check in one call which resources of a list are locked, for
+	 * example to show the locks in a table.
+	 * 
+	 * @param resources A list of resources
+	 * @param locksubkey null or the subkey of the locks
+	 * @return The resources of the list which are locked by someone
+	 */
+	public <T extends OLATResourceable> List<T> getLockedResources(List<T> resources, String locksubkey);
+	
 	/**
 	 * 
 	 * @param ores
@@ -0,0 +1,288 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.event;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.businfo.BusListenerInfo;
+
+/**
+ * The registry of the listeners of an event bus. The channels are indexed
+ * by type (resourceable without id) and by type and id in two concurrent
+ * maps. Each channel holds an immutable array of weak references to its
+ * listeners which is replaced (copy on write) when a listener is added or
+ * removed. The modifications of a channel are serialized by the
+ * concurrent map (compute methods), the lookups made to fire an event
+ * are lock-free.
+ * <p>
+ * The garbage collected listeners are enqueued in a reference queue and
+ * removed from their channel by the next registration or by the
+ * collection of the listener infos, never by the fire path.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+final class EventListenerRegistry {
+
+	private final ConcurrentHashMap<String, EventAgency> infocenter = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, EventAgency> typeInfocenter = new ConcurrentHashMap<>();
+	private final ReferenceQueue<GenericEventListener> staleListeners = new ReferenceQueue<>();
+
+	void register(GenericEventListener gel, Identity identity, OLATResourceable ores) {
+		purgeStaleListeners();
+
+		final Long identityKey = identity == null ? null : identity.getKey();
+		final Long oresId = ores.getResourceableId();
+		final String typeName = ores.getResourceableTypeName();
+		if (oresId == null) {
+			// the agency which listens to all events with the type of the ores
+			typeInfocenter.compute(typeName, (key, ea) -> {
+				if(ea == null) {
+					ea = new EventAgency();
+				}
+				ea.addListener(new ListenerRef(gel, identityKey, key, true, staleListeners));
+				return ea;
+			});
+		} else {
+			infocenter.compute(channelKey(typeName, oresId), (key, ea) -> {
+				if(ea == null) {
+					ea = new EventAgency();
+				}
+				ea.addListener(new ListenerRef(gel, identityKey, key, false, staleListeners));
+				return ea;
+			});
+		}
+	}
+
+	void deregister(GenericEventListener gel, OLATResourceable ores) {
+		final Long oresId = ores.getResourceableId();
+		final String typeName = ores.getResourceableTypeName();
+		if (oresId == null) {
+			typeInfocenter.computeIfPresent(typeName, (key, ea) -> ea.removeListener(gel) ? null : ea);
+		} else {
+			infocenter.computeIfPresent(channelKey(typeName, oresId), (key, ea) -> ea.removeListener(gel) ? null : ea);
+		}
+	}
+
+	/**
+	 * Lock-free lookup of the listeners of the specified resourceable.
+	 *
+	 * @param ores The resourceable
+	 * @return The listeners of the resourceable (type and id), can be null
+	 */
+	ListenerRef[] getListeners(OLATResourceable ores) {
+		final Long oresId = ores.getResourceableId();
+		if(oresId == null) {
+			return null;
+		}
+		EventAgency ea = infocenter.get(channelKey(ores.getResourceableTypeName(), oresId));
+		return ea == null ? null : ea.fired();
+	}
+
+	/**
+	 * Lock-free lookup of the listeners of the type of the specified resourceable.
+	 *
+	 * @param ores The resourceable
+	 * @return The listeners of the type, can be null
+	 */
+	ListenerRef[] getTypeListeners(OLATResourceable ores) {
+		EventAgency ea = typeInfocenter.get(ores.getResourceableTypeName());
+		return ea == null ? null : ea.fired();
+	}
+
+	/**
+	 * Update the counter of delivered events of a channel.
+	 * 
+	 * @param ores The resourceable
+	 * @param type true for the channel of the type of the resourceable
+	 * @param deliveries The number of listeners which received the event
+	 */
+	void delivered(OLATResourceable ores, boolean type, int deliveries) {
+		final Long oresId = ores.getResourceableId();
+		EventAgency ea = type || oresId == null ? typeInfocenter.get(ores.getResourceableTypeName())
+				: infocenter.get(channelKey(ores.getResourceableTypeName(), oresId));
+		if(ea != null) {
+			ea.deliveries.add(deliveries);
+		}
+	}
+
+	int getListenerCount(OLATResourceable ores) {
+		final Long oresId = ores.getResourceableId();
+		EventAgency ea = oresId == null ? typeInfocenter.get(ores.getResourceableTypeName())
+				: infocenter.get(channelKey(ores.getResourceableTypeName(), oresId));
+		return ea == null ? 0 : ea.getListenerCount();
+	}
+
+	void collectInfos(BusListenerInfo bii) {
+		purgeStaleListeners();
+		collectInfos(infocenter, bii);
+		collectInfos(typeInfocenter, bii);
+	}
+
+	private void collectInfos(Map<String, EventAgency> agencies, BusListenerInfo bii) {
+		for(Map.Entry<String, EventAgency> entry:agencies.entrySet()) {
+			EventAgency ea = entry.getValue();
+			int cnt = ea.getListenerCount();
+			// only add those with at least one current listener. Telling that a resource has no listeners is unneeded since we update
+			// the whole table on each clusterInfoEvent (cluster:: could be improved by only sending the delta of listeners)
+			if(cnt > 0) {
+				bii.addEntry(entry.getKey(), cnt, ea.events.sum(), ea.deliveries.sum());
+			}
+		}
+	}
+
+	/**
+	 * Remove the listeners which were garbage collected from their channel
+	 * and the channels without listeners.
+	 */
+	void purgeStaleListeners() {
+		ListenerRef ref;
+		while((ref = (ListenerRef)staleListeners.poll()) != null) {
+			final ListenerRef staleRef = ref;
+			Map<String, EventAgency> agencies = staleRef.type ? typeInfocenter : infocenter;
+			agencies.computeIfPresent(staleRef.channel, (key, ea) -> ea.removeRef(staleRef) ? null : ea);
+		}
+	}
+
+	private static String channelKey(String typeName, Long oresId) {
+		return typeName + "::" + oresId;
+	}
+
+	/**
+	 * A weak reference to a listener which remembers its channel
+	 * to be cleaned up.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	static final class ListenerRef extends WeakReference<GenericEventListener> {
+
+		private final Long identityKey;
+		private final String channel;
+		private final boolean type;
+
+		private ListenerRef(GenericEventListener listener, Long identityKey, String channel, boolean type,
+				ReferenceQueue<GenericEventListener> queue) {
+			super(listener, queue);
+			this.identityKey = identityKey;
+			this.channel = channel;
+			this.type = type;
+		}
+
+		public Long getIdentityKey() {
+			return identityKey;
+		}
+	}
+
+	/**
+	 * The listeners of a channel. The array of listeners is never modified,
+	 * only replaced. The methods which replace it are only called within the
+	 * compute methods of the concurrent map which owns the agency.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	private static final class EventAgency {
+
+		private static final ListenerRef[] EMPTY = new ListenerRef[0];
+
+		private volatile ListenerRef[] listeners = EMPTY;
+		private final LongAdder events = new LongAdder();
+		private final LongAdder deliveries = new LongAdder();
+
+		ListenerRef[] fired() {
+			events.increment();
+			return listeners;
+		}
+
+		int getListenerCount() {
+			int count = 0;
+			for(ListenerRef ref:listeners) {
+				if(ref.get() != null) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * An instance may not be added twice (make no sense anyway).
+		 *
+		 * @param ref The reference to the instance which wants to listen to events.
+		 */
+		void addListener(ListenerRef ref) {
+			GenericEventListener gel = ref.get();
+			ListenerRef[] current = listeners;
+			for(ListenerRef listener:current) {
+				if(gel.equals(listener.get())) {
+					return;
+				}
+			}
+			ListenerRef[] copy = Arrays.copyOf(current, current.length + 1);
+			copy[current.length] = ref;
+			listeners = copy;
+		}
+
+		/**
+		 * @param gel The listener to remove
+		 * @return true if the agency has no listeners anymore
+		 */
+		boolean removeListener(GenericEventListener gel) {
+			ListenerRef[] current = listeners;
+			for(ListenerRef ref:current) {
+				if(gel.equals(ref.get())) {
+					return removeRef(ref);
+				}
+			}
+			return current.length == 0;
+		}
+
+		/**
+		 * @param ref The reference to remove
+		 * @return true if the agency has no listeners anymore
+		 */
+		boolean removeRef(ListenerRef ref) {
+			ListenerRef[] current = listeners;
+			int index = -1;
+			for(int i=current.length; i-->0; ) {
+				if(current[i] == ref) {
+					index = i;
+					break;
+				}
+			}
+
+			if(index >= 0) {
+				ListenerRef[] copy = new ListenerRef[current.length - 1];
+				System.arraycopy(current, 0, copy, 0, index);
+				System.arraycopy(current, index + 1, copy, index, current.length - index - 1);
+				listeners = copy;
+				return copy.length == 0;
+			}
+			return current.length == 0;
+		}
+	}
+}
@@ -80,6 +80,19 @@ public class MultiUserEvent extends Event {
 		return vm_marker == WebappHelper.getNodeId();
 	}
 	
+	/**
+	 * An event is coalescable if two equal events fired on the same channel
+	 * within a short time window can be delivered only once (for example a
+	 * simple invalidation). The default implementation only accepts plain
+	 * MultiUserEvent which carry a command and nothing else. Subclasses which
+	 * implement equals for all their fields can override it.
+	 * 
+	 * @return true if equal events on the same channel can be coalesced
+	 */
+	public boolean isCoalescable() {
+		return getClass() == MultiUserEvent.class;
+	}
+	
 	@Override
 	public int hashCode() { 
 		int hc = 3;
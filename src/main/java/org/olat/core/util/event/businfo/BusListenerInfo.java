@@ -45,6 +45,7 @@ import org.olat.core.util.resource.OresHelper;
 public class BusListenerInfo implements Serializable {
 	private static final long serialVersionUID = 5144991028203688442L;
 	private Map<String, Integer> listenersCnt = new HashMap<>();
+	private Map<String, long[]> eventsCnt = new HashMap<>();
 	
 	public BusListenerInfo() {
 		//
@@ -66,10 +67,41 @@ public class BusListenerInfo implements Serializable {
 		}
 	}
 
+	/**
+	 * @param derived The derived string of the channel
+	 * @return The number of events fired on this channel since the first listener registered, 0 if unknown
+	 */
+	public long getEventCountFor(String derived) {
+		synchronized(listenersCnt) {//cluster_ok
+			long[] cnt = eventsCnt == null ? null : eventsCnt.get(derived);
+			return cnt == null ? 0l : cnt[0];
+		}
+	}
+	
+	/**
+	 * @param derived The derived string of the channel
+	 * @return The number of events delivered to the listeners of this channel (the fan-out), 0 if unknown
+	 */
+	public long getDeliveryCountFor(String derived) {
+		synchronized(listenersCnt) {//cluster_ok
+			long[] cnt = eventsCnt == null ? null : eventsCnt.get(derived);
+			return cnt == null ? 0l : cnt[1];
+		}
+	}
 	
 	public void addEntry(String derivedString, int cnt) {
 		synchronized(listenersCnt) {//cluster_ok
-			listenersCnt.put(derivedString, new Integer(cnt));
+			listenersCnt.put(derivedString, Integer.valueOf(cnt));
+		}
+	}
+	
+	public void addEntry(String derivedString, int cnt, long events, long deliveries) {
+		synchronized(listenersCnt) {//cluster_ok
+			listenersCnt.put(derivedString, Integer.valueOf(cnt));
+			if(eventsCnt == null) {// deserialized from an older node
+				eventsCnt = new HashMap<>();
+			}
+			eventsCnt.put(derivedString, new long[] { events, deliveries });
 		}
 	}
 	
@@ -80,16 +80,24 @@ public class BusListenerInfos {
 		}
 		
 		// for each derived-string, print out the total number of listeners, and the contribution of each node
+		// followed by the number of events fired and delivered on this channel (the fan-out cost)
 		for (String derived : allNodesDerivedStrings) {
 			int total = 0;
+			long events = 0;
+			long deliveries = 0;
 			sb.append(derived).append(" : ");
 			for (Entry<Integer, BusListenerInfo> businfoEntry : nodeBusInfos.entrySet()) {
 				Integer nodeId = businfoEntry.getKey();
-				int cnt = businfoEntry.getValue().getCountFor(derived); 
+				BusListenerInfo busInfo = businfoEntry.getValue();
+				int cnt = busInfo.getCountFor(derived); 
 				sb.append("'").append(nodeId).append("':").append(cnt).append("; ");
 				total+= cnt;
+				events += busInfo.getEventCountFor(derived);
+				deliveries += busInfo.getDeliveryCountFor(derived);
 			}
-			sb.append(" Sum:").append(total).append("<br />");
+			sb.append(" Sum:").append(total)
+			  .append(" Events:").append(events)
+			  .append(" Deliveries:").append(deliveries).append("<br />");
 		}
 		return sb.toString();
 	}
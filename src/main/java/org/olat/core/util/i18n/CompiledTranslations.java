@@ -0,0 +1,95 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.i18n;
+
+import java.text.MessageFormat;
+import java.util.Map;
+
+/**
+ * The flattened translations of a bundle for a locale and a combination
+ * of the overlay and default locale flags. The values are already resolved
+ * through the overlay, the variant, country, default and fallback locales
+ * and the references to other keys. A missing key has no translation at
+ * all. The table is immutable, the translation tool replaces it by
+ * discarding the whole set of tables.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class CompiledTranslations {
+	
+	private final Map<String,Entry> entries;
+	
+	CompiledTranslations(Map<String,Entry> entries) {
+		this.entries = entries;
+	}
+	
+	static int index(boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		return (overlayEnabled ? 1 : 0) | (fallBackToDefaultLocale ? 2 : 0);
+	}
+	
+	int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * @param key The key
+	 * @param args The arguments or null
+	 * @return The formatted translation or null if the bundle doesn't have a translation
+	 */
+	String getLocalizedString(String key, Object[] args) {
+		Entry entry = entries.get(key);
+		if(entry == null) {
+			return null;
+		}
+		return args == null ? entry.value : entry.format(args);
+	}
+	
+	static class Entry {
+		
+		private final String value;
+		private volatile MessageFormat format;
+		
+		Entry(String value) {
+			this.value = value;
+		}
+		
+		/**
+		 * The pattern is parsed on the first use, single quotes are escaped
+		 * the same way as in the I18nManager. The MessageFormat is not thread
+		 * safe, a copy of the parsed pattern is used to format the message.
+		 * 
+		 * @param args The arguments
+		 * @return The formatted message
+		 */
+		String format(Object[] args) {
+			MessageFormat messageFormat = format;
+			if(messageFormat == null) {
+				String pattern = value;
+				if (pattern.indexOf('\'') > -1) {
+					pattern = pattern.replace("'", "''");
+				}
+				messageFormat = new MessageFormat(pattern);
+				format = messageFormat;
+			}
+			return ((MessageFormat)messageFormat.clone()).format(args);
+		}
+	}
+}
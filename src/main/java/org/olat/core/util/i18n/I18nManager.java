@@ -46,6 +46,7 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -140,6 +141,8 @@ public class I18nManager {
 	private ConcurrentMap<String, Properties> cachedBundles = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, String> cachedJSTranslatorData = new ConcurrentHashMap<>();
 	private ConcurrentMap<String, Deque<String>> referencingBundlesIndex = new ConcurrentHashMap<>();
+	// keys: locale, bundle name; values: the compiled tables indexed by the overlay and default locale flags
+	private volatile ConcurrentMap<Locale, ConcurrentMap<String, CompiledTranslations[]>> compiledTranslations = new ConcurrentHashMap<>();
 	private boolean cachingEnabled = true;
 	
 	private final I18nModule i18nModule;
@@ -201,8 +204,90 @@ public class I18nManager {
 	 *         possible and not found
 	 */
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		if (cachingEnabled && locale != null && !isCurrentThreadMarkLocalizedStringsEnabled()) {
+			return getCompiledTranslations(bundleName, locale, overlayEnabled, fallBackToDefaultLocale)
+					.getLocalizedString(key, args);
+		}
 		return getLocalizedString(bundleName, key, args, locale, overlayEnabled, fallBackToDefaultLocale, true, true, true, 0);
 	}
+	
+	/**
+	 * The compiled tables are built lazily per bundle and locale. The values
+	 * are resolved with the same fallback chain as the method above, the table
+	 * is only a flattened view of it. A concurrent build is harmless, the
+	 * first one wins. A build started before an edit of the translations
+	 * lands in the discarded set of tables.
+	 */
+	private CompiledTranslations getCompiledTranslations(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		ConcurrentMap<Locale, ConcurrentMap<String, CompiledTranslations[]>> compiled = compiledTranslations;
+		ConcurrentMap<String, CompiledTranslations[]> localeTranslations = compiled.get(locale);
+		if (localeTranslations == null) {
+			localeTranslations = compiled.computeIfAbsent(locale, loc -> new ConcurrentHashMap<>());
+		}
+		CompiledTranslations[] bundleTranslations = localeTranslations.get(bundleName);
+		if (bundleTranslations == null) {
+			bundleTranslations = localeTranslations.computeIfAbsent(bundleName, name -> new CompiledTranslations[4]);
+		}
+		
+		int index = CompiledTranslations.index(overlayEnabled, fallBackToDefaultLocale);
+		CompiledTranslations translations = bundleTranslations[index];
+		if (translations == null) {
+			translations = compileTranslations(bundleName, locale, overlayEnabled, fallBackToDefaultLocale);
+			bundleTranslations[index] = translations;
+		}
+		return translations;
+	}
+	
+	private CompiledTranslations compileTranslations(String bundleName, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale) {
+		// collect all the keys which can be reached by the fallback chain
+		Set<String> keys = new HashSet<>();
+		List<Locale> lookupLocales = new ArrayList<>(5);
+		lookupLocales.add(locale);
+		if (!locale.getVariant().equals("")) {
+			lookupLocales.add(i18nModule.getAllLocales().get(locale.getLanguage() + "_" + locale.getCountry()));
+		}
+		if (!locale.getCountry().equals("")) {
+			lookupLocales.add(i18nModule.getAllLocales().get(locale.getLanguage()));
+		}
+		lookupLocales.add(I18nModule.getDefaultLocale());
+		lookupLocales.add(i18nModule.getFallbackLocale());
+		for (Locale lookupLocale : lookupLocales) {
+			if (lookupLocale == null) continue;
+			
+			collectKeys(lookupLocale, bundleName, keys);
+			if (overlayEnabled) {
+				Locale overlayLocale = i18nModule.getOverlayLocales().get(lookupLocale);
+				if (overlayLocale != null) {
+					collectKeys(overlayLocale, bundleName, keys);
+				}
+			}
+		}
+		
+		Map<String,CompiledTranslations.Entry> entries = new HashMap<>();
+		for (String key : keys) {
+			String value = getLocalizedString(bundleName, key, null, locale, overlayEnabled, fallBackToDefaultLocale, true, true, false, 0);
+			if (value != null) {
+				entries.put(key, new CompiledTranslations.Entry(value));
+			}
+		}
+		return new CompiledTranslations(entries);
+	}
+	
+	private void collectKeys(Locale locale, String bundleName, Set<String> keys) {
+		Properties properties = getProperties(locale, bundleName, true, 0);
+		if (properties != null) {
+			for (Object key : properties.keySet()) {
+				keys.add((String)key);
+			}
+		}
+	}
+	
+	/**
+	 * Discard all the compiled translations, they will be rebuilt on demand.
+	 */
+	private void discardCompiledTranslations() {
+		compiledTranslations = new ConcurrentHashMap<>();
+	}
 
 	public String getLocalizedString(String bundleName, String key, Object[] args, Locale locale, boolean overlayEnabled, boolean fallBackToDefaultLocale,
 			boolean fallBackToFallbackLocale, boolean resolveRecursively, int recursionLevel) {
@@ -714,6 +799,7 @@ public class I18nManager {
 					cachedBundles.remove(bundleName);
 				}
 			}
+			discardCompiledTranslations();
 		}
 
 	}
@@ -1030,6 +1116,7 @@ public class I18nManager {
 				getResolvedProperties(locale, bundleName);
 			}
 		}
+		discardCompiledTranslations();
 	}
 
 	/**
@@ -1050,6 +1137,7 @@ public class I18nManager {
 				// initialization will happen lazy
 				if (cachedJSTranslatorData.containsKey(key)) cachedJSTranslatorData.remove(key);
 			}
+			discardCompiledTranslations();
 		}
 		// 2) Remove from filesystem
 		File baseDir = i18nModule.getPropertyFilesBaseDir(locale, bundleName);
@@ -1632,6 +1720,7 @@ public class I18nManager {
 		cachedBundles.clear();
 		cachedJSTranslatorData.clear();
 		referencingBundlesIndex.clear();
+		discardCompiledTranslations();
 	}
 
 	/**
@@ -1651,6 +1740,7 @@ public class I18nManager {
 			cachedJSTranslatorData = new AlwaysEmptyMap<>();
 			referencingBundlesIndex = new AlwaysEmptyMap<>();
 		}
+		discardCompiledTranslations();
 		cachingEnabled = useCache;
 	}
 
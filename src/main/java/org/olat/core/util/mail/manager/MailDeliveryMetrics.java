@@ -0,0 +1,152 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The counters of the SMTP transport pool and of the outbound queue.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class MailDeliveryMetrics implements MailDeliveryMetricsMBean {
+	
+	private final IntSupplier queueSize;
+	
+	private final LongAdder queued = new LongAdder();
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder retried = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder sendTime = new LongAdder();
+	private final LongAccumulator maxSendTime = new LongAccumulator(Long::max, 0l);
+	private final LongAdder connectionsOpened = new LongAdder();
+	private final AtomicInteger openConnections = new AtomicInteger();
+	
+	/**
+	 * @param queueSize Return the current size of the outbound queue
+	 */
+	public MailDeliveryMetrics(IntSupplier queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	@Override
+	public int getQueueSize() {
+		return queueSize.getAsInt();
+	}
+
+	@Override
+	public long getQueued() {
+		return queued.sum();
+	}
+	
+	public void queued() {
+		queued.increment();
+	}
+
+	@Override
+	public long getSent() {
+		return sent.sum();
+	}
+	
+	/**
+	 * @param nanos The time in nanoseconds needed to send the email
+	 */
+	public void sent(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		sent.increment();
+		sendTime.add(millis);
+		maxSendTime.accumulate(millis);
+	}
+
+	@Override
+	public long getFailed() {
+		return failed.sum();
+	}
+	
+	public void failed() {
+		failed.increment();
+	}
+
+	@Override
+	public long getRetried() {
+		return retried.sum();
+	}
+	
+	public void retried() {
+		retried.increment();
+	}
+
+	@Override
+	public long getDropped() {
+		return dropped.sum();
+	}
+	
+	public void dropped() {
+		dropped.increment();
+	}
+
+	@Override
+	public double getAverageSendTime() {
+		long s = sent.sum();
+		return s == 0 ? 0.0d : ((double)sendTime.sum()) / s;
+	}
+
+	@Override
+	public long getMaxSendTime() {
+		return maxSendTime.get();
+	}
+
+	@Override
+	public long getConnectionsOpened() {
+		return connectionsOpened.sum();
+	}
+
+	@Override
+	public int getOpenConnections() {
+		return openConnections.get();
+	}
+	
+	public void connectionOpened() {
+		connectionsOpened.increment();
+		openConnections.incrementAndGet();
+	}
+	
+	public void connectionClosed() {
+		openConnections.decrementAndGet();
+	}
+
+	@Override
+	public void reset() {
+		queued.reset();
+		sent.reset();
+		failed.reset();
+		retried.reset();
+		dropped.reset();
+		sendTime.reset();
+		maxSendTime.reset();
+		connectionsOpened.reset();
+	}
+}
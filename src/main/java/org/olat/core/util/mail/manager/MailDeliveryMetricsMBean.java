@@ -0,0 +1,76 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+/**
+ * The JMX view of the metrics of the delivery of the emails.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface MailDeliveryMetricsMBean {
+	
+	/**
+	 * @return The number of emails waiting in the outbound queue
+	 */
+	public int getQueueSize();
+	
+	/**
+	 * @return The number of emails written in the outbound queue
+	 */
+	public long getQueued();
+	
+	/**
+	 * @return The number of emails sent to the SMTP relay
+	 */
+	public long getSent();
+	
+	/**
+	 * @return The number of emails refused by the SMTP relay or not sent
+	 */
+	public long getFailed();
+	
+	/**
+	 * @return The number of emails of the outbound queue rescheduled after a failure
+	 */
+	public long getRetried();
+	
+	/**
+	 * @return The number of emails of the outbound queue given up
+	 */
+	public long getDropped();
+	
+	/**
+	 * @return The average time in milliseconds to send an email
+	 */
+	public double getAverageSendTime();
+	
+	/**
+	 * @return The max. time in milliseconds to send an email
+	 */
+	public long getMaxSendTime();
+	
+	public long getConnectionsOpened();
+	
+	public int getOpenConnections();
+	
+	public void reset();
+
+}
@@ -0,0 +1,232 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.File;
+import java.util.Properties;
+
+import javax.mail.Authenticator;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.services.jmx.JMXManager;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.mail.MailerSMTPAuthenticator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sun.mail.smtp.SMTPMessage;
+
+/**
+ * Deliver the emails to the SMTP relay with a pool of connections and
+ * a persistent outbound queue. The pool is recreated if the configuration
+ * of the relay changes.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class MailDeliveryService implements MailOutboundQueue.Delivery, InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(MailDeliveryService.class);
+	
+	private static final String MBEAN_NAME = "org.olat.core.util.mail:type=MailDelivery";
+	
+	@Value("${mail.smtp.pool.size:4}")
+	private int poolSize;
+	@Value("${mail.smtp.pool.max.messages:100}")
+	private int maxMessagesPerConnection;
+	@Value("${mail.smtp.pool.idle.timeout:60000}")
+	private long idleTimeout;
+	@Value("${mail.smtp.rate.limit:0}")
+	private double rateLimit;
+	@Value("${mail.queue.enabled:true}")
+	private boolean queueEnabled;
+	@Value("${mail.queue.workers:1}")
+	private int queueWorkers;
+	@Value("${mail.queue.max.attempts:10}")
+	private int queueMaxAttempts;
+	@Value("${mail.queue.retry.delay:60000}")
+	private long queueRetryDelay;
+	
+	@Autowired
+	private JMXManager jmxManager;
+	
+	private MailOutboundQueue outboundQueue;
+	private final MailDeliveryMetrics metrics = new MailDeliveryMetrics(this::getQueueSize);
+	
+	private SmtpTransportPool transportPool;
+	private String transportPoolConfiguration;
+	
+	@Override
+	public void afterPropertiesSet() {
+		if(queueEnabled) {
+			File directory = new File(WebappHelper.getUserDataRoot(), "mail/outbox/node" + WebappHelper.getNodeId());
+			outboundQueue = new MailOutboundQueue(directory, this, queueMaxAttempts, queueRetryDelay, metrics);
+			outboundQueue.start(queueWorkers);
+		}
+		jmxManager.registerMBean(metrics, MBEAN_NAME);
+	}
+	
+	@Override
+	public void destroy() {
+		if(outboundQueue != null) {
+			outboundQueue.stop();
+		}
+		synchronized(this) {
+			if(transportPool != null) {
+				transportPool.close();
+			}
+		}
+		jmxManager.unregisterMBean(MBEAN_NAME);
+	}
+	
+	public MailDeliveryMetrics getMetrics() {
+		return metrics;
+	}
+	
+	private int getQueueSize() {
+		return outboundQueue == null ? 0 : outboundQueue.size();
+	}
+	
+	@Override
+	public Session getSession() {
+		return getTransportPool().getSession();
+	}
+	
+	/**
+	 * Send the message now with a connection of the pool.
+	 * 
+	 * @param msg The message
+	 * @throws MessagingException
+	 */
+	@Override
+	public void send(MimeMessage msg) throws MessagingException {
+		String smtpFrom = WebappHelper.getMailConfig("smtpFrom");
+		if(StringHelper.containsNonWhitespace(smtpFrom)) {
+			try {
+				SMTPMessage smtpMsg = new SMTPMessage(msg);
+				smtpMsg.setEnvelopeFrom(smtpFrom);
+				msg = smtpMsg;
+			} catch (MessagingException e) {
+				log.error("", e);
+			}
+		}
+		getTransportPool().send(msg);
+	}
+	
+	/**
+	 * Save the message in the outbound queue, it will be sent
+	 * as soon as possible.
+	 * 
+	 * @param msg The message
+	 * @return true if the message is in the queue, false if the queue is
+	 * 		disabled or the message cannot be saved
+	 */
+	public boolean enqueue(MimeMessage msg) {
+		return outboundQueue != null && outboundQueue.enqueue(msg);
+	}
+	
+	/**
+	 * @param e An exception thrown by the send method
+	 * @return true if the message can be saved in the queue and sent later
+	 */
+	public boolean isTransientFailure(MessagingException e) {
+		return SmtpTransportPool.isTransientFailure(e);
+	}
+	
+	private synchronized SmtpTransportPool getTransportPool() {
+		String configuration = getConfiguration();
+		if(transportPool == null || !configuration.equals(transportPoolConfiguration)) {
+			if(transportPool != null) {
+				transportPool.close();
+			}
+			transportPool = new SmtpTransportPool(createSession(), poolSize, maxMessagesPerConnection,
+					idleTimeout, rateLimit, metrics);
+			transportPoolConfiguration = configuration;
+		}
+		return transportPool;
+	}
+	
+	private String getConfiguration() {
+		return String.join("|", WebappHelper.getMailConfig("mailhost"), WebappHelper.getMailConfig("mailport"),
+				WebappHelper.getMailConfig("mailTimeout"), WebappHelper.getMailConfig("sslEnabled"),
+				WebappHelper.getMailConfig("sslCheckCertificate"), WebappHelper.getMailConfig("smtpStarttls"),
+				WebappHelper.getMailConfig("smtpUser"), WebappHelper.getMailConfig("smtpPwd"));
+	}
+	
+	private Session createSession() {
+		String mailhost = WebappHelper.getMailConfig("mailhost");
+		String mailport = WebappHelper.getMailConfig("mailport");
+		String mailhostTimeout = WebappHelper.getMailConfig("mailTimeout");
+		boolean sslEnabled = Boolean.parseBoolean(WebappHelper.getMailConfig("sslEnabled"));
+		boolean sslCheckCertificate = Boolean.parseBoolean(WebappHelper.getMailConfig("sslCheckCertificate"));
+		boolean startTls = Boolean.parseBoolean(WebappHelper.getMailConfig("smtpStarttls"));
+		
+		Authenticator smtpAuth;
+		if (WebappHelper.isMailHostAuthenticationEnabled()) {
+			String smtpUser = WebappHelper.getMailConfig("smtpUser");
+			String smtpPwd = WebappHelper.getMailConfig("smtpPwd");
+			smtpAuth = new MailerSMTPAuthenticator(smtpUser, smtpPwd);
+		} else {
+			smtpAuth = null;
+		}
+		
+		Properties p = new Properties();
+		if(mailhost != null) {
+			p.put("mail.smtp.host", mailhost);
+		}
+		if(StringHelper.containsNonWhitespace(mailport)) {
+			p.put("mail.smtp.port", mailport);
+		}
+		if(mailhostTimeout != null) {
+			p.put("mail.smtp.timeout", mailhostTimeout);
+			p.put("mail.smtp.connectiontimeout", mailhostTimeout);
+		}
+		p.put("mail.smtp.ssl.enable", sslEnabled);
+		p.put("mail.smtp.ssl.checkserveridentity", sslCheckCertificate);
+		if(startTls) {
+			p.put("mail.smtp.starttls.enable", "true");
+			p.put("mail.smtp.ssl.trust", mailhost);
+		}
+		p.put("mail.smtp.sendpartial", Boolean.TRUE);
+		
+		Session mailSession;
+		if (smtpAuth == null) {
+			mailSession = Session.getInstance(p);
+		} else {
+			// use smtp authentication from configuration
+			p.put("mail.smtp.auth", "true");
+			mailSession = Session.getInstance(p, smtpAuth);
+		}
+		if (log.isDebugEnabled()) {
+			// enable mail session debugging on console
+			mailSession.setDebug(true);
+		}
+		return mailSession;
+	}
+}
@@ -49,14 +49,12 @@ import javax.activation.DataHandler;
 import javax.activation.DataSource;
 import javax.activation.FileDataSource;
 import javax.mail.Address;
-import javax.mail.Authenticator;
 import javax.mail.BodyPart;
 import javax.mail.Message.RecipientType;
 import javax.mail.MessagingException;
 import javax.mail.Multipart;
 import javax.mail.SendFailedException;
 import javax.mail.Session;
-import javax.mail.Transport;
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeBodyPart;
@@ -74,7 +72,6 @@ import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.olat.basesecurity.IdentityImpl;
 import org.olat.basesecurity.IdentityRef;
-import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.PublisherData;
@@ -100,7 +97,6 @@ import org.olat.core.util.mail.MailManager;
 import org.olat.core.util.mail.MailModule;
 import org.olat.core.util.mail.MailTemplate;
 import org.olat.core.util.mail.MailerResult;
-import org.olat.core.util.mail.MailerSMTPAuthenticator;
 import org.olat.core.util.mail.model.DBMail;
 import org.olat.core.util.mail.model.DBMailAttachment;
 import org.olat.core.util.mail.model.DBMailImpl;
@@ -118,7 +114,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import com.sun.mail.smtp.SMTPMessage;
 
 /**
  * 
@@ -149,6 +144,8 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	private final MailModule mailModule;
 	@Autowired
 	private GUISettings guiSettings;
+	@Autowired
+	private MailDeliveryService mailDeliveryService;
 
 	private FileStorage attachmentStorage;
 	
@@ -671,8 +668,8 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	@Override
 	public void sendMessageAsync(MailBundle... bundles) {
 		try {
-			SendMail sendMail = new SendMail(bundles);
-			DBSecureRunnable command = new DBSecureRunnable(sendMail);
+			// the emails are saved in the outbound queue and sent later
+			DBSecureRunnable command = new DBSecureRunnable(() -> sendMessage(bundles, true));
 			asyncExecutor.execute(command);
 		} catch (RejectedExecutionException e) {
 			log.error("Queue full, email lost", e);
@@ -683,17 +680,27 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 
 	@Override
 	public MailerResult sendMessage(MailBundle... bundles) {
+		return sendMessage(bundles, false);
+	}
+	
+	/**
+	 * @param bundles The emails
+	 * @param queued If true, the emails are saved in the outbound queue instead of
+	 * 		being sent immediately
+	 * @return The result
+	 */
+	private MailerResult sendMessage(MailBundle[] bundles, boolean queued) {
 		MailerResult result = new MailerResult();
 		for(MailBundle bundle:bundles) {
 			MailContent content = decorateMail(bundle);
 			InternetAddress mimeFrom = createMimeFrom(bundle.getMimeFromEmail(), bundle.getMimeFromName());
 			if (mailModule.isInternSystem()) {
 				saveDBMessage(bundle.getContext(), mimeFrom, bundle.getFromId(), bundle.getFrom(), bundle.getToId(),
-						bundle.getTo(), bundle.getCc(), bundle.getContactLists(), bundle.getMetaId(), content, result);
+						bundle.getTo(), bundle.getCc(), bundle.getContactLists(), bundle.getMetaId(), content, result, queued);
 			} else {
 				sendExternMessage(mimeFrom, bundle.getFromId(), bundle.getFrom(),
 						bundle.getToId(), bundle.getTo(), bundle.getCc(),
-						bundle.getContactLists(), content, result);
+						bundle.getContactLists(), content, result, queued);
 			}
 		}
 		return result;
@@ -872,7 +879,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		}
 		Address mimeFrom = createMimeFrom(bundle.getMimeFromEmail(), bundle.getMimeFromName());
 		return sendExternMessage(mimeFrom, bundle.getFromId(), bundle.getFrom(), bundle.getToId(), bundle.getTo(),
-				bundle.getCc(), bundle.getContactLists(), content, result);
+				bundle.getCc(), bundle.getContactLists(), content, result, false);
 	}
 	
 	
@@ -887,17 +894,18 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	 * @param subject
 	 * @param body
 	 * @param attachments
+	 * @param queued Save the email in the outbound queue
 	 * @return
 	 */
 	private MailerResult sendExternMessage(Address mimeFrom, Identity fromId, String from, Identity toId, String to,
-			Identity cc, List<ContactList> bccLists, MailContent content, MailerResult result) {
+			Identity cc, List<ContactList> bccLists, MailContent content, MailerResult result, boolean queued) {
 
 		if(result == null) {
 			result = new MailerResult();
 		}
 		MimeMessage mail = createMimeMessage(mimeFrom, fromId, from, toId, to, cc, bccLists, content, result);
 		if(mail != null) {
-			sendMessage(mail, result);
+			sendMessage(mail, result, queued);
 			if(result != null && !result.isSuccessful()) {
 				handleErrors(result, fromId, toId, cc, bccLists);
 			}
@@ -917,7 +925,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	}
 	
 	protected DBMail saveDBMessage(MailContext context, InternetAddress mimeFromAddress, Identity fromId, String from, Identity toId, String to, 
-			Identity cc, List<ContactList> bccLists, String metaId, MailContent content, MailerResult result) {
+			Identity cc, List<ContactList> bccLists, String metaId, MailContent content, MailerResult result, boolean queued) {
 		
 		try {
 			DBMailImpl mail = new DBMailImpl();
@@ -1090,7 +1098,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 			if(makeRealMail) {
 				//check that we send an email to someone
 				if(!toAddress.isEmpty() || !ccAddress.isEmpty() || !bccAddress.isEmpty()) {
-					sendRealMessage(mimeFromAddress, fromAddress, toAddress, ccAddress, bccAddress, subject, body, attachments, result);
+					sendRealMessage(mimeFromAddress, fromAddress, toAddress, ccAddress, bccAddress, subject, body, attachments, result, queued);
 					if(result != null && !result.isSuccessful()) {
 						handleErrors(result, fromId, toId, cc, bccLists);
 					}
@@ -1498,7 +1506,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	}
 	
 	private void sendRealMessage(Address mimeFrom, Address from, List<Address> toList, List<Address> ccList,
-			List<Address> bccList, String subject, String body, List<File> attachments, MailerResult result) {
+			List<Address> bccList, String subject, String body, List<File> attachments, MailerResult result, boolean queued) {
 		
 		Address[] tos = null;
 		if(toList != null && !toList.isEmpty()) {
@@ -1519,7 +1527,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		}
 
 		MimeMessage msg = createMimeMessage(mimeFrom, from, tos, ccs, bccs, subject, body, attachments, result);
-		sendMessage(msg, result);
+		sendMessage(msg, result, queued);
 	}
 	
 	private MimeMessage createForwardMimeMessage(Address from, Address to, String subject, String body,
@@ -1598,49 +1606,7 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 	 */
 	private MimeMessage createMessage(String subject, Address from)
 	throws AddressException, MessagingException, UnsupportedEncodingException {
-		String mailhost = WebappHelper.getMailConfig("mailhost");
-		String mailport = WebappHelper.getMailConfig("mailport");
-		String mailhostTimeout = WebappHelper.getMailConfig("mailTimeout");
-		boolean sslEnabled = Boolean.parseBoolean(WebappHelper.getMailConfig("sslEnabled"));
-		boolean sslCheckCertificate = Boolean.parseBoolean(WebappHelper.getMailConfig("sslCheckCertificate"));
-		boolean startTls = Boolean.parseBoolean(WebappHelper.getMailConfig("smtpStarttls"));
-		
-		Authenticator smtpAuth;
-		if (WebappHelper.isMailHostAuthenticationEnabled()) {
-			String smtpUser = WebappHelper.getMailConfig("smtpUser");
-			String smtpPwd = WebappHelper.getMailConfig("smtpPwd");
-			smtpAuth = new MailerSMTPAuthenticator(smtpUser, smtpPwd);
-		} else {
-			smtpAuth = null;
-		}
-		
-		Properties p = new Properties();
-		p.put("mail.smtp.host", mailhost);
-		if(StringHelper.containsNonWhitespace(mailport)) {
-			p.put("mail.smtp.port", mailport);
-		}
-		p.put("mail.smtp.timeout", mailhostTimeout);
-		p.put("mail.smtp.connectiontimeout", mailhostTimeout);
-		p.put("mail.smtp.ssl.enable", sslEnabled);
-		p.put("mail.smtp.ssl.checkserveridentity", sslCheckCertificate);
-		if(startTls) {
-			p.put("mail.smtp.starttls.enable", "true");
-			p.put("mail.smtp.ssl.trust", mailhost);
-		}
-		p.put("mail.smtp.sendpartial", Boolean.TRUE);
-		
-		Session mailSession;
-		if (smtpAuth == null) {
-			mailSession = javax.mail.Session.getInstance(p);
-		} else {
-			// use smtp authentication from configuration
-			p.put("mail.smtp.auth", "true");
-			mailSession = Session.getDefaultInstance(p, smtpAuth); 
-		}
-		if (log.isDebugEnabled()) {
-			// enable mail session debugging on console
-			mailSession.setDebug(true);
-		}
+		Session mailSession = mailDeliveryService.getSession();
 		MimeMessage msg = new MimeMessage(mailSession);
 		
 		String platformFrom = WebappHelper.getMailConfig("mailFrom");
@@ -1794,44 +1760,59 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		return multipart;
 	}
 
+	private void sendMessage(MimeMessage msg, MailerResult result, boolean queued) {
+		if(queued && msg != null && mailModule.isMailHostEnabled() && result.getReturnCode() == MailerResult.OK
+				&& mailDeliveryService.enqueue(msg)) {
+			return;
+		}
+		sendMessage(msg, result);
+	}
+
 	@Override
 	public void sendMessage(MimeMessage msg, MailerResult result) {
 		if (msg == null) return;
 
-		String smtpFrom = WebappHelper.getMailConfig("smtpFrom");
-		if(StringHelper.containsNonWhitespace(smtpFrom)) {
-			try {
-				SMTPMessage smtpMsg = new SMTPMessage(msg);
-				smtpMsg.setEnvelopeFrom(smtpFrom);
-				msg = smtpMsg;
-			} catch (MessagingException e) {
-				log.error("", e);
-			}
-		}
-
 		try{
 			if (mailModule.isMailHostEnabled() && result.getReturnCode() == MailerResult.OK) {
 				// now send the mail
 				if(Settings.isDebuging()) {
 					logMessage(msg);
 				}
-				Transport.send(msg);
+				mailDeliveryService.send(msg);
 			} else if(Settings.isDebuging() && result.getReturnCode() == MailerResult.OK) {
 				logMessage(msg);
 			} else {
 				result.setReturnCode(MailerResult.MAILHOST_UNDEFINED);
 			}
 		} catch(SendFailedException e) {
-			result.setReturnCode(MailerResult.RECIPIENT_ADDRESS_ERROR);
-			result.addInvalidAddresses(e.getInvalidAddresses());
-			result.addInvalidAddresses(e.getValidUnsentAddresses());
-			result.setErrorMessage(e.getMessage());
-			log.warn("Could not send mail: {}", e.getMessage());
+			if(!queueForRetry(msg, e)) {
+				result.setReturnCode(MailerResult.RECIPIENT_ADDRESS_ERROR);
+				result.addInvalidAddresses(e.getInvalidAddresses());
+				result.addInvalidAddresses(e.getValidUnsentAddresses());
+				result.setErrorMessage(e.getMessage());
+				log.warn("Could not send mail: {}", e.getMessage());
+			}
 		} catch (MessagingException e) {
-			result.setReturnCode(MailerResult.SEND_GENERAL_ERROR);
-			result.setErrorMessage(e.getMessage());
-			log.warn("Could not send mail: {}", e.getMessage());
+			if(!queueForRetry(msg, e)) {
+				result.setReturnCode(MailerResult.SEND_GENERAL_ERROR);
+				result.setErrorMessage(e.getMessage());
+				log.warn("Could not send mail: {}", e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * If the relay is not reachable or has a temporary error, the
+	 * message is saved in the outbound queue to be sent later.
+	 * 
+	 * @return true if the message was saved in the queue
+	 */
+	private boolean queueForRetry(MimeMessage msg, MessagingException e) {
+		if(mailDeliveryService.isTransientFailure(e) && mailDeliveryService.enqueue(msg)) {
+			log.warn("Could not send mail, saved in the outbound queue: {}", e.getMessage());
+			return true;
 		}
+		return false;
 	}
 	
 	private void logMessage(MimeMessage msg) throws MessagingException {
@@ -1867,20 +1848,6 @@ public class MailManagerImpl implements MailManager, InitializingBean  {
 		}
 	}
 	
-	public static class SendMail implements Runnable {
-		
-		private final MailBundle[] bundles;
-		
-		public SendMail(MailBundle[] bundles) {
-			this.bundles = bundles;
-		}
-
-		@Override
-		public void run() {
-			CoreSpringFactory.getImpl(MailManager.class).sendMessage(bundles);
-		}
-	}
-	
 	private static class VFSDataSource implements DataSource {
 		
 		private final String name;
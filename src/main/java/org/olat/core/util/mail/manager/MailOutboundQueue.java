@@ -0,0 +1,278 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import javax.mail.util.SharedFileInputStream;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * A persistent queue of emails. Every email is saved as an .eml file in
+ * the directory of the queue before being sent by the workers, and deleted
+ * after it was delivered. The files found in the directory at start are sent
+ * again. If the relay is not available or answer with a temporary error,
+ * the email is rescheduled with an exponential backoff. The emails which
+ * cannot be delivered after the max. number of attempts are moved in the
+ * "failed" sub-directory.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class MailOutboundQueue {
+	
+	private static final Logger log = Tracing.createLoggerFor(MailOutboundQueue.class);
+	
+	private static final String EML_SUFFIX = ".eml";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final long MAX_RETRY_DELAY = TimeUnit.HOURS.toMillis(1);
+	
+	private final File directory;
+	private final File failedDirectory;
+	private final Delivery delivery;
+	private final int maxAttempts;
+	private final long retryDelay;
+	private final MailDeliveryMetrics metrics;
+	private final DelayQueue<QueuedMail> queue = new DelayQueue<>();
+	
+	private ExecutorService workers;
+	
+	/**
+	 * @param directory The directory where the emails are saved
+	 * @param delivery The delivery
+	 * @param maxAttempts The max. number of attempts to send an email
+	 * @param retryDelay The delay in milliseconds before the first retry, doubled after every attempt
+	 * @param metrics The metrics
+	 */
+	public MailOutboundQueue(File directory, Delivery delivery, int maxAttempts, long retryDelay, MailDeliveryMetrics metrics) {
+		this.directory = directory;
+		this.failedDirectory = new File(directory, "failed");
+		this.delivery = delivery;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.retryDelay = Math.max(1l, retryDelay);
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Recover the emails saved in the directory and start the workers.
+	 * 
+	 * @param numOfWorkers The number of threads which send the emails
+	 */
+	public synchronized void start(int numOfWorkers) {
+		directory.mkdirs();
+		recover();
+		
+		int threads = Math.max(1, numOfWorkers);
+		workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("oo-mail-queue-"));
+		for(int i=0; i<threads; i++) {
+			workers.execute(this::work);
+		}
+	}
+	
+	/**
+	 * Stop the workers, the emails still in the queue stay
+	 * in the directory.
+	 */
+	public synchronized void stop() {
+		if(workers != null) {
+			workers.shutdownNow();
+			try {
+				if(!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+					log.warn("Workers of the mail queue still running");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			workers = null;
+		}
+	}
+	
+	public int size() {
+		return queue.size();
+	}
+	
+	/**
+	 * Save the message in the directory of the queue and schedule it.
+	 * 
+	 * @param msg The message
+	 * @return true if the message is saved in the queue
+	 */
+	public boolean enqueue(MimeMessage msg) {
+		String name = System.currentTimeMillis() + "-" + UUID.randomUUID() + EML_SUFFIX;
+		File file = new File(directory, name);
+		File tmpFile = new File(directory, name + TMP_SUFFIX);
+		try(OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+			msg.writeTo(out);
+		} catch(IOException | MessagingException e) {
+			log.error("Cannot save the email in the outbound queue", e);
+			deleteQuietly(tmpFile);
+			return false;
+		}
+		
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.error("Cannot save the email in the outbound queue", e);
+			deleteQuietly(tmpFile);
+			return false;
+		}
+		
+		queue.offer(new QueuedMail(file, 0, System.currentTimeMillis()));
+		metrics.queued();
+		return true;
+	}
+	
+	private void recover() {
+		File[] tmpFiles = directory.listFiles((dir, name) -> name.endsWith(TMP_SUFFIX));
+		if(tmpFiles != null) {
+			for(File tmpFile:tmpFiles) {
+				deleteQuietly(tmpFile);
+			}
+		}
+		
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(EML_SUFFIX));
+		if(files != null && files.length > 0) {
+			Arrays.sort(files);
+			long now = System.currentTimeMillis();
+			for(File file:files) {
+				queue.offer(new QueuedMail(file, 0, now));
+			}
+			log.info("{} emails recovered in the outbound queue: {}", files.length, directory);
+		}
+	}
+	
+	private void work() {
+		while(!Thread.currentThread().isInterrupted()) {
+			try {
+				deliver(queue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+	}
+	
+	private void deliver(QueuedMail mail) {
+		File file = mail.getFile();
+		if(!file.exists()) return;
+		
+		boolean delivered = false;
+		try(SharedFileInputStream in = new SharedFileInputStream(file)) {
+			MimeMessage msg = new MimeMessage(delivery.getSession(), in);
+			delivery.send(msg);
+			delivered = true;
+		} catch(MessagingException e) {
+			int attempts = mail.getAttempts() + 1;
+			if(SmtpTransportPool.isTransientFailure(e) && attempts < maxAttempts) {
+				long delay = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(attempts - 1, 20));
+				queue.offer(new QueuedMail(file, attempts, System.currentTimeMillis() + delay));
+				metrics.retried();
+				log.warn("Email {} not sent (attempt {}), next attempt in {}ms: {}", file.getName(), attempts, delay, e.getMessage());
+			} else {
+				log.error("Email {} not sent after {} attempts: {}", file.getName(), attempts, e.getMessage());
+				moveToFailed(file);
+			}
+		} catch(IOException e) {
+			log.error("Cannot read the email: {}", file, e);
+			moveToFailed(file);
+		}
+		
+		if(delivered) {
+			deleteQuietly(file);
+		}
+	}
+	
+	private void moveToFailed(File file) {
+		metrics.dropped();
+		try {
+			failedDirectory.mkdirs();
+			Files.move(file.toPath(), new File(failedDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.error("Cannot move the email to: {}", failedDirectory, e);
+		}
+	}
+	
+	private static void deleteQuietly(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			log.warn("Cannot delete: {}", file, e);
+		}
+	}
+	
+	public interface Delivery {
+		
+		public Session getSession();
+		
+		public void send(MimeMessage msg) throws MessagingException;
+		
+	}
+	
+	private static class QueuedMail implements Delayed {
+		
+		private final File file;
+		private final int attempts;
+		private final long due;
+		
+		public QueuedMail(File file, int attempts, long due) {
+			this.file = file;
+			this.attempts = attempts;
+			this.due = due;
+		}
+		
+		public File getFile() {
+			return file;
+		}
+		
+		public int getAttempts() {
+			return attempts;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(due - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.Closeable;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+/**
+ * A pool of long-lived, authenticated connections to one SMTP relay. The
+ * idle connections are reused last in, first out, a thread which sends a
+ * lot of emails use the same connection. A connection is closed after a
+ * max. number of messages, after an idle timeout or after an error. The
+ * number of messages per second sent to the relay can be limited.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SmtpTransportPool implements Closeable {
+	
+	private static final Logger log = Tracing.createLoggerFor(SmtpTransportPool.class);
+	
+	private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+	
+	private final Session session;
+	private final Semaphore connections;
+	private final int maxMessagesPerConnection;
+	private final long idleTimeout;
+	private final long sendInterval;
+	private final MailDeliveryMetrics metrics;
+	private final LinkedBlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+	
+	private final Object rateLock = new Object();
+	private long nextSend = 0l;
+	private volatile boolean closed = false;
+	
+	/**
+	 * 
+	 * @param session The mail session with the configuration of the relay
+	 * @param maxConnections The max. number of connections
+	 * @param maxMessagesPerConnection The max. number of messages sent with a connection
+	 * @param idleTimeout The time in milliseconds after which an idle connection is closed
+	 * @param maxMessagesPerSecond The max. number of messages per second sent to the relay, 0 for unlimited
+	 * @param metrics The metrics
+	 */
+	public SmtpTransportPool(Session session, int maxConnections, int maxMessagesPerConnection,
+			long idleTimeout, double maxMessagesPerSecond, MailDeliveryMetrics metrics) {
+		this.session = session;
+		this.connections = new Semaphore(Math.max(1, maxConnections), true);
+		this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		this.sendInterval = maxMessagesPerSecond > 0.0d ? (long)(TimeUnit.SECONDS.toNanos(1) / maxMessagesPerSecond) : 0l;
+		this.metrics = metrics;
+	}
+	
+	public Session getSession() {
+		return session;
+	}
+	
+	/**
+	 * The same as Transport.send(msg) but with a connection of the pool.
+	 * 
+	 * @param msg The message to send
+	 * @throws MessagingException
+	 */
+	public void send(MimeMessage msg) throws MessagingException {
+		msg.saveChanges();
+		Address[] recipients = msg.getAllRecipients();
+		if(recipients == null || recipients.length == 0) {
+			throw new SendFailedException("No recipient addresses");
+		}
+		
+		acquireConnection();
+		PooledTransport transport = null;
+		boolean reusable = false;
+		try {
+			waitRateLimit();
+			long start = System.nanoTime();
+			transport = borrow();
+			transport.send(msg, recipients);
+			reusable = true;
+			metrics.sent(System.nanoTime() - start);
+		} catch(MessagingException e) {
+			metrics.failed();
+			throw e;
+		} finally {
+			release(transport, reusable);
+			connections.release();
+		}
+	}
+	
+	/**
+	 * @param e The exception thrown by the send method
+	 * @return true if the message can be sent later (connection, authentication
+	 * 		or temporary error of the relay)
+	 */
+	public static boolean isTransientFailure(MessagingException e) {
+		if(e instanceof SMTPSendFailedException) {
+			SMTPSendFailedException sfe = (SMTPSendFailedException)e;
+			Address[] validSent = sfe.getValidSentAddresses();
+			return sfe.getReturnCode() >= 400 && sfe.getReturnCode() < 500
+					&& (validSent == null || validSent.length == 0);
+		}
+		// invalid addresses
+		return !(e instanceof SendFailedException);
+	}
+	
+	private void acquireConnection() throws MessagingException {
+		try {
+			connections.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while waiting for a SMTP connection", e);
+		}
+	}
+	
+	private void waitRateLimit() throws MessagingException {
+		if(sendInterval <= 0l) return;
+		
+		long wait;
+		synchronized(rateLock) {
+			long now = System.nanoTime();
+			long slot = Math.max(now, nextSend);
+			nextSend = slot + sendInterval;
+			wait = slot - now;
+		}
+		
+		if(wait > 0l) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MessagingException("Interrupted while waiting for the rate limit", e);
+			}
+		}
+	}
+	
+	private PooledTransport borrow() throws MessagingException {
+		long now = System.nanoTime();
+		for(PooledTransport transport=idleTransports.pollFirst(); transport != null; transport=idleTransports.pollFirst()) {
+			if(now - transport.getLastUsed() > idleTimeout) {
+				close(transport);
+			} else if(now - transport.getLastUsed() > VALIDATION_INTERVAL && !transport.isConnected()) {
+				close(transport);
+			} else {
+				return transport;
+			}
+		}
+		
+		Transport transport = session.getTransport("smtp");
+		transport.connect();
+		metrics.connectionOpened();
+		return new PooledTransport(transport);
+	}
+	
+	private void release(PooledTransport transport, boolean reusable) {
+		if(transport == null) return;
+		
+		if(reusable && !closed && transport.getMessages() < maxMessagesPerConnection) {
+			transport.setLastUsed(System.nanoTime());
+			idleTransports.offerFirst(transport);
+		} else {
+			close(transport);
+		}
+	}
+	
+	private void close(PooledTransport transport) {
+		try {
+			transport.close();
+		} catch (MessagingException e) {
+			log.debug("Cannot close SMTP connection", e);
+		} finally {
+			metrics.connectionClosed();
+		}
+	}
+	
+	/**
+	 * Close the idle connections, the connections in use are closed
+	 * when they are released.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for(PooledTransport transport=idleTransports.pollFirst(); transport != null; transport=idleTransports.pollFirst()) {
+			close(transport);
+		}
+	}
+	
+	private static class PooledTransport {
+		
+		private final Transport transport;
+		private int messages = 0;
+		private long lastUsed;
+		
+		public PooledTransport(Transport transport) {
+			this.transport = transport;
+			lastUsed = System.nanoTime();
+		}
+		
+		public int getMessages() {
+			return messages;
+		}
+		
+		public long getLastUsed() {
+			return lastUsed;
+		}
+		
+		public void setLastUsed(long lastUsed) {
+			this.lastUsed = lastUsed;
+		}
+		
+		public boolean isConnected() {
+			return transport.isConnected();
+		}
+		
+		public void send(MimeMessage msg, Address[] recipients) throws MessagingException {
+			messages++;
+			transport.sendMessage(msg, recipients);
+		}
+		
+		public void close() throws MessagingException {
+			transport.close();
+		}
+	}
+}
@@ -127,12 +127,16 @@ public class OpenXMLWorkbook implements Closeable {
 	
 	@Override
 	public void close() throws IOException {
-		if(opened) {
-			currentWorkSheet.close();
-			zout.closeEntry();
-			appendEpilogue();
-			zout.flush();
-			zout.close();
+		try {
+			if(opened) {
+				currentWorkSheet.close();
+				zout.closeEntry();
+				appendEpilogue();
+				zout.flush();
+				zout.close();
+			}
+		} finally {
+			sharedStrings.close();
 		}
 	}
 	
@@ -853,7 +857,10 @@ public class OpenXMLWorkbook implements Closeable {
 			writer.writeStartElement("sst");
 			writer.writeNamespace("", "http://schemas.openxmlformats.org/spreadsheetml/2006/main");
 			writer.writeAttribute("count", Integer.toString(sharedStrings.size()));
-			writer.writeAttribute("uniqueCount", Integer.toString(sharedStrings.size()));
+			if(!sharedStrings.isSpilled()) {
+				// the spilled table can have duplicates, the attribute is optional
+				writer.writeAttribute("uniqueCount", Integer.toString(sharedStrings.size()));
+			}
 			
 			for (String sharedString: sharedStrings) {
 				writer.writeStartElement("si");
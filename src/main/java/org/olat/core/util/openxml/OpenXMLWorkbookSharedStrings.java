@@ -19,22 +19,68 @@
  */
 package org.olat.core.util.openxml;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.WebappHelper;
 
 /**
+ * The table of shared strings of a workbook. The strings are indexed
+ * by a hash map. If the strings exceed the memory budget, they are
+ * spilled to a temporary file and only the most recently used strings
+ * are deduplicated (OpenXML allows duplicates in the table).
  * 
  * Initial date: 25.04.2016<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
-public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
+public class OpenXMLWorkbookSharedStrings implements Iterable<String>, Closeable {
+	
+	private static final Logger log = Tracing.createLoggerFor(OpenXMLWorkbookSharedStrings.class);
+	
+	public static final long DEFAULT_MAX_IN_MEMORY_CHARS = 8l * 1024l * 1024l;
+	private static final int MAX_RECENT_STRINGS = 16384;
 
-	private final List<String> sharedStrings = new ArrayList<>();
+	private final long maxInMemoryChars;
+	private long inMemoryChars = 0l;
+	
+	private int size = 0;
+	private List<String> sharedStrings = new ArrayList<>();
+	private Map<String,Integer> sharedStringsIndex = new HashMap<>();
+	
+	private File spillFile;
+	private DataOutputStream spillOut;
 	
 	public OpenXMLWorkbookSharedStrings() {
-		sharedStrings.add("OpenOLAT");//prevent empty list
+		this(DEFAULT_MAX_IN_MEMORY_CHARS);
+	}
+	
+	/**
+	 * @param maxInMemoryChars The number of characters kept in memory before
+	 * 		spilling the strings to the disk
+	 */
+	public OpenXMLWorkbookSharedStrings(long maxInMemoryChars) {
+		this.maxInMemoryChars = maxInMemoryChars;
+		add("OpenOLAT");//prevent empty list
 	}
 	
 	/**
@@ -43,20 +89,138 @@ public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
 	 * @return
 	 */
 	public int add(String string) {
-		int index = sharedStrings.indexOf(string);
-		if(index < 0) {
+		Integer index = sharedStringsIndex.get(string);
+		if(index != null) {
+			return index.intValue();
+		}
+		
+		int newIndex = size++;
+		if(spillOut == null) {
 			sharedStrings.add(string);
-			index = sharedStrings.size() - 1;
+			inMemoryChars += string.length();
+			if(inMemoryChars > maxInMemoryChars) {
+				spill();
+			}
+		} else {
+			write(string);
+		}
+		sharedStringsIndex.put(string, Integer.valueOf(newIndex));
+		return newIndex;
+	}
+	
+	public boolean isSpilled() {
+		return spillFile != null;
+	}
+	
+	private void spill() {
+		try {
+			spillFile = File.createTempFile("sharedStrings", ".bin", new File(WebappHelper.getTmpDir()));
+			spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile.toPath()), 65536));
+			for(String sharedString:sharedStrings) {
+				write(sharedString);
+			}
+			
+			sharedStrings = null;
+			sharedStringsIndex = new LinkedHashMap<String,Integer>(1024, 0.75f, true) {
+				private static final long serialVersionUID = -2786325638402587564L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String,Integer> eldest) {
+					return size() > MAX_RECENT_STRINGS;
+				}
+			};
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void write(String string) {
+		try {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			spillOut.writeInt(bytes.length);
+			spillOut.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
-		return index;
 	}
 
 	@Override
 	public Iterator<String> iterator() {
-		return sharedStrings.iterator();
+		if(spillFile == null) {
+			return sharedStrings.iterator();
+		}
+		
+		try {
+			spillOut.flush();
+			return new SpilledIterator(new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile.toPath()), 65536)), size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 	
 	public int size() {
-		return sharedStrings.size();
+		return size;
+	}
+
+	/**
+	 * Delete the temporary file if the strings were spilled to the disk.
+	 */
+	@Override
+	public void close() {
+		if(spillOut != null) {
+			closeQuietly(spillOut);
+			spillOut = null;
+		}
+		if(spillFile != null) {
+			FileUtils.deleteFile(spillFile);
+		}
+	}
+	
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			log.warn("", e);
+		}
+	}
+	
+	private static class SpilledIterator implements Iterator<String> {
+		
+		private final DataInputStream in;
+		private int remaining;
+		
+		public SpilledIterator(DataInputStream in, int size) {
+			this.in = in;
+			this.remaining = size;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(remaining <= 0) {
+				closeQuietly(in);
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public String next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			try {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				remaining--;
+				return new String(bytes, StandardCharsets.UTF_8);
+			} catch (EOFException e) {
+				closeQuietly(in);
+				throw new NoSuchElementException();
+			} catch (IOException e) {
+				closeQuietly(in);
+				throw new UncheckedIOException(e);
+			}
+		}
 	}
 }
@@ -19,11 +19,10 @@
  */
 package org.olat.core.util.openxml;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipOutputStream;
 
@@ -52,6 +51,13 @@ public class OpenXMLWorksheet {
 		}
 	}
 	
+	private static final String[] COLUMNS_NAMES = new String[256];
+	static {
+		for (int i = 0; i < COLUMNS_NAMES.length; i++) {
+			COLUMNS_NAMES[i] = getColumn(i);
+		}
+	}
+	
 	private String id;
 	private final OpenXMLWorkbook workbook;
 	private final ZipOutputStream zout;
@@ -87,16 +93,24 @@ public class OpenXMLWorksheet {
 		columnsWidth.put(pos, width);
 	}
 	
+	/**
+	 * The previous row is written and its buffer of cells is reused for
+	 * the new one. The previous row cannot be changed anymore, adding a
+	 * cell to it throws an IllegalStateException.
+	 * 
+	 * @return The new row
+	 */
 	public Row newRow() {
 		if(!opened) {
 			appendProlog();
 			opened = true;
 		}
-		if(row != null) {
+		if(row == null) {
+			row = new Row(new Cell[16]);
+		} else {
 			appendRow();
-			row = null;
+			row = new Row(row.release());
 		}
-		row = new Row();
 		rowPosition++;
 		return row;
 	}
@@ -126,7 +140,7 @@ public class OpenXMLWorksheet {
 				Cell cell = row.getCell(j);
 				if(cell != null && cell.getValue() != null) {
 					writer.writeStartElement("c");
-					writer.writeAttribute("r", getColumn(j).concat(rowId));
+					writer.writeAttribute("r", getCachedColumn(j).concat(rowId));
 					
 					CellStyle style = cell.getStyle();
 					if(style != null && style.getIndex() > 0) {
@@ -325,6 +339,10 @@ public class OpenXMLWorksheet {
                        - 460;      // leap days in previous 1900 years
         return 365 * (yr - (use1904windowing ? 1904 : 1900)) + leapDays;
     }
+	private static final String getCachedColumn(int c) {
+		return c < COLUMNS_NAMES.length ? COLUMNS_NAMES[c] : getColumn(c);
+	}
+	
 	/**
 	 * Thanks to POI project and the argument c is zero based.
 	 * @param c The column position, start with zero
@@ -349,23 +367,42 @@ public class OpenXMLWorksheet {
     
 	public class Row {
 		
-		private List<Cell> cells = new ArrayList<>(255);
+		private Cell[] cells;
+		private int size = 0;
+		
+		private Row(Cell[] cells) {
+			this.cells = cells;
+		}
 		
 		public boolean isEmpty() {
-			return cells == null || cells.isEmpty();
+			return size == 0;
 		}
 
 		public int size() {
-			return cells.size();
+			return size;
 		}
 		
 		public Cell getCell(int column) {
-			if(cells.size() > column) {
-				return cells.get(column);
+			if(size > column) {
+				return cells[column];
 			}
 			return null;
 		}
 		
+		/**
+		 * Clear the buffer of cells and give it to the next row. The
+		 * row cannot be changed after.
+		 * 
+		 * @return The cleared buffer of cells
+		 */
+		private Cell[] release() {
+			Cell[] buffer = cells;
+			Arrays.fill(buffer, 0, size, null);
+			cells = null;
+			size = 0;
+			return buffer;
+		}
+		
 		public Cell addCell(int column, String value) {
 			return addCell(column, value, null);
 		}
@@ -422,21 +459,19 @@ public class OpenXMLWorksheet {
 		}
 		
 		private Cell getOrCreateCell(int column) {
-			Cell c;
-			if(cells.size() < column) {
-				for(int i=cells.size(); i<column; i++) {
-					cells.add(null);
-				}
-				c = new Cell();
-				cells.add(c);
-			} else if(cells.size() == column) {
-				c = new Cell();
-				cells.add(c);
-			} else if(cells.get(column) == null) {
+			if(cells == null) {
+				throw new IllegalStateException("The row is already written");
+			}
+			if(column >= cells.length) {
+				cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+			}
+			if(column >= size) {
+				size = column + 1;
+			}
+			Cell c = cells[column];
+			if(c == null) {
 				c = new Cell();
-				cells.set(column, c);
-			} else {
-				c = cells.get(column);
+				cells[column] = c;
 			}
 			return c;
 		}
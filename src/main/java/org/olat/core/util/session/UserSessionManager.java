@@ -20,17 +20,12 @@
 package org.olat.core.util.session;
 
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
@@ -66,6 +61,8 @@ import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.core.util.event.GenericEventListener;
 import org.olat.core.util.prefs.Preferences;
 import org.olat.core.util.resource.OresHelper;
+import org.olat.core.util.session.UserSessionRegistry.Registration;
+import org.olat.core.util.session.UserSessionRegistry.SessionType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -87,15 +84,12 @@ public class UserSessionManager implements GenericEventListener {
 	
 	public static final String EXTENDED_DMZ_TIMEOUT = "extended-session-timeout--oo";
 
-	//clusterNOK cache ??
-	private static final Set<UserSession> authUserSessions = ConcurrentHashMap.newKeySet();
-	private static final Set<Long> userNameToIdentity = ConcurrentHashMap.newKeySet();
-	private static final Set<Long> authUsersNamesOtherNodes = ConcurrentHashMap.newKeySet();
+	/**
+	 * The authenticated sessions of this node, the sessions of the other nodes
+	 * are only known by the presence cache (identity key to node id).
+	 */
+	private static final UserSessionRegistry sessionRegistry = new UserSessionRegistry();
 
-	private static final AtomicInteger sessionCountWeb = new AtomicInteger();
-	private static final AtomicInteger sessionCountRest = new AtomicInteger();
-	private static final AtomicInteger sessionCountDav = new AtomicInteger();
-	
 	@Autowired
 	private DB dbInstance;
 	@Autowired
@@ -165,6 +159,18 @@ public class UserSessionManager implements GenericEventListener {
 		setHttpSessionTimeout(hreq, session, us);
 		return us;
 	}
+	
+	/**
+	 * Return the UserSession of the given HTTP session if it is already set or null otherwise
+	 * @param session The HTTP session
+	 * @return
+	 */
+	public UserSession getUserSessionIfAlreadySet(HttpSession session) {
+		if (session==null) {
+			return null;
+		}
+		return (UserSession) session.getAttribute(USERSESSIONKEY);
+	}
 
 	private void setHttpSessionTimeout(HttpServletRequest hreq, HttpSession session, UserSession us) {
 		if(us == null || session == null) return;
@@ -213,18 +219,18 @@ public class UserSessionManager implements GenericEventListener {
 	 *         on
 	 */
 	public boolean isSignedOnIdentity(Long identityKey) {
-		return userNameToIdentity.contains(identityKey);
+		return sessionRegistry.isSignedOn(identityKey);
 	}
 	
 	/**
 	 * @return set of authenticated active user sessions
 	 */
 	public Set<UserSession> getAuthenticatedUserSessions() {
-		return new HashSet<>(authUserSessions);
+		return sessionRegistry.getSessions();
 	}
 	
 	public int getNumberOfAuthenticatedUserSessions() {
-		return authUserSessions.size();
+		return sessionRegistry.size();
 	}
 	
 	/**
@@ -233,7 +239,7 @@ public class UserSessionManager implements GenericEventListener {
 	 * @return Returns the userSessionsCnt (Web, WebDAV, REST) from this VM
 	 */
 	public int getUserSessionsCnt() {
-		return authUserSessions.size();
+		return sessionRegistry.size();
 	}
 	
 	/**
@@ -244,8 +250,15 @@ public class UserSessionManager implements GenericEventListener {
 		return userSessionCache.size();
 	}
 	
+	/**
+	 * The identity is searched in the sessions of this node and, if not found,
+	 * in the presence cache which knows the sessions of the other nodes.
+	 *
+	 * @param identityKey The identity primary key
+	 * @return true if the identity has a session on any node
+	 */
 	public boolean isOnline(Long identityKey) {
-		return userSessionCache.containsKey(identityKey);
+		return sessionRegistry.isSignedOn(identityKey) || userSessionCache.containsKey(identityKey);
 	}
 	
 	/**
@@ -256,7 +269,7 @@ public class UserSessionManager implements GenericEventListener {
 	 */
 	public int getUserSessionDavCounter() {
 		// clusterNOK ?? return only number of locale sessions ?
-		return sessionCountDav.get();
+		return sessionRegistry.getCount(SessionType.DAV);
 	}
 	
 	/**
@@ -267,7 +280,14 @@ public class UserSessionManager implements GenericEventListener {
 	 */
 	public int getUserSessionRestCounter() {
 		// clusterNOK ?? return only number of locale sessions ?
-		return sessionCountRest.get();
+		return sessionRegistry.getCount(SessionType.REST);
+	}
+
+	/**
+	 * @return The number of web sessions (guests and authenticated users) of this VM
+	 */
+	public int getLocalUserSessionWebCounter() {
+		return sessionRegistry.getCount(SessionType.WEB);
 	}
 
 
@@ -295,74 +315,62 @@ public class UserSessionManager implements GenericEventListener {
 				throw new AssertException("sessionInfo was null for identity " + identity);
 			}
 			usess.setAuthenticated(true);
-	
+
 			if (sessionInfo.isWebDAV()) {
 				// load user prefs
 				usess.reloadPreferences();
-				// we're only adding this webdav session to the authUserSessions - not to the userNameToIdentity.
-				// userNameToIdentity is only needed for IM which can't do anything with a webdav session
-				authUserSessions.add(usess);
+				// webdav sessions are registered but doesn't count as signed on
+				// identity which is only needed for IM which can't do anything with a webdav session
+				sessionRegistry.add(usess, identity.getKey(), SessionType.DAV);
 				log.info(Tracing.M_AUDIT, "Logged on [via webdav]: " + sessionInfo.toString());
-			} else {	
+			} else {
 				UserSession invalidatedSession = null;
+				boolean onOtherNode = false;
+				boolean exclusive = !sessionInfo.isREST() && !usess.getRoles().isGuestOnly();
+
+				// check if already a session exist for this user
+				if (exclusive) {
+					invalidatedSession = sessionRegistry.getGuiSession(identity.getKey());
+					if(invalidatedSession != null) {
+						log.info("Loggin-process II: User has already a session => signOffAndClear existing session");
+					}
+				}
+				sessionRegistry.add(usess, identity.getKey(), SessionType.valueOf(sessionInfo));
 
-				if(isDebug) {
-					log.debug("signOn() authUsersNamesOtherNodes.contains " + identity.getKey() + ": " + authUsersNamesOtherNodes.contains(identity.getKey()));
+				// the presence cache knows on which node the identity has a session, a REST
+				// session doesn't replace the node of the GUI session of the identity
+				Integer nodeId = Integer.valueOf(Settings.getNodeId());
+				Integer previousNodeId = exclusive
+						? userSessionCache.put(identity.getKey(), nodeId)
+						: userSessionCache.putIfAbsent(identity.getKey(), nodeId);
+				if(exclusive && previousNodeId != null && !previousNodeId.equals(nodeId)) {
+					if(isDebug) log.debug("signOn() identity has a session on node {}: {}", previousNodeId, identity.getKey());
+					onOtherNode = true;
 				}
-					
-			    // check if already a session exist for this user
-			    if ( (userNameToIdentity.contains(identity.getKey()) || userSessionCache.containsKey(identity.getKey()) ) 
-			         && !sessionInfo.isWebDAV() && !sessionInfo.isREST() && !usess.getRoles().isGuestOnly()) {
-			        log.info("Loggin-process II: User has already a session => signOffAndClear existing session");
-			        
-			        invalidatedSession = getUserSessionForGui(identity.getKey());
-			        //remove session to be invalidated
-			        //SIDEEFFECT!! to signOffAndClear
-			        //if invalidatedSession is removed from authUserSessions
-			        //signOffAndClear does not remove the identity.getName().toLowerCase() from the userNameToIdentity
-			        if(invalidatedSession != null) {
-			        	authUserSessions.remove(invalidatedSession);
-			        }
-		    	}
-		    	authUserSessions.add(usess);
-				// user can choose upercase letters in identity name, but this has no effect on the
-				// database queries, the login form or the IM account. IM works only with lowercase
-				// characters -> map stores values as such
-				if(isDebug) log.debug("signOn() adding to userNameToIdentity: " + identity.getKey());
-				userNameToIdentity.add(identity.getKey());
-				userSessionCache.put(identity.getKey(), new Integer(Settings.getNodeId()));
-			
-			
+
 				//reload user prefs
 				usess.reloadPreferences();
-	
+
 				log.info(Tracing.M_AUDIT, "Logged on: " + sessionInfo.toString());
-				CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(new SignOnOffEvent(identity, true), ORES_USERSESSION);
-	
+				if(exclusive) {
+					// the presence cache is local to the node per default, the other nodes must
+					// be informed to close the GUI session of the identity if they have one
+					CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(new SignOnOffEvent(identity, true), ORES_USERSESSION);
+				}
+
 				// THE FOLLOWING CHECK MUST BE PLACED HERE NOT TO PRODUCE A DEAD-LOCK WITH SIGNOFFANDCLEAR
 				// check if a session from any browser was invalidated (IE has a cookie set per Browserinstance!!)
-				if (invalidatedSession != null || authUsersNamesOtherNodes.contains(identity.getKey())) {
+				if (invalidatedSession != null || onOtherNode) {
 					// put flag killed-existing-session into session-store to show info-message 'only one session for each user' on user-home screen
 					usess.putEntry(STORE_KEY_KILLED_EXISTING_SESSION, Boolean.TRUE);
-					if(isDebug) log.debug("signOn() removing from authUsersNamesOtherNodes: " + identity.getKey());
-					authUsersNamesOtherNodes.remove(identity.getKey());
 					//OLAT-3381 & OLAT-3382
 					if(invalidatedSession != null) {
 						signOffAndClear(invalidatedSession);
 					}
 				}
-	
+
 				if(isDebug) log.debug("signOn() END");
 			}
-			
-			// update logged in users counters
-			if (sessionInfo.isREST()) {
-				sessionCountRest.incrementAndGet();
-			} else if (sessionInfo.isWebDAV()) {
-				sessionCountDav.incrementAndGet();
-			} else {
-				sessionCountWeb.incrementAndGet();
-			}
 		}
 	}
 	
@@ -372,9 +380,7 @@ public class UserSessionManager implements GenericEventListener {
 	 * @param identity
 	 */
 	public void signOffAndClearAll(IdentityRef identity) {
-		List<UserSession> userSessions = authUserSessions.stream()
-				.filter(userSession -> userSession.getIdentity() != null && userSession.getIdentity().getKey().equals(identity.getKey()))
-				.collect(Collectors.toList());
+		List<UserSession> userSessions = sessionRegistry.getSessions(identity.getKey());
 		for(UserSession userSession:userSessions) {
 			internSignOffAndClear(userSession);
 			dbInstance.commit();
@@ -486,30 +492,23 @@ public class UserSessionManager implements GenericEventListener {
 
 		ThreadLocalUserActivityLoggerInstaller.runWithUserActivityLogger(run, UserActivityLoggerImpl.newLoggerForValueUnbound(usess));
 
-		if(authUserSessions.remove(usess)) {
-			//remove only from identityEnvironment if found in sessions.
-			//see also SIDEEFFECT!! line in signOn(..)
-			Identity previousSignedOn = identityEnvironment.getIdentity();
-			if (previousSignedOn != null && previousSignedOn.getKey() != null) {
-				if(isDebug) log.debug("signOffAndClearWithout() removing from userNameToIdentity: {}", previousSignedOn.getKey());
-				userNameToIdentity.remove(previousSignedOn.getKey());
-				userSessionCache.remove(previousSignedOn.getKey());
+		Registration registration = sessionRegistry.remove(usess);
+		if(registration != null) {
+			// the counters are updated by the registry, remove the identity from the
+			// presence cache only if it's its last session and the cache doesn't point
+			// to the session on an other node.
+			Long identityKey = registration.getIdentityKey();
+			if (identityKey != null && registration.getType() != SessionType.DAV && !sessionRegistry.isSignedOn(identityKey)) {
+				Integer nodeId = userSessionCache.get(identityKey);
+				if(nodeId == null || nodeId.intValue() == Settings.getNodeId()) {
+					if(isDebug) log.debug("signOffAndClearWithout() removing from presence cache: {}", identityKey);
+					userSessionCache.remove(identityKey);
+				}
 			}
 		} else if (isDebug) {
-			log.info("UserSession already removed! for [{}]", ident);			
-		}
-			
-		// update logged in users counters
-		if (sessionInfo != null) {
-			if (sessionInfo.isREST()) {
-				sessionCountRest.decrementAndGet();
-			} else if (sessionInfo.isWebDAV()) {
-				sessionCountDav.decrementAndGet();
-			} else {
-				sessionCountWeb.decrementAndGet();
-			}
+			log.info("UserSession already removed! for [{}]", ident);
 		}
-		
+
 		if (isDebug) log.debug("signOffAndClearWithout() END");
 	}
 	
@@ -549,29 +548,18 @@ public class UserSessionManager implements GenericEventListener {
 			boolean debug = log.isDebugEnabled();
 			if(debug) log.debug("event() START");
 			if(debug) log.debug("event() is SignOnOffEvent. isSignOn="+se.isSignOn());
-			if (!se.isEventOnThisNode()) {
-				// - signOnOff from other node
+			if (!se.isEventOnThisNode() && se.isSignOn()) {
+				// - sign on of a GUI session from other node
 				// - Single OLAT Instance is never passing by here.
-				if (se.isSignOn()) {
-					// it is a logged on event
-					// -> remember other nodes logged usernames
-					if(debug) log.debug("event() adding to authUsersNamesOtherNodes: "+se.getIdentityKey());
-					authUsersNamesOtherNodes.add(se.getIdentityKey());
-					UserSession usess = getUserSessionForGui(se.getIdentityKey());
-					if (usess != null && usess.getSessionInfo() != null && se.getIdentityKey().equals(usess.getSessionInfo().getIdentityKey())
-							&& !usess.getSessionInfo().isWebDAV() && !usess.getRoles().isGuestOnly()) {
-						
-						// if this listening UserSession instance is from the same user
-						// and it is not a WebDAV Session, and it is not GuestSession
-						// => log user off on this node
-						signOffAndClearWithout(usess);
-						usess.init();
-					}
-				} else {
-					// it is logged off event
-					// -> remove from other nodes logged on list.
-					if(debug) log.debug("event() removing from authUsersNamesOtherNodes: "+se.getIdentityKey());
-					authUsersNamesOtherNodes.remove(se.getIdentityKey());
+				UserSession usess = sessionRegistry.getGuiSession(se.getIdentityKey());
+				if (usess != null && usess.getSessionInfo() != null && se.getIdentityKey().equals(usess.getSessionInfo().getIdentityKey())
+						&& !usess.getSessionInfo().isWebDAV() && !usess.getRoles().isGuestOnly()) {
+
+					// if this listening UserSession instance is from the same user
+					// and it is not a WebDAV Session, and it is not GuestSession
+					// => log user off on this node
+					signOffAndClearWithout(usess);
+					usess.init();
 				}
 			}
 			if(debug) log.debug("event() END");
@@ -625,7 +613,7 @@ public class UserSessionManager implements GenericEventListener {
 		};
 		// clusterNOK ?? invalidate only locale sessions ?
 		TreeSet<UserSession> sortedSet = new TreeSet<>(sessionComparator);
-		sortedSet.addAll(authUserSessions);
+		sortedSet.addAll(sessionRegistry.getSessions());
 		int i = 0;	
 		for (Iterator<UserSession> iterator = sortedSet.iterator(); iterator.hasNext() && i++<nbrSessions;) {
 			try {
@@ -647,7 +635,7 @@ public class UserSessionManager implements GenericEventListener {
 	 * @param sessionTimeoutInSec
 	 */
 	public void setGlobalSessionTimeout(int sessionTimeoutInSec) {
-		UserSession[] currentSessions = authUserSessions.toArray(new UserSession[0]);
+		UserSession[] currentSessions = sessionRegistry.toArray();
 		for(int i=currentSessions.length; i-->0; ) {
 			try{
 				SessionInfo sessionInfo = currentSessions[i].getSessionInfo();
@@ -659,29 +647,4 @@ public class UserSessionManager implements GenericEventListener {
 			}
 		}
 	}
-	
-	/**
-	 * Lookup non-webdav, non-REST UserSession for identity key.
-	 * @param identityKey
-	 * @return user-session or null when no session was founded. 
-	 */
-	private UserSession getUserSessionForGui(Long identityKey) {
-		UserSession identitySession = null;
-		if(identityKey != null) {
-			//do not call from somewhere else then signOffAndClear!!
-			Optional<UserSession> optionalSession = authUserSessions.stream().filter(userSession -> {
-				Identity identity = userSession.getIdentity();
-				if (identity != null && identityKey.equals(identity.getKey())
-						&& userSession.getSessionInfo() != null
-						&& !userSession.getSessionInfo().isWebDAV()
-						&& !userSession.getSessionInfo().isREST()) {
-					return true;
-				}
-				return false;
-			}).findFirst();
-			
-			identitySession = optionalSession.isPresent() ? optionalSession.get() : null;
-		}
-		return identitySession;
-	}
 }
@@ -0,0 +1,239 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.olat.core.util.SessionInfo;
+import org.olat.core.util.UserSession;
+
+/**
+ * The registry of the authenticated sessions of this node. The sessions
+ * are indexed by identity key in a concurrent map, the lookups (is an
+ * identity signed on, which is its GUI session...) are lock-free and
+ * don't scan the whole list of sessions. The registrations of the
+ * sessions of an identity are serialized by the compute methods of
+ * the concurrent map. The counters are maintained per type of session
+ * and are only updated if the session was really added or removed.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+final class UserSessionRegistry {
+
+	private final ConcurrentHashMap<UserSession, Registration> sessions = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, IdentitySessions> identityToSessions = new ConcurrentHashMap<>();
+	private final AtomicInteger[] counters = new AtomicInteger[SessionType.values().length];
+	
+	UserSessionRegistry() {
+		for(int i=counters.length; i-->0; ) {
+			counters[i] = new AtomicInteger();
+		}
+	}
+
+	/**
+	 * @param usess The session
+	 * @param identityKey The key of the identity of the session
+	 * @param type The type of session
+	 * @return true if the session was added, false if it was already registered
+	 */
+	boolean add(UserSession usess, Long identityKey, SessionType type) {
+		Registration registration = new Registration(identityKey, type);
+		if(sessions.putIfAbsent(usess, registration) != null) {
+			return false;
+		}
+		
+		if(identityKey != null) {
+			identityToSessions.compute(identityKey, (key, identitySessions) -> {
+				if(identitySessions == null) {
+					identitySessions = new IdentitySessions();
+				}
+				identitySessions.add(usess, type);
+				return identitySessions;
+			});
+		}
+		counters[type.ordinal()].incrementAndGet();
+		return true;
+	}
+	
+	/**
+	 * @param usess The session to remove
+	 * @return The registration of the session or null if the session was not registered
+	 */
+	Registration remove(UserSession usess) {
+		Registration registration = sessions.remove(usess);
+		if(registration == null) {
+			return null;
+		}
+		
+		if(registration.getIdentityKey() != null) {
+			identityToSessions.computeIfPresent(registration.getIdentityKey(),
+					(key, identitySessions) -> identitySessions.remove(usess) ? null : identitySessions);
+		}
+		counters[registration.getType().ordinal()].decrementAndGet();
+		return registration;
+	}
+	
+	boolean contains(UserSession usess) {
+		return sessions.containsKey(usess);
+	}
+	
+	/**
+	 * @param identityKey The identity primary key
+	 * @return true if the identity has at least a session which is not a WebDAV session
+	 */
+	boolean isSignedOn(Long identityKey) {
+		if(identityKey == null) {
+			return false;
+		}
+		IdentitySessions identitySessions = identityToSessions.get(identityKey);
+		return identitySessions != null && identitySessions.signedOn > 0;
+	}
+	
+	/**
+	 * @param identityKey The identity primary key
+	 * @return The first web (not WebDAV, not REST) session of the identity or null
+	 */
+	UserSession getGuiSession(Long identityKey) {
+		if(identityKey == null) {
+			return null;
+		}
+		IdentitySessions identitySessions = identityToSessions.get(identityKey);
+		if(identitySessions == null) {
+			return null;
+		}
+		for(Map.Entry<UserSession, SessionType> entry:identitySessions.sessions.entrySet()) {
+			if(entry.getValue() == SessionType.WEB) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @param identityKey The identity primary key
+	 * @return All the sessions of the identity (web, WebDAV and REST)
+	 */
+	List<UserSession> getSessions(Long identityKey) {
+		if(identityKey == null) {
+			return Collections.emptyList();
+		}
+		IdentitySessions identitySessions = identityToSessions.get(identityKey);
+		if(identitySessions == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(identitySessions.sessions.keySet());
+	}
+	
+	/**
+	 * @return A copy of the set of sessions
+	 */
+	Set<UserSession> getSessions() {
+		return new HashSet<>(sessions.keySet());
+	}
+	
+	UserSession[] toArray() {
+		return sessions.keySet().toArray(new UserSession[0]);
+	}
+	
+	int size() {
+		return sessions.size();
+	}
+	
+	int getCount(SessionType type) {
+		return counters[type.ordinal()].get();
+	}
+	
+	enum SessionType {
+		WEB,
+		REST,
+		DAV;
+		
+		static SessionType valueOf(SessionInfo sessionInfo) {
+			if(sessionInfo != null) {
+				if(sessionInfo.isREST()) {
+					return REST;
+				}
+				if(sessionInfo.isWebDAV()) {
+					return DAV;
+				}
+			}
+			return WEB;
+		}
+	}
+	
+	static final class Registration {
+		
+		private final Long identityKey;
+		private final SessionType type;
+		
+		private Registration(Long identityKey, SessionType type) {
+			this.identityKey = identityKey;
+			this.type = type;
+		}
+
+		public Long getIdentityKey() {
+			return identityKey;
+		}
+
+		public SessionType getType() {
+			return type;
+		}
+	}
+	
+	/**
+	 * The sessions of an identity. The methods which modify the sessions
+	 * are only called within the compute methods of the concurrent map
+	 * which owns the instance.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	private static final class IdentitySessions {
+		
+		private final ConcurrentHashMap<UserSession, SessionType> sessions = new ConcurrentHashMap<>(4);
+		private volatile int signedOn = 0;
+		
+		void add(UserSession usess, SessionType type) {
+			if(sessions.put(usess, type) == null && type != SessionType.DAV) {
+				signedOn++;
+			}
+		}
+		
+		/**
+		 * @param usess The session to remove
+		 * @return true if the identity has no session anymore
+		 */
+		boolean remove(UserSession usess) {
+			SessionType type = sessions.remove(usess);
+			if(type != null && type != SessionType.DAV) {
+				signedOn--;
+			}
+			return sessions.isEmpty();
+		}
+	}
+}
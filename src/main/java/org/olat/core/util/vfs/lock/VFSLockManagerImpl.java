@@ -451,12 +451,12 @@ public class VFSLockManagerImpl implements VFSLockManager {
 	public List<LockInfo> getResourceLocks() {
 		int cacheSize = fileLocks.size();
 		List<LockInfo> infos = new ArrayList<>(cacheSize);
-		for(File file:fileLocks.getKeys()) {
+		fileLocks.forEachKey(file -> {
 			LockInfo fileLock = fileLocks.get(file);
 			if(fileLock != null) {
 				infos.add(fileLock);
 			}
-		}
+		});
 		return infos;
 	}
 	
@@ -70,6 +70,14 @@ public class CourseModule extends AbstractSpringModule {
 	private boolean displayChangeLog;
 	@Value("${course.disclaimer.enabled:true}")
 	private boolean disclaimerEnabled;
+	@Value("${course.prewarm.max:100}")
+	private int preWarmMaxCourses;
+	@Value("${course.prewarm.time.budget:300}")
+	private int preWarmTimeBudget;
+	@Value("${course.prewarm.threads:4}")
+	private int preWarmThreads;
+	@Value("${course.runstructure.snapshot.enabled:false}")
+	private boolean runStructureSnapshotEnabled;
 	
 	// Repository types
 	public static final String ORES_TYPE_COURSE = OresHelper.calculateTypeName(CourseModule.class);
@@ -224,4 +232,32 @@ public class CourseModule extends AbstractSpringModule {
 		return disclaimerEnabled;
 	}
 	
+	/**
+	 * @return The max. number of courses loaded at startup
+	 */
+	public int getPreWarmMaxCourses() {
+		return preWarmMaxCourses;
+	}
+	
+	/**
+	 * @return The time in seconds after which the pre-warm of the courses stops
+	 */
+	public int getPreWarmTimeBudget() {
+		return preWarmTimeBudget;
+	}
+	
+	/**
+	 * @return The number of threads which load the courses at startup
+	 */
+	public int getPreWarmThreads() {
+		return preWarmThreads;
+	}
+	
+	/**
+	 * @return true if a binary copy of the run structure is saved next to runstructure.xml
+	 */
+	public boolean isRunStructureSnapshotEnabled() {
+		return runStructureSnapshotEnabled;
+	}
+	
 }
@@ -25,14 +25,22 @@
 
 package org.olat.course;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.admin.quota.QuotaConstants;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.services.vfs.VFSRepositoryService;
+import org.olat.core.helpers.Settings;
 import org.olat.core.id.IdentityEnvironment;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.AssertException;
@@ -84,6 +92,10 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	
 	public static final String EDITORTREEMODEL_XML = "editortreemodel.xml";
 	public static final String RUNSTRUCTURE_XML = "runstructure.xml";
+	/** Binary copy of the run structure, only a cache of runstructure.xml */
+	public static final String RUNSTRUCTURE_SNAPSHOT = "runstructure.ser";
+	private static final ObjectInputFilter SNAPSHOT_FILTER = ObjectInputFilter.Config
+			.createFilter("java.**;org.olat.**;de.bps.**;de.tuchemnitz.**;!*");
 	public static final String ORES_TYPE_NAME = CourseModule.getCourseTypeName();
 	public static final String COURSEFOLDER = "coursefolder";
 
@@ -270,6 +282,10 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	 */
 	void saveRunStructure() {
 		writeObject(RUNSTRUCTURE_XML, getRunStructure());
+		courseEnvironment.getConditionExpressionCache().clear();
+		if(CoreSpringFactory.getImpl(CourseModule.class).isRunStructureSnapshotEnabled()) {
+			writeRunStructureSnapshot(getCourseBaseContainer().getBasefile(), getRunStructure());
+		}
 		log.debug("saveRunStructure");
 	}
 
@@ -319,10 +335,21 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 		 * remember that loading of the courseConfiguration is already done within
 		 * the constructor !
 		 */
-		Object obj;
-		obj = readObject(RUNSTRUCTURE_XML);
-		if (!(obj instanceof Structure)) throw new AssertException("Error reading course run structure.");
-		runStructure = (Structure) obj;
+		Object obj = null;
+		boolean snapshot = CoreSpringFactory.getImpl(CourseModule.class).isRunStructureSnapshotEnabled();
+		if(snapshot) {
+			obj = readRunStructureSnapshot(getCourseBaseContainer().getBasefile());
+		}
+		if(obj == null) {
+			obj = readObject(RUNSTRUCTURE_XML);
+			if (!(obj instanceof Structure)) throw new AssertException("Error reading course run structure.");
+			runStructure = (Structure) obj;
+			if(snapshot) {
+				writeRunStructureSnapshot(getCourseBaseContainer().getBasefile(), runStructure);
+			}
+		} else {
+			runStructure = (Structure) obj;
+		}
 		initHasAssessableNodes();
 		
 		obj = readObject(EDITORTREEMODEL_XML);
@@ -351,6 +378,70 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 		XStreamHelper.writeObject(xstream, vfsItem, obj);
 	}
 
+	/**
+	 * Write a binary copy of the run structure. The copy saves the version
+	 * of OpenOLAT, the last modification date and the size of the XML file
+	 * and is only valid as long as they match.
+	 * 
+	 * @param baseDir The directory of the course
+	 * @param structure The run structure
+	 */
+	static void writeRunStructureSnapshot(File baseDir, Structure structure) {
+		File xmlFile = new File(baseDir, RUNSTRUCTURE_XML);
+		File snapshotFile = new File(baseDir, RUNSTRUCTURE_SNAPSHOT);
+		File tmpFile = new File(baseDir, RUNSTRUCTURE_SNAPSHOT + ".tmp");
+		try {
+			try(ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+				out.writeUTF(Settings.getBuildIdentifier());
+				out.writeLong(xmlFile.lastModified());
+				out.writeLong(xmlFile.length());
+				out.writeObject(structure);
+			}
+			Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (Exception e) {
+			log.warn("Cannot write the snapshot of the run structure: {}", baseDir, e);
+			try {
+				Files.deleteIfExists(tmpFile.toPath());
+				Files.deleteIfExists(snapshotFile.toPath());
+			} catch (Exception ex) {
+				log.error("", ex);
+			}
+		}
+	}
+	
+	/**
+	 * The snapshot is only deserialized if it's up-to-date, and only the
+	 * classes of OpenOLAT and of the JDK are accepted. In all other cases
+	 * the run structure is loaded from the XML file.
+	 * 
+	 * @param baseDir The directory of the course
+	 * @return The run structure if the snapshot is up-to-date, or null
+	 */
+	static Structure readRunStructureSnapshot(File baseDir) {
+		File snapshotFile = new File(baseDir, RUNSTRUCTURE_SNAPSHOT);
+		if(!snapshotFile.exists()) {
+			return null;
+		}
+		
+		File xmlFile = new File(baseDir, RUNSTRUCTURE_XML);
+		try(ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile.toPath())))) {
+			in.setObjectInputFilter(SNAPSHOT_FILTER);
+			String buildIdentifier = in.readUTF();
+			long lastModified = in.readLong();
+			long length = in.readLong();
+			if(buildIdentifier.equals(Settings.getBuildIdentifier())
+					&& lastModified == xmlFile.lastModified() && length == xmlFile.length()) {
+				Object obj = in.readObject();
+				if(obj instanceof Structure) {
+					return (Structure)obj;
+				}
+			}
+		} catch (Exception e) {
+			log.warn("Cannot read the snapshot of the run structure: {}", baseDir, e);
+		}
+		return null;
+	}
+
 	/**
 	 * Read a structure from XML file within the course base path folder.
 	 * 
@@ -399,6 +490,7 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	void setRunStructure(Structure runStructure) {
 		this.runStructure = runStructure;
 		initHasAssessableNodes();
+		courseEnvironment.getConditionExpressionCache().clear();
 	}
 
 	/**
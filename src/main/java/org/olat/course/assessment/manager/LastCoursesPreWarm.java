@@ -20,18 +20,28 @@
 package org.olat.course.assessment.manager;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.olat.core.configuration.PreWarm;
 import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.configuration.PreWarm;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
 import org.olat.course.CourseFactory;
+import org.olat.course.CourseModule;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.manager.RepositoryEntryDAO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 /**
+ * Load the last used courses in parallel. The number of courses, the
+ * number of threads and the max. time spent to load them are configured
+ * in the course module.
  * 
  * Initial date: 18.02.2016<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -42,17 +52,53 @@ public class LastCoursesPreWarm implements PreWarm {
 	
 	private static final Logger log = Tracing.createLoggerFor(LastCoursesPreWarm.class);
 	
+	@Autowired
+	private CourseModule courseModule;
 	@Autowired
 	private RepositoryEntryDAO repositoryEntryDao;
 
 	@Override
 	public void run() {
 		long start = System.nanoTime();
+		int maxCourses = courseModule.getPreWarmMaxCourses();
+		if(maxCourses <= 0) {
+			return;
+		}
+		
 		List<RepositoryEntry> entries = repositoryEntryDao
-				.getLastUsedRepositoryEntries("CourseModule", 0, 100);
+				.getLastUsedRepositoryEntries("CourseModule", 0, maxCourses);
+		DBFactory.getInstance().commitAndCloseSession();
+		
+		final long deadline = start + TimeUnit.SECONDS.toNanos(courseModule.getPreWarmTimeBudget());
+		final AtomicInteger loaded = new AtomicInteger(0);
+		int threads = Math.max(1, Math.min(courseModule.getPreWarmThreads(), entries.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("oo-courses-prewarm-"));
 		for(RepositoryEntry entry:entries) {
-			CourseFactory.loadCourse(entry);
+			executor.execute(() -> {
+				if(System.nanoTime() > deadline) {
+					return;
+				}
+				try {
+					CourseFactory.loadCourse(entry);
+					loaded.incrementAndGet();
+				} catch (Exception e) {
+					log.error("Cannot preload course: {} ({})", entry.getKey(), entry.getDisplayname(), e);
+				} finally {
+					DBFactory.getInstance().commitAndCloseSession();
+				}
+			});
+		}
+		
+		executor.shutdown();
+		try {
+			long remaining = deadline - System.nanoTime();
+			if(!executor.awaitTermination(Math.max(0l, remaining), TimeUnit.NANOSECONDS)) {
+				// the courses which are loading are not interrupted, the queued ones are skipped
+				log.warn("Time budget exceeded, stop preloading courses");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
-		log.info(entries.size() + " Courses preloaded in (ms): " + CodeHelper.nanoToMilliTime(start));
+		log.info("{} Courses preloaded in (ms): {}", loaded.get(), CodeHelper.nanoToMilliTime(start));
 	}
 }
@@ -54,10 +54,14 @@ public abstract class AbstractFunction extends FunctionCB{
 	public abstract Object call(Object[] inStack);
 
 	/**
+	 * The functions of the shared environment of the condition interpreter
+	 * are created without user course environment, they use the one bound
+	 * to the evaluation.
+	 * 
 	 * @return user course environment
 	 */
 	public UserCourseEnvironment getUserCourseEnv() {
-		return userCourseEnv;
+		return userCourseEnv == null ? ConditionEvaluation.getUserCourseEnvironment() : userCourseEnv;
 	}
 
 	/**
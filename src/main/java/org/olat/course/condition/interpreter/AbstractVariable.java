@@ -50,9 +50,13 @@ public abstract class AbstractVariable extends VariableCB {
 	public abstract Object getValue();
 	
 	/**
+	 * The variables of the shared environment of the condition interpreter
+	 * are created without user course environment, they use the one bound
+	 * to the evaluation.
+	 * 
 	 * @return user course environment
 	 */
 	public UserCourseEnvironment getUserCourseEnv() {
-		return userCourseEnv;
+		return userCourseEnv == null ? ConditionEvaluation.getUserCourseEnvironment() : userCourseEnv;
 	}
 }
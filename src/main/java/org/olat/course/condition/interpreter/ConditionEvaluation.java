@@ -0,0 +1,84 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.List;
+import java.util.Map;
+
+import org.olat.course.run.userview.UserCourseEnvironment;
+
+/**
+ * Bind the user course environment to the current thread for the time
+ * of the evaluation of an expression. The functions and variables of the
+ * shared environment of the condition interpreter are created without
+ * user course environment and retrieve it here.
+ * <p>
+ * The bindings can be nested, unbind restores the previous one.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+final class ConditionEvaluation {
+
+	private static final ThreadLocal<ConditionEvaluation> current = new ThreadLocal<>();
+
+	private final UserCourseEnvironment userCourseEnv;
+	private final Map<List<Object>,Object> results;
+	private final ConditionEvaluation previous;
+
+	private ConditionEvaluation(UserCourseEnvironment userCourseEnv, Map<List<Object>,Object> results,
+			ConditionEvaluation previous) {
+		this.userCourseEnv = userCourseEnv;
+		this.results = results;
+		this.previous = previous;
+	}
+
+	/**
+	 * @param userCourseEnv The user course environment
+	 * @param results The results of the functions memoized in the current scope (can be null)
+	 * @return The binding to unbind in a finally block
+	 */
+	static ConditionEvaluation bind(UserCourseEnvironment userCourseEnv, Map<List<Object>,Object> results) {
+		ConditionEvaluation evaluation = new ConditionEvaluation(userCourseEnv, results, current.get());
+		current.set(evaluation);
+		return evaluation;
+	}
+
+	void unbind() {
+		if(previous == null) {
+			current.remove();
+		} else {
+			current.set(previous);
+		}
+	}
+
+	static UserCourseEnvironment getUserCourseEnvironment() {
+		ConditionEvaluation evaluation = current.get();
+		return evaluation == null ? null : evaluation.userCourseEnv;
+	}
+
+	/**
+	 * @return The memoized results of the functions or null if there isn't any open scope
+	 */
+	static Map<List<Object>,Object> getResults() {
+		ConditionEvaluation evaluation = current.get();
+		return evaluation == null ? null : evaluation.results;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.neemsoft.jmep.Environment;
+import com.neemsoft.jmep.Expression;
+import com.neemsoft.jmep.XExpression;
+
+/**
+ * The parsed expressions of the conditions of a course, keyed by the
+ * condition string. The expressions are only parsed against the shared
+ * environment of the condition interpreter, the user specific datas
+ * are bound at evaluation time.
+ * <p>
+ * An expression is not meant to be evaluated concurrently, the cache
+ * holds a small pool of instances per condition which are borrowed
+ * for the time of an evaluation. The cache is cleared when the run
+ * structure of the course is saved (publish).
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ConditionExpressionCache {
+
+	private static final int MAX_CONDITIONS = 2000;
+	private static final int MAX_POOLED_EXPRESSIONS = 8;
+
+	private final ConcurrentHashMap<String,Queue<Expression>> expressions = new ConcurrentHashMap<>();
+
+	/**
+	 * @param condition The condition
+	 * @param env The environment to parse the condition
+	 * @return A parsed expression, cached or new
+	 * @throws XExpression If the condition cannot be parsed
+	 */
+	Expression borrow(String condition, Environment env) throws XExpression {
+		Queue<Expression> pool = expressions.get(condition);
+		Expression exp = pool == null ? null : pool.poll();
+		if(exp == null) {
+			exp = new Expression(condition, env);
+		}
+		return exp;
+	}
+
+	/**
+	 * Give back an expression after its evaluation.
+	 * 
+	 * @param condition The condition
+	 * @param exp The expression returned by borrow
+	 */
+	void release(String condition, Expression exp) {
+		Queue<Expression> pool = expressions.get(condition);
+		if(pool == null) {
+			if(expressions.size() >= MAX_CONDITIONS) {
+				return;
+			}
+			pool = expressions.computeIfAbsent(condition, c -> new ConcurrentLinkedQueue<>());
+		}
+		if(pool.size() < MAX_POOLED_EXPRESSIONS) {
+			pool.offer(exp);
+		}
+	}
+
+	public int size() {
+		return expressions.size();
+	}
+
+	public void clear() {
+		expressions.clear();
+	}
+}
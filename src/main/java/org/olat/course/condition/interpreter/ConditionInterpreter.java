@@ -26,6 +26,10 @@
 package org.olat.course.condition.interpreter;
 
 import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.Logger;
 import org.olat.core.gui.translator.Translator;
@@ -41,10 +45,12 @@ import org.olat.course.condition.interpreter.score.GetScoreFunction;
 import org.olat.course.condition.interpreter.score.GetScoreWithCourseIdFunction;
 import org.olat.course.db.interpreter.GetUserCourseDBFunction;
 import org.olat.course.editor.CourseEditorEnv;
+import org.olat.course.run.environment.CourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironment;
 
 import com.neemsoft.jmep.Environment;
 import com.neemsoft.jmep.Expression;
+import com.neemsoft.jmep.FunctionCB;
 import com.neemsoft.jmep.XExpression;
 import com.neemsoft.jmep.XIllegalOperation;
 import com.neemsoft.jmep.XIllegalStatus;
@@ -67,9 +73,21 @@ public class ConditionInterpreter {
 	public static final Integer INT_TRUE = Integer.valueOf(1);
 	/** static Integer(0) object */
 	public static final Integer INT_FALSE = Integer.valueOf(0);
+	
+	/**
+	 * The functions and variables of the environment are stateless, the
+	 * user course environment is bound to the thread which evaluates
+	 * an expression. The environment and the expressions parsed against it
+	 * can be shared by all users.
+	 */
+	private static final Environment sharedEnvironment = createSharedEnvironment();
+	
 	protected Environment env;
 	protected Translator translator;
 	protected UserCourseEnvironment uce;
+	
+	private final AtomicInteger evaluationScopes = new AtomicInteger();
+	private volatile Map<List<Object>,Object> evaluationResults;
 
 	/**
 	 * ConditionInterpreter interpretes course conditions.
@@ -83,8 +101,13 @@ public class ConditionInterpreter {
 		if (cev != null) {
 			translator = Util.createPackageTranslator(ConditionInterpreter.class, cev.getEditorEnvLocale());
 		}
-
-		env = new Environment();
+		env = sharedEnvironment;
+	}
+	
+	private static Environment createSharedEnvironment() {
+		// the functions get the user course environment bound to the evaluation
+		final UserCourseEnvironment userCourseEnv = null;
+		Environment env = new Environment();
 
 		// constants: add for user convenience
 		env.addConstant("true", 1);
@@ -98,49 +121,49 @@ public class ConditionInterpreter {
 
 		// functions
 		env.addFunction(DateFunction.name, new DateFunction(userCourseEnv));
-		env.addFunction("inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
-		env.addFunction("inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
+		addMemoizedFunction(env, "inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
+		addMemoizedFunction(env, "inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
 		env.addFunction("isLearningGroupFull", new IsLearningGroupFullFunction(userCourseEnv));
-		env.addFunction(InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
-		env.addFunction(InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
+		addMemoizedFunction(env, InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
+		addMemoizedFunction(env, InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
 		env.addFunction(IsUserFunction.name, new IsUserFunction(userCourseEnv));
 		env.addFunction(IsGuestFunction.name, new IsGuestFunction(userCourseEnv));
 		env.addFunction(IsGlobalAuthorFunction.name, new IsGlobalAuthorFunction(userCourseEnv));
 		env.addFunction(Sleep.name, new Sleep(userCourseEnv));
 		EvalAttributeFunction eaf;
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_HAS_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_IS_IN_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_HAS_NOT_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_IS_NOT_IN_ATTRIBUTE);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_ATTRIBUTE_ENDS_WITH);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		eaf = new EvalAttributeFunction(userCourseEnv, EvalAttributeFunction.FUNCTION_TYPE_ATTRIBUTE_STARTS_WITH);
-		env.addFunction(eaf.name, eaf);
+		addMemoizedFunction(env, eaf.name, eaf);
 		EvalUserPropertyFunction eupf;
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_HAS_NOT_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_NOT_PROPERTY, eupf);
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_HAS_NOT_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_HAS_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_HAS_PROPERTY, eupf);
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_HAS_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_IS_IN_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_IN_PROPERTY, eupf);
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_IS_IN_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_IS_NOT_IN_PROPERTY);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_IS_NOT_IN_PROPERTY, eupf);
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_IS_NOT_IN_PROPERTY, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_PROPERTY_ENDS_WITH);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_ENDS_WITH, eupf);
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_ENDS_WITH, eupf);
 		eupf = new EvalUserPropertyFunction(userCourseEnv, EvalUserPropertyFunction.FUNCTION_TYPE_PROPERTY_STARTS_WITH);
-		env.addFunction(EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_STARTS_WITH, eupf);
-		env.addFunction(GetUserPropertyFunction.name, new GetUserPropertyFunction(userCourseEnv));
+		addMemoizedFunction(env, EvalUserPropertyFunction.FUNCTION_NAME_PROPERTY_STARTS_WITH, eupf);
+		addMemoizedFunction(env, GetUserPropertyFunction.name, new GetUserPropertyFunction(userCourseEnv));
 		env.addFunction(GetUserCourseDBFunction.name, new GetUserCourseDBFunction(userCourseEnv));
-		env.addFunction(HasLanguageFunction.name, new HasLanguageFunction(userCourseEnv));
-		env.addFunction(InInstitutionFunction.name, new InInstitutionFunction(userCourseEnv));
-		env.addFunction(IsCourseCoachFunction.name, new IsCourseCoachFunction(userCourseEnv));
-		env.addFunction(IsCourseParticipantFunction.name, new IsCourseParticipantFunction(userCourseEnv));
-		env.addFunction(IsCourseAdministratorFunction.name, new IsCourseAdministratorFunction(userCourseEnv));
-		env.addFunction(IsInOrganisationFunction.name, new IsInOrganisationFunction(userCourseEnv));
+		addMemoizedFunction(env, HasLanguageFunction.name, new HasLanguageFunction(userCourseEnv));
+		addMemoizedFunction(env, InInstitutionFunction.name, new InInstitutionFunction(userCourseEnv));
+		addMemoizedFunction(env, IsCourseCoachFunction.name, new IsCourseCoachFunction(userCourseEnv));
+		addMemoizedFunction(env, IsCourseParticipantFunction.name, new IsCourseParticipantFunction(userCourseEnv));
+		addMemoizedFunction(env, IsCourseAdministratorFunction.name, new IsCourseAdministratorFunction(userCourseEnv));
+		addMemoizedFunction(env, IsInOrganisationFunction.name, new IsInOrganisationFunction(userCourseEnv));
 		
 		env.addFunction(IsAssessmentModeFunction.name, new IsAssessmentModeFunction(userCourseEnv));
 		env.addFunction(GetCourseBeginDateFunction.name, new GetCourseBeginDateFunction(userCourseEnv));
@@ -148,7 +171,7 @@ public class ConditionInterpreter {
 		env.addFunction(GetInitialCourseLaunchDateFunction.name, new GetInitialCourseLaunchDateFunction(userCourseEnv));
 		env.addFunction(GetRecentCourseLaunchDateFunction.name, new GetRecentCourseLaunchDateFunction(userCourseEnv));
 
-		env.addFunction(GetAttemptsFunction.name, new GetAttemptsFunction(userCourseEnv));
+		addMemoizedFunction(env, GetAttemptsFunction.name, new GetAttemptsFunction(userCourseEnv));
 		env.addFunction(GetLastAttemptDateFunction.name, new GetLastAttemptDateFunction(userCourseEnv));
 
 		// enrollment building block specific functions
@@ -156,11 +179,11 @@ public class ConditionInterpreter {
 		env.addFunction(GetRecentEnrollmentDateFunction.name, new GetRecentEnrollmentDateFunction(userCourseEnv));
 
 		// functions to calculate score
-		env.addFunction(GetPassedFunction.name, new GetPassedFunction(userCourseEnv));
-		env.addFunction(GetScoreFunction.name, new GetScoreFunction(userCourseEnv));
-		env.addFunction(GetAverageScoreFunction.NAME, new GetAverageScoreFunction(userCourseEnv));
-		env.addFunction(GetPassedWithCourseIdFunction.name, new GetPassedWithCourseIdFunction(userCourseEnv));
-		env.addFunction(GetScoreWithCourseIdFunction.name, new GetScoreWithCourseIdFunction(userCourseEnv));
+		addMemoizedFunction(env, GetPassedFunction.name, new GetPassedFunction(userCourseEnv));
+		addMemoizedFunction(env, GetScoreFunction.name, new GetScoreFunction(userCourseEnv));
+		addMemoizedFunction(env, GetAverageScoreFunction.NAME, new GetAverageScoreFunction(userCourseEnv));
+		addMemoizedFunction(env, GetPassedWithCourseIdFunction.name, new GetPassedWithCourseIdFunction(userCourseEnv));
+		addMemoizedFunction(env, GetScoreWithCourseIdFunction.name, new GetScoreWithCourseIdFunction(userCourseEnv));
 
 	  
 		env.addFunction(GetOnyxTestOutcomeNumFunction.name, new GetOnyxTestOutcomeNumFunction(userCourseEnv));
@@ -173,12 +196,36 @@ public class ConditionInterpreter {
 		env.addUnit("d", new DayUnit());
 		env.addUnit("w", new WeekUnit());
 		env.addUnit("m", new MonthUnit());
+		return env;
 	}
 	
+	private static void addMemoizedFunction(Environment env, String name, FunctionCB function) {
+		env.addFunction(name, new MemoizedFunction(name, function));
+	}
+
 
 	public UserCourseEnvironment getUserCourseEnvironment() {
 		return uce;
 	}
+	
+	/**
+	 * Open a scope in which the results of the functions which depend only
+	 * on the user and on their arguments (group memberships, attributes, scores...)
+	 * are memoized, typically for the evaluation of a whole course tree. The
+	 * scope must be closed with endEvaluationScope() in a finally block.
+	 */
+	public void beginEvaluationScope() {
+		if(evaluationScopes.getAndIncrement() == 0) {
+			evaluationResults = new ConcurrentHashMap<>();
+		}
+	}
+	
+	public void endEvaluationScope() {
+		if(evaluationScopes.decrementAndGet() <= 0) {
+			evaluationScopes.set(0);
+			evaluationResults = null;
+		}
+	}
 
 	/**
 	 * @param expression
@@ -196,8 +243,13 @@ public class ConditionInterpreter {
 			 * environment.
 			 */
 			String conditionString = condExpr.getExptressionString();
-			Expression exp = new Expression(conditionString, env);
-			exp.evaluate();
+			ConditionEvaluation evaluation = ConditionEvaluation.bind(uce, null);
+			try {
+				Expression exp = new Expression(conditionString, env);
+				exp.evaluate();
+			} finally {
+				evaluation.unbind();
+			}
 			Exception[] condExceptions = condExpr.getExceptions();
 			ConditionErrorMessage[] cems = null;
 			if (condExceptions != null && condExceptions.length > 0) {
@@ -323,8 +375,7 @@ public class ConditionInterpreter {
 
 	private float doEvaluateCalculation(String calculation) throws ParseException {
 		try {
-			Expression exp = new Expression(calculation, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(calculation);
 			if (result instanceof Double) {
 				return ((Double) result).floatValue();
 			} else if (result instanceof Integer) {
@@ -344,8 +395,7 @@ public class ConditionInterpreter {
 	 */
 	private boolean doEvaluateCondition(String condition) throws ParseException {
 		try {
-			Expression exp = new Expression(condition, env);
-			Object result = exp.evaluate();
+			Object result = evaluate(condition);
 			if (result instanceof Double) {
 				return (((Double) result).doubleValue() == 1.0);
 			} else if (result instanceof Integer) {
@@ -355,4 +405,41 @@ public class ConditionInterpreter {
 			throw new ParseException("Parse exception for condition: " + condition + ". " + xe.getMessage(), xe.getPosition());
 		}
 	}
-}
\ No newline at end of file
+
+	
+	/**
+	 * Evaluate the expression with the user course environment of this
+	 * interpreter bound to the current thread. The parsed expressions
+	 * are reused if the shared environment is used.
+	 * 
+	 * @param str The condition or the calculation
+	 * @return The result of the evaluation
+	 * @throws XExpression
+	 */
+	private Object evaluate(String str) throws XExpression {
+		Map<List<Object>,Object> results = uce.getCourseEditorEnv() == null ? evaluationResults : null;
+		ConditionEvaluation evaluation = ConditionEvaluation.bind(uce, results);
+		try {
+			ConditionExpressionCache cache = getExpressionCache();
+			if(cache == null) {
+				return new Expression(str, env).evaluate();
+			}
+			
+			Expression exp = cache.borrow(str, env);
+			Object result = exp.evaluate();
+			// an expression which failed is not reused
+			cache.release(str, exp);
+			return result;
+		} finally {
+			evaluation.unbind();
+		}
+	}
+	
+	private ConditionExpressionCache getExpressionCache() {
+		if(env != sharedEnvironment || uce.getCourseEditorEnv() != null) {
+			return null;
+		}
+		CourseEnvironment courseEnv = uce.getCourseEnvironment();
+		return courseEnv == null ? null : courseEnv.getConditionExpressionCache();
+	}
+}
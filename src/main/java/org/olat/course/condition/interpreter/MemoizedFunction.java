@@ -0,0 +1,69 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.condition.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.neemsoft.jmep.FunctionCB;
+
+/**
+ * A function which remembers its results for the scope of an evaluation
+ * opened by ConditionInterpreter.beginEvaluationScope(). The results
+ * are kept by function name and arguments. Outside of a scope, the call
+ * is simply delegated.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class MemoizedFunction extends FunctionCB {
+
+	private final String name;
+	private final FunctionCB delegate;
+
+	MemoizedFunction(String name, FunctionCB delegate) {
+		this.name = name;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Object call(Object[] inStack) {
+		Map<List<Object>,Object> results = ConditionEvaluation.getResults();
+		if(results == null) {
+			return delegate.call(inStack);
+		}
+
+		List<Object> key = new ArrayList<>(inStack.length + 1);
+		key.add(name);
+		for(Object arg:inStack) {
+			key.add(arg);
+		}
+
+		Object result = results.get(key);
+		if(result == null) {
+			result = delegate.call(inStack);
+			if(result != null) {
+				results.put(key, result);
+			}
+		}
+		return result;
+	}
+}
@@ -30,6 +30,7 @@ import org.olat.core.util.vfs.VFSContainer;
 import org.olat.course.Structure;
 import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.auditing.UserNodeAuditManager;
+import org.olat.course.condition.interpreter.ConditionExpressionCache;
 import org.olat.course.config.CourseConfig;
 import org.olat.course.folder.CourseContainerOptions;
 import org.olat.course.groupsandrights.CourseGroupManager;
@@ -129,5 +130,12 @@ public interface CourseEnvironment {
 	 * @return course config of this course
 	 */
 	public CourseConfig getCourseConfig();
+	
+	/**
+	 * The parsed conditions of the course, shared by all users.
+	 * 
+	 * @return The cache of the condition expressions
+	 */
+	public ConditionExpressionCache getConditionExpressionCache();
 		
 }
@@ -34,6 +34,7 @@ import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.assessment.manager.CourseAssessmentManagerImpl;
 import org.olat.course.auditing.UserNodeAuditManager;
 import org.olat.course.auditing.UserNodeAuditManagerImpl;
+import org.olat.course.condition.interpreter.ConditionExpressionCache;
 import org.olat.course.config.CourseConfig;
 import org.olat.course.folder.CourseContainerOptions;
 import org.olat.course.groupsandrights.CourseGroupManager;
@@ -54,6 +55,7 @@ public class CourseEnvironmentImpl implements CourseEnvironment {
 	private final PersistingCourseGroupManager cgm;
 	private final CoursePropertyManager propertyManager;
 	private final AssessmentManager assessmentManager;
+	private final ConditionExpressionCache conditionExpressionCache = new ConditionExpressionCache();
 	private UserNodeAuditManager auditManager;
 
 	/**
@@ -153,4 +155,9 @@ public class CourseEnvironmentImpl implements CourseEnvironment {
 	public LocalFolderImpl getCourseBaseContainer() {
 		return course.getCourseBaseContainer();
 	}
+
+	@Override
+	public ConditionExpressionCache getConditionExpressionCache() {
+		return conditionExpressionCache;
+	}
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import org.olat.core.util.vfs.VFSContainer;
 import org.olat.course.Structure;
 import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.auditing.UserNodeAuditManager;
+import org.olat.course.condition.interpreter.ConditionExpressionCache;
 import org.olat.course.config.CourseConfig;
 import org.olat.course.folder.CourseContainerOptions;
 import org.olat.course.groupsandrights.CourseGroupManager;
@@ -54,6 +55,7 @@ final class PreviewCourseEnvironment implements CourseEnvironment {
 	private final UserNodeAuditManager auditman;
 	private final AssessmentManager am;
 	private final long simulatedDateTime;
+	private final ConditionExpressionCache conditionExpressionCache = new ConditionExpressionCache();
 	private Long resourceablId;
 	private CourseConfig courseConfig;
 
@@ -150,4 +152,9 @@ final class PreviewCourseEnvironment implements CourseEnvironment {
 		return courseBaseContainer;
 	}
 
+	@Override
+	public ConditionExpressionCache getConditionExpressionCache() {
+		return conditionExpressionCache;
+	}
+
 }
\ No newline at end of file
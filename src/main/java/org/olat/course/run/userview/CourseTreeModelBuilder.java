@@ -20,6 +20,7 @@
 package org.olat.course.run.userview;
 
 import org.olat.core.gui.components.tree.GenericTreeModel;
+import org.olat.course.condition.interpreter.ConditionInterpreter;
 import org.olat.course.nodes.CourseNode;
 
 /**
@@ -45,7 +46,19 @@ public abstract class CourseTreeModelBuilder {
 	public GenericTreeModel build() {
 		CourseNode rootNode = userCourseEnv.getCourseEnvironment().getRunStructure().getRootNode();
 		int treeLevel = 0;
-		CourseTreeNode rootTreeNode = getCourseTreeNode(rootNode, null, treeLevel);
+		// memoize the group memberships, attributes, scores... for the whole tree
+		ConditionInterpreter ci = userCourseEnv.getConditionInterpreter();
+		if(ci != null) {
+			ci.beginEvaluationScope();
+		}
+		CourseTreeNode rootTreeNode;
+		try {
+			rootTreeNode = getCourseTreeNode(rootNode, null, treeLevel);
+		} finally {
+			if(ci != null) {
+				ci.endEvaluationScope();
+			}
+		}
 		GenericTreeModel treeModel = new GenericTreeModel();
 		treeModel.setRootNode(rootTreeNode);
 		return treeModel;
@@ -0,0 +1,464 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.statistic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.TypedQuery;
+
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.properties.Property;
+import org.olat.properties.PropertyManager;
+
+/**
+ * An updater which aggregates the launches of course nodes directly from
+ * the logging table into the daily, weekly, day of week and hour of day
+ * tables, without the temporary table o_stat_temptable.
+ * <p>
+ * The updater remembers the last aggregated log entry (insert date and
+ * primary key) as high-water mark in the LAST_UPDATED property. The insert
+ * date is set by the database when the line is written, the creation date
+ * is the date of the action and the asynchronous log writer can write a line
+ * long after it. The log is read in slices ordered by insert date, the
+ * counters of a slice are aggregated in memory, by creation date, the existing
+ * rows are loaded and the counters written with batched updates of these rows,
+ * followed by batched inserts of the missing rows. The
+ * counters and the high-water mark are committed in the same transaction, a
+ * slice is never counted twice.
+ * <p>
+ * The log entries inserted since less than the settle time are not aggregated,
+ * they can be written by transactions which are not yet committed. The number
+ * of slices per run is limited to allow frequent, short runs. A full
+ * recalculation deletes the statistics and processes the whole log, the
+ * lines written before the insert date was introduced are read by primary key.
+ * <p>
+ * This updater needs a StatisticUpdateConfig with incremental set to true,
+ * the StatisticUpdateManager doesn't move the LAST_UPDATED property itself.
+ *
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class IncrementalStatisticUpdater implements IStatisticUpdater {
+
+	private static final Logger log = Tracing.createLoggerFor(IncrementalStatisticUpdater.class);
+
+	private DB dbInstance;
+	private int sliceSize = 5000;
+	private int maxSlices = 20;
+	private long settleTime = 60000l;
+
+	/** set via spring **/
+	public void setDbInstance(DB dbInstance) {
+		this.dbInstance = dbInstance;
+	}
+
+	/**
+	 * @param sliceSize The max. number of log entries aggregated in one transaction
+	 */
+	public void setSliceSize(int sliceSize) {
+		this.sliceSize = sliceSize;
+	}
+
+	/**
+	 * @param maxSlices The max. number of slices processed by a run, 0 or less is unlimited
+	 */
+	public void setMaxSlices(int maxSlices) {
+		this.maxSlices = maxSlices;
+	}
+
+	/**
+	 * @param settleTime The time in milliseconds since the write of a log entry before it is aggregated
+	 */
+	public void setSettleTime(long settleTime) {
+		this.settleTime = settleTime;
+	}
+
+	@Override
+	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+		log.info("updateStatistic: START");
+		final long startTime = System.currentTimeMillis();
+		int slices = 0;
+		long aggregated = 0;
+		try {
+			if(fullRecalculation) {
+				reset(from);
+				for(Long lastKey=null; ; slices++) {
+					List<Object[]> entries = loadLegacyLogEntries(from, lastKey);
+					if(entries.isEmpty()) {
+						dbInstance.commitAndCloseSession();
+						break;
+					}
+					aggregate(entries);
+					dbInstance.commitAndCloseSession();
+					aggregated += entries.size();
+					lastKey = (Long)entries.get(entries.size() - 1)[0];
+				}
+			}
+
+			Date settled = new Date(until.getTime() - settleTime);
+			for(boolean more=true; more && (fullRecalculation || maxSlices <= 0 || slices < maxSlices); slices++) {
+				int processed = processSlice(settled);
+				aggregated += processed;
+				more = processed >= sliceSize;
+			}
+		} catch(Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.error("updateStatistic: Exception while aggregating the statistics", e);
+		} finally {
+			final long diff = System.currentTimeMillis() - startTime;
+			log.info("updateStatistic: END. slices={} log entries={} duration={} milliseconds", slices, aggregated, diff);
+		}
+	}
+
+	private void reset(Date from) {
+		dbInstance.getCurrentEntityManager().createQuery("delete from dailystat").executeUpdate();
+		dbInstance.getCurrentEntityManager().createQuery("delete from weeklystat").executeUpdate();
+		dbInstance.getCurrentEntityManager().createQuery("delete from dayofweekstat").executeUpdate();
+		dbInstance.getCurrentEntityManager().createQuery("delete from hourofdaystat").executeUpdate();
+		saveHighWaterMark(loadHighWaterMark(), from.getTime(), null);
+		dbInstance.commitAndCloseSession();
+	}
+
+	/**
+	 * Aggregate a slice of the log and move the high-water mark in
+	 * a single transaction.
+	 *
+	 * @param settled Only the log entries inserted strictly before this date are aggregated
+	 * @return The number of log entries read
+	 */
+	private int processSlice(Date settled) {
+		Property mark = loadHighWaterMark();
+		Date lastDate = new Date(mark == null || mark.getLongValue() == null ? 0l : mark.getLongValue().longValue());
+		Long lastKey = mark == null ? null : toLong(mark.getStringValue());
+
+		List<Object[]> entries = loadLogEntries(lastDate, lastKey, settled);
+		if(entries.isEmpty()) {
+			dbInstance.commitAndCloseSession();
+			return 0;
+		}
+
+		aggregate(entries);
+		Object[] last = entries.get(entries.size() - 1);
+		saveHighWaterMark(mark, ((Date)last[1]).getTime(), (Long)last[0]);
+		dbInstance.commitAndCloseSession();
+		return entries.size();
+	}
+	
+	/**
+	 * @param entries The log entries (key, insert date, creation date, business path)
+	 */
+	private void aggregate(List<Object[]> entries) {
+		SliceCounters counters = new SliceCounters();
+		for(Object[] entry:entries) {
+			counters.add((Date)entry[2], (String)entry[3]);
+		}
+		dbInstance.getCurrentEntityManager().unwrap(Session.class).doWork(counters::write);
+	}
+
+	private List<Object[]> loadLogEntries(Date lastDate, Long lastKey, Date settled) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select log.key, log.insertDate, log.creationDate, log.businessPath from loggingobject log")
+		  .append(" where log.actionVerb='launch' and log.actionObject='node' and log.insertDate<:settled");
+		if(lastKey == null) {
+			sb.append(" and log.insertDate>:lastDate");
+		} else {
+			sb.append(" and (log.insertDate>:lastDate or (log.insertDate=:lastDate and log.key>:lastKey))");
+		}
+		sb.append(" order by log.insertDate asc, log.key asc");
+
+		TypedQuery<Object[]> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("settled", settled)
+				.setParameter("lastDate", lastDate)
+				.setFirstResult(0)
+				.setMaxResults(sliceSize);
+		if(lastKey != null) {
+			query.setParameter("lastKey", lastKey);
+		}
+		return query.getResultList();
+	}
+
+	/**
+	 * Load a slice of the lines written before the insert date was introduced.
+	 */
+	private List<Object[]> loadLegacyLogEntries(Date from, Long lastKey) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select log.key, log.creationDate, log.creationDate, log.businessPath from loggingobject log")
+		  .append(" where log.actionVerb='launch' and log.actionObject='node' and log.insertDate is null")
+		  .append(" and log.creationDate>=:from");
+		if(lastKey != null) {
+			sb.append(" and log.key>:lastKey");
+		}
+		sb.append(" order by log.key asc");
+
+		TypedQuery<Object[]> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("from", from)
+				.setFirstResult(0)
+				.setMaxResults(sliceSize);
+		if(lastKey != null) {
+			query.setParameter("lastKey", lastKey);
+		}
+		return query.getResultList();
+	}
+
+	private Property loadHighWaterMark() {
+		return PropertyManager.getInstance().findProperty(null, null, null,
+				StatisticUpdateManagerImpl.STATISTICS_PROPERTIES_CATEGORY, StatisticUpdateManagerImpl.LAST_UPDATED_PROPERTY_NAME);
+	}
+
+	private void saveHighWaterMark(Property mark, long lastDate, Long lastKey) {
+		PropertyManager pm = PropertyManager.getInstance();
+		String key = lastKey == null ? null : lastKey.toString();
+		if(mark == null) {
+			Property newMark = pm.createPropertyInstance(null, null, null, StatisticUpdateManagerImpl.STATISTICS_PROPERTIES_CATEGORY,
+					StatisticUpdateManagerImpl.LAST_UPDATED_PROPERTY_NAME, null, lastDate, key, null);
+			pm.saveProperty(newMark);
+		} else {
+			mark.setLongValue(lastDate);
+			mark.setStringValue(key);
+			pm.updateProperty(mark);
+		}
+	}
+
+	private static Long toLong(String val) {
+		if(StringHelper.isLong(val)) {
+			return Long.valueOf(val);
+		}
+		return null;
+	}
+
+	/**
+	 * The resource id is the id of the first element of the business path,
+	 * the repository entry of the course.
+	 */
+	static Long getResourceId(String businessPath) {
+		if(!StringHelper.containsNonWhitespace(businessPath)) {
+			return null;
+		}
+		int start = businessPath.indexOf(':');
+		int end = businessPath.indexOf(']');
+		if(start < 0 || end <= start + 1) {
+			return null;
+		}
+		return toLong(businessPath.substring(start + 1, end));
+	}
+
+	/**
+	 * The counters of a slice for the four statistic tables.
+	 *
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	static class SliceCounters {
+
+		private static final int RESOURCES_CHUNK_SIZE = 500;
+
+		// same format as the WeeklyStatisticManager
+		private final SimpleDateFormat weekFormat = new SimpleDateFormat("yyyy-ww");
+		private final Calendar cal = Calendar.getInstance();
+
+		final Map<Bucket,int[]> daily = new LinkedHashMap<>();
+		final Map<Bucket,int[]> weekly = new LinkedHashMap<>();
+		final Map<Bucket,int[]> dayOfWeek = new LinkedHashMap<>();
+		final Map<Bucket,int[]> hourOfDay = new LinkedHashMap<>();
+
+		void add(Date creationDate, String businessPath) {
+			Long resId = getResourceId(businessPath);
+			if(resId == null) {
+				log.debug("Skip log entry with business path: {}", businessPath);
+				return;
+			}
+
+			cal.setTime(creationDate);
+			int hour = cal.get(Calendar.HOUR_OF_DAY);
+			int day = cal.get(Calendar.DAY_OF_WEEK);
+			increment(hourOfDay, new Bucket(businessPath, resId, Integer.valueOf(hour)));
+			increment(dayOfWeek, new Bucket(businessPath, resId, Integer.valueOf(day)));
+			increment(weekly, new Bucket(businessPath, resId, weekFormat.format(creationDate)));
+
+			cal.set(Calendar.HOUR_OF_DAY, 0);
+			cal.set(Calendar.MINUTE, 0);
+			cal.set(Calendar.SECOND, 0);
+			cal.set(Calendar.MILLISECOND, 0);
+			increment(daily, new Bucket(businessPath, resId, new Timestamp(cal.getTimeInMillis())));
+		}
+
+		private static void increment(Map<Bucket,int[]> counters, Bucket bucket) {
+			counters.computeIfAbsent(bucket, b -> new int[1])[0]++;
+		}
+
+		void write(Connection connection) throws SQLException {
+			upsert(connection, "o_stat_daily", "day", daily);
+			upsert(connection, "o_stat_weekly", "week", weekly);
+			upsert(connection, "o_stat_dayofweek", "day", dayOfWeek);
+			upsert(connection, "o_stat_hourofday", "hour", hourOfDay);
+		}
+
+		/**
+		 * The tables have no unique key on the bucket, a native upsert is not
+		 * possible. The existing rows are loaded first and the counters are
+		 * split in a batch of pure updates and a batch of pure inserts. An
+		 * update is never executed twice, even if the driver doesn't return
+		 * the number of updated rows.
+		 */
+		private static void upsert(Connection connection, String table, String column, Map<Bucket,int[]> counters)
+		throws SQLException {
+			if(counters.isEmpty()) return;
+
+			Set<Bucket> existing = loadExistingBuckets(connection, table, column, counters.keySet());
+			List<Map.Entry<Bucket,int[]>> updates = new ArrayList<>();
+			List<Map.Entry<Bucket,int[]>> inserts = new ArrayList<>();
+			for(Map.Entry<Bucket,int[]> entry:counters.entrySet()) {
+				if(existing.contains(entry.getKey())) {
+					updates.add(entry);
+				} else {
+					inserts.add(entry);
+				}
+			}
+
+			if(!updates.isEmpty()) {
+				String update = "update " + table + " set value=value+? where resid=? and businesspath=? and " + column + "=?";
+				try(PreparedStatement statement = connection.prepareStatement(update)) {
+					for(Map.Entry<Bucket,int[]> entry:updates) {
+						Bucket bucket = entry.getKey();
+						statement.setInt(1, entry.getValue()[0]);
+						statement.setLong(2, bucket.resId.longValue());
+						statement.setString(3, bucket.businessPath);
+						statement.setObject(4, bucket.value);
+						statement.addBatch();
+					}
+					statement.executeBatch();
+				}
+			}
+
+			if(!inserts.isEmpty()) {
+				String insert = "insert into " + table + " (businesspath, resid, " + column + ", value) values (?,?,?,?)";
+				try(PreparedStatement statement = connection.prepareStatement(insert)) {
+					for(Map.Entry<Bucket,int[]> entry:inserts) {
+						Bucket bucket = entry.getKey();
+						statement.setString(1, bucket.businessPath);
+						statement.setLong(2, bucket.resId.longValue());
+						statement.setObject(3, bucket.value);
+						statement.setInt(4, entry.getValue()[0]);
+						statement.addBatch();
+					}
+					statement.executeBatch();
+				}
+			}
+		}
+
+		/**
+		 * Load the buckets of the slice which already have a row, by chunks of resources.
+		 */
+		private static Set<Bucket> loadExistingBuckets(Connection connection, String table, String column, Set<Bucket> buckets)
+		throws SQLException {
+			Object sample = buckets.iterator().next().value;
+			List<Long> resIds = buckets.stream()
+					.map(bucket -> bucket.resId)
+					.distinct()
+					.collect(Collectors.toList());
+
+			Set<Bucket> existing = new HashSet<>();
+			for(int i=0; i<resIds.size(); i+=RESOURCES_CHUNK_SIZE) {
+				List<Long> chunk = resIds.subList(i, Math.min(resIds.size(), i + RESOURCES_CHUNK_SIZE));
+				StringBuilder sb = new StringBuilder(128);
+				sb.append("select resid, businesspath, ").append(column).append(" from ").append(table).append(" where resid in (");
+				for(int j=0; j<chunk.size(); j++) {
+					sb.append(j == 0 ? "?" : ",?");
+				}
+				sb.append(")");
+
+				try(PreparedStatement statement = connection.prepareStatement(sb.toString())) {
+					for(int j=0; j<chunk.size(); j++) {
+						statement.setLong(j + 1, chunk.get(j).longValue());
+					}
+					try(ResultSet rs = statement.executeQuery()) {
+						while(rs.next()) {
+							Long resId = Long.valueOf(rs.getLong(1));
+							String businessPath = rs.getString(2);
+							Object value;
+							if(sample instanceof Timestamp) {
+								value = new Timestamp(rs.getTimestamp(3).getTime());
+							} else if(sample instanceof Integer) {
+								value = Integer.valueOf(rs.getInt(3));
+							} else {
+								value = rs.getString(3);
+							}
+							existing.add(new Bucket(businessPath, resId, value));
+						}
+					}
+				}
+			}
+			return existing;
+		}
+	}
+
+	static final class Bucket {
+
+		private final String businessPath;
+		private final Long resId;
+		private final Object value;
+
+		public Bucket(String businessPath, Long resId, Object value) {
+			this.businessPath = businessPath;
+			this.resId = resId;
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return businessPath.hashCode() + value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof Bucket) {
+				Bucket bucket = (Bucket)obj;
+				return businessPath.equals(bucket.businessPath)
+						&& Objects.equals(resId, bucket.resId)
+						&& value.equals(bucket.value);
+			}
+			return false;
+		}
+	}
+}
@@ -36,6 +36,8 @@ public class StatisticUpdateConfig {
 	
 	private List<IStatisticUpdater> updaters_;
 	
+	private boolean incremental_ = false;
+	
 	public StatisticUpdateConfig() {
 		// nothing to be done here
 	}
@@ -47,5 +49,16 @@ public class StatisticUpdateConfig {
 	public List<IStatisticUpdater> getUpdaters() {
 		return updaters_;
 	}
+	
+	/**
+	 * @return true if the updaters maintain the LAST_UPDATED property themselves
+	 */
+	public boolean isIncremental() {
+		return incremental_;
+	}
+	
+	public void setIncremental(boolean incremental) {
+		incremental_ = incremental;
+	}
 
 }
@@ -55,16 +55,19 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 	static final Logger log_ = Tracing.createLoggerFor(StatisticUpdateManagerImpl.class);
 
 	/** the category used for statistics properties (in the o_properties table) **/
-	private static final String STATISTICS_PROPERTIES_CATEGORY = "STATISTICS_PROPERTIES";
+	static final String STATISTICS_PROPERTIES_CATEGORY = "STATISTICS_PROPERTIES";
 	
 	/** the name used for last_updated property (in the o_properties table) **/
-	private static final String LAST_UPDATED_PROPERTY_NAME = "LAST_UPDATED";
+	static final String LAST_UPDATED_PROPERTY_NAME = "LAST_UPDATED";
 
 	/** the event string used to ensure that only one StatisticUpdateManagerImpl is active in a cluster **/
 	private static final String STARTUP_EVENT = "startupEvent";
 	
 	/** all the IStatisticUpdaters that registered with the StatisticUpdaterManager **/
 	final List<IStatisticUpdater> updaters_ = new LinkedList<>();
+	
+	/** whether the updaters maintain the LAST_UPDATED property themselves **/
+	private final boolean incremental_;
 
 	private final MultiUserEvent startupEvent_ = new MultiUserEvent(STARTUP_EVENT);
 
@@ -79,6 +82,7 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 	public StatisticUpdateManagerImpl(CoordinatorManager coordinatorManager, StatisticUpdateConfig config, String enabled) {
 		enabled_ = enabled != null && "enabled".equals(enabled);
 		updaters_.addAll(config.getUpdaters());
+		incremental_ = config.isIncremental();
 		
 		// note: not using CoordinatorManager.getInstance().getCoordinator() in this spring-called-constructor
 		//       as we have a problem in 6.3 where Tracing calls into CoordinatorManager.getInstance().getCoordinator()
@@ -142,7 +146,8 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 					log_.info("updateStatistics: initialization for update");
 					
 					long nowInMilliseconds = System.currentTimeMillis();
-					long lastUpdatedInMilliseconds = getAndUpdateLastUpdated(nowInMilliseconds);
+					// the incremental updaters move the LAST_UPDATED property with the aggregated log entries
+					long lastUpdatedInMilliseconds = incremental_ ? getLastUpdated() : getAndUpdateLastUpdated(nowInMilliseconds);
 					if (fullRecalculation || (lastUpdatedInMilliseconds==-1)) {
 						Calendar nineteennintyeight = Calendar.getInstance();
 						nineteennintyeight.set(1998, 12, 31);
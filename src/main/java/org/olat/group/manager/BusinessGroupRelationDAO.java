@@ -133,6 +133,22 @@ public class BusinessGroupRelationDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * @param identity The identity
+	 * @return The keys of the business groups where the identity is a member (waiting list excluded)
+	 */
+	public List<Long> getBusinessGroupKeysOfMember(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select distinct bgroup.key from businessgroup as bgroup ")
+		  .append(" inner join bgroup.baseGroup as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where membership.identity.key=:identityKey and membership.role<>'").append(GroupRoles.waiting.name()).append("'");
+
+		return dbInstance.getCurrentEntityManager().createQuery(sb.toString(), Long.class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+	}
+	
 	public List<String> getRoles(IdentityRef identity, List<? extends BusinessGroupRef> groups) {
 		if(groups == null || groups.isEmpty()) return Collections.emptyList();
 		
@@ -217,6 +217,8 @@ public class BusinessGroupModuleAdminController extends FormBasicController impl
 	public void finished() {
 		cmc.deactivate();
 		cleanUp();
+		// called by the background task
+		signalDirtyComponents();
 	}
 
 	@Override
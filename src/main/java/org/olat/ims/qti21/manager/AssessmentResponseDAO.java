@@ -19,10 +19,13 @@
  */
 package org.olat.ims.qti21.manager;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.TypedQuery;
+
 import org.olat.basesecurity.GroupRoles;
 import org.olat.core.commons.persistence.DB;
 import org.olat.ims.qti21.AssessmentItemSession;
@@ -84,16 +87,50 @@ public class AssessmentResponseDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * Load the responses of the specified test sessions with their item
+	 * sessions, paginated with the primary key of the responses.
+	 * 
+	 * @param testSessionKeys The primary keys of the test sessions
+	 * @param lastResponseKey The key of the last response of the previous page (or null)
+	 * @param maxResults The size of the page
+	 * @return A list of responses ordered by primary key
+	 */
+	public List<AssessmentResponse> getResponses(List<Long> testSessionKeys, Long lastResponseKey, int maxResults) {
+		if(testSessionKeys == null || testSessionKeys.isEmpty()) return new ArrayList<>();
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append("select response from qtiassessmentresponse response")
+		  .append(" inner join fetch response.assessmentItemSession itemSession")
+		  .append(" where itemSession.assessmentTestSession.key in (:assessmentTestSessionKeys)");
+		if(lastResponseKey != null) {
+		  sb.append(" and response.key>:lastResponseKey");
+		}
+		sb.append(" order by response.key asc");
+
+		TypedQuery<AssessmentResponse> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentResponse.class)
+				.setParameter("assessmentTestSessionKeys", testSessionKeys)
+				.setFirstResult(0)
+				.setMaxResults(maxResults);
+		if(lastResponseKey != null) {
+			query.setParameter("lastResponseKey", lastResponseKey);
+		}
+		return query.getResultList();
+	}
+	
 	public void save(Collection<AssessmentResponse> responses) {
-		if(responses != null && responses.isEmpty()) return;
+		if(responses == null || responses.isEmpty()) return;
 		
+		List<AssessmentResponse> newResponses = new ArrayList<>(responses.size());
 		for(AssessmentResponse response:responses) {
 			if(response.getKey() != null) {
 				dbInstance.getCurrentEntityManager().merge(response);
 			} else {
-				dbInstance.getCurrentEntityManager().persist(response);
+				newResponses.add(response);
 			}
 		}
+		dbInstance.persistInBatch(newResponses);
 	}
 	
 	/**
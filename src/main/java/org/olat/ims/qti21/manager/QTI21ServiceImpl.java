@@ -224,6 +224,8 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	private CoordinatorManager coordinatorManager;
 	@Autowired
 	private MailManager mailManager;
+	@Autowired
+	private SessionStateJournal sessionStateJournal;
 	
 
 	private JqtiExtensionManager jqtiExtensionManager;
@@ -575,7 +577,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 			session = null;
 		} else {
 			File sessionFile = getTestSessionStateFile(session);
-			if(!sessionFile.exists()) {
+			if(!sessionFile.exists() && !sessionStateJournal.exists(sessionFile)) {
 				session = null;
 			}
 		}
@@ -692,6 +694,9 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
     }
     
     private Document loadStateDocument(File sessionFile) {
+        if(sessionStateJournal.exists(sessionFile)) {
+        	return sessionStateJournal.load(sessionFile);
+        }
         if(sessionFile.exists()) {
 	        try {
 		        DocumentBuilder documentBuilder = XmlFactories.newDocumentBuilder();
@@ -1158,6 +1163,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 
 		testSessionDao.deleteTestSession(candidateSession);
 		FileUtils.deleteFile(sessionState);
+		sessionStateJournal.delete(sessionState);
 		if(resultFile != null) {
 			FileUtils.deleteFile(resultFile);
 		}
@@ -1390,6 +1396,11 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	}
     
 	private void storeStateDocument(Document stateXml, File sessionFile) {
+		if(sessionStateJournal.isEnabled()) {
+			sessionStateJournal.append(sessionFile, stateXml);
+			return;
+		}
+		
         XsltSerializationOptions xsltSerializationOptions = new XsltSerializationOptions();
         xsltSerializationOptions.setIndenting(true);
         xsltSerializationOptions.setIncludingXMLDeclaration(false);
@@ -1400,6 +1411,10 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
         } catch (TransformerException | IOException e) {
             throw new OLATRuntimeException("Unexpected Exception serializing state DOM", e);
         }
+        // the XML file supersedes a journal written before the journal was disabled
+        if(sessionStateJournal.exists(sessionFile)) {
+        	sessionStateJournal.delete(sessionFile);
+        }
     }
 
 	@Override
@@ -0,0 +1,617 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+
+import org.apache.logging.log4j.Logger;
+import org.olat.core.logging.OLATRuntimeException;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.cache.CacheWrapper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.filter.FilterFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSSerializer;
+import org.xml.sax.InputSource;
+
+import uk.ac.ed.ph.jqtiplus.xmlutils.XmlFactories;
+
+/**
+ * Store the state of the test and item sessions in an append-only journal
+ * instead of rewriting the whole XML file after every action of the candidate.
+ * The children of the root element of the state (test plan, test parts,
+ * sections, items...) are serialized separately and only the ones which changed
+ * since the last record are appended. After a configurable number of records,
+ * the journal is compacted to a single snapshot. The XML document is only
+ * materialized when the state is loaded.
+ * <br>
+ * The journal starts with a magic number, followed by the records: length,
+ * CRC32 and the deflated payload. A torn record at the end of the file (after
+ * a crash) is ignored and the journal is rewritten with the next snapshot.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class SessionStateJournal implements InitializingBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(SessionStateJournal.class);
+	
+	private static final int MAGIC = 0x4f514a31;
+	private static final int HEADER_LENGTH = 4;
+	private static final int RECORD_HEADER_LENGTH = 8;
+	private static final byte SNAPSHOT = 1;
+	private static final byte DELTA = 2;
+	private static final int NUM_OF_LOCKS = 64;
+	private static final String XML_SUFFIX = ".xml";
+	private static final String JOURNAL_SUFFIX = ".journal";
+	
+	public enum Fsync {
+		/** Force the journal to the disk after every record */
+		always,
+		/** Force the journal to the disk after every snapshot */
+		snapshot,
+		/** Let the operating system decide */
+		never
+	}
+	
+	@Value("${qti21.session.journal.enabled:true}")
+	private boolean enabled;
+	@Value("${qti21.session.journal.snapshot.interval:50}")
+	private int snapshotInterval;
+	@Value("${qti21.session.journal.fsync:snapshot}")
+	private String fsync;
+	
+	private Fsync fsyncPolicy = Fsync.snapshot;
+	private final Object[] locks = new Object[NUM_OF_LOCKS];
+	private CacheWrapper<String,JournalState> journalStates;
+	
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+	
+	public SessionStateJournal() {
+		for(int i=NUM_OF_LOCKS; i-->0; ) {
+			locks[i] = new Object();
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		journalStates = coordinatorManager.getCoordinator().getCacher().getCache("QTIWorks", "sessionStateJournals");
+		try {
+			fsyncPolicy = Fsync.valueOf(fsync);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			log.error("Unknown fsync policy for the session state journal: {}", fsync);
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * @param stateFile The XML file of the state
+	 * @return true if a journal exists for the specified state
+	 */
+	public boolean exists(File stateFile) {
+		return getJournalFile(stateFile).exists();
+	}
+	
+	/**
+	 * Delete the journal of the specified state.
+	 * 
+	 * @param stateFile The XML file of the state
+	 */
+	public void delete(File stateFile) {
+		File journalFile = getJournalFile(stateFile);
+		synchronized(getLock(journalFile)) {
+			journalStates.remove(journalFile.getAbsolutePath());
+			if(journalFile.exists()) {
+				FileUtils.deleteFile(journalFile);
+			}
+		}
+	}
+	
+	/**
+	 * Append the changes between the specified state and the last one saved
+	 * in the journal. The XML file of the state, if any, is superseded by
+	 * the journal and deleted.
+	 * 
+	 * @param stateFile The XML file of the state
+	 * @param stateDocument The state to save (the serialization adds the
+	 * 		needed namespace declarations to the children of the root element)
+	 */
+	public void append(File stateFile, Document stateDocument) {
+		File journalFile = getJournalFile(stateFile);
+		String cacheKey = journalFile.getAbsolutePath();
+		StateRecord record = new StateRecord(stateDocument.getDocumentElement());
+		
+		synchronized(getLock(journalFile)) {
+			try {
+				JournalState state = journalStates.get(cacheKey);
+				if(state == null || state.getRecords() >= snapshotInterval || state.getLength() != journalFile.length()) {
+					state = writeSnapshot(journalFile, record);
+				} else {
+					state = writeDelta(journalFile, record, state);
+				}
+				journalStates.put(cacheKey, state);
+			} catch (IOException e) {
+				journalStates.remove(cacheKey);
+				throw new OLATRuntimeException("Cannot write the session state journal: " + journalFile, e);
+			}
+			
+			if(stateFile.exists()) {
+				FileUtils.deleteFile(stateFile);
+			}
+		}
+	}
+	
+	/**
+	 * Replay the journal and materialize the XML document of the state.
+	 * 
+	 * @param stateFile The XML file of the state
+	 * @return The document or null if the journal doesn't exist
+	 */
+	public Document load(File stateFile) {
+		File journalFile = getJournalFile(stateFile);
+		Replay replay;
+		synchronized(getLock(journalFile)) {
+			if(!journalFile.exists()) {
+				return null;
+			}
+			try {
+				replay = replay(journalFile);
+			} catch (IOException e) {
+				throw new OLATRuntimeException("Cannot read the session state journal: " + journalFile, e);
+			}
+		}
+		return replay.getName() == null ? null : toDocument(replay, journalFile);
+	}
+	
+	protected File getJournalFile(File stateFile) {
+		String name = stateFile.getName();
+		if(name.endsWith(XML_SUFFIX)) {
+			name = name.substring(0, name.length() - XML_SUFFIX.length());
+		}
+		return new File(stateFile.getParentFile(), name + JOURNAL_SUFFIX);
+	}
+	
+	private Object getLock(File journalFile) {
+		return locks[Math.abs(journalFile.getAbsolutePath().hashCode() % NUM_OF_LOCKS)];
+	}
+	
+	private JournalState writeSnapshot(File journalFile, StateRecord record) throws IOException {
+		byte[] payload = encode(SNAPSHOT, record, record.getKeys(), record.getKeys());
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + RECORD_HEADER_LENGTH + payload.length);
+		buffer.putInt(MAGIC);
+		putRecord(buffer, payload);
+		buffer.flip();
+		
+		File tmpFile = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+		try(FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(channel, buffer);
+			if(fsyncPolicy != Fsync.never) {
+				channel.force(true);
+			}
+		}
+		
+		try {
+			Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return new JournalState(record.getKeys(), record.getHashes(), buffer.limit(), 0);
+	}
+	
+	private JournalState writeDelta(File journalFile, StateRecord record, JournalState state) throws IOException {
+		List<String> changedKeys = new ArrayList<>();
+		for(String key:record.getKeys()) {
+			if(!Arrays.equals(record.getHashes().get(key), state.getHashes().get(key))) {
+				changedKeys.add(key);
+			}
+		}
+		List<String> order = record.getKeys().equals(state.getKeys()) ? null : record.getKeys();
+		
+		byte[] payload = encode(DELTA, record, order, changedKeys);
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_LENGTH + payload.length);
+		putRecord(buffer, payload);
+		buffer.flip();
+		
+		try(FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			write(channel, buffer);
+			if(fsyncPolicy == Fsync.always) {
+				channel.force(false);
+			}
+		}
+		return new JournalState(record.getKeys(), record.getHashes(), state.getLength() + buffer.limit(), state.getRecords() + 1);
+	}
+	
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+	
+	private static void putRecord(ByteBuffer buffer, byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		buffer.putInt(payload.length);
+		buffer.putInt((int)crc.getValue());
+		buffer.put(payload);
+	}
+	
+	/**
+	 * The payload is deflated and contains: type, namespace and name of the root element,
+	 * the attributes of the root element, the order of the children (or -1 if unchanged)
+	 * and the serialized children.
+	 */
+	private static byte[] encode(byte type, StateRecord record, List<String> order, List<String> childrenKeys)
+	throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try(DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+			out.writeByte(type);
+			writeString(out, record.getNamespace());
+			writeString(out, record.getName());
+			
+			List<String[]> attributes = record.getAttributes();
+			out.writeInt(attributes.size());
+			for(String[] attribute:attributes) {
+				for(String value:attribute) {
+					writeString(out, value);
+				}
+			}
+			
+			if(order == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(order.size());
+				for(String key:order) {
+					writeString(out, key);
+				}
+			}
+			
+			out.writeInt(childrenKeys.size());
+			for(String key:childrenKeys) {
+				writeString(out, key);
+				writeString(out, record.getChildren().get(key));
+			}
+		} finally {
+			deflater.end();
+		}
+		return bytes.toByteArray();
+	}
+	
+	private Replay replay(File journalFile) throws IOException {
+		Replay replay = new Replay();
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journalFile.toPath()));
+		if(buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a session state journal");
+		}
+		
+		while(buffer.hasRemaining()) {
+			if(buffer.remaining() < RECORD_HEADER_LENGTH) {
+				log.warn("Torn record at the end of the session state journal: {}", journalFile);
+				break;
+			}
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if(length < 0 || length > buffer.remaining()) {
+				log.warn("Torn record at the end of the session state journal: {}", journalFile);
+				break;
+			}
+			
+			byte[] payload = new byte[length];
+			buffer.get(payload);
+			CRC32 crc = new CRC32();
+			crc.update(payload);
+			if((int)crc.getValue() != checksum) {
+				log.warn("Corrupted record in the session state journal: {}", journalFile);
+				break;
+			}
+			replay.apply(payload);
+		}
+		return replay;
+	}
+	
+	private Document toDocument(Replay replay, File journalFile) {
+		StringBuilder sb = new StringBuilder(32000);
+		sb.append("<journal>");
+		for(String xml:replay.getChildren().values()) {
+			if(xml != null) {
+				sb.append(xml);
+			}
+		}
+		sb.append("</journal>");
+		
+		try {
+			DocumentBuilder documentBuilder = XmlFactories.newDocumentBuilder();
+			Document fragments;
+			try {
+				fragments = documentBuilder.parse(new InputSource(new StringReader(sb.toString())));
+			} catch (Exception e) {
+				String filteredContent = FilterFactory.getXMLValidEntityFilter().filter(sb.toString());
+				fragments = documentBuilder.parse(new InputSource(new StringReader(filteredContent)));
+			}
+
+			Document document = documentBuilder.newDocument();
+			Element root = document.createElementNS(emptyToNull(replay.getNamespace()), replay.getName());
+			document.appendChild(root);
+			for(String[] attribute:replay.getAttributes()) {
+				root.setAttributeNS(emptyToNull(attribute[0]), attribute[1], attribute[2]);
+			}
+			for(Node child=fragments.getDocumentElement().getFirstChild(); child != null; child=child.getNextSibling()) {
+				if(child.getNodeType() == Node.ELEMENT_NODE) {
+					Element element = (Element)document.importNode(child, true);
+					// the namespace declaration added by the serialization of the fragment
+					element.removeAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE);
+					root.appendChild(element);
+				}
+			}
+			return document;
+		} catch (Exception e) {
+			throw new OLATRuntimeException("Could not materialize the session state journal: " + journalFile, e);
+		}
+	}
+	
+	private static String emptyToNull(String value) {
+		return value == null || value.isEmpty() ? null : value;
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * The root element of a state document with its children serialized
+	 * one by one.
+	 */
+	private static class StateRecord {
+		
+		private final String namespace;
+		private final String name;
+		private final List<String[]> attributes = new ArrayList<>();
+		private final List<String> keys = new ArrayList<>();
+		private final Map<String,String> children = new HashMap<>();
+		private final Map<String,byte[]> hashes = new HashMap<>();
+		
+		public StateRecord(Element root) {
+			namespace = root.getNamespaceURI();
+			name = root.getNodeName();
+			
+			NamedNodeMap attrs = root.getAttributes();
+			for(int i=0; i<attrs.getLength(); i++) {
+				Attr attr = (Attr)attrs.item(i);
+				if(!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+					attributes.add(new String[] { attr.getNamespaceURI(), attr.getName(), attr.getValue() });
+				}
+			}
+			
+			LSSerializer serializer = ((DOMImplementationLS)root.getOwnerDocument().getImplementation()).createLSSerializer();
+			serializer.getDomConfig().setParameter("xml-declaration", Boolean.FALSE);
+			MessageDigest digest = getDigest();
+			Map<String,Integer> counters = new HashMap<>();
+			for(Node child=root.getFirstChild(); child != null; child=child.getNextSibling()) {
+				if(child.getNodeType() == Node.ELEMENT_NODE) {
+					String key = getKey((Element)child, counters);
+					String xml = serializer.writeToString(child);
+					keys.add(key);
+					children.put(key, xml);
+					hashes.put(key, digest.digest(xml.getBytes(StandardCharsets.UTF_8)));
+				}
+			}
+		}
+		
+		/**
+		 * The key is the name of the element and its "key" or "identifier"
+		 * attribute. Elements without them are numbered.
+		 */
+		private static String getKey(Element element, Map<String,Integer> counters) {
+			String key = element.getLocalName() == null ? element.getNodeName() : element.getLocalName();
+			if(element.hasAttribute("key")) {
+				key += ":" + element.getAttribute("key");
+			} else if(element.hasAttribute("identifier")) {
+				key += ":" + element.getAttribute("identifier");
+			}
+			int count = counters.merge(key, Integer.valueOf(1), Integer::sum).intValue();
+			return count == 1 ? key : key + "#" + count;
+		}
+		
+		private static MessageDigest getDigest() {
+			try {
+				return MessageDigest.getInstance("MD5");
+			} catch (NoSuchAlgorithmException e) {
+				throw new OLATRuntimeException("MD5 not available", e);
+			}
+		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<String[]> getAttributes() {
+			return attributes;
+		}
+
+		public List<String> getKeys() {
+			return keys;
+		}
+
+		public Map<String,String> getChildren() {
+			return children;
+		}
+
+		public Map<String,byte[]> getHashes() {
+			return hashes;
+		}
+	}
+	
+	/**
+	 * The state of the journal needed to calculate the next delta.
+	 */
+	private static class JournalState {
+		
+		private final List<String> keys;
+		private final Map<String,byte[]> hashes;
+		private final long length;
+		private final int records;
+		
+		public JournalState(List<String> keys, Map<String,byte[]> hashes, long length, int records) {
+			this.keys = keys;
+			this.hashes = hashes;
+			this.length = length;
+			this.records = records;
+		}
+
+		public List<String> getKeys() {
+			return keys;
+		}
+
+		public Map<String,byte[]> getHashes() {
+			return hashes;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * @return The number of records since the last snapshot
+		 */
+		public int getRecords() {
+			return records;
+		}
+	}
+	
+	/**
+	 * The state rebuilt from the records of the journal.
+	 */
+	private static class Replay {
+		
+		private String namespace;
+		private String name;
+		private List<String[]> attributes = new ArrayList<>();
+		private Map<String,String> children = new LinkedHashMap<>();
+		
+		public void apply(byte[] payload) throws IOException {
+			try(DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+				byte type = in.readByte();
+				if(type == SNAPSHOT) {
+					children.clear();
+				} else if(type != DELTA) {
+					throw new IOException("Unknown record type: " + type);
+				}
+				
+				namespace = readString(in);
+				name = readString(in);
+				
+				int numOfAttributes = in.readInt();
+				List<String[]> newAttributes = new ArrayList<>(numOfAttributes);
+				for(int i=0; i<numOfAttributes; i++) {
+					newAttributes.add(new String[] { readString(in), readString(in), readString(in) });
+				}
+				attributes = newAttributes;
+				
+				int numOfKeys = in.readInt();
+				if(numOfKeys >= 0) {
+					Map<String,String> orderedChildren = new LinkedHashMap<>();
+					for(int i=0; i<numOfKeys; i++) {
+						String key = readString(in);
+						orderedChildren.put(key, children.get(key));
+					}
+					children = orderedChildren;
+				}
+				
+				int numOfChildren = in.readInt();
+				for(int i=0; i<numOfChildren; i++) {
+					String key = readString(in);
+					children.put(key, readString(in));
+				}
+			}
+		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<String[]> getAttributes() {
+			return attributes;
+		}
+
+		public Map<String,String> getChildren() {
+			return children;
+		}
+	}
+}
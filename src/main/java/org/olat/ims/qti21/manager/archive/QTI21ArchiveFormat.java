@@ -49,6 +49,7 @@ import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.Util;
 import org.olat.core.util.ZipUtil;
+import org.olat.core.util.async.ProgressDelegate;
 import org.olat.core.util.filter.FilterFactory;
 import org.olat.core.util.io.ShieldOutputStream;
 import org.olat.core.util.openxml.OpenXMLWorkbook;
@@ -144,6 +145,9 @@ public class QTI21ArchiveFormat {
 	
 	private static final Logger log = Tracing.createLoggerFor(QTI21ArchiveFormat.class);
 	
+	private static final int SESSIONS_BATCH_SIZE = 100;
+	private static final int RESPONSES_PAGE_SIZE = 5000;
+	
 	private Translator translator;
 	
 	private ResolvedAssessmentTest resolvedAssessmentTest;
@@ -260,6 +264,16 @@ public class QTI21ArchiveFormat {
 	}
 	
 	public void exportWorkbook(OutputStream exportStream) {
+		exportWorkbook(exportStream, null);
+	}
+	
+	/**
+	 * 
+	 * @param exportStream The stream to write the workbook
+	 * @param progress A delegate to report the number of sessions written (optional)
+	 * @return true if the workbook is completely written
+	 */
+	public boolean exportWorkbook(OutputStream exportStream, ProgressDelegate progress) {
 		RepositoryEntry testEntry = searchParams.getTestEntry();
 		FileResourceManager frm = FileResourceManager.getInstance();
 		File unzippedDirRoot = frm.unzipFileResource(testEntry.getOlatResource());
@@ -273,10 +287,12 @@ public class QTI21ArchiveFormat {
 			exportSheet.setHeaderRows(2);
 			writeHeaders_1(exportSheet, workbook);
 			writeHeaders_2(exportSheet, workbook);
-			writeData(sessions, exportSheet, workbook);
+			writeData(sessions, exportSheet, workbook, progress);
 		} catch(Exception e) {
 			log.error("", e);
+			return false;
 		}
+		return true;
 	}
 	
 	public MediaResource exportCourseElement() {
@@ -306,7 +322,7 @@ public class QTI21ArchiveFormat {
 					exportSheet.setHeaderRows(2);
 					writeHeaders_1(exportSheet, workbook);
 					writeHeaders_2(exportSheet, workbook);
-					writeData(sessions, exportSheet, workbook);
+					writeData(sessions, exportSheet, workbook, null);
 				} catch (Exception e) {
 					log.error("", e);
 				}
@@ -470,25 +486,64 @@ public class QTI21ArchiveFormat {
 	 * @param exportSheet
 	 * @param workbook
 	 */
-	private void writeData(List<AssessmentTestSession> sessions, OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook) {
+	private void writeData(List<AssessmentTestSession> sessions, OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook,
+			ProgressDelegate progress) {
 		int numOfSessions = sessions.size();
-		for(int i=0; i<numOfSessions; i++) {
-			AssessmentTestSession testSession = sessions.get(i);
-			SessionResponses sessionResponses = new SessionResponses(testSession);
-			List<AssessmentResponse> responses = responseDao.getResponses(testSession);
+		if(progress != null) {
+			progress.setMax(numOfSessions);
+		}
+		
+		for(int i=0; i<numOfSessions; i += SESSIONS_BATCH_SIZE) {
+			List<AssessmentTestSession> batch = sessions.subList(i, Math.min(numOfSessions, i + SESSIONS_BATCH_SIZE));
+			Map<Long,SessionResponses> batchResponses = loadSessionResponses(batch);
+			for(int j=0; j<batch.size(); j++) {
+				SessionResponses sessionResponses = batchResponses.get(batch.get(j).getKey());
+				writeDataRow(i + j + 1, sessionResponses, exportSheet, workbook);
+			}
+			DBFactory.getInstance().commitAndCloseSession();
+			if(progress != null) {
+				progress.setActual(i + batch.size());
+			}
+		}
+	}
+	
+	/**
+	 * Load the responses and the item sessions of a batch of test sessions
+	 * with a few queries and join them in memory.
+	 * 
+	 * @param sessions The test sessions
+	 * @return A map test session key to responses
+	 */
+	private Map<Long,SessionResponses> loadSessionResponses(List<AssessmentTestSession> sessions) {
+		List<Long> testSessionKeys = new ArrayList<>(sessions.size());
+		Map<Long,SessionResponses> sessionResponsesMap = new HashMap<>();
+		for(AssessmentTestSession testSession:sessions) {
+			testSessionKeys.add(testSession.getKey());
+			sessionResponsesMap.put(testSession.getKey(), new SessionResponses(testSession));
+		}
+		
+		Long lastResponseKey = null;
+		List<AssessmentResponse> responses;
+		do {
+			responses = responseDao.getResponses(testSessionKeys, lastResponseKey, RESPONSES_PAGE_SIZE);
 			for(AssessmentResponse response:responses) {
 				AssessmentItemSession itemSession = response.getAssessmentItemSession();
-				sessionResponses.addResponse(itemSession, response);
+				SessionResponses sessionResponses = sessionResponsesMap.get(itemSession.getAssessmentTestSession().getKey());
+				if(sessionResponses != null) {
+					sessionResponses.addResponse(itemSession, response);
+				}
+				lastResponseKey = response.getKey();
 			}
-			
-			List<AssessmentItemSession> itemSessions = itemSessionDao.getAssessmentItemSessions(testSession);
-			for(AssessmentItemSession itemSession:itemSessions) {
+		} while(responses.size() == RESPONSES_PAGE_SIZE);
+		
+		List<AssessmentItemSession> itemSessions = itemSessionDao.getAssessmentItemSessions(testSessionKeys);
+		for(AssessmentItemSession itemSession:itemSessions) {
+			SessionResponses sessionResponses = sessionResponsesMap.get(itemSession.getAssessmentTestSession().getKey());
+			if(sessionResponses != null) {
 				sessionResponses.addItemSession(itemSession);
 			}
-			
-			writeDataRow(i + 1, sessionResponses, exportSheet, workbook);	
-			DBFactory.getInstance().commitAndCloseSession();
 		}
+		return sessionResponsesMap;
 	}
 	
 	private void writeDataRow(int num, SessionResponses responses, OpenXMLWorksheet exportSheet, OpenXMLWorkbook workbook) {
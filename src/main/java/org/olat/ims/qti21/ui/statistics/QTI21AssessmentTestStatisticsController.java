@@ -23,12 +23,18 @@ import static org.olat.ims.qti.statistics.ui.StatisticFormatter.duration;
 import static org.olat.ims.qti.statistics.ui.StatisticFormatter.format;
 import static org.olat.ims.qti.statistics.ui.StatisticFormatter.getModeString;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 import org.olat.core.commons.fullWebApp.popup.BaseFullWebappPopupLayoutFactory;
+import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.Component;
 import org.olat.core.gui.components.chart.BarSeries;
@@ -37,6 +43,7 @@ import org.olat.core.gui.components.chart.StatisticsComponent;
 import org.olat.core.gui.components.link.Link;
 import org.olat.core.gui.components.link.LinkFactory;
 import org.olat.core.gui.components.link.LinkPopupSettings;
+import org.olat.core.gui.components.progressbar.ProgressController;
 import org.olat.core.gui.components.stack.TooledController;
 import org.olat.core.gui.components.stack.TooledStackedPanel;
 import org.olat.core.gui.components.stack.TooledStackedPanel.Align;
@@ -46,13 +53,18 @@ import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.controller.BasicController;
 import org.olat.core.gui.control.creator.ControllerCreator;
+import org.olat.core.gui.control.generic.closablewrapper.CloseableModalController;
 import org.olat.core.gui.control.generic.dtabs.Activateable2;
+import org.olat.core.gui.media.FileMediaResource;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.id.context.ContextEntry;
 import org.olat.core.id.context.StateEntry;
 import org.olat.core.util.CodeHelper;
+import org.olat.core.util.FileUtils;
 import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.async.ProgressDelegate;
 import org.olat.course.assessment.CourseAssessmentService;
 import org.olat.course.nodes.IQTESTCourseNode;
 import org.olat.course.nodes.QTICourseNode;
@@ -60,6 +72,8 @@ import org.olat.ims.qti.statistics.QTIType;
 import org.olat.ims.qti.statistics.model.StatisticAssessment;
 import org.olat.ims.qti.statistics.ui.QTI12AssessmentStatisticsController.ItemInfos;
 import org.olat.ims.qti21.QTI21StatisticsManager;
+import org.olat.ims.qti21.manager.archive.QTI21ArchiveFormat;
+import org.olat.ims.qti21.model.QTI21StatisticSearchParams;
 import org.olat.ims.qti21.model.statistics.AssessmentItemStatistic;
 import org.olat.modules.assessment.ui.UserFilterController;
 import org.olat.modules.assessment.ui.event.UserFilterEvent;
@@ -72,14 +86,20 @@ import uk.ac.ed.ph.jqtiplus.node.item.AssessmentItem;
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
-public class QTI21AssessmentTestStatisticsController extends BasicController implements Activateable2, TooledController {
+public class QTI21AssessmentTestStatisticsController extends BasicController implements Activateable2, TooledController, ProgressDelegate {
 
 	private final VelocityContainer mainVC;
 	private final TooledStackedPanel stackPanel;
 	private final Link printLink, downloadRawLink;
 	
+	private Link downloadReadyLink;
+	private CloseableModalController cmc;
+	private ProgressController progressCtrl;
 	private UserFilterController filterCtrl;
 	
+	private File exportDir;
+	private File exportFile;
+	
 	private QTIType type;
 	private QTICourseNode courseNode;
 	private final QTI21StatisticResourceResult resourceResult;
@@ -87,6 +107,8 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 	@Autowired
 	private QTI21StatisticsManager qtiStatisticsManager;
 	@Autowired
+	private TaskExecutorManager taskExecutorManager;
+	@Autowired
 	private CourseAssessmentService courseAssessmentService;
 
 	public QTI21AssessmentTestStatisticsController(UserRequest ureq, WindowControl wControl, TooledStackedPanel stackPanel,
@@ -136,6 +158,7 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 			stackPanel.removeTool(downloadRawLink);
 			stackPanel.removeTool(printLink);
 		}
+		deleteExport();
 	}
 	
 	@Override
@@ -267,6 +290,8 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 				resourceResult.setViewNonPaticipantUsers(ufe.isWithNonParticipantUsers());
 				updateData();
 			}
+		} else if(cmc == source) {
+			cleanUp();
 		}
 		super.event(ureq, source, event);
 	}
@@ -276,10 +301,19 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 		if(printLink == source) {
 			printPages(ureq);
 		} else if(downloadRawLink == source) {
+			doExportRawData(ureq);
+		} else if(downloadReadyLink == source) {
 			doDownloadRawData(ureq);
 		}
 	}
 	
+	private synchronized void cleanUp() {
+		removeAsListenerAndDispose(progressCtrl);
+		removeAsListenerAndDispose(cmc);
+		progressCtrl = null;
+		cmc = null;
+	}
+	
 	private void printPages(UserRequest ureq) {
 		ControllerCreator printControllerCreator = (lureq, lwControl) -> {
 			return new QTI21PrintController(lureq, lwControl, resourceResult);				
@@ -288,7 +322,12 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 		openInNewBrowserWindow(ureq, layoutCtrlr);
 	}
 	
-	private void doDownloadRawData(UserRequest ureq) {
+	/**
+	 * The workbook is written in a temporary file by a background task. The
+	 * progress is shown in a modal dialog, followed by the link to download
+	 * the file.
+	 */
+	private void doExportRawData(UserRequest ureq) {
 		String label;
 		if(courseNode == null) {
 			label = StringHelper.transformDisplayNameToFileSystemName(resourceResult.getTestEntry().getDisplayname());
@@ -297,7 +336,110 @@ public class QTI21AssessmentTestStatisticsController extends BasicController imp
 					+ StringHelper.transformDisplayNameToFileSystemName(courseNode.getShortName());
 		}
 		label += "_" + Formatter.formatDatetimeFilesystemSave(new Date()) + ".xlsx";
-		MediaResource resource = new QTI21StatisticsResource(resourceResult, label, getLocale());
-		ureq.getDispatchResult().setResultingMediaResource(resource);
+		
+		deleteExport();
+		exportDir = new File(WebappHelper.getTmpDir(), "qti21export_" + CodeHelper.getUniqueID());
+		exportDir.mkdirs();
+		final File file = new File(exportDir, label);
+		
+		progressCtrl = new ProgressController(ureq, getWindowControl());
+		progressCtrl.setMessage(translate("download.raw.data.progress"));
+		progressCtrl.setPercentagesEnabled(true);
+		progressCtrl.setActual(0.0f);
+		progressCtrl.setMax(100.0f);
+		listenTo(progressCtrl);
+		
+		final Locale locale = getLocale();
+		final QTI21StatisticSearchParams searchParams = resourceResult.getSearchParams();
+		taskExecutorManager.execute(() -> {
+			boolean success = false;
+			try(OutputStream out = new FileOutputStream(file)) {
+				success = new QTI21ArchiveFormat(locale, searchParams).exportWorkbook(out, this);
+			} catch (Exception e) {
+				logError("", e);
+			} finally {
+				DBFactory.getInstance().commitAndCloseSession();
+			}
+			exported(success ? file : null);
+		});
+
+		synchronized(this) {
+			if(progressCtrl != null) {
+				String title = translate("download.raw.data");
+				cmc = new CloseableModalController(getWindowControl(), translate("close"), progressCtrl.getInitialComponent(),
+						true, title, false);
+				cmc.activate();
+				listenTo(cmc);
+			}
+		}
+	}
+	
+	private synchronized void exported(File file) {
+		if(cmc != null && !cmc.isDisposed()) {
+			cmc.deactivate();
+		}
+		cleanUp();
+		if(isDisposed()) {
+			return;
+		}
+		
+		exportFile = file;
+		if(file == null) {
+			showError("download.raw.data.error");
+		} else {
+			downloadReadyLink = LinkFactory.createLink("download.raw.data.ready", getTranslator(), this, Link.BUTTON);
+			downloadReadyLink.setIconLeftCSS("o_icon o_icon_download");
+			String title = translate("download.raw.data");
+			cmc = new CloseableModalController(getWindowControl(), translate("close"), downloadReadyLink, true, title);
+			cmc.activate();
+			listenTo(cmc);
+		}
+		// called by the export task
+		signalDirtyComponents();
+	}
+	
+	private void doDownloadRawData(UserRequest ureq) {
+		if(cmc != null) {
+			cmc.deactivate();
+		}
+		cleanUp();
+		if(exportFile != null && exportFile.exists()) {
+			MediaResource resource = new FileMediaResource(exportFile, true);
+			ureq.getDispatchResult().setResultingMediaResource(resource);
+		}
+	}
+	
+	private void deleteExport() {
+		if(exportDir != null) {
+			FileUtils.deleteDirsAndFiles(exportDir, true, true);
+			exportDir = null;
+			exportFile = null;
+		}
+	}
+
+	@Override
+	public void setMax(float max) {
+		if(progressCtrl != null && !progressCtrl.isDisposed()) {
+			progressCtrl.setMax(max);
+		}
+	}
+
+	@Override
+	public void setActual(float value) {
+		if(progressCtrl != null && !progressCtrl.isDisposed()) {
+			progressCtrl.setActual(value);
+		}
+	}
+
+	@Override
+	public void setInfo(String message) {
+		if(progressCtrl != null && !progressCtrl.isDisposed()) {
+			progressCtrl.setInfo(message);
+		}
+	}
+
+	@Override
+	public void finished() {
+		// the dialog is closed when the file is written
 	}
-}
\ No newline at end of file
+}
@@ -1,58 +0,0 @@
-/**
- * <a href="http://www.openolat.org">
- * OpenOLAT - Online Learning and Training</a><br>
- * <p>
- * Licensed under the Apache License, Version 2.0 (the "License"); <br>
- * you may not use this file except in compliance with the License.<br>
- * You may obtain a copy of the License at the
- * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
- * <p>
- * Unless required by applicable law or agreed to in writing,<br>
- * software distributed under the License is distributed on an "AS IS" BASIS, <br>
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
- * See the License for the specific language governing permissions and <br>
- * limitations under the License.
- * <p>
- * Initial code contributed and copyrighted by<br>
- * frentix GmbH, http://www.frentix.com
- * <p>
- */
-package org.olat.ims.qti21.ui.statistics;
-
-import java.io.OutputStream;
-import java.util.Locale;
-
-import org.apache.logging.log4j.Logger;
-import org.olat.core.logging.Tracing;
-import org.olat.core.util.openxml.OpenXMLWorkbookResource;
-import org.olat.ims.qti21.manager.archive.QTI21ArchiveFormat;
-
-/**
- * 
- * Initial date: 13 févr. 2017<br>
- * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
- *
- */
-public class QTI21StatisticsResource extends OpenXMLWorkbookResource {
-	
-	private static final Logger log = Tracing.createLoggerFor(QTI21StatisticsResource.class);
-	
-	private final Locale locale;
-	private final QTI21StatisticResourceResult resourceResult;
-	
-	public QTI21StatisticsResource(QTI21StatisticResourceResult resourceResult, String label, Locale locale) {
-		super(label);
-		this.locale = locale;
-		this.resourceResult = resourceResult;
-	}
-
-	@Override
-	protected void generate(OutputStream out) {
-		try {
-			new QTI21ArchiveFormat(locale, resourceResult.getSearchParams())
-				.exportWorkbook(out);
-		} catch (Exception e) {
-			log.error("", e);
-		}
-	}
-}
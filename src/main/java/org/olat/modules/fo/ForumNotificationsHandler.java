@@ -199,4 +199,9 @@ public class ForumNotificationsHandler implements NotificationsHandler {
 	public String getType() {
 		return "Forum";
 	}
+
+	@Override
+	public boolean isSubscriptionInfoShared() {
+		return true;
+	}
 }
@@ -135,6 +135,7 @@ public class GlossaryManagerImpl implements GlossaryManager {
 		glossaryDocument.setCreatedDate(repositoryEntry.getCreationDate());
 		glossaryDocument.setLastChange(new Date(glossaryFile.getLastModified()));
 		glossaryDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		glossaryDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		glossaryDocument.setDocumentType(searchResourceContext.getDocumentType());
 		glossaryDocument.setCssIcon("o_FileResource-GLOSSARY_icon");
 		return glossaryDocument.getLuceneDocument();	
@@ -20,6 +20,7 @@
 package org.olat.modules.webFeed.dispatching;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
@@ -157,18 +158,21 @@ public class FeedMediaDispatcher implements Dispatcher, GenericEventListener {
 	}
 	
 	private void discardCache(Long entryKey) {
-		List<FeedPathKey> keys = validatedUriCache.getKeys();
-		if(!keys.isEmpty()) {	
+		if(validatedUriCache.size() > 0) {	
 			RepositoryEntry entry = repositoryManager.lookupRepositoryEntry(entryKey);
 			if(entry != null) {
 				Long resourceId = entry.getOlatResource().getResourceableId();
-				for(FeedPathKey key:keys) {
+				List<FeedPathKey> keys = new ArrayList<>();
+				validatedUriCache.forEachKey(key -> {
 					if(resourceId.equals(key.getResourceId())) {
-						try {
-							validatedUriCache.remove(key);
-						} catch (Exception e) {
-							log.info("Cannot remove this key: {}", key);
-						}
+						keys.add(key);
+					}
+				});
+				for(FeedPathKey key:keys) {
+					try {
+						validatedUriCache.remove(key);
+					} catch (Exception e) {
+						log.info("Cannot remove this key: {}", key);
 					}
 				}
 			}
@@ -207,6 +207,11 @@ public abstract class FeedNotificationsHandler implements NotificationsHandler {
 		return new TitleItem(title, CSSHelper.CSS_CLASS_FILETYPE_FOLDER);
 	}
 
+	@Override
+	public boolean isNewsMarkedOnPublisher() {
+		return true;
+	}
+
 	protected void checkPublisher(Publisher p) {
 		try {
 			RepositoryEntry entry = repoManager.lookupRepositoryEntry(OresHelper.createOLATResourceableInstance(p.getResName(), p.getResId()), false);
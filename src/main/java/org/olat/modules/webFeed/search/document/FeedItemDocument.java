@@ -50,6 +50,7 @@ public class FeedItemDocument extends OlatDocument {
 		setContent(rawContent);
 		setLastChange(item.getLastModified());
 		setResourceUrl(searchResourceContext.getResourceUrl());
+		setAccessTokens(searchResourceContext.getAccessTokens());
 		setDocumentType(searchResourceContext.getDocumentType());
 		setParentContextType(searchResourceContext.getParentContextType());
 		setParentContextName(searchResourceContext.getParentContextName());
@@ -42,6 +42,7 @@ public class FeedNodeDocument extends OlatDocument {
 		setDescription(feed.getDescription());
 		setLastChange(feed.getLastModified());
 		setResourceUrl(searchResourceContext.getResourceUrl());
+		setAccessTokens(searchResourceContext.getAccessTokens());
 		setDocumentType(searchResourceContext.getDocumentType());
 		setParentContextType(searchResourceContext.getParentContextType());
 		setParentContextName(searchResourceContext.getParentContextName());
@@ -280,4 +280,14 @@ public class WikiPageChangeOrCreateNotificationHandler implements NotificationsH
 	public String getType() {
 		return "WikiPage";
 	}
+
+	@Override
+	public boolean isSubscriptionInfoShared() {
+		return true;
+	}
+
+	@Override
+	public boolean isNewsMarkedOnPublisher() {
+		return true;
+	}
 }
@@ -26,6 +26,7 @@ import org.olat.core.commons.services.license.ResourceLicense;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryService;
 import org.olat.search.model.OlatDocument;
+import org.olat.search.service.SearchAccessTokens;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.document.RepositoryEntryDocument;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -83,6 +84,7 @@ public class RepositoryEntryDocumentFactory {
 		}
 		oDocument.setDescription(sb.toString());
 		oDocument.setResourceUrl(getResourceUrl(re.getKey()));
+		oDocument.setAccessTokens(SearchAccessTokens.forRepositoryEntry(re));
 		
 		String docType = RepositoryEntryDocument.TYPE + re.getOlatResource().getResourceableTypeName();
 		oDocument.setDocumentType(docType);
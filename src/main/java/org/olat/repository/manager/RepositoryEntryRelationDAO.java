@@ -20,6 +20,7 @@
 package org.olat.repository.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -45,6 +46,7 @@ import org.olat.core.id.Identity;
 import org.olat.core.id.Organisation;
 import org.olat.core.id.OrganisationRef;
 import org.olat.modules.curriculum.CurriculumElementRef;
+import org.olat.modules.curriculum.CurriculumRoles;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
 import org.olat.repository.RepositoryEntryRelationType;
@@ -113,6 +115,30 @@ public class RepositoryEntryRelationDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * The keys of the repository entries where the identity is owner, coach,
+	 * participant or master coach, directly or through the business groups
+	 * and the curriculum elements linked to the entries.
+	 * 
+	 * @param identity The identity
+	 * @return A list of repository entry keys
+	 */
+	public List<Long> getRepositoryEntryKeysOfMember(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select distinct relGroup.entry.key from repoentrytogroup as relGroup")
+		  .append(" inner join relGroup.group as baseGroup")
+		  .append(" inner join baseGroup.members as membership")
+		  .append(" where membership.identity.key=:identityKey and membership.role in (:roles)");
+		
+		List<String> roles = Arrays.asList(GroupRoles.owner.name(), GroupRoles.coach.name(),
+				GroupRoles.participant.name(), CurriculumRoles.mastercoach.name());
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("roles", roles)
+				.getResultList();
+	}
+	
 	/**
 	 * Has role in the repository entry only without following relations
 	 * to business groups and other entities.
@@ -80,6 +80,8 @@ public class SearchModule extends AbstractSpringModule {
 	private String tempSpellCheckPath;
 	@Value("${search.index.pdfBuffer:/tmp}")
 	private String tempPdfTextBufferPath;
+	@Value("${search.text.cache.path:search_text_cache}")
+	private String textCachePath;
 
 	@Value("${search.index.path:/tmp}")
 	private String indexPath;
@@ -118,9 +120,31 @@ public class SearchModule extends AbstractSpringModule {
 	private String pdfExternalIndexerCmd;
 	private boolean isSpellCheckEnabled = true;
 	private String fullPdfTextBufferPath;
+	private String fullTextCachePath;
 
 	private long maxFileSize = 10485760;
-
+	
+	@Value("${search.text.cache:true}")
+	private boolean textCacheEnabled;
+	@Value("${search.text.cache.max.age:30}")
+	private int textCacheMaxAge;
+	@Value("${search.text.extraction.timeout:120}")
+	private int extractionTimeout;
+	@Value("${search.text.extraction.max.size:104857600}")
+	private long extractionMaxSize;
+
+	@Value("${search.acl.filter:true}")
+	private boolean accessFilterEnabled;
+	
+	@Value("${search.indexer.batch.interval:2000}")
+	private long indexerBatchInterval;
+	@Value("${search.indexer.commit.interval:60000}")
+	private long indexerCommitInterval;
+	@Value("${search.indexer.refresh.interval:1000}")
+	private long indexerRefreshInterval;
+	@Value("${search.indexer.incremental:true}")
+	private boolean incrementalFullIndex;
+	
 	@Value("${search.ram.buffer.size:16}")
 	private double ramBufferSizeMB;
 	private boolean useCompoundFile = false;
@@ -156,6 +180,7 @@ public class SearchModule extends AbstractSpringModule {
 		fullTempIndexPath = buildPath(tempIndexPath);
 		fullTempSpellCheckPath = buildPath(tempSpellCheckPath);
 		fullPdfTextBufferPath = buildPath(tempPdfTextBufferPath);
+		fullTextCachePath = buildPath(textCachePath);
 	}
 	
 	private String buildPath(String path) {
@@ -411,6 +436,38 @@ public class SearchModule extends AbstractSpringModule {
 		return fullPdfTextBufferPath;
 	}
 
+	/**
+	 * @return true if the text extracted from the files is cached on the disk
+	 */
+	public boolean isTextCacheEnabled() {
+		return textCacheEnabled;
+	}
+	
+	public String getTextCachePath() {
+		return fullTextCachePath;
+	}
+	
+	/**
+	 * @return The number of days after which the unused entries of the text cache are deleted
+	 */
+	public int getTextCacheMaxAge() {
+		return textCacheMaxAge;
+	}
+	
+	/**
+	 * @return The max. time in seconds to extract the text of a file
+	 */
+	public int getExtractionTimeout() {
+		return extractionTimeout;
+	}
+	
+	/**
+	 * @return The max. size in bytes of a file from which the text is extracted
+	 */
+	public long getExtractionMaxSize() {
+		return extractionMaxSize;
+	}
+
 	public List<String> getFileSizeSuffixes() {
 		return fileSizeSuffixes;
 	}
@@ -435,6 +492,41 @@ public class SearchModule extends AbstractSpringModule {
 		return useCompoundFile;
 	}
 	
+	/**
+	 * @return true if the hits are filtered with the access tokens of the user within Lucene
+	 */
+	public boolean isAccessFilterEnabled() {
+		return accessFilterEnabled;
+	}
+	
+	/**
+	 * @return The interval in milliseconds in which the change notifications are collected before being sent to the indexer
+	 */
+	public long getIndexerBatchInterval() {
+		return indexerBatchInterval;
+	}
+	
+	/**
+	 * @return The interval in milliseconds between two commits of the permanent index
+	 */
+	public long getIndexerCommitInterval() {
+		return indexerCommitInterval;
+	}
+	
+	/**
+	 * @return The min. interval in milliseconds between two refreshes of the searcher
+	 */
+	public long getIndexerRefreshInterval() {
+		return indexerRefreshInterval;
+	}
+	
+	/**
+	 * @return true if the full indexer only writes the documents which changed since the last run
+	 */
+	public boolean isIncrementalFullIndex() {
+		return incrementalFullIndex;
+	}
+	
 	public boolean isGuestEnabled() {
 		return guestEnabled;
 	}
@@ -28,6 +28,7 @@ package org.olat.search.model;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -87,6 +88,10 @@ public abstract class AbstractOlatDocument implements Serializable {
 
 	public static final String LICENSE_TYPE_FIELD_NAME = "licensetype";
 	
+	public static final String ACCESS_FIELD_NAME = "acl";
+	
+	public static final String FINGERPRINT_FIELD_NAME = "fingerprint";
+	
 	public static final Set<String> getFields() {
 		Set<String> fields = new HashSet<>();
 		fields.add(DB_ID_NAME);
@@ -107,6 +112,7 @@ public abstract class AbstractOlatDocument implements Serializable {
 		fields.add(CSS_ICON);
 		fields.add(RESERVED_TO);
 		fields.add(LICENSE_TYPE_FIELD_NAME);
+		fields.add(ACCESS_FIELD_NAME);
 		return fields;
 	}
 
@@ -135,6 +141,7 @@ public abstract class AbstractOlatDocument implements Serializable {
 	private String cssIcon;
 	private String reservedTo;
 	private String licenseTypeKey = "";
+	private List<String> accessTokens;
 	
 	public AbstractOlatDocument() {
 		timestamp = new Date();
@@ -161,6 +168,10 @@ public abstract class AbstractOlatDocument implements Serializable {
 		parentContextName = document.get(PARENT_CONTEXT_NAME_FIELD_NAME);
 		cssIcon = document.get(CSS_ICON);
 		licenseTypeKey = document.get(LICENSE_TYPE_FIELD_NAME);
+		String[] tokens = document.getValues(ACCESS_FIELD_NAME);
+		if(tokens != null && tokens.length > 0) {
+			accessTokens = Arrays.asList(tokens);
+		}
 	}
 	
 	private Date toDate(Document document, String fieldName) {
@@ -328,6 +339,20 @@ public abstract class AbstractOlatDocument implements Serializable {
 		this.reservedTo = reservedTo;
 	}
 
+	/**
+	 * The access control tokens are written in the index and allow to
+	 * filter the documents within Lucene before the check access.
+	 * 
+	 * @return A list of tokens or null if the document is not restricted
+	 */
+	public List<String> getAccessTokens() {
+		return accessTokens;
+	}
+
+	public void setAccessTokens(List<String> accessTokens) {
+		this.accessTokens = accessTokens;
+	}
+
 	public String getLicenseTypeKey() {
 		if (licenseTypeKey == null) {
 			return ""; // Do not return null
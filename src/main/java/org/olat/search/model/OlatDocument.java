@@ -37,6 +37,7 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.olat.core.util.Encoder;
 import org.olat.core.util.StringHelper;
+import org.olat.search.service.SearchAccessTokens;
 
 
 
@@ -124,6 +125,13 @@ public class OlatDocument extends AbstractOlatDocument {
 			document.add(new StringField(RESERVED_TO, "public", Field.Store.YES));
 		}
 		document.add(new StringField(LICENSE_TYPE_FIELD_NAME, getLicenseTypeKey(), Field.Store.YES));
+		if(getAccessTokens() != null && !getAccessTokens().isEmpty()) {
+			for(String token:getAccessTokens()) {
+				document.add(new StringField(ACCESS_FIELD_NAME, token, Field.Store.YES));
+			}
+		} else {
+			document.add(new StringField(ACCESS_FIELD_NAME, SearchAccessTokens.ANY, Field.Store.YES));
+		}
 		return document;
 	}
 	
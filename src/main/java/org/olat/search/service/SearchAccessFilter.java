@@ -0,0 +1,157 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.util.BytesRef;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.basesecurity.OrganisationRoles;
+import org.olat.core.id.OrganisationRef;
+import org.olat.core.id.Roles;
+import org.olat.core.util.cache.CacheWrapper;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.group.manager.BusinessGroupRelationDAO;
+import org.olat.repository.manager.RepositoryEntryRelationDAO;
+import org.olat.search.SearchModule;
+import org.olat.search.SearchService;
+import org.olat.search.model.AbstractOlatDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Build the filter query with the access control tokens of a user. The tokens
+ * are loaded once and cached for a short time, the filter is applied within
+ * Lucene and exclude most of the documents the user cannot see before the
+ * check access of the indexers.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class SearchAccessFilter {
+	
+	private static final List<String> GUEST_TOKENS = Arrays.asList(SearchAccessTokens.ANY, SearchAccessTokens.GUESTS);
+	
+	private CacheWrapper<Long,ArrayList<String>> tokensCache;
+	
+	@Autowired
+	private SearchModule searchModule;
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+	@Autowired
+	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
+	@Autowired
+	private BusinessGroupRelationDAO businessGroupRelationDao;
+	
+	@PostConstruct
+	public void init() {
+		tokensCache = coordinatorManager.getCoordinator().getCacher().getCache(SearchService.class.getSimpleName(), "accessTokens");
+	}
+	
+	/**
+	 * The administrators, the learn resource managers and the principals
+	 * see (nearly) all the resources, the check access decides alone.
+	 * 
+	 * @param roles The roles of the user
+	 * @return true if the hits of the user are filtered by the access tokens
+	 */
+	public boolean isFiltered(Roles roles) {
+		return searchModule.isAccessFilterEnabled() && roles != null
+				&& !roles.isSystemAdmin() && !roles.isAdministrator()
+				&& !roles.isLearnResourceManager() && !roles.isPrincipal();
+	}
+	
+	public List<String> getAccessTokens(IdentityRef identity, Roles roles) {
+		if(identity == null || roles.isGuestOnly()) {
+			return GUEST_TOKENS;
+		}
+		return tokensCache.computeIfAbsent(identity.getKey(), key -> loadAccessTokens(identity, roles));
+	}
+	
+	private ArrayList<String> loadAccessTokens(IdentityRef identity, Roles roles) {
+		List<Long> entryKeys = repositoryEntryRelationDao.getRepositoryEntryKeysOfMember(identity);
+		List<Long> groupKeys = businessGroupRelationDao.getBusinessGroupKeysOfMember(identity);
+		List<OrganisationRef> organisations = roles.getOrganisationsWithRoles(OrganisationRoles.valuesWithoutGuestAndInvitee());
+		
+		ArrayList<String> tokens = new ArrayList<>(entryKeys.size() + groupKeys.size() + organisations.size() + 4);
+		tokens.add(SearchAccessTokens.ANY);
+		tokens.add(SearchAccessTokens.USERS);
+		if(roles.isAuthor()) {
+			tokens.add(SearchAccessTokens.AUTHORS);
+		}
+		for(Long entryKey:entryKeys) {
+			tokens.add(SearchAccessTokens.repositoryEntry(entryKey));
+		}
+		for(Long groupKey:groupKeys) {
+			tokens.add(SearchAccessTokens.businessGroup(groupKey));
+		}
+		for(OrganisationRef organisation:organisations) {
+			tokens.add(SearchAccessTokens.organisation(organisation.getKey()));
+		}
+		return tokens;
+	}
+	
+	/**
+	 * @param identity The user
+	 * @param roles The roles of the user
+	 * @param reader The reader used by the search
+	 * @return A filter query or null if the user is not filtered
+	 * @throws IOException
+	 */
+	public Query createFilterQuery(IdentityRef identity, Roles roles, IndexReader reader) throws IOException {
+		if(!isFiltered(roles)) {
+			return null;
+		}
+		
+		List<String> tokens = getAccessTokens(identity, roles);
+		List<BytesRef> terms = new ArrayList<>(tokens.size());
+		for(String token:tokens) {
+			terms.add(new BytesRef(token));
+		}
+		Query tokensQuery = new TermInSetQuery(AbstractOlatDocument.ACCESS_FIELD_NAME, terms);
+		if(reader.getDocCount(AbstractOlatDocument.ACCESS_FIELD_NAME) >= reader.maxDoc()) {
+			return tokensQuery;
+		}
+		
+		// the index contains documents written before the access tokens
+		Query withTokensQuery = new TermRangeQuery(AbstractOlatDocument.ACCESS_FIELD_NAME, null, null, true, true);
+		Query withoutTokensQuery = new BooleanQuery.Builder()
+				.add(new MatchAllDocsQuery(), Occur.MUST)
+				.add(withTokensQuery, Occur.MUST_NOT)
+				.build();
+		return new BooleanQuery.Builder()
+				.add(tokensQuery, Occur.SHOULD)
+				.add(withoutTokensQuery, Occur.SHOULD)
+				.build();
+	}
+}
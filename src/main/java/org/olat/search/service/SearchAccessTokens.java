@@ -0,0 +1,106 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryEntryStatusEnum;
+
+/**
+ * The access control tokens written in the documents of the index. They
+ * describe who can see a document and allow to filter the hits within
+ * Lucene, the check access of the indexers only verifies the remaining
+ * hits.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SearchAccessTokens {
+	
+	/** The document is not restricted by the tokens, only the check access decides */
+	public static final String ANY = "any";
+	/** All authenticated users, guests excluded */
+	public static final String USERS = "users";
+	public static final String GUESTS = "guests";
+	public static final String AUTHORS = "role:author";
+	
+	private static final String REPOSITORY_ENTRY_PREFIX = "re:";
+	private static final String BUSINESS_GROUP_PREFIX = "bg:";
+	private static final String ORGANISATION_PREFIX = "org:";
+	
+	private SearchAccessTokens() {
+		//
+	}
+	
+	/**
+	 * @param key The repository entry primary key
+	 * @return The token for the members of the repository entry
+	 */
+	public static String repositoryEntry(Long key) {
+		return REPOSITORY_ENTRY_PREFIX + key;
+	}
+	
+	/**
+	 * @param key The business group primary key
+	 * @return The token for the members of the business group
+	 */
+	public static String businessGroup(Long key) {
+		return BUSINESS_GROUP_PREFIX + key;
+	}
+	
+	/**
+	 * @param key The organisation primary key
+	 * @return The token for the users with a role in the organisation
+	 */
+	public static String organisation(Long key) {
+		return ORGANISATION_PREFIX + key;
+	}
+	
+	/**
+	 * The tokens follow the rules of RepositoryManager.isAllowed(). The
+	 * administrators, learn resource managers and principals are not
+	 * filtered by tokens.
+	 * 
+	 * @param entry The repository entry
+	 * @return The tokens of the entry and of all its content
+	 */
+	public static List<String> forRepositoryEntry(RepositoryEntry entry) {
+		List<String> tokens = new ArrayList<>(4);
+		tokens.add(repositoryEntry(entry.getKey()));
+		
+		RepositoryEntryStatusEnum status = entry.getEntryStatus();
+		boolean published = status == RepositoryEntryStatusEnum.published
+				|| status == RepositoryEntryStatusEnum.closed;
+		if((published && (entry.isAllUsers() || entry.isGuests())) || entry.isBookable()) {
+			tokens.add(USERS);
+		}
+		if(published && entry.isGuests()) {
+			tokens.add(GUESTS);
+		}
+		if((entry.getCanCopy() || entry.getCanDownload() || entry.getCanReference())
+				&& (published || status == RepositoryEntryStatusEnum.review
+					|| status == RepositoryEntryStatusEnum.coachpublished)) {
+			tokens.add(AUTHORS);
+		}
+		return tokens;
+	}
+}
@@ -24,6 +24,7 @@ import java.util.Locale;
 import java.util.concurrent.Callable;
 
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -85,6 +86,11 @@ class SearchCallable implements Callable<SearchResults> {
 			if(debug) log.debug("queryString=" + queryString);
 			searcher = searchService.getIndexSearcher();
 			BooleanQuery.Builder queryBuilder = searchService.createQuery(queryString, condQueries, locale);
+			// filter the documents with the access tokens of the user within Lucene
+			Query accessFilter = searchService.getAccessFilter().createFilterQuery(identity, roles, searcher.getIndexReader());
+			if(accessFilter != null) {
+				queryBuilder.add(accessFilter, Occur.FILTER);
+			}
 			if(debug) log.debug("query=" + queryBuilder);
 			
 			if(Thread.interrupted()) {
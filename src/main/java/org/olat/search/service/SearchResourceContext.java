@@ -26,6 +26,7 @@
 package org.olat.search.service;
 
 import java.util.Date;
+import java.util.List;
 
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.id.context.BusinessControl;
@@ -59,6 +60,7 @@ public class SearchResourceContext {
 	private String description;
 	private String parentContextType;
 	private String parentContextName;
+	private List<String> accessTokens;
 
 	private BusinessControl myBusinessControl;
 	private BusinessControl parentBusinessControl;
@@ -87,6 +89,7 @@ public class SearchResourceContext {
 		filePath = parentResourceContext.getFilePath();
 		parentContextType = parentResourceContext.parentContextType;
 		parentContextName = parentResourceContext.getParentContextName();
+		accessTokens = parentResourceContext.getAccessTokens();
 	}
 
 	
@@ -239,5 +242,18 @@ public class SearchResourceContext {
 	public String getParentContextName() {
 		return parentContextName;
 	}
+
+	/**
+	 * Pass the access control tokens from parent to child.
+	 * 
+	 * @return The tokens or null if the documents are not restricted
+	 */
+	public List<String> getAccessTokens() {
+		return accessTokens;
+	}
+
+	public void setAccessTokens(List<String> accessTokens) {
+		this.accessTokens = accessTokens;
+	}
 	
 }
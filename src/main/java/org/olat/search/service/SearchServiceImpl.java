@@ -109,6 +109,7 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 	private final ConditionalQueryAnalyzer conditionalQueryAnalyzer;
 	
 	private LifeFullIndexer lifeIndexer;
+	private SearchAccessFilter accessFilter;
 	private SearchSpellChecker searchSpellChecker;
 	private String indexPath;
 	private String permanentIndexPath;
@@ -167,6 +168,14 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		this.lifeIndexer = lifeIndexer;
 	}
 	
+	/**
+	 * [used by Spring]
+	 * @param accessFilter
+	 */
+	public void setAccessFilter(SearchAccessFilter accessFilter) {
+		this.accessFilter = accessFilter;
+	}
+	
 	/**
 	 * [used by Spring]
 	 * @param indexerCron
@@ -183,6 +192,10 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		return analyzer;
 	}
 	
+	protected SearchAccessFilter getAccessFilter() {
+		return accessFilter;
+	}
+	
 	/**
 	 * Start the job indexer
 	 */
@@ -278,7 +291,7 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		try {
 			if(indexSearcherRefMgr == null) {
 				if(existIndex()) {
-					indexSearcherRefMgr = new OOSearcherManager(this);
+					indexSearcherRefMgr = new OOSearcherManager(this, searchModuleConfig.getIndexerRefreshInterval());
 				}
 			} else {
 				indexSearcherRefMgr.needRefresh();
@@ -527,18 +540,41 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 
 	private IndexSearcher newSearcher() throws IOException {
 		DirectoryReader classicReader = DirectoryReader.open(FSDirectory.open(new File(indexPath).toPath()));
-		DirectoryReader permanentReader = DirectoryReader.open(FSDirectory.open(new File(permanentIndexPath).toPath()));
-		OOMultiReader mReader = new OOMultiReader(classicReader, permanentReader);
-		return new IndexSearcher(mReader);
+		DirectoryReader permanentReader = null;
+		if(lifeIndexer != null) {
+			// near real-time reader on the indexing node
+			permanentReader = lifeIndexer.openNearRealTimeReader();
+		}
+		if(permanentReader == null) {
+			permanentReader = DirectoryReader.open(FSDirectory.open(new File(permanentIndexPath).toPath()));
+		}
+		return newSearcher(classicReader, permanentReader);
+	}
+	
+	/**
+	 * The new searcher takes the ownership of the readers.
+	 */
+	private static IndexSearcher newSearcher(DirectoryReader reader, DirectoryReader permanentReader) throws IOException {
+		try {
+			return new IndexSearcher(new OOMultiReader(reader, permanentReader));
+		} finally {
+			reader.decRef();
+			permanentReader.decRef();
+		}
 	}
 
+	/**
+	 * The multi reader doesn't close the sub readers but only decrements
+	 * their reference counts, the unchanged sub readers are shared between
+	 * the old and the refreshed searcher.
+	 */
 	private static class OOMultiReader extends MultiReader {
 		
 		private final DirectoryReader reader;
 		private final DirectoryReader permanentReader;
 		
 		public OOMultiReader(DirectoryReader reader, DirectoryReader permanentReader) throws IOException {
-			super(reader, permanentReader);
+			super(new IndexReader[] { reader, permanentReader }, false);
 			this.reader = reader;
 			this.permanentReader = permanentReader;
 		}
@@ -555,11 +591,15 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 	private static class OOSearcherManager extends ReferenceManager<IndexSearcher> {
 		
 		private final SearchServiceImpl factory;
+		private final long refreshInterval;
 		private AtomicBoolean refresh = new AtomicBoolean(false);
+		private volatile long lastRefresh;
 		
-		public OOSearcherManager(SearchServiceImpl factory) throws IOException {
+		public OOSearcherManager(SearchServiceImpl factory, long refreshInterval) throws IOException {
 			this.factory = factory;
+			this.refreshInterval = refreshInterval;
 			this.current = getSearcher(factory);
+			lastRefresh = System.currentTimeMillis();
 		}
 		
 		protected void needRefresh() {
@@ -579,14 +619,27 @@ public class SearchServiceImpl implements SearchService, GenericEventListener {
 		    IndexSearcher searcher;
 		    if(refresh.getAndSet(false)) {
 		    	searcher = getSearcher(factory);
+		    	lastRefresh = System.currentTimeMillis();
+		    } else if(System.currentTimeMillis() - lastRefresh < refreshInterval) {
+		    	// every refresh of a near real-time reader flushes a new segment
+		    	searcher = null;
 		    } else {
+		    	lastRefresh = System.currentTimeMillis();
 		    	final OOMultiReader r = (OOMultiReader)referenceToRefresh.getIndexReader();
-		    	final IndexReader newReader = DirectoryReader.openIfChanged(r.getReader());
-		    	final IndexReader newPermReader = DirectoryReader.openIfChanged(r.getPermanentReader());  
+		    	DirectoryReader newReader = DirectoryReader.openIfChanged(r.getReader());
+		    	DirectoryReader newPermReader = DirectoryReader.openIfChanged(r.getPermanentReader());  
 		    	if (newReader == null && newPermReader == null) {
 		    		searcher = null;
 		    	} else {
-			    	searcher = getSearcher(factory);
+		    		if(newReader == null) {
+		    			newReader = r.getReader();
+		    			newReader.incRef();
+		    		}
+		    		if(newPermReader == null) {
+		    			newPermReader = r.getPermanentReader();
+		    			newPermReader.incRef();
+		    		}
+			    	searcher = newSearcher(newReader, newPermReader);
 			    }
 		    }
 		    return searcher;
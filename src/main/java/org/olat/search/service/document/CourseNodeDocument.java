@@ -55,6 +55,7 @@ public class CourseNodeDocument extends OlatDocument {
 
 		// Set all know attributes
 		courseNodeDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		courseNodeDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		if (StringHelper.containsNonWhitespace(searchResourceContext.getDocumentType())) {
 			courseNodeDocument.setDocumentType(searchResourceContext.getDocumentType());
 		} else {
@@ -63,6 +63,7 @@ public class ForumMessageDocument extends OlatDocument {
 		forumMessageDocument.setCreatedDate(message.getCreationDate());
 		forumMessageDocument.setLastChange(message.getLastModified());
 		forumMessageDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		forumMessageDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		if ( (searchResourceContext.getDocumentType() != null) && !searchResourceContext.getDocumentType().equals("")) {
 			// Document is already set => take this value
 			forumMessageDocument.setDocumentType(searchResourceContext.getDocumentType());
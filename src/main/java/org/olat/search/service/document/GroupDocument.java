@@ -56,6 +56,7 @@ public class GroupDocument extends OlatDocument {
 
 		// Set all know attributes
 		groupDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		groupDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		groupDocument.setLastChange(businessGroup.getLastModified());
 		groupDocument.setDocumentType(TYPE);
 		groupDocument.setCssIcon(CSSHelper.CSS_CLASS_GROUP);
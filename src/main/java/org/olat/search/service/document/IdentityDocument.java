@@ -99,6 +99,7 @@ public class IdentityDocument extends OlatDocument {
 		}
 		
 		identityDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		identityDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		identityDocument.setDocumentType(searchResourceContext.getParentContextType());
 		identityDocument.setCssIcon(CSSHelper.CSS_CLASS_USER);
 		
@@ -50,6 +50,7 @@ public class InfoMessageDocument extends OlatDocument {
 		messageDocument.setCreatedDate(message.getCreationDate());
 		messageDocument.setLastChange(message.getCreationDate());
 		messageDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		messageDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		if ( (searchResourceContext.getDocumentType() != null) && !searchResourceContext.getDocumentType().equals("")) {
 			// Document is already set => take this value
 			messageDocument.setDocumentType(searchResourceContext.getDocumentType());
@@ -67,6 +67,7 @@ public class ProjectBrokerProjectDocument extends OlatDocument {
 		projectDocument.setAuthor(projectLeaderString.toString());
 		projectDocument.setCreatedDate(project.getCreationDate());
 		projectDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		projectDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		projectDocument.setDocumentType(ProjectBrokerCourseNodeIndexer.TYPE);
 		projectDocument.setCssIcon("o_projectbroker_icon");
 		projectDocument.setParentContextType(searchResourceContext.getParentContextType());
@@ -75,6 +75,7 @@ public class WikiPageDocument extends OlatDocument {
 		wikiPageDocument.setCreatedDate(new Date(wikiPage.getCreationTime()));
 		wikiPageDocument.setLastChange(new Date(wikiPage.getModificationTime()));
 		wikiPageDocument.setResourceUrl(searchResourceContext.getResourceUrl());
+		wikiPageDocument.setAccessTokens(searchResourceContext.getAccessTokens());
 		wikiPageDocument.setDocumentType(searchResourceContext.getDocumentType());
 		wikiPageDocument.setCssIcon("o_wiki_icon");
 		wikiPageDocument.setParentContextType(searchResourceContext.getParentContextType());
@@ -0,0 +1,506 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.document.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.logging.log4j.Logger;
+import org.olat.core.commons.services.vfs.VFSMetadata;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.core.util.vfs.VFSLeaf;
+import org.olat.search.SearchModule;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * A persistent cache of the text extracted from the files. The entries are
+ * compressed on the disk and keyed by the uuid of the metadata, the size
+ * and the modification date of the file or, if the file doesn't have
+ * metadata, by the hash of its content. The key contains the name of the
+ * extractor and the max. size of the content too.
+ * <p>
+ * The extractions run in their own pool, with a max. time and a max.
+ * file size per file. The files above the limits are not extracted. The
+ * time starts with the extraction, not in the queue of the pool. An
+ * extraction which takes too long is interrupted and abandoned. As some
+ * extractors ignore the interruption, the pool gets a new thread for
+ * every abandoned extraction still running, up to the size of the pool.
+ * Past this limit, no file is extracted until the stuck extractions end.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class ExtractedTextCache implements InitializingBean, DisposableBean {
+	
+	private static final Logger log = Tracing.createLoggerFor(ExtractedTextCache.class);
+	
+	private static final int VERSION = 1;
+	private static final long TOUCH_INTERVAL = TimeUnit.DAYS.toMillis(1);
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final AtomicInteger timeouts = new AtomicInteger(0);
+	private final AtomicInteger stuckExtractions = new AtomicInteger(0);
+	
+	private File cacheDirectory;
+	private int poolSize;
+	private ThreadPoolExecutor extractorExecutor;
+	
+	@Autowired
+	private SearchModule searchModule;
+	
+	@Override
+	public void afterPropertiesSet() {
+		cacheDirectory = new File(searchModule.getTextCachePath());
+		poolSize = Math.max(1, searchModule.getFolderPoolSize()) + 1;
+		extractorExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60l, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory("oo-text-extractor-"));
+		extractorExecutor.allowCoreThreadTimeOut(true);
+	}
+	
+	@Override
+	public void destroy() {
+		if(extractorExecutor != null) {
+			extractorExecutor.shutdownNow();
+		}
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public int getTimeouts() {
+		return timeouts.get();
+	}
+	
+	/**
+	 * @return The number of extractions which exceeded the time but are still running
+	 */
+	public int getStuckExtractions() {
+		return stuckExtractions.get();
+	}
+	
+	/**
+	 * Return the cached text of the file or extract it.
+	 * 
+	 * @param leaf The file
+	 * @param meta The metadata of the file if available
+	 * @param extractorName The name of the extractor, part of the key
+	 * @param extractor The extractor
+	 * @return The content of the file
+	 * @throws DocumentException If the extraction failed, took too long or the file is too big
+	 */
+	public FileContent getContent(VFSLeaf leaf, VFSMetadata meta, String extractorName, ContentExtractor extractor)
+	throws IOException, DocumentException, DocumentAccessException {
+		long maxSize = searchModule.getExtractionMaxSize();
+		if(maxSize > 0 && leaf.getSize() > maxSize) {
+			throw new DocumentException("File too big to extract its text: " + leaf.getSize() + " bytes");
+		}
+		if(!searchModule.isTextCacheEnabled()) {
+			return extract(leaf, extractor);
+		}
+		
+		File entry;
+		try {
+			entry = getEntry(getKey(leaf, meta, extractorName));
+		} catch (IOException e) {
+			log.warn("Cannot calculate the key of: {}", leaf.getName(), e);
+			return extract(leaf, extractor);
+		}
+		
+		FileContent content = read(entry);
+		if(content != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			content = extract(leaf, extractor);
+			if(content != null) {
+				write(entry, content);
+			}
+		}
+		return content;
+	}
+	
+	private FileContent extract(VFSLeaf leaf, ContentExtractor extractor)
+	throws IOException, DocumentException, DocumentAccessException {
+		int timeout = searchModule.getExtractionTimeout();
+		if(timeout <= 0 || extractorExecutor == null) {
+			return extractor.extract();
+		}
+		
+		if(stuckExtractions.get() >= poolSize) {
+			throw new DocumentException("Too many stuck extractions of text, " + leaf.getName() + " is not extracted");
+		}
+		
+		ExtractionTask task = new ExtractionTask(extractor);
+		try {
+			extractorExecutor.execute(task);
+		} catch (RejectedExecutionException e) {
+			throw new DocumentException("Extraction of the text rejected: " + leaf.getName(), e);
+		}
+		
+		try {
+			// the time starts with the extraction, not in the queue
+			while(!task.awaitStart(1, TimeUnit.SECONDS)) {
+				if(stuckExtractions.get() >= poolSize && task.cancel()) {
+					throw new DocumentException("Too many stuck extractions of text, " + leaf.getName() + " is not extracted");
+				}
+			}
+			if(!task.awaitEnd(timeout, TimeUnit.SECONDS) && task.abandon()) {
+				timeouts.incrementAndGet();
+				throw new DocumentException("Extraction of the text takes more than " + timeout + "s");
+			}
+		} catch (InterruptedException e) {
+			if(!task.cancel()) {
+				task.abandon();
+			}
+			Thread.currentThread().interrupt();
+			throw new DocumentException("Extraction of the text interrupted");
+		}
+		
+		Throwable error = task.getError();
+		if(error instanceof DocumentException) {
+			throw (DocumentException)error;
+		} else if(error instanceof DocumentAccessException) {
+			throw (DocumentAccessException)error;
+		} else if(error instanceof IOException) {
+			throw (IOException)error;
+		} else if(error != null) {
+			throw new DocumentException("Cannot extract the text of: " + leaf.getName(), error);
+		}
+		return task.getContent();
+	}
+	
+	/**
+	 * The pool gets an additional thread for every stuck extraction,
+	 * up to twice its configured size.
+	 */
+	private synchronized void resizePool() {
+		int size = poolSize + Math.min(poolSize, stuckExtractions.get());
+		if(size > extractorExecutor.getMaximumPoolSize()) {
+			extractorExecutor.setMaximumPoolSize(size);
+			extractorExecutor.setCorePoolSize(size);
+		} else if(size < extractorExecutor.getMaximumPoolSize()) {
+			extractorExecutor.setCorePoolSize(size);
+			extractorExecutor.setMaximumPoolSize(size);
+		}
+	}
+	
+	protected String getKey(VFSLeaf leaf, VFSMetadata meta, String extractorName) throws IOException {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append(VERSION).append(':')
+		  .append(extractorName).append(':')
+		  .append(FileDocumentFactory.getMaxFileSize()).append(':');
+		if(meta != null && StringHelper.containsNonWhitespace(meta.getUuid())) {
+			// the size and the date of the file system, the ones of the metadata are updated asynchronously
+			sb.append("uuid:").append(meta.getUuid())
+			  .append(':').append(leaf.getSize())
+			  .append(':').append(leaf.getLastModified());
+		} else {
+			sb.append("content:").append(hash(leaf));
+		}
+		MessageDigest digest = newDigest();
+		return Hex.encodeHexString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private String hash(VFSLeaf leaf) throws IOException {
+		MessageDigest digest = newDigest();
+		try(InputStream in = leaf.getInputStream()) {
+			if(in == null) {
+				throw new IOException("Cannot read: " + leaf.getName());
+			}
+			byte[] buffer = new byte[16384];
+			for(int read; (read = in.read(buffer)) > 0; ) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return Hex.encodeHexString(digest.digest());
+	}
+	
+	private File getEntry(String key) {
+		return new File(new File(cacheDirectory, key.substring(0, 2)), key + ".gz");
+	}
+	
+	private FileContent read(File entry) {
+		if(!entry.exists()) {
+			return null;
+		}
+		
+		try(DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(entry.toPath()))))) {
+			if(in.readInt() != VERSION) {
+				return null;
+			}
+			String title = readString(in);
+			String content = readString(in);
+			touch(entry);
+			return new FileContent(title, content);
+		} catch (IOException e) {
+			log.warn("Cannot read the cached text: {}", entry, e);
+			deleteQuietly(entry.toPath());
+			return null;
+		}
+	}
+	
+	private void touch(File entry) {
+		long now = System.currentTimeMillis();
+		if(entry.lastModified() < now - TOUCH_INTERVAL && !entry.setLastModified(now)) {
+			log.debug("Cannot update the modification date of: {}", entry);
+		}
+	}
+	
+	private void write(File entry, FileContent content) {
+		File directory = entry.getParentFile();
+		if(!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+			log.warn("Cannot create the directory of the text cache: {}", directory);
+			return;
+		}
+		
+		Path tmp = new File(directory, entry.getName() + "." + UUID.randomUUID() + ".tmp").toPath();
+		try {
+			try(OutputStream fileOut = Files.newOutputStream(tmp);
+					DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(fileOut)))) {
+				out.writeInt(VERSION);
+				writeString(out, content.getTitle());
+				writeString(out, content.getContent());
+			}
+			try {
+				Files.move(tmp, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			log.warn("Cannot write the cached text: {}", entry, e);
+			deleteQuietly(tmp);
+		}
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if(value == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+	
+	/**
+	 * Delete the entries which were not used since the max. age
+	 * of the cache, and the temporary files left by a crash.
+	 */
+	public void cleanUp() {
+		int maxAge = searchModule.getTextCacheMaxAge();
+		if(maxAge <= 0 || cacheDirectory == null || !cacheDirectory.exists()) {
+			return;
+		}
+		
+		final long limit = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAge);
+		final AtomicInteger deleted = new AtomicInteger(0);
+		try {
+			Files.walkFileTree(cacheDirectory.toPath(), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if(attrs.isRegularFile() && attrs.lastModifiedTime().toMillis() < limit) {
+						deleteQuietly(file);
+						deleted.incrementAndGet();
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			log.error("", e);
+		}
+		log.info("Text cache: {} hits, {} misses, {} timeouts, {} unused entries deleted",
+				getHits(), getMisses(), getTimeouts(), deleted.get());
+	}
+	
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.debug("Cannot delete: {}", file, e);
+		}
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+	
+	private class ExtractionTask implements Runnable {
+		
+		private static final int QUEUED = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
+		private static final int CANCELLED = 3;
+		private static final int ABANDONED = 4;
+		
+		private final ContentExtractor extractor;
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch ended = new CountDownLatch(1);
+		
+		private volatile Thread worker;
+		private volatile long startTime;
+		private volatile FileContent content;
+		private volatile Throwable error;
+		
+		public ExtractionTask(ContentExtractor extractor) {
+			this.extractor = extractor;
+		}
+		
+		public FileContent getContent() {
+			return content;
+		}
+		
+		public Throwable getError() {
+			return error;
+		}
+		
+		public boolean awaitStart(long time, TimeUnit unit) throws InterruptedException {
+			return started.await(time, unit);
+		}
+		
+		/**
+		 * Wait the end of the extraction, the time is counted from its start.
+		 */
+		public boolean awaitEnd(long time, TimeUnit unit) throws InterruptedException {
+			long remaining = startTime + unit.toNanos(time) - System.nanoTime();
+			return ended.await(Math.max(0l, remaining), TimeUnit.NANOSECONDS);
+		}
+		
+		/**
+		 * @return true if the task was still in the queue and will not run
+		 */
+		public boolean cancel() {
+			if(state.compareAndSet(QUEUED, CANCELLED)) {
+				extractorExecutor.remove(this);
+				return true;
+			}
+			return false;
+		}
+		
+		/**
+		 * Interrupt the running extraction and let an other thread
+		 * take the place of its worker in the pool.
+		 * 
+		 * @return true if the extraction was abandoned, false if it already ended
+		 */
+		public boolean abandon() {
+			synchronized(this) {
+				if(!state.compareAndSet(RUNNING, ABANDONED)) {
+					return false;
+				}
+				worker.interrupt();
+			}
+			stuckExtractions.incrementAndGet();
+			resizePool();
+			return true;
+		}
+
+		@Override
+		public void run() {
+			worker = Thread.currentThread();
+			startTime = System.nanoTime();
+			if(!state.compareAndSet(QUEUED, RUNNING)) {
+				return;
+			}
+			started.countDown();
+			
+			boolean abandoned = false;
+			try {
+				content = extractor.extract();
+			} catch (Exception | Error e) {
+				error = e;
+			} finally {
+				synchronized(this) {
+					if(!state.compareAndSet(RUNNING, DONE)) {
+						// clear the interruption before the worker goes back to the pool
+						Thread.interrupted();
+						abandoned = true;
+					}
+				}
+				ended.countDown();
+			}
+			
+			if(abandoned) {
+				stuckExtractions.decrementAndGet();
+				resizePool();
+			}
+		}
+	}
+	
+	@FunctionalInterface
+	public interface ContentExtractor {
+		
+		public FileContent extract() throws IOException, DocumentException, DocumentAccessException;
+		
+	}
+}
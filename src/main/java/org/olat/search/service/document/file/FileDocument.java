@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
 
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.services.vfs.VFSMetadata;
 import org.olat.core.id.User;
 import org.olat.core.util.StringHelper;
@@ -59,6 +60,7 @@ public abstract class FileDocument extends OlatDocument {
 		
 		// Set all know attributes
 		setResourceUrl(leafResourceContext.getResourceUrl());
+		setAccessTokens(leafResourceContext.getAccessTokens());
 		setLastChange(new Date(leaf.getLastModified()));
 		// Check if there are documents attributes set in resource context
 		if (StringHelper.containsNonWhitespace(leafResourceContext.getDocumentType())) {
@@ -68,7 +70,7 @@ public abstract class FileDocument extends OlatDocument {
 			setDocumentType(TYPE);
 		}
 
-		FileContent content = readContent(leaf);
+		FileContent content = readCachedContent(leaf, meta);
 		String metaTitle;
 		if(meta != null && StringHelper.containsNonWhitespace(meta.getTitle())) {
 			metaTitle = meta.getTitle();
@@ -183,6 +185,18 @@ public abstract class FileDocument extends OlatDocument {
 		}
 	}
 	
+	/**
+	 * Read the content from the cache of the extracted texts or extract it.
+	 * 
+	 * @param leaf The file
+	 * @param meta The metadata of the file if available
+	 * @return The content
+	 */
+	protected FileContent readCachedContent(VFSLeaf leaf, VFSMetadata meta) throws IOException, DocumentException, DocumentAccessException {
+		ExtractedTextCache textCache = CoreSpringFactory.getImpl(ExtractedTextCache.class);
+		return textCache.getContent(leaf, meta, getClass().getSimpleName(), () -> readContent(leaf));
+	}
+	
 	abstract protected FileContent readContent(VFSLeaf leaf) throws IOException, DocumentException, DocumentAccessException;
 
 }
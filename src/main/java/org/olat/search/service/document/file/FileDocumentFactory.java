@@ -121,6 +121,7 @@ public class FileDocumentFactory {
 					}
 					if(docLastModificationDate.compareTo(indexLastModification) < 0) {
 						OlatDocument olatDoc = new OlatDocument(indexedDoc);
+						olatDoc.setAccessTokens(leafResourceContext.getAccessTokens());
 						return olatDoc.getLuceneDocument();
 					}
 				}
@@ -54,12 +54,15 @@ public class PdfDocument extends FileDocument {
 	public static final String FILE_TYPE = "type.file.pdf";
 	
 	private boolean externalIndexer;
+	private boolean keepTextBuffer = true;
 	private String pdfTextBufferPath;
 	private String filePath;
 
 	public PdfDocument() {
 		this(SearchServiceFactory.getService().getSearchModuleConfig().getPdfTextBufferPath(),
 				SearchServiceFactory.getService().getSearchModuleConfig().isPdfExternalIndexer());
+		// the text is cached compressed by the text cache
+		keepTextBuffer = !SearchServiceFactory.getService().getSearchModuleConfig().isTextCacheEnabled();
 	}
 	
 	public PdfDocument(String pdfTextBufferPath, boolean externalIndexer) {
@@ -109,7 +112,11 @@ public class PdfDocument extends FileDocument {
 			}
 
 			// text file with extracted text exist => read pdf text from there
-			return getPdfTextFromBuffer(pdfTextFile);
+			FileContent content = getPdfTextFromBuffer(pdfTextFile);
+			if(!keepTextBuffer) {
+				FileUtils.deleteFile(pdfTextFile);
+			}
+			return content;
 		} catch (DocumentAccessException ex) {
 			// pass exception
 			throw ex;
@@ -0,0 +1,107 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.olat.search.model.AbstractOlatDocument;
+
+/**
+ * The fingerprint is a hash of the names and values of all the fields
+ * of a document, without the time stamp of the indexing. Two documents
+ * with the same fingerprint produce the same index entries, the indexers
+ * use it to skip the documents which didn't change since the last time
+ * they were written.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class DocumentFingerprint {
+	
+	private DocumentFingerprint() {
+		//
+	}
+	
+	/**
+	 * Calculate the fingerprint of the document and add it as
+	 * a stored field. A fingerprint already in the document is
+	 * replaced.
+	 * 
+	 * @param document The document
+	 * @return The fingerprint
+	 */
+	public static String setFingerprint(Document document) {
+		document.removeFields(AbstractOlatDocument.FINGERPRINT_FIELD_NAME);
+		String fingerprint = calculate(document);
+		document.add(new StringField(AbstractOlatDocument.FINGERPRINT_FIELD_NAME, fingerprint, Field.Store.YES));
+		return fingerprint;
+	}
+	
+	public static String getFingerprint(Document document) {
+		return document.get(AbstractOlatDocument.FINGERPRINT_FIELD_NAME);
+	}
+	
+	public static String calculate(Document document) {
+		MessageDigest digest = newDigest();
+		for(IndexableField field:document.getFields()) {
+			String name = field.name();
+			if(AbstractOlatDocument.FINGERPRINT_FIELD_NAME.equals(name)
+					|| AbstractOlatDocument.TIME_STAMP_NAME.equals(name)) {
+				continue;
+			}
+			
+			update(digest, name);
+			String stringValue = field.stringValue();
+			if(stringValue != null) {
+				update(digest, stringValue);
+			} else if(field.numericValue() != null) {
+				update(digest, field.numericValue().toString());
+			} else {
+				BytesRef bytes = field.binaryValue();
+				if(bytes != null) {
+					digest.update(bytes.bytes, bytes.offset, bytes.length);
+					digest.update((byte)0);
+				}
+			}
+		}
+		return Hex.encodeHexString(digest.digest());
+	}
+	
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte)0);
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 is not available", e);
+		}
+	}
+}
@@ -52,6 +52,7 @@ public class Index {
 	private String indexPath;
 	private String tempIndexPath;
 	private String permanentIndexPath;
+	private final boolean incremental;
 	
 	private OlatFullIndexer fullIndexer;
 	private SearchSpellChecker spellChecker;
@@ -66,6 +67,7 @@ public class Index {
 		this.indexPath = searchModule.getFullIndexPath();
 		this.tempIndexPath = searchModule.getFullTempIndexPath();
 		this.permanentIndexPath = searchModule.getFullPermanentIndexPath();
+		this.incremental = searchModule.isIncrementalFullIndex();
 		this.lifeIndexer = lifeIndexer;
 		
 		fullIndexer = new OlatFullIndexer(this, searchModule, searchService, mainIndexer, coordinatorManager);
@@ -130,7 +132,8 @@ public class Index {
 		// Delete existing index files
 		File tempIndexDir = new File(tempIndexPath);
 		FileUtils.deleteDirsAndFiles(indexDir, true, false);
-		FileUtils.copyDirContentsToDir(new File(tempIndexDir, "main") , indexDir ,true, "search indexer move tmp index");
+		// the incremental indexer needs the index of the last run in the temporary directory
+		FileUtils.copyDirContentsToDir(new File(tempIndexDir, "main") , indexDir, !incremental, "search indexer move tmp index");
 		log.info("New generated Index ready to use." );
 		
 		spellChecker.createSpellIndex();
@@ -20,6 +20,7 @@
 package org.olat.search.service.indexer;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.index.DirectoryReader;
@@ -30,6 +31,11 @@ import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
 
 /**
+ * Hold a long-lived writer. The writer is opened at the first use
+ * and stay open until the holder is closed, releasing the writer
+ * doesn't commit the changes. The changes are committed by
+ * {@link #commit()} and are visible before the commit to the
+ * near real-time readers opened with {@link #openReader()}.
  * 
  * Initial date: 05.03.2013<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -42,6 +48,7 @@ public class IndexWriterHolder {
 	private JmsIndexer indexer;
 	
 	private AtomicInteger counter = new AtomicInteger(0);
+	private AtomicBoolean uncommittedChanges = new AtomicBoolean(false);
 	private IndexWriter writerRef;
 
 	public IndexWriterHolder(Directory indexPath, JmsIndexer indexer)
@@ -70,7 +77,10 @@ public class IndexWriterHolder {
 	}
 
 	public synchronized IndexWriter getAndLock() throws IOException {
-		if(writerRef == null) {
+		if(writerRef == null || !writerRef.isOpen()) {
+			if(writerRef != null) {
+				log.warn("Reopen the writer of the permanent index after: {}", String.valueOf(writerRef.getTragicException()));
+			}
 			long start = System.nanoTime();
 			IndexWriter indexWriter = new IndexWriter(indexPath, indexer.newIndexWriterConfig());
 			if(!DirectoryReader.indexExists(indexPath)) {
@@ -83,18 +93,50 @@ public class IndexWriterHolder {
 		return writerRef;
 	}
 
-	public synchronized void release(IndexWriter indexWriter) {
+	/**
+	 * Release the writer, the changes are not committed.
+	 * 
+	 * @param indexWriter The writer
+	 */
+	public void release(IndexWriter indexWriter) {
 		if(indexWriter != null) {
+			counter.decrementAndGet();
+			if(indexWriter.hasUncommittedChanges()) {
+				uncommittedChanges.set(true);
+			}
+		}
+	}
+	
+	/**
+	 * Open a near real-time reader which sees the changes of the writer,
+	 * committed or not. The reader can be refreshed with
+	 * {@link DirectoryReader#openIfChanged(DirectoryReader)}.
+	 * 
+	 * @return A new reader
+	 * @throws IOException
+	 */
+	public DirectoryReader openReader() throws IOException {
+		IndexWriter writer = getAndLock();
+		try {
+			return DirectoryReader.open(writer);
+		} finally {
+			release(writer);
+		}
+	}
+	
+	/**
+	 * Commit the changes to the disk, if there are some.
+	 */
+	public synchronized void commit() {
+		IndexWriter indexWriter = writerRef;
+		if(indexWriter != null && indexWriter.isOpen()
+				&& (uncommittedChanges.getAndSet(false) || indexWriter.hasUncommittedChanges())) {
 			try {
-				int used = counter.decrementAndGet();
-				if(used == 0) {
-					long start = System.nanoTime();
-					indexWriter.commit();
-					indexWriter.close();
-					writerRef = null;
-					log.info("Close writer takes (ms): " + CodeHelper.nanoToMilliTime(start));
-				}
+				long start = System.nanoTime();
+				indexWriter.commit();
+				log.debug("Commit writer takes (ms): {}", CodeHelper.nanoToMilliTime(start));
 			} catch (Exception e) {
+				uncommittedChanges.set(true);
 				log.error("", e);
 			}
 		}
@@ -104,10 +146,14 @@ public class IndexWriterHolder {
 		IndexWriter indexWriter = writerRef;
 		if(indexWriter != null) {
 			try {
-				indexWriter.commit();
-				indexWriter.close();
+				if(indexWriter.isOpen()) {
+					indexWriter.commit();
+					indexWriter.close();
+				}
 			} catch (IOException e) {
 				log.error("", e);
+			} finally {
+				writerRef = null;
 			}
 		}
 	}
@@ -23,7 +23,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
@@ -52,6 +60,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.olat.core.commons.persistence.DBFactory;
@@ -60,8 +69,13 @@ import org.olat.core.logging.Tracing;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.search.SearchModule;
 import org.olat.search.model.AbstractOlatDocument;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
+ * The indexer of the permanent index. The change notifications are collected
+ * during a short interval and sent as one JMS message per type. The indexing
+ * node writes the documents with a long-lived writer, commits the changes
+ * periodically and the searcher sees them with a near real-time reader.
  * 
  * Initial date: 04.03.2013<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -69,6 +83,8 @@ import org.olat.search.model.AbstractOlatDocument;
  */
 public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff {
 	private static final int INDEX_MERGE_FACTOR = 1000;
+	private static final int MAX_KEYS_PER_MESSAGE = 500;
+	private static final Set<String> FINGERPRINT_FIELDS = Collections.singleton(AbstractOlatDocument.FINGERPRINT_FIELD_NAME);
 	private static final Logger log = Tracing.createLoggerFor(JmsIndexer.class);
 	
 	private Queue jmsQueue;
@@ -86,6 +102,15 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	
 	private double ramBufferSizeMB;
 	private boolean indexingNode;
+	private long batchInterval;
+	private long commitInterval;
+	private long refreshInterval;
+	private long lastRefresh;
+	/** The fingerprints of the documents written since the last refresh of the reader */
+	private final Map<String,String> recentFingerprints = new ConcurrentHashMap<>();
+	
+	private ScheduledExecutorService scheduler;
+	private final Map<String,Set<Long>> pendingWork = new LinkedHashMap<>();
 
 	private FullIndexerStatus fullIndexerStatus;
 
@@ -95,6 +120,9 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		indexingNode = searchModuleConfig.isSearchServiceEnabled();
 		ramBufferSizeMB = searchModuleConfig.getRAMBufferSizeMB();
 		permanentIndexPath = searchModuleConfig.getFullPermanentIndexPath();
+		batchInterval = searchModuleConfig.getIndexerBatchInterval();
+		commitInterval = searchModuleConfig.getIndexerCommitInterval();
+		refreshInterval = searchModuleConfig.getIndexerRefreshInterval();
 		fullIndexerStatus = new FullIndexerStatus(0);
 		this.coordinatorManager = coordinatorManager;
 	}
@@ -162,6 +190,21 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	public void springInit() throws JMSException {
 		initDirectory();
 		initQueue();
+		initScheduler();
+	}
+	
+	public void initScheduler() {
+		boolean batch = batchInterval > 0;
+		boolean commit = indexingNode && commitInterval > 0;
+		if(batch || commit) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("oo-life-indexer-"));
+			if(batch) {
+				scheduler.scheduleWithFixedDelay(this::flushPendingWork, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+			}
+			if(commit) {
+				scheduler.scheduleWithFixedDelay(this::commit, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+			}
+		}
 	}
 	
 	public void initQueue() throws JMSException {
@@ -188,8 +231,10 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 					IndexerEvent event = new IndexerEvent(IndexerEvent.INDEX_CREATED);
 					coordinatorManager.getCoordinator().getEventBus().fireEventToListenersOf(event, IndexerEvent.INDEX_ORES);
 				}
+				reader = permanentIndexWriter.openReader();
+			} else {
+				reader = DirectoryReader.open(indexPath);
 			}
-			reader = DirectoryReader.open(indexPath);
 		} catch (IOException e) {
 			log.error("", e);
 		}
@@ -215,10 +260,26 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	 * [used by Spring]
 	 */
 	public void stop() {
+		closeScheduler();
+		flushPendingWork();
 		closeQueue();
 		closeWriter();
 	}
 	
+	public void closeScheduler() {
+		ScheduledExecutorService currentScheduler = scheduler;
+		if(currentScheduler != null) {
+			scheduler = null;
+			currentScheduler.shutdown();
+			try {
+				currentScheduler.awaitTermination(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				log.warn("Interrupted while waiting the scheduler of the life indexer", e);
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
 	public void closeQueue() {
 		if(consumer != null) {
 			try {
@@ -239,12 +300,44 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 	
 	public void closeWriter() {
 		try {
-			permanentIndexWriter.close();
+			synchronized(this) {
+				if(reader != null) {
+					reader.decRef();
+					reader = null;
+				}
+			}
+			if(permanentIndexWriter != null) {
+				permanentIndexWriter.close();
+			}
 		} catch (Exception e) {
 			log.error("", e);
 		}
 	}
 	
+	/**
+	 * Commit the changes of the permanent index to the disk.
+	 */
+	public void commit() {
+		if(permanentIndexWriter != null) {
+			permanentIndexWriter.commit();
+		}
+	}
+	
+	/**
+	 * Open a near real-time reader of the permanent index, it sees
+	 * the changes not yet committed.
+	 * 
+	 * @return A new reader or null if this node doesn't write the permanent index
+	 * @throws IOException
+	 */
+	@Override
+	public DirectoryReader openNearRealTimeReader() throws IOException {
+		if(indexingNode && permanentIndexWriter != null) {
+			return permanentIndexWriter.openReader();
+		}
+		return null;
+	}
+	
 	@Override
 	public void fullIndex() {
 		log.info("start full reindex of life index");
@@ -252,6 +345,7 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		for(LifeIndexer indexer:indexers) {
 			indexer.fullIndex(this);
 		}
+		commit();
 		fullIndexerStatus.indexingFinished();
 		log.info("end full reindex of life index");
 	}
@@ -263,12 +357,50 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 
 	@Override
 	public void indexDocument(String type, Long key) {
-		sendMessage(new JmsIndexWork(JmsIndexWork.INDEX, type, key));
+		if(scheduler == null || batchInterval <= 0) {
+			sendMessage(new JmsIndexWork(JmsIndexWork.INDEX, type, key));
+		} else if(key != null) {
+			synchronized(pendingWork) {
+				pendingWork.computeIfAbsent(type, t -> new LinkedHashSet<>()).add(key);
+			}
+		}
 	}
 
 	@Override
 	public void indexDocument(String type, List<Long> keyList) {
-		sendMessage(new JmsIndexWork(JmsIndexWork.INDEX, type, keyList));
+		if(scheduler == null || batchInterval <= 0) {
+			sendMessage(new JmsIndexWork(JmsIndexWork.INDEX, type, keyList));
+		} else if(keyList != null && !keyList.isEmpty()) {
+			synchronized(pendingWork) {
+				pendingWork.computeIfAbsent(type, t -> new LinkedHashSet<>()).addAll(keyList);
+			}
+		}
+	}
+	
+	/**
+	 * Send the collected notifications, one message per type and at most
+	 * {@value #MAX_KEYS_PER_MESSAGE} keys per message. A key notified several
+	 * times during the interval is indexed only once.
+	 */
+	public void flushPendingWork() {
+		Map<String,Set<Long>> work;
+		synchronized(pendingWork) {
+			if(pendingWork.isEmpty()) return;
+			work = new LinkedHashMap<>(pendingWork);
+			pendingWork.clear();
+		}
+		
+		try {
+			for(Map.Entry<String,Set<Long>> typeWork:work.entrySet()) {
+				List<Long> keys = new ArrayList<>(typeWork.getValue());
+				for(int i=0; i<keys.size(); i += MAX_KEYS_PER_MESSAGE) {
+					List<Long> chunk = new ArrayList<>(keys.subList(i, Math.min(keys.size(), i + MAX_KEYS_PER_MESSAGE)));
+					sendMessage(new JmsIndexWork(JmsIndexWork.INDEX, typeWork.getKey(), chunk));
+				}
+			}
+		} catch (Exception e) {
+			log.error("", e);
+		}
 	}
 	
 	private void sendMessage(JmsIndexWork workUnit) {
@@ -336,19 +468,55 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		}
 	}
 	
-	private DirectoryReader getReader() throws IOException {
+	/**
+	 * @return The current reader, don't forget to release it with {@link #releaseReader(DirectoryReader)}
+	 * @throws IOException
+	 */
+	private synchronized DirectoryReader acquireReader() throws IOException {
 		if(reader == null) {
-			File tempIndexDir = new File(permanentIndexPath);
-			Directory indexPath = FSDirectory.open(tempIndexDir.toPath());
-			reader = DirectoryReader.open(indexPath);
-		} else {
-			DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
-			if(newReader != null) {
-				reader = newReader;
+			recentFingerprints.clear();
+			reader = openReader();
+			lastRefresh = System.currentTimeMillis();
+		} else if(System.currentTimeMillis() - lastRefresh >= refreshInterval) {
+			// every refresh of a near real-time reader flushes a new segment
+			lastRefresh = System.currentTimeMillis();
+			recentFingerprints.clear();
+			try {
+				DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+				if(newReader != null) {
+					reader.decRef();
+					reader = newReader;
+				}
+			} catch (AlreadyClosedException e) {
+				// the writer was reopened
+				log.debug("Reopen the reader of the permanent index", e);
+				reader.decRef();
+				reader = openReader();
 			}
 		}
+		reader.incRef();
 		return reader;
 	}
+	
+	private void releaseReader(DirectoryReader currentReader) {
+		if(currentReader != null) {
+			try {
+				currentReader.decRef();
+			} catch (IOException e) {
+				log.error("", e);
+			}
+		}
+	}
+	
+	private DirectoryReader openReader() throws IOException {
+		DirectoryReader newReader = openNearRealTimeReader();
+		if(newReader == null) {
+			File tempIndexDir = new File(permanentIndexPath);
+			Directory indexPath = FSDirectory.open(tempIndexDir.toPath());
+			newReader = DirectoryReader.open(indexPath);
+		}
+		return newReader;
+	}
 
 	@Override
 	public IndexWriter getAndLockWriter() throws IOException {
@@ -367,6 +535,7 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 			Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
 			writer = permanentIndexWriter.getAndLock();
 			writer.deleteDocuments(uuidTerm);
+			recentFingerprints.remove(resourceUrl);
 		} catch (IOException e) {
 			log.error("", e);
 		} finally {
@@ -384,45 +553,72 @@ public class JmsIndexer implements MessageListener, LifeFullIndexer, ConfigOnOff
 		if(documents == null || documents.isEmpty()) return;//nothing to do
 		
 		IndexWriter writer = null;
+		DirectoryReader currentReader = null;
 		try {
-			DirectoryReader currentReader = getReader();
+			currentReader = acquireReader();
 			IndexSearcher searcher = new IndexSearcher(currentReader);
 			writer = permanentIndexWriter.getAndLock();
 			
 			for(Document document:documents) {
 				if(document != null) {
-					String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
-					Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-					TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-					if(hits.totalHits > 0) {
-						writer.updateDocument(uuidTerm, document);
-					} else {
-						writer.addDocument(document);
-					}
+					updateDocument(document, writer, searcher);
 				}
 			}
 		} catch (IOException e) {
 			log.error("", e);
 		} finally {
+			releaseReader(currentReader);
 			permanentIndexWriter.release(writer);
 		}
 	}
 
 	@Override
 	public void addDocument(Document document, IndexWriter writer) {
+		DirectoryReader currentReader = null;
 		try {
-			String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
-			Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
-			DirectoryReader currentReader = getReader();
+			currentReader = acquireReader();
 			IndexSearcher searcher = new IndexSearcher(currentReader);
-			TopDocs hits = searcher.search(new TermQuery(uuidTerm), 10);
-			if(hits.totalHits > 0) {
-				writer.updateDocument(uuidTerm, document);
-			} else {
-				writer.addDocument(document);
-			}
+			updateDocument(document, writer, searcher);
 		} catch (IOException e) {
 			log.error("", e);
+		} finally {
+			releaseReader(currentReader);
+		}
+	}
+	
+	/**
+	 * Add or replace the document with the same resource URL, but only if
+	 * its fingerprint changed.
+	 * 
+	 * @param document The document to write
+	 * @param writer The writer
+	 * @param searcher A searcher to look up the fingerprint of the indexed document
+	 * @return true if the document was written
+	 * @throws IOException
+	 */
+	private boolean updateDocument(Document document, IndexWriter writer, IndexSearcher searcher)
+	throws IOException {
+		String resourceUrl = document.get(AbstractOlatDocument.RESOURCEURL_FIELD_NAME);
+		Term uuidTerm = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl);
+		String fingerprint = DocumentFingerprint.setFingerprint(document);
+		
+		String recentFingerprint = recentFingerprints.get(resourceUrl);
+		if(recentFingerprint != null) {
+			if(fingerprint.equals(recentFingerprint)) {
+				return false;
+			}
+		} else {
+			TopDocs hits = searcher.search(new TermQuery(uuidTerm), 2);
+			if(hits.totalHits == 1) {
+				Document indexedDocument = searcher.doc(hits.scoreDocs[0].doc, FINGERPRINT_FIELDS);
+				if(fingerprint.equals(DocumentFingerprint.getFingerprint(indexedDocument))) {
+					return false;
+				}
+			}
 		}
+		// update delete the documents with the same URL or simply add the new one
+		writer.updateDocument(uuidTerm, document);
+		recentFingerprints.put(resourceUrl, fingerprint);
+		return true;
 	}
 }
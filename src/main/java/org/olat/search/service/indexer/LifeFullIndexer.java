@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.List;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 
 /**
@@ -72,11 +73,21 @@ public interface LifeFullIndexer {
 	public IndexWriter getAndLockWriter() throws IOException;
 	
 	/**
-	 * Release the writer, other nodes of a cluster can use it after that.
+	 * Release the writer. The changes are committed periodically
+	 * and are visible before to the near real-time readers.
 	 * @param writer
 	 */
 	public void releaseWriter(IndexWriter writer);
 	
+	/**
+	 * Open a reader of the permanent index which sees the changes
+	 * not yet committed.
+	 * 
+	 * @return A new reader or null if this node doesn't write the permanent index
+	 * @throws IOException
+	 */
+	public DirectoryReader openNearRealTimeReader() throws IOException;
+	
 	/**
 	 * Add a document to the index
 	 * @param doc
@@ -33,10 +33,16 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -50,25 +56,37 @@ import org.apache.lucene.LucenePackage;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.LogMergePolicy;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.search.SearchModule;
 import org.olat.search.SearchService;
+import org.olat.search.model.AbstractOlatDocument;
 import org.olat.search.model.OlatDocument;
 import org.olat.search.service.SearchResourceContext;
+import org.olat.search.service.document.file.ExtractedTextCache;
 
 /**
  * Controls the hole generation of a full-index. It run in its own thread the main index.
  * The sub-indexers can use a thread pool to parallelize the works.
+ * <p>
+ * In incremental mode, the index of the last run is kept. The documents which
+ * fingerprint is already in the index are not written again and the documents
+ * which were not produced by the run are deleted at the end.
  * 
  * @author Christian Guretzki
  */
@@ -77,6 +95,7 @@ public class OlatFullIndexer {
 	private static final Logger log = Tracing.createLoggerFor(OlatFullIndexer.class);
 	private static final int INDEX_MERGE_FACTOR = 1000;
 	private static final int MAX_WAITING_COUNT = 600;// = 10Min
+	private static final int DELETE_BATCH_SIZE = 1000;
 	private static final IndexerThreadFactory indexWriterThreadFactory = new IndexerThreadFactory("writer");
 	private static final IndexerThreadFactory indexWorkersThreadFactory = new IndexerThreadFactory("worker");
 
@@ -96,6 +115,12 @@ public class OlatFullIndexer {
 
 	private double ramBufferSizeMB;
 	
+	private final boolean incremental;
+	/** The fingerprints of the documents of the last run, null if not incremental */
+	private Set<String> previousFingerprints;
+	private Set<String> currentFingerprints;
+	private final AtomicInteger unchangedDocumentCounter = new AtomicInteger(0);
+	
 	private final int indexerPoolSize;
 	
 	/** Current status of full-indexer. */
@@ -146,6 +171,7 @@ public class OlatFullIndexer {
 		indexInterval = searchModule.getIndexInterval();
 		documentsPerInterval = searchModule.getDocumentsPerInterval();
 		ramBufferSizeMB = searchModule.getRAMBufferSizeMB();
+		incremental = searchModule.isIncrementalFullIndex();
 		fullIndexerStatus = new FullIndexerStatus(1);
 		stopIndexing = true;
 		initStatus();
@@ -242,7 +268,12 @@ public class OlatFullIndexer {
 			File tempIndexDir = new File(tempIndexPath);
 			Directory tmpIndexPath = FSDirectory.open(new File(tempIndexDir, "main").toPath());
 			indexWriter = new IndexWriter(tmpIndexPath, newIndexWriterConfig());// analyzer, true, IndexWriter.MAX_TERM_LENGTH.UNLIMITED);
-			indexWriter.deleteAll();
+			unchangedDocumentCounter.set(0);
+			currentFingerprints = ConcurrentHashMap.newKeySet();
+			previousFingerprints = incremental ? loadFingerprints(indexWriter) : null;
+			if(previousFingerprints == null) {
+				indexWriter.deleteAll();
+			}
 			
 			SearchResourceContext searchResourceContext = new SearchResourceContext();
 			log.info("doIndex start. OlatFullIndexer with Debug output");
@@ -261,6 +292,10 @@ public class OlatFullIndexer {
 				Thread.sleep(1000);
 			}
 			
+			if(previousFingerprints != null && !stopIndexing) {
+				indexerWriterExecutor.submit(new DeleteObsoleteDocumentsCallable()).get();
+			}
+			
 			log.info("Close index writer executor");
 			fullIndexerStatus.setIndexSize(indexWriter.maxDoc());
 			//shutdown the index writer thread
@@ -269,9 +304,13 @@ public class OlatFullIndexer {
 			indexerWriterExecutor.awaitTermination(1, TimeUnit.MINUTES);
 		} catch (IOException e) {
 			log.warn("Can not create IndexWriter, indexname=" + tempIndexPath, e);
+		} catch (ExecutionException e) {
+			log.error("Cannot delete the obsolete documents", e);
 		} finally {
 			DBFactory.getInstance().commitAndCloseSession();
 			log.debug("doIndex: commit & close session");
+			previousFingerprints = null;
+			currentFingerprints = null;
 			
 			if(indexerExecutor != null) {
 				indexerExecutor.shutdownNow();
@@ -284,6 +323,37 @@ public class OlatFullIndexer {
 		}
 	}
 	
+	/**
+	 * Load the fingerprints of all documents of the last run.
+	 * 
+	 * @param writer The writer of the index
+	 * @return The fingerprints or null if the index is empty or some documents don't have one
+	 * @throws IOException
+	 */
+	private Set<String> loadFingerprints(IndexWriter writer) throws IOException {
+		Set<String> fingerprints = new HashSet<>();
+		Set<String> fieldsToLoad = Collections.singleton(AbstractOlatDocument.FINGERPRINT_FIELD_NAME);
+		try(DirectoryReader reader = DirectoryReader.open(writer)) {
+			for(LeafReaderContext context:reader.leaves()) {
+				LeafReader leafReader = context.reader();
+				Bits liveDocs = leafReader.getLiveDocs();
+				for(int i=0; i<leafReader.maxDoc(); i++) {
+					if(liveDocs == null || liveDocs.get(i)) {
+						String fingerprint = leafReader.document(i, fieldsToLoad)
+								.get(AbstractOlatDocument.FINGERPRINT_FIELD_NAME);
+						if(fingerprint == null) {
+							log.info("Documents without fingerprint found, rebuild the whole index");
+							return null;
+						}
+						fingerprints.add(fingerprint);
+					}
+				}
+			}
+		}
+		log.info("Incremental full index with {} documents of the last run", fingerprints.size());
+		return fingerprints.isEmpty() ? null : fingerprints;
+	}
+	
 	public Future<Boolean> submit(Callable<Boolean> task) {
 		if(indexerExecutor != null && !indexerExecutor.isShutdown()) {
 			return indexerExecutor.submit(task);
@@ -303,6 +373,10 @@ public class OlatFullIndexer {
 			fullIndexerStatus.indexingStarted();
 			doIndex();
 			index.indexingIsDone();
+			if(!stopIndexing) {
+				// all files were visited, the entries not used since a while are obsolete
+				CoreSpringFactory.getImpl(ExtractedTextCache.class).cleanUp();
+			}
 			fullIndexerStatus.indexingFinished();
 			log.info("full indexing done in " + fullIndexerStatus.getIndexingTime() + "ms");
 			
@@ -356,8 +430,10 @@ public class OlatFullIndexer {
 		DBFactory.getInstance().commitAndCloseSession();
 		
 		if (!stopIndexing && indexerWriterExecutor != null && !indexerWriterExecutor.isShutdown()) {
+			// calculated by the workers, not by the single writer thread
+			String fingerprint = DocumentFingerprint.setFingerprint(document);
 			synchronized(indexerWriterBlock) {//once at a time please, wait, you have enough time
-				Future<Boolean> future = indexerWriterExecutor.submit(new AddDocumentCallable(document));
+				Future<Boolean> future = indexerWriterExecutor.submit(new AddDocumentCallable(document, fingerprint));
 				try {
 					future.get();
 				} catch (ExecutionException e) {
@@ -422,6 +498,13 @@ public class OlatFullIndexer {
 		return fullIndexerStatus;
 	}
 	
+	/**
+	 * @return The number of documents of the last run which were already in the index
+	 */
+	public int getUnchangedDocumentCount() {
+		return unchangedDocumentCounter.get();
+	}
+	
 	public long getIndexInterval() {
 		return indexInterval;
 	}
@@ -457,16 +540,49 @@ public class OlatFullIndexer {
 		}
 	}
 	
+	private class DeleteObsoleteDocumentsCallable implements Callable<Boolean> {
+
+		@Override
+		public Boolean call() throws Exception {
+			List<Term> obsoletes = new ArrayList<>(DELETE_BATCH_SIZE);
+			int deleted = 0;
+			for(String fingerprint:previousFingerprints) {
+				if(!currentFingerprints.contains(fingerprint)) {
+					obsoletes.add(new Term(AbstractOlatDocument.FINGERPRINT_FIELD_NAME, fingerprint));
+					if(obsoletes.size() >= DELETE_BATCH_SIZE) {
+						indexWriter.deleteDocuments(obsoletes.toArray(new Term[obsoletes.size()]));
+						deleted += obsoletes.size();
+						obsoletes.clear();
+					}
+				}
+			}
+			if(!obsoletes.isEmpty()) {
+				indexWriter.deleteDocuments(obsoletes.toArray(new Term[obsoletes.size()]));
+				deleted += obsoletes.size();
+			}
+			log.info("Incremental full index: {} unchanged documents, {} obsolete documents deleted", unchangedDocumentCounter.get(), deleted);
+			return Boolean.TRUE;
+		}
+	}
+	
 	private class AddDocumentCallable implements Callable<Boolean> {
 		private final Document document;
+		private final String fingerprint;
 		
-		public AddDocumentCallable(Document document) {
+		public AddDocumentCallable(Document document, String fingerprint) {
 			this.document = document;
+			this.fingerprint = fingerprint;
 		}
 
 		@Override
 		public Boolean call() throws Exception {
-			indexWriter.addDocument(document);
+			currentFingerprints.add(fingerprint);
+			if(previousFingerprints != null && previousFingerprints.contains(fingerprint)) {
+				// already in the index
+				unchangedDocumentCounter.incrementAndGet();
+			} else {
+				indexWriter.addDocument(document);
+			}
 			fullIndexerStatus.incrementDocumentCount();
 			if (indexInterval != 0 && sleepDocumentCounter++ >= documentsPerInterval) {
 				sleepDocumentCounter = 0;
@@ -27,6 +27,8 @@ package org.olat.search.service.indexer.group;
 
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -45,6 +47,7 @@ import org.olat.group.BusinessGroupService;
 import org.olat.resource.OLATResource;
 import org.olat.resource.accesscontrol.ACService;
 import org.olat.resource.accesscontrol.AccessControlModule;
+import org.olat.search.service.SearchAccessTokens;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.document.GroupDocument;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
@@ -95,10 +98,18 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 				if (log.isDebugEnabled()) log.debug("Index BusinessGroup=" + businessGroup);
 				SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
 				searchResourceContext.setBusinessControlFor(businessGroup);
+				// the name and description of groups with an offer are visible to all users
+				String membersToken = SearchAccessTokens.businessGroup(businessGroup.getKey());
+				if(isAccessControled(businessGroup)) {
+					searchResourceContext.setAccessTokens(Arrays.asList(membersToken, SearchAccessTokens.USERS));
+				} else {
+					searchResourceContext.setAccessTokens(Collections.singletonList(membersToken));
+				}
 				Document document = GroupDocument.createDocument(searchResourceContext, businessGroup);
 				indexWriter.addDocument(document);
-		    // Do index child 
-			  super.doIndex(searchResourceContext, businessGroup, indexWriter);
+				searchResourceContext.setAccessTokens(Collections.singletonList(membersToken));
+				// Do index child 
+				super.doIndex(searchResourceContext, businessGroup, indexWriter);
 			} catch(Exception ex) {
 				log.error("Exception indexing group=" + businessGroup, ex);
 				DBFactory.getInstance().rollbackAndCloseSession();
@@ -112,6 +123,12 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 		if (log.isDebugEnabled()) log.debug("GroupIndexer finished in {} ms", indexTime);
 	}
 
+	private boolean isAccessControled(BusinessGroup group) {
+		AccessControlModule acModule = (AccessControlModule)CoreSpringFactory.getBean("acModule");
+		return acModule.isEnabled()
+				&& CoreSpringFactory.getImpl(ACService.class).isResourceAccessControled(group.getResource(), null);
+	}
+
 	@Override
 	public boolean checkAccess(ContextEntry contextEntry, BusinessControl businessControl, Identity identity, Roles roles) {
 		if(roles.isGuestOnly()) {
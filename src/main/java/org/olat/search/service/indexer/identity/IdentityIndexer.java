@@ -20,6 +20,7 @@
 package org.olat.search.service.indexer.identity;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -27,10 +28,12 @@ import org.olat.basesecurity.BaseSecurity;
 import org.olat.basesecurity.BaseSecurityManager;
 import org.olat.basesecurity.IdentityPowerSearchQueries;
 import org.olat.basesecurity.OrganisationRoles;
+import org.olat.basesecurity.OrganisationService;
 import org.olat.basesecurity.SearchIdentityParams;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.id.Identity;
+import org.olat.core.id.Organisation;
 import org.olat.core.id.OrganisationRef;
 import org.olat.core.id.Roles;
 import org.olat.core.id.context.BusinessControl;
@@ -38,6 +41,7 @@ import org.olat.core.id.context.ContextEntry;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.resource.OresHelper;
+import org.olat.search.service.SearchAccessTokens;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
 import org.olat.search.service.indexer.Indexer;
@@ -69,6 +73,7 @@ public class IdentityIndexer extends AbstractHierarchicalIndexer {
 		
 		int counter = 0;
 		BaseSecurity secMgr = BaseSecurityManager.getInstance();
+		OrganisationService organisationService = CoreSpringFactory.getImpl(OrganisationService.class);
 		List<Long> identityKeys = secMgr.loadVisibleIdentityKeys();
 		if (log.isDebugEnabled()) log.debug("Found {} active identities to index", identityKeys.size());
 		DBFactory.getInstance().commitAndCloseSession();
@@ -87,6 +92,13 @@ public class IdentityIndexer extends AbstractHierarchicalIndexer {
 				SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
 				searchResourceContext.setBusinessControlFor(OresHelper.createOLATResourceableInstance(Identity.class, identity.getKey()));
 				searchResourceContext.setParentContextType(TYPE);
+				// the users see the identities which share an organisation with them
+				List<Organisation> organisations = organisationService.getOrganisations(identity, OrganisationRoles.values());
+				List<String> accessTokens = new ArrayList<>(organisations.size());
+				for(Organisation organisation:organisations) {
+					accessTokens.add(SearchAccessTokens.organisation(organisation.getKey()));
+				}
+				searchResourceContext.setAccessTokens(accessTokens);
 
 				// delegate indexing work to all configured indexers
 				for (Indexer indexer : getChildIndexers()) {
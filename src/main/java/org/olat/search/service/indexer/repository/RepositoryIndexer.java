@@ -53,6 +53,7 @@ import org.olat.resource.accesscontrol.OfferAccess;
 import org.olat.resource.accesscontrol.provider.free.FreeAccessHandler;
 import org.olat.resource.accesscontrol.provider.paypal.PaypalAccessHandler;
 import org.olat.search.SearchModule;
+import org.olat.search.service.SearchAccessTokens;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
 import org.olat.search.service.indexer.Indexer;
@@ -156,6 +157,7 @@ public class RepositoryIndexer extends AbstractHierarchicalIndexer {
 					if (!isOnBlacklist(repositoryEntry.getOlatResource().getResourceableId()) ) {
 						SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
 						searchResourceContext.setBusinessControlFor(repositoryEntry);
+						searchResourceContext.setAccessTokens(SearchAccessTokens.forRepositoryEntry(repositoryEntry));
 						searchResourceContext.setTitle(repositoryEntry.getDisplayname());
 						searchResourceContext.setDescription(repositoryEntry.getDescription());
 						Document document = documentFactory.createDocument(searchResourceContext, repositoryEntry);
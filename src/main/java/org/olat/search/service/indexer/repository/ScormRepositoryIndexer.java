@@ -107,6 +107,7 @@ public class ScormRepositoryIndexer extends FolderIndexer {
 	private Document createManifestDocument(VFSLeaf fManifest, Element rootElement, SearchResourceContext resourceContext) {
 		IMSMetadataDocument document = new IMSMetadataDocument();
 		document.setResourceUrl(resourceContext.getResourceUrl());
+		document.setAccessTokens(resourceContext.getAccessTokens());
 		if (log.isDebugEnabled()) log.debug("MM: URL={}", document.getResourceUrl());
 		document.setLastChange(new Date(fManifest.getLastModified()));
 		document.setDocumentType(resourceContext.getDocumentType());
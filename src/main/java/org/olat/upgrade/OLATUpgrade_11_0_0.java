@@ -41,6 +41,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.logging.log4j.Logger;
@@ -1186,6 +1187,11 @@ public class OLATUpgrade_11_0_0 extends OLATUpgrade {
 			return map.keySet().iterator();
 		}
 
+		@Override
+		public void forEachKey(Consumer<? super NewCacheKey> action) {
+			map.keySet().forEach(action);
+		}
+
 		@Override
 		public void clear() {
 			//
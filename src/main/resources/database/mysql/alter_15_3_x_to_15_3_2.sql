@@ -1,3 +1,17 @@
 -- BigBlueButton
 alter table o_bbb_meeting add column b_record bool default null;
 
+-- Batch inserts: assessment entries, item sessions and responses use the hi/lo generator
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) div 32767 + 1 from o_as_entry));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) div 32767 + 1 from o_qti_assessmentitem_session));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) div 32767 + 1 from o_qti_assessment_response));
+
+alter table o_as_entry modify id bigint not null;
+alter table o_qti_assessmentitem_session modify id bigint not null;
+alter table o_qti_assessment_response modify id bigint not null;
+
+-- Statistics: insert date of the log, the lines of the last days get their creation date
+alter table o_loggingtable add column insertdate datetime default null;
+alter table o_loggingtable modify column insertdate datetime default current_timestamp;
+update o_loggingtable set insertdate=creationdate where creationdate >= date_sub(now(), interval 2 day);
+create index log_insertdate_idx on o_loggingtable(insertdate);
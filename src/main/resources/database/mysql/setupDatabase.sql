@@ -620,6 +620,7 @@ create table if not exists o_readmessage (
 create table if not exists o_loggingtable (
     log_id bigint not null,
     creationdate datetime,
+    insertdate datetime default current_timestamp,
     sourceclass varchar(255),
     sessionid varchar(255) not null,
     user_id bigint,
@@ -1302,7 +1303,7 @@ create table o_as_user_course_infos (
 );
 
 create table o_as_entry (
-   id bigint not null auto_increment,
+   id bigint not null,
    creationdate datetime not null,
    lastmodified datetime not null,
    lastcoachmodified datetime,
@@ -1667,7 +1668,7 @@ create table o_qti_assessmenttest_session (
 );
 
 create table o_qti_assessmentitem_session (
-   id bigint not null auto_increment,
+   id bigint not null,
    creationdate datetime not null,
    lastmodified datetime not null,
    q_itemidentifier varchar(255) not null,
@@ -1685,7 +1686,7 @@ create table o_qti_assessmentitem_session (
 );
 
 create table o_qti_assessment_response (
-   id bigint not null auto_increment,
+   id bigint not null,
    creationdate datetime not null,
    lastmodified datetime not null,
    q_responseidentifier varchar(255) not null,
@@ -4276,6 +4277,7 @@ create index log_ptarget_resid_idx on o_loggingtable(parentresid);
 create index log_gptarget_resid_idx on o_loggingtable(grandparentresid);
 create index log_ggptarget_resid_idx on o_loggingtable(greatgrandparentresid);
 create index log_creationdate_idx on o_loggingtable(creationdate);
+create index log_insertdate_idx on o_loggingtable(insertdate);
 
 -- livestream
 create index idx_livestream_viewers_idx on o_livestream_launch(l_subident, l_launch_date, fk_entry, fk_identity);
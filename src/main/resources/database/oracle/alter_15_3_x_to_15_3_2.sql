@@ -1,3 +1,17 @@
 -- BigBlueButton
 alter table o_bbb_meeting add b_record number default null;
 
+-- Batch inserts: assessment entries, item sessions and responses use the hi/lo generator
+update hibernate_unique_key set next_hi=greatest(next_hi, (select floor(coalesce(max(id), 0) / 32767) + 1 from o_as_entry));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select floor(coalesce(max(id), 0) / 32767) + 1 from o_qti_assessmentitem_session));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select floor(coalesce(max(id), 0) / 32767) + 1 from o_qti_assessment_response));
+
+alter table o_as_entry modify id drop identity;
+alter table o_qti_assessmentitem_session modify id drop identity;
+alter table o_qti_assessment_response modify id drop identity;
+
+-- Statistics: insert date of the log, the lines of the last days get their creation date
+alter table o_loggingtable add insertdate date;
+alter table o_loggingtable modify insertdate default sysdate;
+update o_loggingtable set insertdate=creationdate where creationdate >= sysdate - 2;
+create index log_insertdate_idx on o_loggingtable(insertdate);
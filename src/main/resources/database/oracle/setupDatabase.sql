@@ -684,6 +684,7 @@ CREATE TABLE o_readmessage (
 CREATE TABLE o_loggingtable (
   log_id number(20) NOT NULL,
   creationdate date,
+  insertdate date default sysdate,
   sourceclass varchar2(255 char),
   sessionid varchar2(255 char) NOT NULL,
   user_id number(20),
@@ -1364,7 +1365,7 @@ create table o_as_user_course_infos (
 );
 
 create table o_as_entry (
-   id number(20) GENERATED ALWAYS AS IDENTITY,
+   id number(20) not null,
    creationdate date not null,
    lastmodified date not null,
    lastcoachmodified date,
@@ -1728,7 +1729,7 @@ create table o_qti_assessmenttest_session (
 );
 
 create table o_qti_assessmentitem_session (
-   id number(20) GENERATED ALWAYS AS IDENTITY,
+   id number(20) not null,
    creationdate date not null,
    lastmodified date not null,
    q_itemidentifier varchar2(255 char) not null,
@@ -1746,7 +1747,7 @@ create table o_qti_assessmentitem_session (
 );
 
 create table o_qti_assessment_response (
-   id number(20) GENERATED ALWAYS AS IDENTITY,
+   id number(20) not null,
    creationdate date not null,
    lastmodified date not null,
    q_responseidentifier varchar2(255 char) not null,
@@ -4461,6 +4462,7 @@ create index log_ptarget_resid_idx on o_loggingtable(parentresid);
 create index log_gptarget_resid_idx on o_loggingtable(grandparentresid);
 create index log_ggptarget_resid_idx on o_loggingtable(greatgrandparentresid);
 create index log_creationdate_idx on o_loggingtable(creationdate);
+create index log_insertdate_idx on o_loggingtable(insertdate);
 
 -- livestream
 create index idx_livestream_viewers_idx on o_livestream_launch(l_subident, l_launch_date, fk_entry, fk_identity);
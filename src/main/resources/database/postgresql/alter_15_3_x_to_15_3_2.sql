@@ -1,3 +1,20 @@
 -- BigBlueButton
 alter table o_bbb_meeting add column b_record bool default null;
 
+-- Batch inserts: assessment entries, item sessions and responses use the hi/lo generator
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) / 32767 + 1 from o_as_entry));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) / 32767 + 1 from o_qti_assessmentitem_session));
+update hibernate_unique_key set next_hi=greatest(next_hi, (select coalesce(max(id), 0) / 32767 + 1 from o_qti_assessment_response));
+
+alter table o_as_entry alter column id drop default;
+alter table o_qti_assessmentitem_session alter column id drop default;
+alter table o_qti_assessment_response alter column id drop default;
+drop sequence if exists o_as_entry_id_seq;
+drop sequence if exists o_qti_assessmentitem_session_id_seq;
+drop sequence if exists o_qti_assessment_response_id_seq;
+
+-- Statistics: insert date of the log, the lines of the last days get their creation date
+alter table o_loggingtable add column insertdate timestamp(3);
+alter table o_loggingtable alter column insertdate set default current_timestamp;
+update o_loggingtable set insertdate=creationdate where creationdate >= current_timestamp - interval '2 days';
+create index log_insertdate_idx on o_loggingtable(insertdate);
@@ -616,6 +616,7 @@ create table o_readmessage (
 create table o_loggingtable (
     log_id int8 not null,
     creationdate timestamp,
+    insertdate timestamp(3) default current_timestamp,
     sourceclass varchar(255),
     sessionid varchar(255) not null,
     user_id int8,
@@ -1324,7 +1325,7 @@ create table o_as_user_course_infos (
 );
 
 create table o_as_entry (
-   id bigserial,
+   id int8 not null,
    creationdate timestamp not null,
    lastmodified timestamp not null,
    lastcoachmodified timestamp,
@@ -1690,7 +1691,7 @@ create table o_qti_assessmenttest_session (
 );
 
 create table o_qti_assessmentitem_session (
-   id bigserial,
+   id int8 not null,
    creationdate timestamp not null,
    lastmodified timestamp not null,
    q_itemidentifier varchar(255) not null,
@@ -1708,7 +1709,7 @@ create table o_qti_assessmentitem_session (
 );
 
 create table o_qti_assessment_response (
-   id bigserial,
+   id int8 not null,
    creationdate timestamp not null,
    lastmodified timestamp not null,
    q_responseidentifier varchar(255) not null,
@@ -4359,6 +4360,7 @@ create index log_ptarget_resid_idx on o_loggingtable(parentresid);
 create index log_gptarget_resid_idx on o_loggingtable(grandparentresid);
 create index log_ggptarget_resid_idx on o_loggingtable(greatgrandparentresid);
 create index log_creationdate_idx on o_loggingtable(creationdate);
+create index log_insertdate_idx on o_loggingtable(insertdate);
 
 -- livestream
 create index idx_livestream_viewers_idx on o_livestream_launch(l_subident, l_launch_date, fk_entry, fk_identity);
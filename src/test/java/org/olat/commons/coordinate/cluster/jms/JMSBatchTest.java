@@ -0,0 +1,85 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class JMSBatchTest {
+	
+	@Test
+	public void encodeDecode() throws Exception {
+		OLATResourceable ores1 = OresHelper.createOLATResourceableInstance("CourseModule", 1234l);
+		OLATResourceable ores2 = OresHelper.createOLATResourceableType("CourseModule");
+		
+		List<JMSWrapper> events = new ArrayList<>();
+		events.add(new JMSWrapper(3, 1l, ores1, new MultiUserEvent("first")));
+		events.add(new JMSWrapper(3, 2l, ores2, new MultiUserEvent("second")));
+		events.add(new JMSWrapper(3, 3l, ores1, new MultiUserEvent("third")));
+		
+		byte[] data = JMSBatch.encode(3, events);
+		List<JMSWrapper> decodedEvents = JMSBatch.decode(data);
+		Assert.assertEquals(3, decodedEvents.size());
+		
+		JMSWrapper first = decodedEvents.get(0);
+		Assert.assertEquals(Integer.valueOf(3), first.getNodeId());
+		Assert.assertEquals(1l, first.getMsgId());
+		Assert.assertEquals("CourseModule", first.getResourceableTypeName());
+		Assert.assertEquals(Long.valueOf(1234l), first.getResourceableId());
+		Assert.assertEquals("first", first.getMultiUserEvent().getCommand());
+		
+		JMSWrapper second = decodedEvents.get(1);
+		Assert.assertEquals("CourseModule", second.getResourceableTypeName());
+		Assert.assertNull(second.getResourceableId());
+		Assert.assertEquals("second", second.getMultiUserEvent().getCommand());
+		
+		Assert.assertEquals("third", decodedEvents.get(2).getMultiUserEvent().getCommand());
+	}
+	
+	@Test
+	public void deduplicate() {
+		OLATResourceable ores1 = OresHelper.createOLATResourceableInstance("CourseModule", 1234l);
+		OLATResourceable ores2 = OresHelper.createOLATResourceableInstance("CourseModule", 1235l);
+		
+		List<JMSWrapper> events = new ArrayList<>();
+		events.add(new JMSWrapper(3, 1l, ores1, new MultiUserEvent("changed")));
+		events.add(new JMSWrapper(3, 2l, ores2, new MultiUserEvent("changed")));
+		events.add(new JMSWrapper(3, 3l, ores1, new MultiUserEvent("other")));
+		events.add(new JMSWrapper(3, 4l, ores1, new MultiUserEvent("changed")));
+		
+		List<JMSWrapper> deduplicated = JMSBatch.deduplicate(events);
+		Assert.assertEquals(3, deduplicated.size());
+		// the last occurrence is kept
+		Assert.assertEquals(2l, deduplicated.get(0).getMsgId());
+		Assert.assertEquals(3l, deduplicated.get(1).getMsgId());
+		Assert.assertEquals(4l, deduplicated.get(2).getMsgId());
+	}
+}
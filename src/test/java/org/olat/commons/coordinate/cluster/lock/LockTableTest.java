@@ -0,0 +1,103 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.IdentityImpl;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LockTableTest {
+	
+	@Test
+	public void leaseAndReload() {
+		LockTable table = new LockTable(60000l);
+		Assert.assertFalse(table.isLeased());
+		
+		List<LockTable.Entry> entries = new ArrayList<>();
+		entries.add(new LockTable.Entry("asset-1", 1l, null, 1000l));
+		Assert.assertTrue(table.reload(() -> entries));
+		Assert.assertTrue(table.isLeased());
+		Assert.assertNotNull(table.get("asset-1"));
+		Assert.assertNull(table.get("asset-2"));
+		
+		table.invalidate();
+		Assert.assertFalse(table.isLeased());
+	}
+	
+	@Test
+	public void disabled() {
+		LockTable table = new LockTable(0l);
+		Assert.assertFalse(table.reload(Collections::emptyList));
+		Assert.assertFalse(table.isLeased());
+	}
+	
+	@Test
+	public void applyEvents() {
+		LockTable table = new LockTable(60000l);
+		table.reload(Collections::emptyList);
+		
+		table.apply(LockTableEvent.acquired(lock("asset-1", 1l)));
+		table.apply(LockTableEvent.acquired(lock("asset-2", 1l)));
+		table.apply(LockTableEvent.acquired(lock("asset-3", 2l)));
+		Assert.assertEquals(3, table.size());
+		
+		// only the owner can release the lock
+		table.apply(LockTableEvent.released("asset-3", 1l));
+		Assert.assertNotNull(table.get("asset-3"));
+		table.apply(LockTableEvent.released("asset-3", 2l));
+		Assert.assertNull(table.get("asset-3"));
+		
+		table.apply(LockTableEvent.releasedAll(1l));
+		Assert.assertEquals(0, table.size());
+	}
+	
+	@Test
+	public void eventsDuringReload() {
+		LockTable table = new LockTable(60000l);
+		table.reload(() -> {
+			// changes committed after the query of the reload
+			table.apply(LockTableEvent.acquired(lock("asset-2", 2l)));
+			table.apply(LockTableEvent.released("asset-1", 1l));
+			return Collections.singletonList(new LockTable.Entry("asset-1", 1l, null, 1000l));
+		});
+		
+		Assert.assertNull(table.get("asset-1"));
+		Assert.assertNotNull(table.get("asset-2"));
+		Assert.assertEquals(1, table.size());
+	}
+	
+	private static LockImpl lock(String asset, Long ownerKey) {
+		IdentityImpl owner = new IdentityImpl();
+		owner.setKey(ownerKey);
+		LockImpl lock = new LockImpl(asset, owner, null);
+		lock.setCreationDate(new Date());
+		return lock;
+	}
+}
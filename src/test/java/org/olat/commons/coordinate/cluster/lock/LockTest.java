@@ -175,6 +175,44 @@ public class LockTest extends OlatTestCase {
 		assertFalse(lo);
 	}
 
+	@Test
+	public void getLockedResources() {
+		Identity ident = JunitTestHelper.createAndPersistIdentityAsRndUser("lock-batch-");
+		dbInstance.commitAndCloseSession();
+		
+		OLATResourceable ores1 = OresHelper.createOLATResourceableInstanceWithoutCheck(LockTest.class.getName(), Long.valueOf(223456781));
+		OLATResourceable ores2 = OresHelper.createOLATResourceableInstanceWithoutCheck(LockTest.class.getName(), Long.valueOf(223456782));
+		OLATResourceable ores3 = OresHelper.createOLATResourceableInstanceWithoutCheck(LockTest.class.getName(), Long.valueOf(223456783));
+		List<OLATResourceable> resources = List.of(ores1, ores2, ores3);
+		
+		Locker cl = clusterCoordinator.getLocker();
+		LockResult res1 = cl.acquireLock(ores1, ident, "batch", null);
+		LockResult res3 = cl.acquireLock(ores3, ident, "batch", null);
+		dbInstance.commitAndCloseSession();
+		
+		List<OLATResourceable> locked = cl.getLockedResources(resources, "batch");
+		Assert.assertEquals(2, locked.size());
+		Assert.assertTrue(locked.contains(ores1));
+		Assert.assertTrue(locked.contains(ores3));
+		Assert.assertTrue(cl.getLockedResources(resources, "other").isEmpty());
+		
+		cl.releaseLock(res1);
+		dbInstance.commitAndCloseSession();
+		locked = cl.getLockedResources(resources, "batch");
+		Assert.assertEquals(1, locked.size());
+		Assert.assertTrue(locked.contains(ores3));
+		
+		// same answer from the database
+		List<String> lockedAssets = clusterLockManager.getLockedAssets(List.of(
+				OresHelper.createStringRepresenting(ores1, "batch"), OresHelper.createStringRepresenting(ores3, "batch")));
+		Assert.assertEquals(1, lockedAssets.size());
+		Assert.assertEquals(OresHelper.createStringRepresenting(ores3, "batch"), lockedAssets.get(0));
+		
+		cl.releaseLock(res3);
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(cl.isLocked(ores3, "batch"));
+	}
+
 	@Test
 	public void testSaveEvent() {
 		Identity identity = JunitTestHelper.createAndPersistIdentityAsRndUser("lock-save-event-");
@@ -31,32 +31,56 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.notifications.NotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.Publisher;
 import org.olat.core.commons.services.notifications.PublisherData;
 import org.olat.core.commons.services.notifications.Subscriber;
 import org.olat.core.commons.services.notifications.SubscriptionContext;
 import org.olat.core.commons.services.notifications.SubscriptionInfo;
+import org.olat.core.commons.services.notifications.SubscriptionItem;
+import org.olat.core.commons.services.notifications.model.SubscriptionListItem;
+import org.olat.core.commons.services.notifications.model.TitleItem;
+import org.olat.core.gui.translator.Translator;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
+import org.olat.core.id.User;
 import org.olat.core.logging.DBRuntimeException;
 import org.apache.logging.log4j.Logger;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
+import org.olat.core.util.DateUtils;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
+import org.olat.user.UserManager;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -71,6 +95,8 @@ public class NotificationsManagerTest extends OlatTestCase {
 	@Autowired
 	private DB dbInstance;
 	@Autowired
+	private UserManager userManager;
+	@Autowired
 	private NotificationsManager notificationManager;
 
 	@Test
@@ -416,6 +442,239 @@ public class NotificationsManagerTest extends OlatTestCase {
 		Assert.assertNotNull(infos);
 	}
 
+	@Test
+	public void subscriptionInfoCopyFor() {
+		Date now = new Date();
+		Date yesterday = DateUtils.addDays(now, -1);
+		Date lastWeek = DateUtils.addDays(now, -7);
+		
+		List<SubscriptionListItem> items = new ArrayList<>();
+		items.add(new SubscriptionListItem("Today", null, null, now, null));
+		items.add(new SubscriptionListItem("Last week", null, null, lastWeek, null));
+		items.add(new SubscriptionListItem("No date", null, null, null, null));
+		SubscriptionInfo info = new SubscriptionInfo(1l, "Forum", new TitleItem("Title", null), items);
+		info.setCustomUrl("http://www.openolat.org");
+		
+		SubscriptionInfo copy = info.copyFor(2l, yesterday);
+		Assert.assertEquals(Long.valueOf(2l), copy.getKey());
+		Assert.assertEquals("Forum", copy.getType());
+		Assert.assertEquals("http://www.openolat.org", copy.getCustomUrl());
+		Assert.assertEquals(2, copy.countSubscriptionListItems());
+		Assert.assertEquals("Today", copy.getSubscriptionListItems().get(0).getDescription());
+		Assert.assertEquals("No date", copy.getSubscriptionListItems().get(1).getDescription());
+		// the original is unchanged
+		Assert.assertEquals(3, info.countSubscriptionListItems());
+	}
+	
+	/**
+	 * The info of a shared publisher is computed once with the oldest compare
+	 * date and every subscriber receives only the news newer than its own
+	 * compare date. The subscriber with the "never" interval doesn't receive
+	 * an email.
+	 */
+	@Test
+	public void notifyAllSubscribersByEmail_shared() {
+		Date now = new Date();
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi2-");
+		Identity id3 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi3-");
+		
+		String type = "SharedTest" + CodeHelper.getForeverUniqueID();
+		SubscriptionContext context = new SubscriptionContext("Shared", Long.valueOf(789522), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData(type, "e.g. shared=data", null);
+		Publisher publisher = notificationManager.getOrCreatePublisher(context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		subscribe(id1, "daily", context, publisherData, DateUtils.addDays(now, -10));
+		subscribe(id2, "daily", context, publisherData, DateUtils.addDays(now, -3));
+		subscribe(id3, "never", context, publisherData, DateUtils.addDays(now, -20));
+		
+		NotificationsHandler handler = mock(NotificationsHandler.class);
+		when(handler.getType()).thenReturn(type);
+		when(handler.isSubscriptionInfoShared()).thenReturn(Boolean.TRUE);
+		when(handler.createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class))).thenAnswer(invocation -> {
+			List<SubscriptionListItem> items = new ArrayList<>();
+			items.add(new SubscriptionListItem("15 days", null, null, DateUtils.addDays(now, -15), null));
+			items.add(new SubscriptionListItem("5 days", null, null, DateUtils.addDays(now, -5), null));
+			items.add(new SubscriptionListItem("1 hour", null, null, DateUtils.addHours(now, -1), null));
+			return new SubscriptionInfo(invocation.getArgument(0, Subscriber.class).getKey(), type, new TitleItem("Shared", null), items);
+		});
+		
+		Map<Long,List<SubscriptionItem>> emails = notifyAllSubscribersByEmail(type, handler);
+		
+		// computed only once
+		ArgumentCaptor<Date> compareDateCaptor = ArgumentCaptor.forClass(Date.class);
+		verify(handler, times(1)).createSubscriptionInfo(any(Subscriber.class), any(Locale.class), compareDateCaptor.capture());
+		Assert.assertFalse(compareDateCaptor.getValue().after(DateUtils.addDays(now, -10)));
+		
+		List<SubscriptionItem> id1Items = emails.get(id1.getKey());
+		Assert.assertNotNull(id1Items);
+		Assert.assertEquals(1, id1Items.size());
+		Assert.assertEquals(2, id1Items.get(0).getSubsInfo().countSubscriptionListItems());
+		Assert.assertEquals(publisher.getType(), id1Items.get(0).getSubsInfo().getType());
+		
+		List<SubscriptionItem> id2Items = emails.get(id2.getKey());
+		Assert.assertNotNull(id2Items);
+		Assert.assertEquals(1, id2Items.size());
+		Assert.assertEquals(1, id2Items.get(0).getSubsInfo().countSubscriptionListItems());
+		Assert.assertEquals("1 hour", id2Items.get(0).getSubsInfo().getSubscriptionListItems().get(0).getDescription());
+		
+		Assert.assertFalse(emails.containsKey(id3.getKey()));
+	}
+	
+	/**
+	 * The handlers which don't share their info compute it for every
+	 * subscriber with its own compare date.
+	 */
+	@Test
+	public void notifyAllSubscribersByEmail_notShared() {
+		Date now = new Date();
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi2-");
+		
+		String type = "NotSharedTest" + CodeHelper.getForeverUniqueID();
+		SubscriptionContext context = new SubscriptionContext("NotShared", Long.valueOf(789523), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData(type, "e.g. notshared=data", null);
+		notificationManager.getOrCreatePublisher(context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		subscribe(id1, "daily", context, publisherData, DateUtils.addDays(now, -10));
+		subscribe(id2, "never", context, publisherData, DateUtils.addDays(now, -3));
+		
+		NotificationsHandler handler = mock(NotificationsHandler.class);
+		when(handler.getType()).thenReturn(type);
+		when(handler.isSubscriptionInfoShared()).thenReturn(Boolean.FALSE);
+		when(handler.createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class))).thenAnswer(invocation -> {
+			List<SubscriptionListItem> items = new ArrayList<>();
+			items.add(new SubscriptionListItem("1 hour", null, null, DateUtils.addHours(now, -1), null));
+			return new SubscriptionInfo(invocation.getArgument(0, Subscriber.class).getKey(), type, new TitleItem("Not shared", null), items);
+		});
+		
+		Map<Long,List<SubscriptionItem>> emails = notifyAllSubscribersByEmail(type, handler);
+		
+		verify(handler, times(1)).createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class));
+		Assert.assertNotNull(emails.get(id1.getKey()));
+		Assert.assertFalse(emails.containsKey(id2.getKey()));
+	}
+	
+	/**
+	 * The publishers of the handlers which don't mark their news are asked
+	 * even if their latest news date is older than the latest email.
+	 */
+	@Test
+	public void notifyAllSubscribersByEmail_newsNotMarked() {
+		Date now = new Date();
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
+		
+		String type = "NotMarkedTest" + CodeHelper.getForeverUniqueID();
+		SubscriptionContext context = new SubscriptionContext("NotMarked", Long.valueOf(789524), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData(type, "e.g. notmarked=data", null);
+		notificationManager.getOrCreatePublisher(context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		subscribe(id, "daily", context, publisherData, DateUtils.addDays(now, -3));
+		setLatestNewsDate(context, DateUtils.addDays(now, -20));
+		
+		NotificationsHandler handler = mockHandler(type, false, DateUtils.addHours(now, -1));
+		Map<Long,List<SubscriptionItem>> emails = notifyAllSubscribersByEmail(type, handler);
+		
+		verify(handler, times(1)).createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class));
+		Assert.assertNotNull(emails.get(id.getKey()));
+	}
+	
+	/**
+	 * The publishers of the handlers which mark their news are skipped if
+	 * their latest news date is older than the latest email.
+	 */
+	@Test
+	public void notifyAllSubscribersByEmail_newsMarked() {
+		Date now = new Date();
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
+		
+		String type = "MarkedTest" + CodeHelper.getForeverUniqueID();
+		SubscriptionContext context = new SubscriptionContext("Marked", Long.valueOf(789525), UUID.randomUUID().toString());
+		PublisherData publisherData = new PublisherData(type, "e.g. marked=data", null);
+		notificationManager.getOrCreatePublisher(context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		subscribe(id, "daily", context, publisherData, DateUtils.addDays(now, -3));
+		setLatestNewsDate(context, DateUtils.addDays(now, -20));
+		
+		NotificationsHandler handler = mockHandler(type, true, DateUtils.addHours(now, -1));
+		Map<Long,List<SubscriptionItem>> emails = notifyAllSubscribersByEmail(type, handler);
+		
+		verify(handler, never()).createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class));
+		Assert.assertFalse(emails.containsKey(id.getKey()));
+	}
+	
+	private NotificationsHandler mockHandler(String type, boolean newsMarked, Date newsDate) {
+		NotificationsHandler handler = mock(NotificationsHandler.class);
+		when(handler.getType()).thenReturn(type);
+		when(handler.isNewsMarkedOnPublisher()).thenReturn(Boolean.valueOf(newsMarked));
+		when(handler.createSubscriptionInfo(any(Subscriber.class), any(Locale.class), any(Date.class))).thenAnswer(invocation -> {
+			List<SubscriptionListItem> items = new ArrayList<>();
+			items.add(new SubscriptionListItem("News", null, null, newsDate, null));
+			return new SubscriptionInfo(invocation.getArgument(0, Subscriber.class).getKey(), type, new TitleItem(type, null), items);
+		});
+		return handler;
+	}
+	
+	private void setLatestNewsDate(SubscriptionContext context, Date latestNewsDate) {
+		Publisher publisher = notificationManager.getPublisher(context);
+		publisher.setLatestNewsDate(latestNewsDate);
+		dbInstance.getCurrentEntityManager().merge(publisher);
+		dbInstance.commitAndCloseSession();
+	}
+	
+	private void subscribe(Identity id, String interval, SubscriptionContext context, PublisherData publisherData, Date latestEmailed) {
+		User user = id.getUser();
+		user.getPreferences().setNotificationInterval(interval);
+		userManager.updateUser(user);
+		dbInstance.commitAndCloseSession();
+		
+		notificationManager.subscribe(id, context, publisherData);
+		dbInstance.commitAndCloseSession();
+		
+		Publisher publisher = notificationManager.getPublisher(context);
+		Subscriber subscriber = notificationManager.getSubscriber(id, publisher);
+		subscriber.setLatestEmailed(latestEmailed);
+		dbInstance.getCurrentEntityManager().merge(subscriber);
+		dbInstance.commitAndCloseSession();
+	}
+	
+	/**
+	 * Run the notifications job with the specified handler, the emails are
+	 * not sent but collected.
+	 * 
+	 * @return A map identity key to the items of its email
+	 */
+	private Map<Long,List<SubscriptionItem>> notifyAllSubscribersByEmail(String type, NotificationsHandler handler) {
+		NotificationsManagerImpl spiedManager = spy((NotificationsManagerImpl)notificationManager);
+		doAnswer(invocation -> {
+			Publisher pub = invocation.getArgument(0);
+			return type.equals(pub.getType()) ? handler : invocation.callRealMethod();
+		}).when(spiedManager).getNotificationsHandler(any(Publisher.class));
+		doAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			List<String> types = new ArrayList<>((List<String>)invocation.callRealMethod());
+			if(handler.isNewsMarkedOnPublisher()) {
+				types.add(type);
+			}
+			return types;
+		}).when(spiedManager).getNewsMarkedTypes();
+		
+		Map<Long,List<SubscriptionItem>> emails = new ConcurrentHashMap<>();
+		doAnswer(invocation -> {
+			Subscriber latestSub = invocation.getArgument(0);
+			List<SubscriptionItem> items = invocation.getArgument(1);
+			emails.put(latestSub.getIdentity().getKey(), new ArrayList<>(items));
+			return null;
+		}).when(spiedManager).notifySubscribersByEmail(any(Subscriber.class), anyList(), anyList(), any(Translator.class), anyLong(), anyBoolean());
+		
+		spiedManager.notifyAllSubscribersByEmail();
+		return emails;
+	}
+
 	@Test
 	public void testSubscriptions() {
 		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fi1-");
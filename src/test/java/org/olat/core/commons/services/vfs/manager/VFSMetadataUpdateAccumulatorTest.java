@@ -0,0 +1,73 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.vfs.VFSMetadata;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class VFSMetadataUpdateAccumulatorTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private VFSMetadataDAO vfsMetadataDao;
+	@Autowired
+	private VFSMetadataUpdateAccumulator metadataUpdateAccumulator;
+	
+	@Test
+	public void increaseDownloadCount() {
+		String relativePath = "/bcroot/accumulator/" + UUID.randomUUID() + "/";
+		String filename = "lecture.pdf";
+		String uri = "file:///Users/frentix/Documents/bcroot/accumulator/lecture.pdf";
+		VFSMetadata metadata = vfsMetadataDao.createMetadata(UUID.randomUUID().toString(), relativePath, filename,
+				new Date(), 10l, false, uri, "file", null);
+		dbInstance.commitAndCloseSession();
+		
+		for(int i=0; i<25; i++) {
+			metadataUpdateAccumulator.increaseDownloadCount(relativePath, filename);
+		}
+		Assert.assertTrue(metadataUpdateAccumulator.getPendingDownloads() >= 25);
+		
+		metadataUpdateAccumulator.flush();
+		
+		VFSMetadata reloadedMetadata = vfsMetadataDao.loadMetadata(metadata.getKey());
+		Assert.assertEquals(25, reloadedMetadata.getDownloadCount());
+		dbInstance.commitAndCloseSession();
+		
+		// a second round is added to the first one
+		metadataUpdateAccumulator.increaseDownloadCount(relativePath, filename);
+		metadataUpdateAccumulator.flush();
+		
+		reloadedMetadata = vfsMetadataDao.loadMetadata(metadata.getKey());
+		Assert.assertEquals(26, reloadedMetadata.getDownloadCount());
+	}
+}
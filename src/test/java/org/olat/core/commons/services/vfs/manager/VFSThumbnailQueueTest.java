@@ -0,0 +1,155 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.vfs.manager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.commons.services.vfs.manager.VFSThumbnailQueue.Priority;
+import org.olat.core.commons.services.vfs.manager.VFSThumbnailQueue.ThumbnailKey;
+import org.olat.core.util.vfs.VFSLeaf;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class VFSThumbnailQueueTest {
+	
+	private VFSThumbnailQueue queue;
+	private CountDownLatch blocker;
+	
+	@Before
+	public void startQueue() throws Exception {
+		queue = new VFSThumbnailQueue();
+		queue.start(1, 2);
+		
+		// block the only thread of the queue
+		blocker = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		queue.submit(new ThumbnailKey("/blocker", "blocker.jpg", 10, 10, false), Priority.VIEW, () -> {
+			started.countDown();
+			await(blocker);
+			return null;
+		});
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+	}
+	
+	@After
+	public void stopQueue() {
+		blocker.countDown();
+		queue.stop();
+	}
+	
+	@Test
+	public void deduplicate() throws Exception {
+		ThumbnailKey key = new ThumbnailKey("/folder", "image.jpg", 200, 200, false);
+		CompletableFuture<VFSLeaf> first = queue.submit(key, Priority.BACKGROUND, () -> null);
+		CompletableFuture<VFSLeaf> second = queue.submit(new ThumbnailKey("/folder", "image.jpg", 200, 200, false), Priority.VIEW, () -> null);
+		Assert.assertNotNull(first);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, queue.getDeduplicated());
+		Assert.assertTrue(queue.isQueued(key));
+		
+		blocker.countDown();
+		Assert.assertNull(first.get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(2, queue.getRendered());
+	}
+	
+	@Test
+	public void getQueued() throws Exception {
+		ThumbnailKey key = new ThumbnailKey("/folder", "queued.jpg", 200, 200, false);
+		Assert.assertNull(queue.getQueued(key));
+		CompletableFuture<VFSLeaf> future = queue.submit(key, Priority.BACKGROUND, () -> null);
+		Assert.assertSame(future, queue.getQueued(new ThumbnailKey("/folder", "queued.jpg", 200, 200, false)));
+		
+		blocker.countDown();
+		future.get(10, TimeUnit.SECONDS);
+		Assert.assertNull(queue.getQueued(key));
+	}
+	
+	@Test
+	public void priority() throws Exception {
+		List<String> rendered = new CopyOnWriteArrayList<>();
+		CompletableFuture<VFSLeaf> background = queue.submit(new ThumbnailKey("/folder", "background.jpg", 200, 200, false),
+				Priority.BACKGROUND, () -> render(rendered, "background"));
+		CompletableFuture<VFSLeaf> view = queue.submit(new ThumbnailKey("/folder", "view.jpg", 200, 200, false),
+				Priority.VIEW, () -> render(rendered, "view"));
+		Assert.assertEquals(2, queue.getQueueDepth());
+		
+		blocker.countDown();
+		view.get(10, TimeUnit.SECONDS);
+		background.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(List.of("view", "background"), rendered);
+	}
+	
+	@Test
+	public void promote() throws Exception {
+		List<String> rendered = new CopyOnWriteArrayList<>();
+		CompletableFuture<VFSLeaf> first = queue.submit(new ThumbnailKey("/folder", "first.jpg", 200, 200, false),
+				Priority.BACKGROUND, () -> render(rendered, "first"));
+		CompletableFuture<VFSLeaf> second = queue.submit(new ThumbnailKey("/folder", "second.jpg", 200, 200, false),
+				Priority.BACKGROUND, () -> render(rendered, "second"));
+		// a user asks for the second one
+		queue.submit(new ThumbnailKey("/folder", "second.jpg", 200, 200, false), Priority.VIEW, () -> render(rendered, "second"));
+		
+		blocker.countDown();
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(List.of("second", "first"), rendered);
+	}
+	
+	@Test
+	public void rejectBackgroundIfFull() {
+		for(int i=0; i<2; i++) {
+			Assert.assertNotNull(queue.submit(new ThumbnailKey("/folder", "image_" + i + ".jpg", 200, 200, false),
+					Priority.BACKGROUND, () -> null));
+		}
+		
+		CompletableFuture<VFSLeaf> rejected = queue.submit(new ThumbnailKey("/folder", "image_3.jpg", 200, 200, false),
+				Priority.BACKGROUND, () -> null);
+		Assert.assertNull(rejected);
+		Assert.assertEquals(1, queue.getRejected());
+		
+		CompletableFuture<VFSLeaf> accepted = queue.submit(new ThumbnailKey("/folder", "image_4.jpg", 200, 200, false),
+				Priority.VIEW, () -> null);
+		Assert.assertNotNull(accepted);
+	}
+	
+	private static VFSLeaf render(List<String> rendered, String name) {
+		rendered.add(name);
+		return null;
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
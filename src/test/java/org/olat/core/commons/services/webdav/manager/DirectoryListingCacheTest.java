@@ -0,0 +1,89 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.webdav.manager;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.services.webdav.manager.DirectoryListingCache.Listing;
+import org.olat.core.util.vfs.VFSItem;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class DirectoryListingCacheTest {
+	
+	@Test
+	public void getListing() {
+		DirectoryListingCache cache = new DirectoryListingCache();
+		Listing listing = new Listing(1000l, List.of(), Collections.emptyMap());
+		cache.put("/webdav/coursefolders/Course/", listing);
+		
+		Assert.assertSame(listing, cache.get("/webdav/coursefolders/Course", 1000l));
+		Assert.assertSame(listing, cache.get("/webdav/coursefolders/Course/", 1000l));
+	}
+	
+	@Test
+	public void getOutdatedListing() {
+		DirectoryListingCache cache = new DirectoryListingCache();
+		cache.put("/webdav/home/private", new Listing(1000l, List.of(), null));
+
+		// the directory was modified
+		Assert.assertNull(cache.get("/webdav/home/private", 2000l));
+		Assert.assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void invalidateParent() {
+		DirectoryListingCache cache = new DirectoryListingCache();
+		cache.put("/webdav/home/private", new Listing(1000l, List.of(), null));
+		cache.put("/webdav/home/public", new Listing(1000l, List.of(), null));
+		
+		cache.invalidate("/webdav/home/private/image.jpg");
+		Assert.assertNull(cache.get("/webdav/home/private", 1000l));
+		Assert.assertNotNull(cache.get("/webdav/home/public", 1000l));
+	}
+	
+	@Test
+	public void maxListings() {
+		DirectoryListingCache cache = new DirectoryListingCache();
+		for(int i=0; i<100; i++) {
+			cache.put("/webdav/folder" + i, new Listing(1000l, List.<VFSItem>of(), null));
+		}
+		Assert.assertEquals(32, cache.size());
+		Assert.assertNull(cache.get("/webdav/folder0", 1000l));
+		Assert.assertNotNull(cache.get("/webdav/folder99", 1000l));
+	}
+	
+	@Test
+	public void listingMetadata() {
+		Listing withoutMetadata = new Listing(1000l, List.of(), null);
+		Assert.assertFalse(withoutMetadata.hasMetadata());
+		Assert.assertNull(withoutMetadata.getMetadata("image.jpg"));
+		
+		Listing withMetadata = new Listing(1000l, List.of(), Collections.emptyMap());
+		Assert.assertTrue(withMetadata.hasMetadata());
+		Assert.assertNull(withMetadata.getMetadata("image.jpg"));
+	}
+}
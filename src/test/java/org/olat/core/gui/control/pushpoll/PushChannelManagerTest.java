@@ -0,0 +1,178 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.control.pushpoll;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.olat.admin.sysinfo.manager.SessionStatsManager;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.util.UserSession;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class PushChannelManagerTest {
+	
+	@Mock
+	private DB dbInstanceMock;
+	@Mock
+	private SessionStatsManager statsManagerMock;
+	
+	@InjectMocks
+	private PushChannelManager sut;
+	
+	private UserSession usessMock;
+	
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		sut.afterPropertiesSet();
+		usessMock = mockUserSession(true);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		sut.destroy();
+	}
+	
+	@Test
+	public void pushDirtyComponents() throws Exception {
+		PushChannel channel = sut.register(() -> "{\"cmdcnt\":1}", usessMock);
+		RemoteEndpoint.Basic remoteMock = mock(RemoteEndpoint.Basic.class);
+		Session sessionMock = mockSession(remoteMock);
+		
+		Assert.assertNotNull(sut.connect(channel.getToken(), sessionMock, usessMock));
+		Assert.assertTrue(channel.isConnected());
+		
+		sut.signal(channel);
+		verify(remoteMock, timeout(5000).atLeastOnce()).sendText("{\"cmdcnt\":1}");
+		verify(statsManagerMock, timeout(5000).atLeastOnce()).incrementAuthenticatedPush();
+	}
+	
+	@Test
+	public void nothingToPush() throws Exception {
+		AtomicInteger collected = new AtomicInteger();
+		PushChannel channel = sut.register(() -> {
+			collected.incrementAndGet();
+			return null;
+		}, usessMock);
+		RemoteEndpoint.Basic remoteMock = mock(RemoteEndpoint.Basic.class);
+		sut.connect(channel.getToken(), mockSession(remoteMock), usessMock);
+		
+		sut.signal(channel);
+		waitCollected(collected);
+		verify(remoteMock, never()).sendText(anyString());
+		verify(statsManagerMock, never()).incrementAuthenticatedPush();
+	}
+	
+	@Test
+	public void notConnected() throws Exception {
+		AtomicInteger collected = new AtomicInteger();
+		PushChannel channel = sut.register(() -> {
+			collected.incrementAndGet();
+			return "{}";
+		}, usessMock);
+		
+		sut.signal(channel);
+		Thread.sleep(200);
+		Assert.assertEquals(0, collected.get());
+		Assert.assertFalse(channel.isConnected());
+	}
+	
+	@Test
+	public void unknownChannel() {
+		Session sessionMock = mockSession(mock(RemoteEndpoint.Basic.class));
+		Assert.assertNull(sut.connect("not-a-channel", sessionMock, usessMock));
+		Assert.assertNull(sut.connect(null, sessionMock, usessMock));
+	}
+	
+	@Test
+	public void connectOtherUserSession() {
+		PushChannel channel = sut.register(() -> null, usessMock);
+		Session sessionMock = mockSession(mock(RemoteEndpoint.Basic.class));
+		Assert.assertNull(sut.connect(channel.getToken(), sessionMock, mockUserSession(true)));
+		Assert.assertNull(sut.connect(channel.getToken(), sessionMock, null));
+		Assert.assertFalse(channel.isConnected());
+	}
+	
+	@Test
+	public void connectNotAuthenticated() {
+		UserSession guestSession = mockUserSession(false);
+		PushChannel channel = sut.register(() -> null, guestSession);
+		Session sessionMock = mockSession(mock(RemoteEndpoint.Basic.class));
+		Assert.assertNull(sut.connect(channel.getToken(), sessionMock, guestSession));
+		Assert.assertFalse(channel.isConnected());
+	}
+	
+	@Test
+	public void unregister() throws Exception {
+		PushChannel channel = sut.register(() -> null, usessMock);
+		Session sessionMock = mockSession(mock(RemoteEndpoint.Basic.class));
+		sut.connect(channel.getToken(), sessionMock, usessMock);
+		Assert.assertEquals(1, sut.getNumOfChannels());
+		
+		sut.unregister(channel);
+		Assert.assertEquals(0, sut.getNumOfChannels());
+		Assert.assertFalse(channel.isConnected());
+		verify(sessionMock).close(any(CloseReason.class));
+		Assert.assertNull(sut.connect(channel.getToken(), sessionMock, usessMock));
+	}
+	
+	private UserSession mockUserSession(boolean authenticated) {
+		UserSession usess = mock(UserSession.class);
+		when(usess.isAuthenticated()).thenReturn(Boolean.valueOf(authenticated));
+		return usess;
+	}
+	
+	private Session mockSession(RemoteEndpoint.Basic remote) {
+		Session sessionMock = mock(Session.class);
+		when(sessionMock.isOpen()).thenReturn(Boolean.TRUE);
+		when(sessionMock.getBasicRemote()).thenReturn(remote);
+		return sessionMock;
+	}
+	
+	private void waitCollected(AtomicInteger collected) throws InterruptedException {
+		for(int i=0; i<100 && collected.get() == 0; i++) {
+			Thread.sleep(50);
+		}
+		Assert.assertEquals(1, collected.get());
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.olat.core.logging.Tracing;
+
+/**
+ * Compare the throughput of the copy loop with a buffered input stream,
+ * as the WebDAV dispatcher did, with the transfer of the file channel of
+ * LocalFileDelivery. The benchmark only logs the results, the timing
+ * depends too much of the machine to be asserted. It's not part of the
+ * test suite, remove the @Ignore to run it manually.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LocalFileDeliveryBenchmark {
+	
+	private static final Logger log = Tracing.createLoggerFor(LocalFileDeliveryBenchmark.class);
+	
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int ROUNDS = 100;
+	
+	private File file;
+	private long length;
+	
+	@Before
+	public void createFile() throws Exception {
+		byte[] content = new byte[16 * 1024 * 1024];
+		new Random(42l).nextBytes(content);
+		length = content.length;
+		file = File.createTempFile("delivery", ".bin");
+		Files.write(file.toPath(), content);
+	}
+	
+	@After
+	public void deleteFile() throws Exception {
+		Files.deleteIfExists(file.toPath());
+	}
+	
+	@Ignore
+	@Test
+	public void compareThroughput() throws Exception {
+		long start = 1000;
+		long end = length - 1000;
+		
+		copyLoop(start, end, WARMUP_ROUNDS);
+		long copyTime = copyLoop(start, end, ROUNDS);
+		transfer(start, end, WARMUP_ROUNDS);
+		long transferTime = transfer(start, end, ROUNDS);
+		
+		double megaBytes = ((end - start + 1) * ROUNDS) / (1024d * 1024d);
+		log.info("Copy loop: {} MB/s, file channel: {} MB/s",
+				Math.round(megaBytes / (copyTime / 1000000000d)),
+				Math.round(megaBytes / (transferTime / 1000000000d)));
+	}
+	
+	/**
+	 * @return The time in nanoseconds
+	 */
+	private long copyLoop(long start, long end, int rounds) throws IOException {
+		long time = System.nanoTime();
+		for(int i=rounds; i-->0; ) {
+			try(InputStream in = new BufferedInputStream(new FileInputStream(file), 2048)) {
+				copyRange(in, NullOutputStream.NULL_OUTPUT_STREAM, start, end, 2048);
+			}
+		}
+		return System.nanoTime() - time;
+	}
+	
+	/**
+	 * @return The time in nanoseconds
+	 */
+	private long transfer(long start, long end, int rounds) throws IOException {
+		long time = System.nanoTime();
+		for(int i=rounds; i-->0; ) {
+			LocalFileDelivery.transfer(file, start, end, NullOutputStream.NULL_OUTPUT_STREAM);
+		}
+		return System.nanoTime() - time;
+	}
+	
+	private static void copyRange(InputStream in, OutputStream out, long start, long end, int bufferSize)
+	throws IOException {
+		Assert.assertEquals(start, in.skip(start));
+		long bytesToRead = end - start + 1;
+		byte[] buffer = new byte[bufferSize];
+		int len;
+		while(bytesToRead > 0 && (len = in.read(buffer, 0, (int)Math.min(buffer.length, bytesToRead))) != -1) {
+			out.write(buffer, 0, len);
+			bytesToRead -= len;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LocalFileDeliveryTest {
+	
+	private File file;
+	private byte[] content;
+	
+	@Before
+	public void createFile() throws Exception {
+		content = new byte[300 * 1024 + 17];
+		new Random(42l).nextBytes(content);
+		file = File.createTempFile("delivery", ".bin");
+		Files.write(file.toPath(), content);
+	}
+	
+	@After
+	public void deleteFile() throws Exception {
+		Files.deleteIfExists(file.toPath());
+	}
+	
+	@Test
+	public void transferFull() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LocalFileDelivery.transfer(file, 0, content.length - 1, out);
+		Assert.assertArrayEquals(content, out.toByteArray());
+	}
+	
+	@Test
+	public void transferRange() throws Exception {
+		long start = 70000;
+		long end = 200123;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LocalFileDelivery.transfer(file, start, end, out);
+		Assert.assertArrayEquals(Arrays.copyOfRange(content, (int)start, (int)end + 1), out.toByteArray());
+	}
+	
+	@Test
+	public void transferLastByte() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LocalFileDelivery.transfer(file, content.length - 1, content.length - 1, out);
+		Assert.assertArrayEquals(new byte[] { content[content.length - 1] }, out.toByteArray());
+	}
+	
+	@Test
+	public void transferRangeToFile() throws Exception {
+		File target = File.createTempFile("delivery", ".copy");
+		try(OutputStream out = new FileOutputStream(target)) {
+			LocalFileDelivery.transfer(file, 1024, 99999, out);
+		}
+		Assert.assertArrayEquals(Arrays.copyOfRange(content, 1024, 100000), Files.readAllBytes(target.toPath()));
+		Files.delete(target.toPath());
+	}
+	
+	@Test
+	public void sendfile() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(LocalFileDelivery.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+		boolean delegated = LocalFileDelivery.sendfile(request, file, 100, content.length - 1);
+		Assert.assertTrue(delegated);
+		Assert.assertEquals(file.getCanonicalPath(), request.getAttribute(LocalFileDelivery.SENDFILE_FILENAME_ATTR));
+		Assert.assertEquals(Long.valueOf(100), request.getAttribute(LocalFileDelivery.SENDFILE_START_ATTR));
+		// the end of the container is exclusive
+		Assert.assertEquals(Long.valueOf(content.length), request.getAttribute(LocalFileDelivery.SENDFILE_END_ATTR));
+	}
+	
+	@Test
+	public void sendfileNotSupported() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Assert.assertFalse(LocalFileDelivery.sendfile(request, file, 0, content.length - 1));
+		Assert.assertNull(request.getAttribute(LocalFileDelivery.SENDFILE_FILENAME_ATTR));
+	}
+	
+	@Test
+	public void sendfileSmallRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(LocalFileDelivery.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+		Assert.assertFalse(LocalFileDelivery.sendfile(request, file, 0, 1023));
+		Assert.assertNull(request.getAttribute(LocalFileDelivery.SENDFILE_FILENAME_ATTR));
+	}
+}
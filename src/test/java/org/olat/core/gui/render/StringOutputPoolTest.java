@@ -0,0 +1,127 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class StringOutputPoolTest {
+	
+	@Test
+	public void recycle() {
+		StringOutput so = StringOutputPool.allocStringBuilder(1000);
+		so.append("Hello");
+		Assert.assertEquals("Hello", StringOutputPool.freePop(so));
+		
+		long hits = StringOutputPool.getHits();
+		StringOutput recycled = StringOutputPool.allocStringBuilder(1000);
+		Assert.assertSame(so, recycled);
+		Assert.assertEquals(0, recycled.length());
+		Assert.assertEquals(hits + 1, StringOutputPool.getHits());
+		StringOutputPool.free(recycled);
+	}
+	
+	@Test
+	public void sizeClasses() {
+		StringOutput small = StringOutputPool.allocStringBuilder(100);
+		StringOutputPool.free(small);
+		
+		// a small buffer is not used for a large request
+		StringOutput large = StringOutputPool.allocStringBuilder(100000);
+		Assert.assertNotSame(small, large);
+		Assert.assertTrue(large.capacity() >= 100000);
+		StringOutputPool.free(large);
+		
+		StringOutput recycledLarge = StringOutputPool.allocStringBuilder(80000);
+		Assert.assertSame(large, recycledLarge);
+		StringOutputPool.free(recycledLarge);
+	}
+	
+	@Test
+	public void freeTwice() {
+		StringOutput so = StringOutputPool.allocStringBuilder(2000);
+		StringOutputPool.free(so);
+		StringOutputPool.free(so);
+		
+		StringOutput first = StringOutputPool.allocStringBuilder(2000);
+		StringOutput second = StringOutputPool.allocStringBuilder(2000);
+		Assert.assertNotSame(first, second);
+		StringOutputPool.free(first);
+		StringOutputPool.free(second);
+	}
+	
+	@Test
+	public void release() {
+		StringOutput so = StringOutputPool.allocStringBuilder(3000);
+		StringOutputPool.free(so);
+		StringOutputPool.release();
+		
+		StringOutput other = StringOutputPool.allocStringBuilder(3000);
+		Assert.assertNotSame(so, other);
+		StringOutputPool.free(other);
+	}
+	
+	@Test
+	public void tooLargeIsDiscarded() {
+		long discarded = StringOutputPool.getDiscarded();
+		StringOutput so = new StringOutput(600000);
+		StringOutputPool.free(so);
+		Assert.assertEquals(discarded + 1, StringOutputPool.getDiscarded());
+		
+		StringOutput other = StringOutputPool.allocStringBuilder(600000);
+		Assert.assertNotSame(so, other);
+	}
+	
+	@Test
+	public void concurrentThreads() throws InterruptedException {
+		final int numOfThreads = 8;
+		final CountDownLatch finished = new CountDownLatch(numOfThreads);
+		final AtomicBoolean error = new AtomicBoolean(false);
+		for(int i=0; i<numOfThreads; i++) {
+			final String text = "Thread-" + i;
+			new Thread(() -> {
+				try {
+					for(int j=0; j<10000; j++) {
+						StringOutput so = StringOutputPool.allocStringBuilder(j % 2 == 0 ? 64 : 8192);
+						so.append(text).append(j);
+						if(!(text + j).equals(StringOutputPool.freePop(so))) {
+							error.set(true);
+						}
+					}
+				} catch(Exception e) {
+					error.set(true);
+				} finally {
+					finished.countDown();
+				}
+			}).start();
+		}
+		Assert.assertTrue(finished.await(60, TimeUnit.SECONDS));
+		Assert.assertFalse(error.get());
+	}
+}
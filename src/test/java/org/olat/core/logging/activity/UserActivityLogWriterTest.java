@@ -0,0 +1,216 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.util.CodeHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class UserActivityLogWriterTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	
+	private UserActivityLogWriter userActivityLogWriter;
+	
+	@Before
+	public void startWriter() throws Exception {
+		// flushed by the tests only
+		userActivityLogWriter = new UserActivityLogWriter();
+		userActivityLogWriter.setDbInstance(dbInstance);
+		userActivityLogWriter.setFlushInterval(3600000l);
+		userActivityLogWriter.setSpillDirectory(Files.createTempDirectory("activitylog").toString());
+		userActivityLogWriter.afterPropertiesSet();
+	}
+	
+	@After
+	public void stopWriter() throws Exception {
+		userActivityLogWriter.destroy();
+	}
+	
+	@Test
+	public void writeWithDuration() {
+		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
+		LoggingObject firstLog = createLog(sessionId, new Date(System.currentTimeMillis() - 2000l));
+		UserActivityLogWriter.PendingLog firstPending = userActivityLogWriter.write(firstLog, true);
+		userActivityLogWriter.flush();
+		dbInstance.commitAndCloseSession();
+		// the first line waits for its duration
+		Assert.assertEquals(0, loadLogs(sessionId).size());
+		
+		LoggingObject secondLog = createLog(sessionId, new Date());
+		userActivityLogWriter.updateDuration(firstPending, secondLog.getCreationDate());
+		userActivityLogWriter.write(secondLog, true);
+		userActivityLogWriter.flush();
+		dbInstance.commitAndCloseSession();
+		
+		// the first line is written with its duration, the second waits
+		List<LoggingObject> logs = loadLogs(sessionId);
+		Assert.assertEquals(1, logs.size());
+		Assert.assertEquals(firstLog.getKey(), logs.get(0).getKey());
+		Assert.assertTrue(logs.get(0).getSimpleDuration() >= 2000l);
+		Assert.assertEquals(0l, userActivityLogWriter.getDurationUpdated());
+	}
+	
+	@Test
+	public void writeAndUpdateDuration() {
+		// don't wait for the duration
+		userActivityLogWriter.setDurationHoldTime(0l);
+		
+		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
+		LoggingObject firstLog = createLog(sessionId, new Date(System.currentTimeMillis() - 2000l));
+		UserActivityLogWriter.PendingLog firstPending = userActivityLogWriter.write(firstLog, true);
+		userActivityLogWriter.flush();
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(1, loadLogs(sessionId).size());
+		
+		// the first line is written, the duration is updated by the next flush
+		LoggingObject secondLog = createLog(sessionId, new Date());
+		userActivityLogWriter.updateDuration(firstPending, secondLog.getCreationDate());
+		userActivityLogWriter.write(secondLog, true);
+		userActivityLogWriter.flush();
+		dbInstance.commitAndCloseSession();
+		
+		List<LoggingObject> logs = loadLogs(sessionId);
+		Assert.assertEquals(2, logs.size());
+		Assert.assertTrue(logs.get(0).getSimpleDuration() >= 2000l);
+		Assert.assertEquals(0l, logs.get(1).getSimpleDuration());
+		Assert.assertEquals(1l, userActivityLogWriter.getDurationUpdated());
+	}
+	
+	@Test
+	public void updateDurationOfQueuedLog() {
+		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
+		LoggingObject firstLog = createLog(sessionId, new Date(System.currentTimeMillis() - 1000l));
+		UserActivityLogWriter.PendingLog firstPending = userActivityLogWriter.write(firstLog, true);
+		LoggingObject secondLog = createLog(sessionId, new Date());
+		userActivityLogWriter.updateDuration(firstPending, secondLog.getCreationDate());
+		userActivityLogWriter.write(secondLog, false);
+		userActivityLogWriter.flush();
+		dbInstance.commitAndCloseSession();
+		
+		List<LoggingObject> logs = loadLogs(sessionId);
+		Assert.assertEquals(2, logs.size());
+		Assert.assertTrue(logs.get(0).getSimpleDuration() >= 1000l);
+		Assert.assertEquals(0l, userActivityLogWriter.getDurationUpdated());
+	}
+	
+	@Test
+	public void spillAndReplay() throws Exception {
+		Path spillDirectory = Files.createTempDirectory("activitylog");
+		
+		// a writer without database spills the lines
+		UserActivityLogWriter failingWriter = new UserActivityLogWriter();
+		failingWriter.setDbInstance(Mockito.mock(DB.class));
+		failingWriter.setFlushInterval(3600000l);
+		failingWriter.setSpillDirectory(spillDirectory.toString());
+		failingWriter.afterPropertiesSet();
+		
+		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
+		for(int i=0; i<3; i++) {
+			failingWriter.write(createLog(sessionId, new Date()), false);
+		}
+		failingWriter.flush();
+		failingWriter.destroy();
+		Assert.assertTrue(failingWriter.getSpilled() >= 3);
+		Assert.assertEquals(0l, failingWriter.getWritten());
+		Assert.assertTrue(Files.exists(spillDirectory.resolve("spill.ser")));
+		
+		// the next writer replays them
+		UserActivityLogWriter replayWriter = new UserActivityLogWriter();
+		replayWriter.setDbInstance(dbInstance);
+		replayWriter.setFlushInterval(3600000l);
+		replayWriter.setSpillDirectory(spillDirectory.toString());
+		replayWriter.afterPropertiesSet();
+		replayWriter.flush();
+		replayWriter.destroy();
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertEquals(3l, replayWriter.getWritten());
+		Assert.assertEquals(3, loadLogs(sessionId).size());
+		try(Stream<Path> files = Files.list(spillDirectory)) {
+			Assert.assertEquals(0l, files.count());
+		}
+	}
+	
+	/**
+	 * A line which cannot be written is moved to the quarantine file,
+	 * the other lines of its batch are written and nothing is spilled.
+	 */
+	@Test
+	public void quarantinePoisonLine() throws Exception {
+		Path spillDirectory = Files.createTempDirectory("activitylog");
+		UserActivityLogWriter writer = new UserActivityLogWriter();
+		writer.setDbInstance(dbInstance);
+		writer.setFlushInterval(3600000l);
+		writer.setSpillDirectory(spillDirectory.toString());
+		writer.afterPropertiesSet();
+		
+		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
+		writer.write(createLog(sessionId, new Date()), false);
+		LoggingObject poisonLog = createLog(sessionId, new Date());
+		poisonLog.setActionVerb(null);
+		writer.write(poisonLog, false);
+		writer.write(createLog(sessionId, new Date()), false);
+		writer.flush();
+		writer.flush();
+		writer.destroy();
+		dbInstance.commitAndCloseSession();
+		
+		Assert.assertEquals(2l, writer.getWritten());
+		Assert.assertEquals(1l, writer.getQuarantined());
+		Assert.assertEquals(0l, writer.getSpilled());
+		Assert.assertEquals(2, loadLogs(sessionId).size());
+		Assert.assertTrue(Files.exists(spillDirectory.resolve("quarantine.ser")));
+		Assert.assertFalse(Files.exists(spillDirectory.resolve("spill.ser")));
+	}
+	
+	private List<LoggingObject> loadLogs(String sessionId) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("select log from loggingobject log where log.sessionId=:sessionId order by log.creationDate asc", LoggingObject.class)
+				.setParameter("sessionId", sessionId)
+				.getResultList();
+	}
+	
+	private LoggingObject createLog(String sessionId, Date creationDate) {
+		LoggingObject logObj = new LoggingObject(sessionId, 123l, "u", "launch", "node");
+		logObj.setCreationDate(creationDate);
+		logObj.setResourceAdminAction(Boolean.FALSE);
+		logObj.setBusinessPath("[RepositoryEntry:0][CourseNode:0]");
+		return logObj;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.cache.infinispan;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.cache.CacheMetrics;
+import org.olat.core.util.cache.CacheWrapper;
+import org.olat.core.util.cache.InstrumentedCacheWrapper;
+
+/**
+ * Check the counters of the metrics through the instrumented
+ * wrapper of a local Infinispan cache.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class InstrumentedCacheWrapperTest {
+	
+	private DefaultCacheManager cacheManager;
+	private CacheMetrics metrics;
+	private CacheWrapper<String,String> cache;
+	
+	@Before
+	public void createCache() {
+		cacheManager = new DefaultCacheManager();
+		cacheManager.defineConfiguration("metrics", new ConfigurationBuilder().build());
+		CacheWrapper<String,String> infinispanCache = new InfinispanCacheWrapper<>(cacheManager.getCache("metrics"));
+		metrics = new CacheMetrics("metrics", infinispanCache);
+		cache = new InstrumentedCacheWrapper<>(infinispanCache, metrics);
+	}
+	
+	@After
+	public void stopCache() {
+		cacheManager.stop();
+	}
+	
+	@Test
+	public void hitsAndMisses() {
+		Assert.assertNull(cache.get("key-1"));
+		Assert.assertEquals(1l, metrics.getMisses());
+		Assert.assertEquals(0l, metrics.getHits());
+		
+		cache.put("key-1", "value-1");
+		Assert.assertEquals("value-1", cache.get("key-1"));
+		Assert.assertEquals("value-1", cache.get("key-1"));
+		Assert.assertEquals(2l, metrics.getHits());
+		Assert.assertEquals(1l, metrics.getMisses());
+		Assert.assertEquals(66.67d, metrics.getHitRatio(), 0.01d);
+		// containsKey is not counted
+		Assert.assertTrue(cache.containsKey("key-1"));
+		Assert.assertEquals(2l, metrics.getHits());
+	}
+	
+	@Test
+	public void puts() {
+		cache.put("key-1", "value-1");
+		cache.update("key-1", "value-2");
+		Assert.assertEquals(2l, metrics.getPuts());
+		
+		// already there, not replaced
+		Assert.assertEquals("value-2", cache.putIfAbsent("key-1", "value-3"));
+		Assert.assertEquals(2l, metrics.getPuts());
+		Assert.assertNull(cache.putIfAbsent("key-2", "value-1"));
+		Assert.assertEquals(3l, metrics.getPuts());
+		
+		// nothing to replace
+		Assert.assertNull(cache.replace("key-3", "value-1"));
+		Assert.assertEquals(3l, metrics.getPuts());
+		Assert.assertEquals("value-1", cache.replace("key-2", "value-2"));
+		Assert.assertEquals(4l, metrics.getPuts());
+		Assert.assertEquals(2, metrics.getSize());
+	}
+	
+	@Test
+	public void removals() {
+		cache.put("key-1", "value-1");
+		Assert.assertNull(cache.remove("key-2"));
+		Assert.assertEquals(0l, metrics.getRemovals());
+		Assert.assertEquals("value-1", cache.remove("key-1"));
+		Assert.assertEquals(1l, metrics.getRemovals());
+		Assert.assertEquals(0, metrics.getSize());
+	}
+	
+	@Test
+	public void computeIfAbsent() {
+		Assert.assertEquals("value-1", cache.computeIfAbsent("key-1", key -> "value-1"));
+		Assert.assertEquals(1l, metrics.getMisses());
+		Assert.assertEquals(1l, metrics.getPuts());
+		Assert.assertEquals(1l, metrics.getLoads());
+		
+		// already loaded, the function is not called
+		Assert.assertEquals("value-1", cache.computeIfAbsent("key-1", key -> "value-2"));
+		Assert.assertEquals(1l, metrics.getHits());
+		Assert.assertEquals(1l, metrics.getMisses());
+		Assert.assertEquals(1l, metrics.getPuts());
+		Assert.assertEquals(1l, metrics.getLoads());
+		
+		// nothing loaded, a miss without put
+		Assert.assertNull(cache.computeIfAbsent("key-2", key -> null));
+		Assert.assertEquals(2l, metrics.getMisses());
+		Assert.assertEquals(1l, metrics.getPuts());
+		Assert.assertEquals(2l, metrics.getLoads());
+	}
+	
+	@Test
+	public void reset() {
+		cache.get("key-1");
+		cache.put("key-1", "value-1");
+		cache.get("key-1");
+		cache.remove("key-1");
+		
+		metrics.reset();
+		Assert.assertEquals(0l, metrics.getHits());
+		Assert.assertEquals(0l, metrics.getMisses());
+		Assert.assertEquals(0l, metrics.getPuts());
+		Assert.assertEquals(0l, metrics.getRemovals());
+		Assert.assertEquals(0.0d, metrics.getHitRatio(), 0.0001d);
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.gui.control.Event;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.event.EventListenerRegistry.ListenerRef;
+import org.olat.core.util.event.businfo.BusListenerInfo;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class EventListenerRegistryTest {
+	
+	@Test
+	public void registerDeregister() {
+		EventListenerRegistry registry = new EventListenerRegistry();
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("Registry", 1l);
+		
+		TestListener listener1 = new TestListener();
+		TestListener listener2 = new TestListener();
+		registry.register(listener1, null, ores);
+		registry.register(listener2, null, ores);
+		// register twice doesn't count
+		registry.register(listener1, null, ores);
+		Assert.assertEquals(2, registry.getListenerCount(ores));
+		
+		ListenerRef[] refs = registry.getListeners(ores);
+		Assert.assertEquals(2, refs.length);
+		Assert.assertNull(registry.getTypeListeners(ores));
+		
+		registry.deregister(listener1, ores);
+		Assert.assertEquals(1, registry.getListenerCount(ores));
+		registry.deregister(listener2, ores);
+		Assert.assertEquals(0, registry.getListenerCount(ores));
+		Assert.assertNull(registry.getListeners(ores));
+		// the previous snapshot is not modified
+		Assert.assertEquals(2, refs.length);
+	}
+	
+	@Test
+	public void typeChannel() {
+		EventListenerRegistry registry = new EventListenerRegistry();
+		OLATResourceable type = OresHelper.createOLATResourceableType("RegistryType");
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("RegistryType", 2l);
+		
+		TestListener listener = new TestListener();
+		registry.register(listener, null, type);
+		Assert.assertEquals(1, registry.getListenerCount(type));
+		Assert.assertEquals(0, registry.getListenerCount(ores));
+		Assert.assertNull(registry.getListeners(ores));
+		Assert.assertEquals(1, registry.getTypeListeners(ores).length);
+		
+		registry.deregister(listener, type);
+		Assert.assertNull(registry.getTypeListeners(ores));
+	}
+	
+	@Test
+	public void counters() {
+		EventListenerRegistry registry = new EventListenerRegistry();
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("RegistryCounter", 3l);
+		
+		TestListener listener1 = new TestListener();
+		TestListener listener2 = new TestListener();
+		registry.register(listener1, null, ores);
+		registry.register(listener2, null, ores);
+		
+		for(int i=0; i<3; i++) {
+			ListenerRef[] refs = registry.getListeners(ores);
+			registry.delivered(ores, false, refs.length);
+		}
+		
+		BusListenerInfo info = new BusListenerInfo();
+		registry.collectInfos(info);
+		String derived = "RegistryCounter::3";
+		Assert.assertEquals(2, info.getCountFor(ores));
+		Assert.assertTrue(info.getAllDerivedStrings().contains(derived));
+		Assert.assertEquals(3l, info.getEventCountFor(derived));
+		Assert.assertEquals(6l, info.getDeliveryCountFor(derived));
+	}
+	
+	private static class TestListener implements GenericEventListener {
+		@Override
+		public void event(Event event) {
+			//
+		}
+	}
+}
@@ -503,6 +503,39 @@ public class I18nTest extends OlatTestCase {
 		assertEquals(I18nManager.DEFAULT_KEY_PRIORITY, i18nMgr.getKeyPriority(metadataProperties, "no.need.to.translate.this", bundleName));
 	}
 
+	/**
+	 * Test the compiled translations: arguments, references, fallback
+	 * and the update after an edit with the translation tool.
+	 */
+	@Test
+	public void getLocalizedStringCompiled() {
+		String testNewBundle =  "org.olat.core.util.i18n.junittestdata.new";
+		Locale testLocale = i18nMgr.getLocaleOrDefault("de");
+		I18nItem argsItem = i18nMgr.getI18nItem(testNewBundle, "compiled.args", testLocale);
+		i18nMgr.saveOrUpdateI18nItem(argsItem, "Hello {0}, it's {1}");
+		I18nItem refItem = i18nMgr.getI18nItem(testNewBundle, "compiled.ref", testLocale);
+		i18nMgr.saveOrUpdateI18nItem(refItem, "Ref: $:compiled.args");
+		
+		assertEquals("Hello Anna, it's late", i18nMgr.getLocalizedString(testNewBundle, "compiled.args",
+				new Object[] { "Anna", "late" }, testLocale, false, false));
+		assertEquals("Ref: Hello {0}, it's {1}", i18nMgr.getLocalizedString(testNewBundle, "compiled.ref",
+				null, testLocale, false, false));
+		assertNull(i18nMgr.getLocalizedString(testNewBundle, "compiled.not.exists", null, testLocale, false, false));
+		// the same key in a variant of the locale falls back to the language
+		Locale variantLocale = new Locale("de", "CH");
+		assertEquals("Hello Ben, it's early", i18nMgr.getLocalizedString(testNewBundle, "compiled.args",
+				new Object[] { "Ben", "early" }, variantLocale, false, true));
+		
+		// edit the translations
+		i18nMgr.saveOrUpdateI18nItem(argsItem, "Hi {0}");
+		assertEquals("Hi Anna", i18nMgr.getLocalizedString(testNewBundle, "compiled.args",
+				new Object[] { "Anna" }, testLocale, false, false));
+		assertEquals("Ref: Hi {0}", i18nMgr.getLocalizedString(testNewBundle, "compiled.ref",
+				null, testLocale, false, false));
+		i18nMgr.saveOrUpdateI18nItem(refItem, null);
+		assertNull(i18nMgr.getLocalizedString(testNewBundle, "compiled.ref", null, testLocale, false, false));
+	}
+
 	/**
 	 * Test methods i18nManager.getAnnotation()
 	 */
@@ -0,0 +1,149 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class MailOutboundQueueTest {
+	
+	private File directory;
+	private SmtpServerStandIn smtpServer;
+	private SmtpTransportPool transportPool;
+	private MailDeliveryMetrics metrics;
+	
+	@Before
+	public void startSmtpServer() throws Exception {
+		directory = Files.createTempDirectory("outbox").toFile();
+		smtpServer = new SmtpServerStandIn();
+		metrics = new MailDeliveryMetrics(() -> 0);
+		transportPool = new SmtpTransportPool(smtpServer.createSession(), 2, 100, 60000, 0.0d, metrics);
+	}
+	
+	@After
+	public void stopSmtpServer() throws Exception {
+		transportPool.close();
+		smtpServer.close();
+		FileUtils.deleteDirsAndFiles(directory, true, true);
+	}
+	
+	@Test
+	public void sendWithRetries() throws Exception {
+		MailOutboundQueue queue = new MailOutboundQueue(directory, new PoolDelivery(), 5, 10, metrics);
+		queue.start(1);
+		try {
+			smtpServer.failNextMessages(2);
+			Assert.assertTrue(queue.enqueue(SmtpTransportPoolTest.createMessage(transportPool.getSession(), "Retry")));
+			waitForMessages(1);
+		} finally {
+			queue.stop();
+		}
+		
+		Assert.assertEquals(1, smtpServer.getMessages().size());
+		Assert.assertEquals(2, metrics.getRetried());
+		Assert.assertEquals(0, queue.size());
+		Assert.assertEquals(0, emlFiles().length);
+	}
+	
+	@Test
+	public void dropAfterMaxAttempts() throws Exception {
+		MailOutboundQueue queue = new MailOutboundQueue(directory, new PoolDelivery(), 2, 10, metrics);
+		queue.start(1);
+		try {
+			smtpServer.failNextMessages(5);
+			Assert.assertTrue(queue.enqueue(SmtpTransportPoolTest.createMessage(transportPool.getSession(), "Dropped")));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while(metrics.getDropped() == 0 && System.nanoTime() < deadline) {
+				Thread.sleep(20);
+			}
+		} finally {
+			queue.stop();
+		}
+		
+		Assert.assertEquals(0, smtpServer.getMessages().size());
+		Assert.assertEquals(1, metrics.getDropped());
+		Assert.assertEquals(0, emlFiles().length);
+		Assert.assertEquals(1, new File(directory, "failed").listFiles().length);
+	}
+	
+	@Test
+	public void recoverAfterRestart() throws Exception {
+		MimeMessage msg = SmtpTransportPoolTest.createMessage(transportPool.getSession(), "Recovered");
+		try(OutputStream out = new FileOutputStream(new File(directory, "1-recovered.eml"))) {
+			msg.writeTo(out);
+		}
+		
+		MailOutboundQueue queue = new MailOutboundQueue(directory, new PoolDelivery(), 5, 10, metrics);
+		queue.start(1);
+		try {
+			waitForMessages(1);
+		} finally {
+			queue.stop();
+		}
+		
+		Assert.assertEquals(1, smtpServer.getMessages().size());
+		Assert.assertTrue(smtpServer.getMessages().get(0).contains("Subject: Recovered"));
+		Assert.assertEquals(0, emlFiles().length);
+	}
+	
+	private File[] emlFiles() {
+		return directory.listFiles((dir, name) -> name.endsWith(".eml"));
+	}
+	
+	private void waitForMessages(int numOfMessages) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while(smtpServer.getMessages().size() < numOfMessages && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		// let the worker delete the file
+		Thread.sleep(100);
+	}
+	
+	private class PoolDelivery implements MailOutboundQueue.Delivery {
+
+		@Override
+		public Session getSession() {
+			return transportPool.getSession();
+		}
+
+		@Override
+		public void send(MimeMessage msg) throws MessagingException {
+			transportPool.send(msg);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Session;
+
+/**
+ * A minimal SMTP server which accepts all the messages, counts the
+ * connections and can answer with temporary errors.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SmtpServerStandIn implements Closeable {
+	
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicInteger temporaryFailures = new AtomicInteger();
+	private final List<String> messages = new CopyOnWriteArrayList<>();
+	
+	public SmtpServerStandIn() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		executor.execute(this::accept);
+	}
+	
+	public int getConnections() {
+		return connections.get();
+	}
+	
+	public List<String> getMessages() {
+		return messages;
+	}
+	
+	/**
+	 * @param numOfMessages The number of the next messages refused with a temporary error
+	 */
+	public void failNextMessages(int numOfMessages) {
+		temporaryFailures.set(numOfMessages);
+	}
+	
+	public Session createSession() {
+		Properties p = new Properties();
+		p.put("mail.smtp.host", serverSocket.getInetAddress().getHostAddress());
+		p.put("mail.smtp.port", Integer.toString(serverSocket.getLocalPort()));
+		p.put("mail.smtp.timeout", "5000");
+		p.put("mail.smtp.connectiontimeout", "5000");
+		return Session.getInstance(p);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		executor.shutdownNow();
+	}
+	
+	private void accept() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				executor.execute(() -> talk(socket));
+			} catch (IOException e) {
+				// closed
+			}
+		}
+	}
+	
+	private void talk(Socket socket) {
+		try(Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+				Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII)) {
+			reply(out, "220 localhost SMTP stand-in");
+			for(String line=in.readLine(); line != null; line=in.readLine()) {
+				String command = line.length() > 4 ? line.substring(0, 4) : line;
+				switch(command.toUpperCase(Locale.ENGLISH)) {
+					case "MAIL":
+						if(temporaryFailures.getAndUpdate(failures -> Math.max(0, failures - 1)) > 0) {
+							reply(out, "451 Try again later");
+						} else {
+							reply(out, "250 OK");
+						}
+						break;
+					case "DATA":
+						reply(out, "354 End data with <CR><LF>.<CR><LF>");
+						StringBuilder data = new StringBuilder();
+						for(String dataLine=in.readLine(); dataLine != null && !".".equals(dataLine); dataLine=in.readLine()) {
+							data.append(dataLine).append("\n");
+						}
+						messages.add(data.toString());
+						reply(out, "250 OK");
+						break;
+					case "QUIT":
+						reply(out, "221 Bye");
+						return;
+					default:
+						// EHLO, RCPT, NOOP, RSET...
+						reply(out, "250 OK");
+				}
+			}
+		} catch (IOException e) {
+			// connection closed
+		}
+	}
+	
+	private void reply(Writer out, String response) throws IOException {
+		out.write(response);
+		out.write("\r\n");
+		out.flush();
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.mail.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Message.RecipientType;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SmtpTransportPoolTest {
+	
+	private SmtpServerStandIn smtpServer;
+	private MailDeliveryMetrics metrics;
+	
+	@Before
+	public void startSmtpServer() throws Exception {
+		smtpServer = new SmtpServerStandIn();
+		metrics = new MailDeliveryMetrics(() -> 0);
+	}
+	
+	@After
+	public void stopSmtpServer() throws Exception {
+		smtpServer.close();
+	}
+	
+	@Test
+	public void sendWithOneConnection() throws Exception {
+		Session session = smtpServer.createSession();
+		try(SmtpTransportPool pool = new SmtpTransportPool(session, 2, 100, 60000, 0.0d, metrics)) {
+			for(int i=0; i<10; i++) {
+				pool.send(createMessage(session, "Message " + i));
+			}
+		}
+
+		Assert.assertEquals(10, smtpServer.getMessages().size());
+		Assert.assertEquals(1, smtpServer.getConnections());
+		Assert.assertEquals(10, metrics.getSent());
+		Assert.assertEquals(1, metrics.getConnectionsOpened());
+		Assert.assertEquals(0, metrics.getOpenConnections());
+	}
+	
+	@Test
+	public void maxMessagesPerConnection() throws Exception {
+		Session session = smtpServer.createSession();
+		try(SmtpTransportPool pool = new SmtpTransportPool(session, 2, 3, 60000, 0.0d, metrics)) {
+			for(int i=0; i<7; i++) {
+				pool.send(createMessage(session, "Message " + i));
+			}
+		}
+
+		Assert.assertEquals(7, smtpServer.getMessages().size());
+		Assert.assertEquals(3, smtpServer.getConnections());
+	}
+	
+	@Test
+	public void temporaryFailure() throws Exception {
+		Session session = smtpServer.createSession();
+		try(SmtpTransportPool pool = new SmtpTransportPool(session, 2, 100, 60000, 0.0d, metrics)) {
+			smtpServer.failNextMessages(1);
+			try {
+				pool.send(createMessage(session, "Refused"));
+				Assert.fail("The server must refuse the message");
+			} catch (MessagingException e) {
+				Assert.assertTrue(SmtpTransportPool.isTransientFailure(e));
+			}
+			
+			pool.send(createMessage(session, "Accepted"));
+		}
+
+		Assert.assertEquals(1, smtpServer.getMessages().size());
+		Assert.assertEquals(1, metrics.getFailed());
+		Assert.assertEquals(1, metrics.getSent());
+	}
+	
+	@Test
+	public void rateLimit() throws Exception {
+		Session session = smtpServer.createSession();
+		long start = System.nanoTime();
+		try(SmtpTransportPool pool = new SmtpTransportPool(session, 2, 100, 60000, 20.0d, metrics)) {
+			for(int i=0; i<5; i++) {
+				pool.send(createMessage(session, "Message " + i));
+			}
+		}
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		
+		Assert.assertEquals(5, smtpServer.getMessages().size());
+		// 5 messages at 20 per second need at least 4 x 50ms
+		Assert.assertTrue(duration >= 190);
+	}
+	
+	public static MimeMessage createMessage(Session session, String subject) throws MessagingException {
+		MimeMessage msg = new MimeMessage(session);
+		msg.setFrom(new InternetAddress("sender@openolat.org"));
+		msg.setRecipient(RecipientType.TO, new InternetAddress("recipient@openolat.org"));
+		msg.setSubject(subject, "utf-8");
+		msg.setText("Hello", "utf-8");
+		return msg;
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.openxml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class OpenXMLWorkbookSharedStringsTest {
+	
+	@Test
+	public void addAndDeduplicate() {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings();
+		int hello = sharedStrings.add("Hello");
+		int world = sharedStrings.add("World");
+		Assert.assertEquals(1, hello);
+		Assert.assertEquals(2, world);
+		Assert.assertEquals(hello, sharedStrings.add("Hello"));
+		Assert.assertEquals(3, sharedStrings.size());
+		Assert.assertFalse(sharedStrings.isSpilled());
+		
+		List<String> strings = new ArrayList<>();
+		sharedStrings.forEach(strings::add);
+		Assert.assertEquals(List.of("OpenOLAT", "Hello", "World"), strings);
+		sharedStrings.close();
+	}
+	
+	@Test
+	public void spillToDisk() {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings(1000);
+		for(int i=0; i<10000; i++) {
+			Assert.assertEquals(i + 1, sharedStrings.add("String " + i));
+		}
+		Assert.assertTrue(sharedStrings.isSpilled());
+		Assert.assertEquals(10001, sharedStrings.size());
+		// recent strings are still deduplicated
+		Assert.assertEquals(10000, sharedStrings.add("String 9999"));
+		
+		int count = 0;
+		for(String string:sharedStrings) {
+			if(count == 0) {
+				Assert.assertEquals("OpenOLAT", string);
+			} else {
+				Assert.assertEquals("String " + (count - 1), string);
+			}
+			count++;
+		}
+		Assert.assertEquals(10001, count);
+		sharedStrings.close();
+	}
+}
@@ -22,12 +22,22 @@ package org.olat.core.util.openxml;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Test;
 import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 /**
  * 
@@ -74,6 +84,93 @@ public class OpenXmlWorkbookTest {
 		file.delete();
 	}
 	
+	/**
+	 * The rows reuse the buffer of cells of the previous row, check that
+	 * nothing leaks from a row to the next one.
+	 */
+	@Test
+	public void creationOfWorkbookReuseRows() throws Exception {
+		File file = File.createTempFile("workbook", "_rows.xlsx");
+		try(FileOutputStream fileOut = new FileOutputStream(file);
+				OpenXMLWorkbook workbook = new OpenXMLWorkbook(fileOut, 1)) {
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			sheet.setHeaderRows(1);
+			Row headerRow = sheet.newRow();
+			for(int i=0; i<10; i++) {
+				headerRow.addCell(i, "Header " + i, workbook.getStyles().getHeaderStyle());
+			}
+			
+			for(int i=0; i<1000; i++) {
+				Row row = sheet.newRow();
+				row.addCell(0, "Name " + i);
+				row.addCell(1, "Category " + (i % 10));
+				row.addCell(2, Integer.valueOf(i), null);
+				if(i % 2 == 0) {
+					row.addCell(9, "Last column", null);
+				}
+			}
+		}
+		
+		try(ZipFile zipFile = new ZipFile(file)) {
+			Document sheetDoc = parse(zipFile, "xl/worksheets/sheet1.xml");
+			Assert.assertEquals(1001, sheetDoc.getElementsByTagName("row").getLength());
+			
+			Document stringsDoc = parse(zipFile, "xl/sharedStrings.xml");
+			NodeList strings = stringsDoc.getElementsByTagName("si");
+			// OpenOLAT, 10 headers, 1000 names, 10 categories and last column
+			Assert.assertEquals(1022, strings.getLength());
+			Element sst = stringsDoc.getDocumentElement();
+			Assert.assertEquals("1022", sst.getAttribute("uniqueCount"));
+			
+			Map<String,Element> cells = new HashMap<>();
+			NodeList cellList = sheetDoc.getElementsByTagName("c");
+			for(int i=0; i<cellList.getLength(); i++) {
+				Element cell = (Element)cellList.item(i);
+				cells.put(cell.getAttribute("r"), cell);
+			}
+			// first row, 10 headers, and 1000 rows with 3 cells plus every second row one more
+			Assert.assertEquals(10 + 3000 + 500, cells.size());
+			
+			// row of i = 1
+			Element name = cells.get("A3");
+			Assert.assertEquals("s", name.getAttribute("t"));
+			int nameIndex = Integer.parseInt(name.getTextContent());
+			Assert.assertEquals("Name 1", strings.item(nameIndex).getTextContent());
+			Element number = cells.get("C3");
+			Assert.assertEquals("", number.getAttribute("t"));
+			Assert.assertEquals("1", number.getTextContent());
+			Assert.assertNull(cells.get("J3"));
+			// row of i = 2
+			Element last = cells.get("J4");
+			Assert.assertEquals("Last column", strings.item(Integer.parseInt(last.getTextContent())).getTextContent());
+		} finally {
+			file.delete();
+		}
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void staleRow() throws IOException {
+		File file = File.createTempFile("workbook", "_stale.xlsx");
+		try(FileOutputStream fileOut = new FileOutputStream(file);
+				OpenXMLWorkbook workbook = new OpenXMLWorkbook(fileOut, 1)) {
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			Row row1 = sheet.newRow();
+			row1.addCell(0, "Hello");
+			sheet.newRow();
+			row1.addCell(1, "World");
+		} finally {
+			file.delete();
+		}
+	}
+	
+	private static Document parse(ZipFile zipFile, String entryName) throws Exception {
+		ZipEntry entry = zipFile.getEntry(entryName);
+		Assert.assertNotNull(entry);
+		try(InputStream in = zipFile.getInputStream(entry)) {
+			return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+		}
+	}
+	
 	/**
 	 * Don't forget that the argument of getColumn is zero based
 	 * @throws IOException
@@ -0,0 +1,85 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.session;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.util.UserSession;
+import org.olat.core.util.session.UserSessionRegistry.Registration;
+import org.olat.core.util.session.UserSessionRegistry.SessionType;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class UserSessionRegistryTest {
+	
+	@Test
+	public void addRemove() {
+		UserSessionRegistry registry = new UserSessionRegistry();
+		UserSession webSession = new UserSession();
+		UserSession davSession = new UserSession();
+		Long identityKey = Long.valueOf(1234l);
+		
+		Assert.assertTrue(registry.add(davSession, identityKey, SessionType.DAV));
+		Assert.assertFalse(registry.isSignedOn(identityKey));
+		Assert.assertNull(registry.getGuiSession(identityKey));
+		
+		Assert.assertTrue(registry.add(webSession, identityKey, SessionType.WEB));
+		Assert.assertFalse(registry.add(webSession, identityKey, SessionType.WEB));
+		Assert.assertTrue(registry.isSignedOn(identityKey));
+		Assert.assertEquals(webSession, registry.getGuiSession(identityKey));
+		Assert.assertEquals(2, registry.size());
+		Assert.assertEquals(1, registry.getCount(SessionType.WEB));
+		Assert.assertEquals(1, registry.getCount(SessionType.DAV));
+		
+		List<UserSession> sessions = registry.getSessions(identityKey);
+		Assert.assertEquals(2, sessions.size());
+		Assert.assertTrue(sessions.contains(webSession));
+		Assert.assertTrue(sessions.contains(davSession));
+		
+		Registration registration = registry.remove(webSession);
+		Assert.assertNotNull(registration);
+		Assert.assertEquals(identityKey, registration.getIdentityKey());
+		Assert.assertEquals(SessionType.WEB, registration.getType());
+		Assert.assertNull(registry.remove(webSession));
+		Assert.assertFalse(registry.isSignedOn(identityKey));
+		Assert.assertEquals(0, registry.getCount(SessionType.WEB));
+		
+		registry.remove(davSession);
+		Assert.assertEquals(0, registry.size());
+		Assert.assertTrue(registry.getSessions(identityKey).isEmpty());
+	}
+	
+	@Test
+	public void restSessionIsSignedOn() {
+		UserSessionRegistry registry = new UserSessionRegistry();
+		UserSession restSession = new UserSession();
+		Long identityKey = Long.valueOf(1235l);
+		
+		registry.add(restSession, identityKey, SessionType.REST);
+		Assert.assertTrue(registry.isSignedOn(identityKey));
+		Assert.assertNull(registry.getGuiSession(identityKey));
+		Assert.assertEquals(1, registry.getCount(SessionType.REST));
+	}
+}
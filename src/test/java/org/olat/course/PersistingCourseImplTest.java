@@ -0,0 +1,104 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.helpers.Settings;
+import org.olat.core.util.FileUtils;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class PersistingCourseImplTest {
+	
+	private Path baseDir;
+	private Structure structure;
+	
+	@Before
+	public void loadRunStructure() throws Exception {
+		baseDir = Files.createTempDirectory("course");
+		try(InputStream in = PersistingCourseImplTest.class.getResourceAsStream("runstructure_allinone.xml")) {
+			Files.copy(in, baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_XML), StandardCopyOption.REPLACE_EXISTING);
+		}
+		XStream xStream = CourseXStreamAliases.getReadCourseXStream();
+		structure = (Structure)xStream.fromXML(baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_XML).toFile());
+	}
+	
+	@After
+	public void deleteBaseDir() throws Exception {
+		FileUtils.deleteDirsAndFiles(baseDir);
+	}
+	
+	@Test
+	public void writeReadSnapshot() {
+		PersistingCourseImpl.writeRunStructureSnapshot(baseDir.toFile(), structure);
+		Assert.assertTrue(Files.exists(baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_SNAPSHOT)));
+		
+		Structure snapshot = PersistingCourseImpl.readRunStructureSnapshot(baseDir.toFile());
+		Assert.assertNotNull(snapshot);
+		Assert.assertEquals(structure.getRootNode().getIdent(), snapshot.getRootNode().getIdent());
+		Assert.assertEquals(structure.getRootNode().getChildCount(), snapshot.getRootNode().getChildCount());
+	}
+	
+	@Test
+	public void readOutdatedSnapshot() {
+		PersistingCourseImpl.writeRunStructureSnapshot(baseDir.toFile(), structure);
+		
+		// the XML file is modified after the snapshot
+		File xmlFile = baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_XML).toFile();
+		Assert.assertTrue(xmlFile.setLastModified(xmlFile.lastModified() + 5000l));
+		Assert.assertNull(PersistingCourseImpl.readRunStructureSnapshot(baseDir.toFile()));
+	}
+	
+	@Test
+	public void readMissingSnapshot() {
+		Assert.assertNull(PersistingCourseImpl.readRunStructureSnapshot(baseDir.toFile()));
+	}
+	
+	@Test
+	public void readSnapshotWithForeignClass() throws Exception {
+		// an up-to-date header followed by a class which is not part of a run structure
+		File xmlFile = baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_XML).toFile();
+		File snapshotFile = baseDir.resolve(PersistingCourseImpl.RUNSTRUCTURE_SNAPSHOT).toFile();
+		try(ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(snapshotFile.toPath()))) {
+			out.writeUTF(Settings.getBuildIdentifier());
+			out.writeLong(xmlFile.lastModified());
+			out.writeLong(xmlFile.length());
+			out.writeObject(new ObjectName("org.olat:type=Snapshot"));
+		}
+		Assert.assertNull(PersistingCourseImpl.readRunStructureSnapshot(baseDir.toFile()));
+	}
+}
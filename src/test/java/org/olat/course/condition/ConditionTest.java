@@ -27,6 +27,7 @@ import org.olat.core.id.Roles;
 import org.olat.course.CourseFactory;
 import org.olat.course.ICourse;
 import org.olat.course.condition.interpreter.ConditionInterpreter;
+import org.olat.course.run.environment.CourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironmentImpl;
 import org.olat.repository.RepositoryEntry;
@@ -326,6 +327,35 @@ public class ConditionTest extends OlatTestCase {
 	}
 
 	
+	@Test
+	public void sharedExpressionsAndEvaluationScope() {
+		UserCourseEnvironment uce = getUserDemoCourseEnvironment();
+		CourseEnvironment courseEnv = uce.getCourseEnvironment();
+		courseEnv.getConditionExpressionCache().clear();
+		
+		Identity otherId = JunitTestHelper.createAndPersistIdentityAsRndUser("condition-2");
+		IdentityEnvironment otherIdentityEnv = new IdentityEnvironment(otherId, Roles.userRoles());
+		UserCourseEnvironment otherUce = new UserCourseEnvironmentImpl(otherIdentityEnv, courseEnv);
+		
+		// the same parsed expression is evaluated with the datas of each user
+		String condition = "hasUserProperty(\"firstName\", \"firstcondition\")";
+		Assert.assertTrue(uce.getConditionInterpreter().evaluateCondition(condition));
+		Assert.assertFalse(otherUce.getConditionInterpreter().evaluateCondition(condition));
+		Assert.assertTrue(uce.getConditionInterpreter().evaluateCondition(condition));
+		Assert.assertEquals(1, courseEnv.getConditionExpressionCache().size());
+		
+		ConditionInterpreter interpreter = uce.getConditionInterpreter();
+		interpreter.beginEvaluationScope();
+		try {
+			Assert.assertTrue(interpreter.evaluateCondition(condition));
+			Assert.assertFalse(otherUce.getConditionInterpreter().evaluateCondition(condition));
+			Assert.assertTrue(interpreter.evaluateCondition(condition + " & true"));
+		} finally {
+			interpreter.endEvaluationScope();
+		}
+		Assert.assertEquals(2, courseEnv.getConditionExpressionCache().size());
+	}
+	
 	private UserCourseEnvironment getUserDemoCourseEnvironment() {
 		Identity author = JunitTestHelper.createAndPersistIdentityAsRndUser("junit_auth");
 		Identity id = JunitTestHelper.createAndPersistIdentityAsUser("condition");
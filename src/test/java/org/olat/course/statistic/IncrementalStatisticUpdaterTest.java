@@ -0,0 +1,141 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.statistic;
+
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.util.CodeHelper;
+import org.olat.course.statistic.IncrementalStatisticUpdater.Bucket;
+import org.olat.course.statistic.IncrementalStatisticUpdater.SliceCounters;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class IncrementalStatisticUpdaterTest extends AbstractStatisticUpdateManagerTest {
+	
+	@Test
+	public void getResourceId() {
+		Assert.assertEquals(Long.valueOf(4589l), IncrementalStatisticUpdater.getResourceId("[RepositoryEntry:4589][CourseNode:9876]"));
+		Assert.assertNull(IncrementalStatisticUpdater.getResourceId("[RepositoryEntry:abc][CourseNode:9876]"));
+		Assert.assertNull(IncrementalStatisticUpdater.getResourceId("[RepositoryEntry:]"));
+		Assert.assertNull(IncrementalStatisticUpdater.getResourceId(""));
+		Assert.assertNull(IncrementalStatisticUpdater.getResourceId(null));
+	}
+	
+	@Test
+	public void aggregateSlice() {
+		String rootPath = "[RepositoryEntry:27][CourseNode:1]";
+		String nodePath = "[RepositoryEntry:27][CourseNode:2]";
+		
+		Calendar cal = Calendar.getInstance();
+		cal.set(2026, Calendar.OCTOBER, 14, 9, 15, 0);
+		SliceCounters counters = new SliceCounters();
+		counters.add(cal.getTime(), rootPath);
+		counters.add(cal.getTime(), nodePath);
+		cal.set(Calendar.HOUR_OF_DAY, 18);
+		counters.add(cal.getTime(), rootPath);
+		cal.add(Calendar.DATE, 1);
+		counters.add(cal.getTime(), rootPath);
+		counters.add(cal.getTime(), "[RepositoryEntry:][CourseNode:2]");
+		
+		Assert.assertEquals(3, counters.daily.size());
+		Assert.assertEquals(3, counters.hourOfDay.size());
+		Assert.assertEquals(3, counters.dayOfWeek.size());
+		
+		cal.set(2026, Calendar.OCTOBER, 14, 0, 0, 0);
+		cal.set(Calendar.MILLISECOND, 0);
+		Assert.assertEquals(2, count(counters.daily, rootPath, new Timestamp(cal.getTimeInMillis())));
+		Assert.assertEquals(1, count(counters.daily, nodePath, new Timestamp(cal.getTimeInMillis())));
+		Assert.assertEquals(2, count(counters.hourOfDay, rootPath, Integer.valueOf(18)));
+		Assert.assertEquals(1, count(counters.hourOfDay, rootPath, Integer.valueOf(9)));
+		Assert.assertEquals(2, count(counters.dayOfWeek, rootPath, Integer.valueOf(Calendar.WEDNESDAY)));
+		Assert.assertEquals(1, count(counters.dayOfWeek, rootPath, Integer.valueOf(Calendar.THURSDAY)));
+	}
+	
+	/**
+	 * The creation date of a log line is the date of the action, the line can
+	 * be written later by the asynchronous writer. It must be counted even if
+	 * the statistics were already updated after its creation date.
+	 */
+	@Test
+	public void lateInsertedLogs() {
+		IncrementalStatisticUpdater updater = new IncrementalStatisticUpdater();
+		updater.setDbInstance(dbInstance);
+		updater.setSettleTime(0l);
+		updater.setMaxSlices(0);
+		
+		Long resId = Long.valueOf(CodeHelper.getForeverUniqueID());
+		Calendar ref = Calendar.getInstance();
+		addLog(resId, "1", ref, 1, 10, 0, 0);
+		addLog(resId, "1", ref, 1, 11, 0, 0);
+		dbInstance.commitAndCloseSession();
+		
+		updater.updateStatistic(false, null, inOneMinute(), null);
+		Assert.assertEquals(2l, countDailyLaunches(resId));
+		
+		// logged before the last update but written after it
+		addLog(resId, "1", ref, 1, 9, 0, 0);
+		dbInstance.commitAndCloseSession();
+		
+		updater.updateStatistic(false, null, inOneMinute(), null);
+		Assert.assertEquals(3l, countDailyLaunches(resId));
+		// the existing row is updated, not duplicated
+		Assert.assertEquals(1l, countDailyRows(resId));
+		
+		// nothing new, nothing counted twice
+		updater.updateStatistic(false, null, inOneMinute(), null);
+		Assert.assertEquals(3l, countDailyLaunches(resId));
+	}
+	
+	private static Date inOneMinute() {
+		return new Date(System.currentTimeMillis() + 60000l);
+	}
+	
+	private long countDailyLaunches(Long resId) {
+		List<Long> sums = dbInstance.getCurrentEntityManager()
+				.createQuery("select sum(stat.value) from dailystat stat where stat.resId=:resId", Long.class)
+				.setParameter("resId", resId.longValue())
+				.getResultList();
+		dbInstance.commitAndCloseSession();
+		return sums.isEmpty() || sums.get(0) == null ? 0l : sums.get(0).longValue();
+	}
+	
+	private long countDailyRows(Long resId) {
+		List<Long> counts = dbInstance.getCurrentEntityManager()
+				.createQuery("select count(stat.key) from dailystat stat where stat.resId=:resId", Long.class)
+				.setParameter("resId", resId.longValue())
+				.getResultList();
+		dbInstance.commitAndCloseSession();
+		return counts.isEmpty() || counts.get(0) == null ? 0l : counts.get(0).longValue();
+	}
+	
+	private static int count(Map<Bucket,int[]> counters, String businessPath, Object value) {
+		int[] counter = counters.get(new Bucket(businessPath, Long.valueOf(27l), value));
+		return counter == null ? 0 : counter[0];
+	}
+}
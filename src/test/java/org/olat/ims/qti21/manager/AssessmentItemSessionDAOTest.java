@@ -19,6 +19,8 @@
  */
 package org.olat.ims.qti21.manager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Assert;
@@ -83,4 +85,30 @@ public class AssessmentItemSessionDAOTest extends OlatTestCase {
 		Assert.assertEquals(sectionIdentifier, reloadedItemSession.getSectionIdentifier());
 		Assert.assertEquals(testPartIdentifier, reloadedItemSession.getTestPartIdentifier());
 	}
+	
+	@Test
+	public void getAssessmentItemSessions_testSessionKeys() {
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("response-session-2");
+		AssessmentEntry assessmentEntry = assessmentService.getOrCreateAssessmentEntry(assessedIdentity, null, testEntry, "-", null, testEntry);
+		dbInstance.commit();
+		
+		AssessmentTestSession testSession1 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession1_1 = itemSessionDao.createAndPersistAssessmentItemSession(testSession1, null, UUID.randomUUID().toString());
+		AssessmentItemSession itemSession1_2 = itemSessionDao.createAndPersistAssessmentItemSession(testSession1, null, UUID.randomUUID().toString());
+		AssessmentTestSession testSession2 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession2_1 = itemSessionDao.createAndPersistAssessmentItemSession(testSession2, null, UUID.randomUUID().toString());
+		AssessmentTestSession otherTestSession = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession otherItemSession = itemSessionDao.createAndPersistAssessmentItemSession(otherTestSession, null, UUID.randomUUID().toString());
+		dbInstance.commitAndCloseSession();
+		
+		List<AssessmentItemSession> itemSessions = itemSessionDao.getAssessmentItemSessions(List.of(testSession1.getKey(), testSession2.getKey()));
+		Assert.assertEquals(3, itemSessions.size());
+		Assert.assertTrue(itemSessions.contains(itemSession1_1));
+		Assert.assertTrue(itemSessions.contains(itemSession1_2));
+		Assert.assertTrue(itemSessions.contains(itemSession2_1));
+		Assert.assertFalse(itemSessions.contains(otherItemSession));
+		
+		Assert.assertTrue(itemSessionDao.getAssessmentItemSessions(new ArrayList<>()).isEmpty());
+	}
 }
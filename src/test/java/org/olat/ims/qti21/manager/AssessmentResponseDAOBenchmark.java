@@ -0,0 +1,147 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.logging.Tracing;
+import org.olat.ims.qti21.AssessmentItemSession;
+import org.olat.ims.qti21.AssessmentResponse;
+import org.olat.ims.qti21.AssessmentTestSession;
+import org.olat.ims.qti21.model.ResponseLegality;
+import org.olat.modules.assessment.AssessmentEntry;
+import org.olat.modules.assessment.AssessmentService;
+import org.olat.repository.RepositoryEntry;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import uk.ac.ed.ph.jqtiplus.types.ResponseData.ResponseDataType;
+
+/**
+ * Compare the insert of the responses one by one, with a flush per row as
+ * without JDBC batching, with the batched save of DB.persistInBatch. The
+ * benchmark only logs the rows per second, the timing depends too much of
+ * the database to be asserted. It's not part of the test suite, remove the
+ * @Ignore to run it manually.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class AssessmentResponseDAOBenchmark extends OlatTestCase {
+	
+	private static final Logger log = Tracing.createLoggerFor(AssessmentResponseDAOBenchmark.class);
+	
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 10;
+	private static final int NUM_OF_RESPONSES = 1000;
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private AssessmentResponseDAO responseDao;
+	@Autowired
+	private AssessmentItemSessionDAO itemSessionDao;
+	@Autowired
+	private AssessmentTestSessionDAO testSessionDao;
+	@Autowired
+	private AssessmentService assessmentService;
+	
+	@Ignore
+	@Test
+	public void compareRowsPerSecond() {
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("response-bench-1");
+		AssessmentEntry assessmentEntry = assessmentService.getOrCreateAssessmentEntry(assessedIdentity, null, testEntry, "-", Boolean.FALSE, testEntry);
+		AssessmentTestSession testSession = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		dbInstance.commitAndCloseSession();
+		
+		for(int i=0; i<WARMUP_ROUNDS; i++) {
+			rowByRow(testSession);
+			inBatch(testSession);
+		}
+		
+		long rowByRowDuration = 0l;
+		long batchDuration = 0l;
+		for(int i=0; i<ROUNDS; i++) {
+			rowByRowDuration += rowByRow(testSession);
+			batchDuration += inBatch(testSession);
+		}
+		
+		long numOfRows = (long)ROUNDS * NUM_OF_RESPONSES;
+		log.info("Insert {} responses row by row: {} rows/s, in batch: {} rows/s", numOfRows,
+				(numOfRows * 1000000000l) / Math.max(1l, rowByRowDuration),
+				(numOfRows * 1000000000l) / Math.max(1l, batchDuration));
+	}
+	
+	private long rowByRow(AssessmentTestSession testSession) {
+		AssessmentItemSession itemSession = createItemSession(testSession);
+		
+		long start = System.nanoTime();
+		for(int i=0; i<NUM_OF_RESPONSES; i++) {
+			AssessmentResponse response = createResponse(testSession, itemSession, i);
+			dbInstance.getCurrentEntityManager().persist(response);
+			dbInstance.getCurrentEntityManager().flush();
+		}
+		dbInstance.commitAndCloseSession();
+		long duration = System.nanoTime() - start;
+		
+		Assert.assertEquals(NUM_OF_RESPONSES, responseDao.getResponses(itemSession).size());
+		dbInstance.commitAndCloseSession();
+		return duration;
+	}
+	
+	private long inBatch(AssessmentTestSession testSession) {
+		AssessmentItemSession itemSession = createItemSession(testSession);
+		
+		long start = System.nanoTime();
+		List<AssessmentResponse> responses = new ArrayList<>(NUM_OF_RESPONSES);
+		for(int i=0; i<NUM_OF_RESPONSES; i++) {
+			responses.add(createResponse(testSession, itemSession, i));
+		}
+		dbInstance.persistInBatch(responses);
+		dbInstance.commitAndCloseSession();
+		long duration = System.nanoTime() - start;
+		
+		Assert.assertEquals(NUM_OF_RESPONSES, responseDao.getResponses(itemSession).size());
+		dbInstance.commitAndCloseSession();
+		return duration;
+	}
+	
+	private AssessmentItemSession createItemSession(AssessmentTestSession testSession) {
+		AssessmentItemSession itemSession = itemSessionDao.createAndPersistAssessmentItemSession(testSession, null, UUID.randomUUID().toString());
+		dbInstance.commitAndCloseSession();
+		return itemSession;
+	}
+	
+	private AssessmentResponse createResponse(AssessmentTestSession testSession, AssessmentItemSession itemSession, int pos) {
+		AssessmentResponse response = responseDao.createAssessmentResponse(testSession, itemSession, "RESPONSE_" + pos, ResponseLegality.VALID, ResponseDataType.STRING);
+		response.setStringuifiedResponse("Response " + pos);
+		return response;
+	}
+}
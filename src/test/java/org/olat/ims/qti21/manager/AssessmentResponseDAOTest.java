@@ -19,6 +19,7 @@
  */
 package org.olat.ims.qti21.manager;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -129,4 +130,121 @@ public class AssessmentResponseDAOTest extends OlatTestCase {
 		Assert.assertEquals(1, loadedResponses.size());
 		Assert.assertEquals(response, loadedResponses.get(0));
 	}
+	
+	@Test
+	public void loadResponses_testSessionKeys() {
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("response-session-5");
+		AssessmentEntry assessmentEntry = assessmentService.getOrCreateAssessmentEntry(assessedIdentity, null, testEntry, "-", Boolean.FALSE, testEntry);
+		AssessmentTestSession testSession1 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession1 = itemSessionDao.createAndPersistAssessmentItemSession(testSession1, null, UUID.randomUUID().toString());
+		AssessmentTestSession testSession2 = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession2 = itemSessionDao.createAndPersistAssessmentItemSession(testSession2, null, UUID.randomUUID().toString());
+		AssessmentTestSession otherTestSession = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession otherItemSession = itemSessionDao.createAndPersistAssessmentItemSession(otherTestSession, null, UUID.randomUUID().toString());
+		dbInstance.commit();
+		
+		List<AssessmentResponse> responses = new ArrayList<>();
+		for(int i=0; i<3; i++) {
+			responses.add(createResponse(testSession1, itemSession1, i));
+		}
+		for(int i=0; i<2; i++) {
+			responses.add(createResponse(testSession2, itemSession2, i));
+		}
+		AssessmentResponse otherResponse = createResponse(otherTestSession, otherItemSession, 0);
+		List<AssessmentResponse> allResponses = new ArrayList<>(responses);
+		allResponses.add(otherResponse);
+		responseDao.save(allResponses);
+		dbInstance.commitAndCloseSession();
+		
+		// load the responses of the two sessions page by page
+		List<Long> testSessionKeys = List.of(testSession1.getKey(), testSession2.getKey());
+		List<AssessmentResponse> firstPage = responseDao.getResponses(testSessionKeys, null, 3);
+		Assert.assertEquals(3, firstPage.size());
+		Long lastKey = firstPage.get(2).getKey();
+		List<AssessmentResponse> secondPage = responseDao.getResponses(testSessionKeys, lastKey, 3);
+		Assert.assertEquals(2, secondPage.size());
+		List<AssessmentResponse> thirdPage = responseDao.getResponses(testSessionKeys, secondPage.get(1).getKey(), 3);
+		Assert.assertTrue(thirdPage.isEmpty());
+		
+		List<AssessmentResponse> loadedResponses = new ArrayList<>(firstPage);
+		loadedResponses.addAll(secondPage);
+		Assert.assertEquals(5, loadedResponses.size());
+		Assert.assertTrue(loadedResponses.containsAll(responses));
+		Assert.assertFalse(loadedResponses.contains(otherResponse));
+		for(int i=1; i<loadedResponses.size(); i++) {
+			Assert.assertTrue(loadedResponses.get(i - 1).getKey().compareTo(loadedResponses.get(i).getKey()) < 0);
+		}
+		// the item sessions are fetched
+		Assert.assertEquals(itemSession1, firstPage.get(0).getAssessmentItemSession());
+		
+		Assert.assertTrue(responseDao.getResponses(new ArrayList<>(), null, 3).isEmpty());
+	}
+	
+	@Test
+	public void saveResponses_batch() {
+		// prepare a test and a user
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("response-session-4");
+		AssessmentEntry assessmentEntry = assessmentService.getOrCreateAssessmentEntry(assessedIdentity, null, testEntry, "-", Boolean.FALSE, testEntry);
+		AssessmentTestSession testSession = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession = itemSessionDao.createAndPersistAssessmentItemSession(testSession, null, UUID.randomUUID().toString());
+		dbInstance.commitAndCloseSession();
+		
+		// more responses than a JDBC batch
+		int numOfResponses = 1000;
+		List<AssessmentResponse> responses = new ArrayList<>(numOfResponses);
+		for(int i=0; i<numOfResponses; i++) {
+			responses.add(createResponse(testSession, itemSession, i));
+		}
+		responseDao.save(responses);
+		dbInstance.commitAndCloseSession();
+		
+		List<AssessmentResponse> loadedResponses = responseDao.getResponses(itemSession);
+		Assert.assertEquals(numOfResponses, loadedResponses.size());
+		for(AssessmentResponse response:responses) {
+			Assert.assertNotNull(response.getKey());
+			Assert.assertTrue(loadedResponses.contains(response));
+		}
+	}
+	
+	@Test
+	public void saveResponses_mergeAndNew() {
+		// prepare a test and a user
+		RepositoryEntry testEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		Identity assessedIdentity = JunitTestHelper.createAndPersistIdentityAsRndUser("response-session-6");
+		AssessmentEntry assessmentEntry = assessmentService.getOrCreateAssessmentEntry(assessedIdentity, null, testEntry, "-", Boolean.FALSE, testEntry);
+		AssessmentTestSession testSession = testSessionDao.createAndPersistTestSession(testEntry, testEntry, "_", assessmentEntry, assessedIdentity, null, null, true);
+		AssessmentItemSession itemSession = itemSessionDao.createAndPersistAssessmentItemSession(testSession, null, UUID.randomUUID().toString());
+		AssessmentResponse existingResponse = createResponse(testSession, itemSession, 0);
+		responseDao.save(Collections.singletonList(existingResponse));
+		dbInstance.commitAndCloseSession();
+		Assert.assertNotNull(existingResponse.getKey());
+		
+		// update the saved response and add two new ones
+		existingResponse.setStringuifiedResponse("Updated response");
+		List<AssessmentResponse> responses = new ArrayList<>();
+		responses.add(existingResponse);
+		responses.add(createResponse(testSession, itemSession, 1));
+		responses.add(createResponse(testSession, itemSession, 2));
+		responseDao.save(responses);
+		dbInstance.commitAndCloseSession();
+		
+		List<AssessmentResponse> loadedResponses = responseDao.getResponses(itemSession);
+		Assert.assertEquals(3, loadedResponses.size());
+		Assert.assertTrue(loadedResponses.containsAll(responses));
+		for(AssessmentResponse loadedResponse:loadedResponses) {
+			if(loadedResponse.equals(existingResponse)) {
+				Assert.assertEquals("Updated response", loadedResponse.getStringuifiedResponse());
+			} else {
+				Assert.assertTrue(loadedResponse.getStringuifiedResponse().startsWith("Response "));
+			}
+		}
+	}
+	
+	private AssessmentResponse createResponse(AssessmentTestSession testSession, AssessmentItemSession itemSession, int pos) {
+		AssessmentResponse response = responseDao.createAssessmentResponse(testSession, itemSession, "RESPONSE_" + pos, ResponseLegality.VALID, ResponseDataType.STRING);
+		response.setStringuifiedResponse("Response " + pos);
+		return response;
+	}
 }
@@ -0,0 +1,219 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import uk.ac.ed.ph.jqtiplus.xmlutils.XmlFactories;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SessionStateJournalTest extends OlatTestCase {
+	
+	private static final String NS = "http://www.ph.ed.ac.uk/qtiworks";
+	
+	private File directory;
+	
+	@Autowired
+	private SessionStateJournal sessionStateJournal;
+	
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("session-journal").toFile();
+	}
+	
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteDirsAndFiles(directory, true, true);
+	}
+	
+	@Test
+	public void appendAndLoad() {
+		File stateFile = new File(directory, "testSessionState.xml");
+		Assert.assertFalse(sessionStateJournal.exists(stateFile));
+		Assert.assertNull(sessionStateJournal.load(stateFile));
+		
+		Document state = createState(10, 0);
+		sessionStateJournal.append(stateFile, state);
+		Assert.assertTrue(sessionStateJournal.exists(stateFile));
+		Assert.assertFalse(stateFile.exists());
+		assertEqualState(state, sessionStateJournal.load(stateFile));
+		
+		long snapshotLength = sessionStateJournal.getJournalFile(stateFile).length();
+		Document changedState = createState(10, 1);
+		sessionStateJournal.append(stateFile, changedState);
+		assertEqualState(changedState, sessionStateJournal.load(stateFile));
+		
+		// only the changed item is appended
+		long deltaLength = sessionStateJournal.getJournalFile(stateFile).length() - snapshotLength;
+		Assert.assertTrue(deltaLength < snapshotLength);
+	}
+	
+	@Test
+	public void appendNewAndRemovedChildren() {
+		File stateFile = new File(directory, "testSessionState.xml");
+		sessionStateJournal.append(stateFile, createState(5, 0));
+		
+		Document moreItems = createState(8, 2);
+		sessionStateJournal.append(stateFile, moreItems);
+		assertEqualState(moreItems, sessionStateJournal.load(stateFile));
+		
+		Document lessItems = createState(3, 3);
+		sessionStateJournal.append(stateFile, lessItems);
+		assertEqualState(lessItems, sessionStateJournal.load(stateFile));
+	}
+	
+	@Test
+	public void compactToSnapshot() {
+		File stateFile = new File(directory, "testSessionState.xml");
+		Document state = null;
+		for(int i=0; i<120; i++) {
+			state = createState(10, i);
+			sessionStateJournal.append(stateFile, state);
+		}
+		assertEqualState(state, sessionStateJournal.load(stateFile));
+	}
+	
+	@Test
+	public void tornRecord() throws IOException {
+		File stateFile = new File(directory, "testSessionState.xml");
+		Document state = createState(10, 1);
+		sessionStateJournal.append(stateFile, state);
+		
+		// simulate a crash during the write of a record
+		File journalFile = sessionStateJournal.getJournalFile(stateFile);
+		Files.write(journalFile.toPath(), new byte[] { 0, 0, 1, 0, 12, 13 }, StandardOpenOption.APPEND);
+		assertEqualState(state, sessionStateJournal.load(stateFile));
+		
+		// the journal is rewritten
+		Document nextState = createState(10, 2);
+		sessionStateJournal.append(stateFile, nextState);
+		assertEqualState(nextState, sessionStateJournal.load(stateFile));
+	}
+	
+	@Test
+	public void delete() {
+		File stateFile = new File(directory, "itemSessionState_1.xml");
+		sessionStateJournal.append(stateFile, createState(2, 0));
+		Assert.assertTrue(sessionStateJournal.exists(stateFile));
+		
+		sessionStateJournal.delete(stateFile);
+		Assert.assertFalse(sessionStateJournal.exists(stateFile));
+		Assert.assertNull(sessionStateJournal.load(stateFile));
+	}
+	
+	private void assertEqualState(Document expected, Document loaded) {
+		Assert.assertNotNull(loaded);
+		assertEqualElement(expected.getDocumentElement(), loaded.getDocumentElement());
+	}
+	
+	/**
+	 * Compare the names, the attributes and the content but not the
+	 * namespace declarations.
+	 */
+	private void assertEqualElement(Element expected, Element loaded) {
+		Assert.assertEquals(expected.getNamespaceURI(), loaded.getNamespaceURI());
+		Assert.assertEquals(expected.getLocalName(), loaded.getLocalName());
+		Assert.assertEquals(getAttributes(expected), getAttributes(loaded));
+		
+		Node expectedChild = expected.getFirstChild();
+		Node loadedChild = loaded.getFirstChild();
+		for( ; expectedChild != null && loadedChild != null; expectedChild = expectedChild.getNextSibling(), loadedChild = loadedChild.getNextSibling()) {
+			Assert.assertEquals(expectedChild.getNodeType(), loadedChild.getNodeType());
+			if(expectedChild.getNodeType() == Node.ELEMENT_NODE) {
+				assertEqualElement((Element)expectedChild, (Element)loadedChild);
+			} else {
+				Assert.assertEquals(expectedChild.getNodeValue(), loadedChild.getNodeValue());
+			}
+		}
+		Assert.assertNull(expectedChild);
+		Assert.assertNull(loadedChild);
+	}
+	
+	private Map<String,String> getAttributes(Element element) {
+		Map<String,String> attributes = new HashMap<>();
+		NamedNodeMap attrs = element.getAttributes();
+		for(int i=0; i<attrs.getLength(); i++) {
+			Attr attr = (Attr)attrs.item(i);
+			if(!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+				attributes.put(attr.getName(), attr.getValue());
+			}
+		}
+		return attributes;
+	}
+	
+	/**
+	 * @param numOfItems The number of items
+	 * @param numOfResponses The number of responses of the first item
+	 */
+	private Document createState(int numOfItems, int numOfResponses) {
+		Document document = XmlFactories.newDocumentBuilder().newDocument();
+		Element root = document.createElementNS(NS, "testSessionState");
+		root.setAttribute("durationAccumulated", Integer.toString(numOfResponses * 1000));
+		document.appendChild(root);
+		
+		Element testPlan = document.createElementNS(NS, "testPlan");
+		for(int i=0; i<numOfItems; i++) {
+			Element node = document.createElementNS(NS, "node");
+			node.setAttribute("key", "item-" + i);
+			node.setAttribute("type", "ASSESSMENT_ITEM_REF");
+			testPlan.appendChild(node);
+		}
+		root.appendChild(testPlan);
+		
+		for(int i=0; i<numOfItems; i++) {
+			Element item = document.createElementNS(NS, "item");
+			item.setAttribute("key", "item-" + i);
+			item.setAttribute("presented", "true");
+			int responses = i == 0 ? numOfResponses : 0;
+			for(int j=0; j<responses; j++) {
+				Element response = document.createElementNS(NS, "responseVariable");
+				response.setAttribute("identifier", "RESPONSE_" + j);
+				response.setTextContent("Answer <" + j + "> & more");
+				item.appendChild(response);
+			}
+			root.appendChild(item);
+		}
+		return document;
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.BaseSecurity;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.group.BusinessGroup;
+import org.olat.group.manager.BusinessGroupDAO;
+import org.olat.group.manager.BusinessGroupRelationDAO;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.manager.RepositoryEntryRelationDAO;
+import org.olat.search.model.AbstractOlatDocument;
+import org.olat.search.model.OlatDocument;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SearchAccessFilterTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private BaseSecurity securityManager;
+	@Autowired
+	private BusinessGroupDAO businessGroupDao;
+	@Autowired
+	private SearchAccessFilter searchAccessFilter;
+	@Autowired
+	private BusinessGroupRelationDAO businessGroupRelationDao;
+	@Autowired
+	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
+	
+	@Test
+	public void getAccessTokens() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("acl-1");
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry waitingEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		BusinessGroup group = businessGroupDao.createAndPersist(null, "acl-group", "acl-group-desc", -1, -1, false, false, false, false, false);
+		repositoryEntryRelationDao.addRole(id, entry, GroupRoles.participant.name());
+		repositoryEntryRelationDao.addRole(id, waitingEntry, GroupRoles.waiting.name());
+		businessGroupRelationDao.addRole(id, group, GroupRoles.coach.name());
+		dbInstance.commitAndCloseSession();
+		
+		Roles roles = securityManager.getRoles(id);
+		List<String> tokens = searchAccessFilter.getAccessTokens(id, roles);
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.ANY));
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.USERS));
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.repositoryEntry(entry.getKey())));
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.businessGroup(group.getKey())));
+		Assert.assertFalse(tokens.contains(SearchAccessTokens.repositoryEntry(waitingEntry.getKey())));
+	}
+	
+	@Test
+	public void getAccessTokens_guest() {
+		List<String> tokens = searchAccessFilter.getAccessTokens(null, Roles.guestRoles());
+		Assert.assertEquals(2, tokens.size());
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.ANY));
+		Assert.assertTrue(tokens.contains(SearchAccessTokens.GUESTS));
+	}
+	
+	@Test
+	public void isFiltered() {
+		Assert.assertTrue(searchAccessFilter.isFiltered(Roles.userRoles()));
+		Assert.assertTrue(searchAccessFilter.isFiltered(Roles.authorRoles()));
+		Assert.assertFalse(searchAccessFilter.isFiltered(Roles.administratorRoles()));
+		Assert.assertFalse(searchAccessFilter.isFiltered(Roles.learnResourceManagerRoles()));
+	}
+	
+	@Test
+	public void createFilterQuery() throws IOException {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("acl-2");
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry otherEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, entry, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		try(Directory directory = new RAMDirectory()) {
+			try(IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+				writer.addDocument(createDocument("member", Collections.singletonList(SearchAccessTokens.repositoryEntry(entry.getKey()))));
+				writer.addDocument(createDocument("not-member", Collections.singletonList(SearchAccessTokens.repositoryEntry(otherEntry.getKey()))));
+				writer.addDocument(createDocument("all-users", Arrays.asList(SearchAccessTokens.repositoryEntry(otherEntry.getKey()), SearchAccessTokens.USERS)));
+				writer.addDocument(createDocument("not-restricted", null));
+			}
+			
+			Roles roles = securityManager.getRoles(id);
+			Assert.assertEquals(Arrays.asList("all-users", "member", "not-restricted"), search(directory, id, roles));
+			Assert.assertEquals(Collections.singletonList("not-restricted"), search(directory, null, Roles.guestRoles()));
+			Assert.assertEquals(4, search(directory, id, Roles.administratorRoles()).size());
+		}
+	}
+	
+	@Test
+	public void createFilterQuery_documentsWithoutTokens() throws IOException {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("acl-3");
+		RepositoryEntry otherEntry = JunitTestHelper.createAndPersistRepositoryEntry();
+		dbInstance.commitAndCloseSession();
+		
+		try(Directory directory = new RAMDirectory()) {
+			try(IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+				writer.addDocument(createDocument("not-member", Collections.singletonList(SearchAccessTokens.repositoryEntry(otherEntry.getKey()))));
+				// document indexed before the access tokens
+				Document document = new Document();
+				document.add(new StringField(AbstractOlatDocument.TITLE_FIELD_NAME, "legacy", Field.Store.YES));
+				writer.addDocument(document);
+			}
+			
+			Roles roles = securityManager.getRoles(id);
+			Assert.assertEquals(Collections.singletonList("legacy"), search(directory, id, roles));
+		}
+	}
+	
+	private List<String> search(Directory directory, Identity identity, Roles roles) throws IOException {
+		try(DirectoryReader reader = DirectoryReader.open(directory)) {
+			IndexSearcher searcher = new IndexSearcher(reader);
+			Query filter = searchAccessFilter.createFilterQuery(identity, roles, reader);
+			if(filter == null) {
+				filter = new MatchAllDocsQuery();
+			}
+			TopDocs docs = searcher.search(filter, 100);
+			List<String> titles = new ArrayList<>();
+			for(ScoreDoc scoreDoc:docs.scoreDocs) {
+				titles.add(searcher.doc(scoreDoc.doc).get(AbstractOlatDocument.TITLE_FIELD_NAME));
+			}
+			Collections.sort(titles);
+			return titles;
+		}
+	}
+	
+	private Document createDocument(String title, List<String> accessTokens) {
+		OlatDocument document = new OlatDocument();
+		document.setTitle(title);
+		document.setResourceUrl("[Test:" + title + "]");
+		document.setAccessTokens(accessTokens);
+		return document.getLuceneDocument();
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.document.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.vfs.VFSLeaf;
+import org.olat.test.OlatTestCase;
+import org.olat.test.VFSJavaIOFile;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ExtractedTextCacheTest extends OlatTestCase {
+	
+	@Autowired
+	private ExtractedTextCache textCache;
+	
+	@Test
+	public void extractOnce()
+	throws IOException, DocumentException, DocumentAccessException {
+		File file = createFile("Hello cache " + UUID.randomUUID());
+		VFSLeaf leaf = new VFSJavaIOFile(file.getName(), file);
+		
+		AtomicInteger extractions = new AtomicInteger(0);
+		FileContent content = textCache.getContent(leaf, null, "Test", () -> {
+			extractions.incrementAndGet();
+			return new FileContent("Title", "Extracted text");
+		});
+		Assert.assertEquals("Extracted text", content.getContent());
+		
+		FileContent cachedContent = textCache.getContent(leaf, null, "Test", () -> {
+			extractions.incrementAndGet();
+			return new FileContent("Title", "Extracted again");
+		});
+		Assert.assertEquals(1, extractions.get());
+		Assert.assertEquals("Title", cachedContent.getTitle());
+		Assert.assertEquals("Extracted text", cachedContent.getContent());
+		
+		FileUtils.deleteFile(file);
+	}
+	
+	@Test
+	public void extractChangedFile()
+	throws IOException, DocumentException, DocumentAccessException {
+		File file = createFile("Hello cache " + UUID.randomUUID());
+		VFSLeaf leaf = new VFSJavaIOFile(file.getName(), file);
+		
+		FileContent content = textCache.getContent(leaf, null, "Test", () -> new FileContent("Version 1"));
+		Assert.assertEquals("Version 1", content.getContent());
+		
+		// the key is the hash of the content
+		Files.write(file.toPath(), ("Hello changed " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+		FileContent changedContent = textCache.getContent(leaf, null, "Test", () -> new FileContent("Version 2"));
+		Assert.assertEquals("Version 2", changedContent.getContent());
+		
+		// an other extractor doesn't share the entry
+		FileContent otherContent = textCache.getContent(leaf, null, "OtherTest", () -> new FileContent("Other"));
+		Assert.assertEquals("Other", otherContent.getContent());
+		
+		FileUtils.deleteFile(file);
+	}
+	
+	@Test
+	public void extractionFailed()
+	throws IOException {
+		File file = createFile("Hello cache " + UUID.randomUUID());
+		VFSLeaf leaf = new VFSJavaIOFile(file.getName(), file);
+		
+		try {
+			textCache.getContent(leaf, null, "Test", () -> {
+				throw new DocumentException("Corrupted");
+			});
+			Assert.fail("The extraction must fail");
+		} catch (DocumentException | DocumentAccessException e) {
+			Assert.assertEquals("Corrupted", e.getMessage());
+		}
+		FileUtils.deleteFile(file);
+	}
+	
+	private File createFile(String content) throws IOException {
+		File file = File.createTempFile("text-cache", ".txt");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.DateTools;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.search.model.AbstractOlatDocument;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class DocumentFingerprintTest {
+	
+	@Test
+	public void sameDocumentsSameFingerprint() {
+		Document doc1 = createDocument("/Repository/1", "Hello world", new Date(0l));
+		Document doc2 = createDocument("/Repository/1", "Hello world", new Date());
+		
+		String fingerprint1 = DocumentFingerprint.calculate(doc1);
+		String fingerprint2 = DocumentFingerprint.calculate(doc2);
+		Assert.assertNotNull(fingerprint1);
+		// the time stamp is not part of the fingerprint
+		Assert.assertEquals(fingerprint1, fingerprint2);
+	}
+	
+	@Test
+	public void changedDocumentsOtherFingerprint() {
+		Document doc1 = createDocument("/Repository/2", "Hello world", new Date());
+		Document doc2 = createDocument("/Repository/2", "Hello world!", new Date());
+		Document doc3 = createDocument("/Repository/3", "Hello world", new Date());
+		
+		String fingerprint1 = DocumentFingerprint.calculate(doc1);
+		Assert.assertNotEquals(fingerprint1, DocumentFingerprint.calculate(doc2));
+		Assert.assertNotEquals(fingerprint1, DocumentFingerprint.calculate(doc3));
+	}
+	
+	@Test
+	public void setFingerprint() {
+		Document doc = createDocument("/Repository/4", "Hello world", new Date());
+		String fingerprint = DocumentFingerprint.setFingerprint(doc);
+		Assert.assertEquals(fingerprint, DocumentFingerprint.getFingerprint(doc));
+		
+		// set it a second time doesn't change it
+		String secondFingerprint = DocumentFingerprint.setFingerprint(doc);
+		Assert.assertEquals(fingerprint, secondFingerprint);
+		Assert.assertEquals(1, doc.getValues(AbstractOlatDocument.FINGERPRINT_FIELD_NAME).length);
+	}
+	
+	@Test
+	public void nearRealTimeReader() throws IOException {
+		Directory directory = new RAMDirectory();
+		JmsIndexer indexer = mock(JmsIndexer.class);
+		when(indexer.newIndexWriterConfig())
+			.thenAnswer(invocation -> new IndexWriterConfig(new StandardAnalyzer()));
+		IndexWriterHolder holder = new IndexWriterHolder(directory, indexer);
+		Assert.assertTrue(holder.ensureIndexExists());
+		
+		IndexWriter writer = holder.getAndLock();
+		writer.addDocument(createDocument("/Repository/5", "Near real-time", new Date()));
+		holder.release(writer);
+		
+		// the writer is still open and the changes are only visible to the near real-time reader
+		Assert.assertTrue(writer.isOpen());
+		try(DirectoryReader nrtReader = holder.openReader();
+				DirectoryReader committedReader = DirectoryReader.open(directory)) {
+			Assert.assertEquals(1, nrtReader.numDocs());
+			Assert.assertEquals(0, committedReader.numDocs());
+		}
+		
+		holder.commit();
+		try(DirectoryReader committedReader = DirectoryReader.open(directory)) {
+			Assert.assertEquals(1, committedReader.numDocs());
+		}
+		holder.close();
+	}
+	
+	private Document createDocument(String resourceUrl, String content, Date timestamp) {
+		Document document = new Document();
+		document.add(new StringField(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl, Field.Store.YES));
+		document.add(new TextField(AbstractOlatDocument.CONTENT_FIELD_NAME, content, Field.Store.YES));
+		document.add(new StringField(AbstractOlatDocument.TIME_STAMP_NAME,
+				DateTools.dateToString(timestamp, DateTools.Resolution.MILLISECOND), Field.Store.YES));
+		return document;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+
+import org.apache.lucene.document.DateTools;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.search.SearchModule;
+import org.olat.search.SearchService;
+import org.olat.search.model.AbstractOlatDocument;
+import org.olat.search.service.SearchResourceContext;
+import org.olat.search.service.spell.SearchSpellChecker;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Run the full indexer twice on the same documents and check that the
+ * second, incremental run skips the unchanged documents.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class OlatFullIndexerTest extends OlatTestCase {
+	
+	@Autowired
+	private CoordinatorManager coordinatorManager;
+	
+	private File indexRoot;
+	private String secondContent;
+	
+	@Before
+	public void createIndexRoot() throws IOException {
+		indexRoot = Files.createTempDirectory("fullindex").toFile();
+	}
+	
+	@After
+	public void deleteIndexRoot() {
+		FileUtils.deleteDirsAndFiles(indexRoot, true, true);
+	}
+	
+	@Test
+	public void incrementalFullIndex() throws Exception {
+		SearchModule searchModule = mock(SearchModule.class);
+		when(searchModule.getFullIndexPath()).thenReturn(new File(indexRoot, "main").getAbsolutePath());
+		when(searchModule.getFullTempIndexPath()).thenReturn(new File(indexRoot, "tmp").getAbsolutePath());
+		when(searchModule.getFullPermanentIndexPath()).thenReturn(new File(indexRoot, "permanent").getAbsolutePath());
+		when(searchModule.getFolderPoolSize()).thenReturn(1);
+		when(searchModule.getIndexInterval()).thenReturn(0l);
+		when(searchModule.getDocumentsPerInterval()).thenReturn(100);
+		when(searchModule.getRAMBufferSizeMB()).thenReturn(16.0d);
+		when(searchModule.isIncrementalFullIndex()).thenReturn(Boolean.TRUE);
+		
+		MainIndexer mainIndexer = mock(MainIndexer.class);
+		doAnswer(invocation -> {
+			OlatFullIndexer indexer = invocation.getArgument(2);
+			indexer.addDocument(createDocument("/Repository/1", "First document"));
+			indexer.addDocument(createDocument("/Repository/2", secondContent));
+			indexer.addDocument(createDocument("/Repository/3", "Third document"));
+			return null;
+		}).when(mainIndexer).doIndex(any(SearchResourceContext.class), isNull(), any(OlatFullIndexer.class));
+		
+		Index index = new Index(searchModule, mock(SearchService.class), mock(SearchSpellChecker.class),
+				mainIndexer, mock(LifeFullIndexer.class), coordinatorManager);
+		OlatFullIndexer fullIndexer = index.getIndexer();
+		
+		// first run, all documents are new
+		secondContent = "Second document";
+		fullIndexer.startIndexing();
+		Assert.assertEquals(0, fullIndexer.getUnchangedDocumentCount());
+		assertIndex(searchModule.getFullIndexPath(), "Second document");
+		
+		// second run, only the second document has changed
+		secondContent = "Second document changed";
+		fullIndexer.startIndexing();
+		Assert.assertEquals(2, fullIndexer.getUnchangedDocumentCount());
+		assertIndex(searchModule.getFullIndexPath(), "Second document changed");
+	}
+	
+	private void assertIndex(String indexPath, String expectedSecondContent) throws IOException {
+		try(Directory directory = FSDirectory.open(new File(indexPath).toPath());
+				DirectoryReader reader = DirectoryReader.open(directory)) {
+			Assert.assertEquals(3, reader.numDocs());
+			
+			IndexSearcher searcher = new IndexSearcher(reader);
+			Term term = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, "/Repository/2");
+			Document second = searcher.doc(searcher.search(new TermQuery(term), 2).scoreDocs[0].doc);
+			Assert.assertEquals(expectedSecondContent, second.get(AbstractOlatDocument.CONTENT_FIELD_NAME));
+		}
+	}
+	
+	private Document createDocument(String resourceUrl, String content) {
+		Document document = new Document();
+		document.add(new StringField(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceUrl, Field.Store.YES));
+		document.add(new TextField(AbstractOlatDocument.CONTENT_FIELD_NAME, content, Field.Store.YES));
+		document.add(new StringField(AbstractOlatDocument.TIME_STAMP_NAME,
+				DateTools.dateToString(new Date(), DateTools.Resolution.MILLISECOND), Field.Store.YES));
+		return document;
+	}
+}
@@ -49,6 +49,7 @@ import org.junit.runners.Suite;
 	org.olat.core.gui.components.table.TableEventTest.class,
 	org.olat.core.gui.components.table.TableMultiSelectEventTest.class,
 	org.olat.core.gui.components.table.SorterTest.class,
+	org.olat.core.gui.media.LocalFileDeliveryTest.class,
 	org.olat.core.commons.chiefcontrollers.ChiefControllerMessageEventTest.class,
 	org.olat.core.util.vfs.VFSTest.class,
 	org.olat.core.util.vfs.VFSManagerTest.class,
@@ -62,6 +63,10 @@ import org.junit.runners.Suite;
 	org.olat.core.util.filter.impl.XMLValidEntityFilterTest.class,
 	org.olat.core.helpers.SettingsTest.class,
 	org.olat.core.util.coordinate.LockEntryTest.class,
+	org.olat.core.util.event.EventListenerRegistryTest.class,
+	org.olat.core.util.session.UserSessionRegistryTest.class,
+	org.olat.core.util.cache.infinispan.InstrumentedCacheWrapperTest.class,
+	org.olat.core.logging.activity.UserActivityLogWriterTest.class,
 	org.olat.modules.iq.DBPersistentLockManagerTest.class,
 	org.olat.core.util.StringHelperTest.class,
 	org.olat.core.util.FileUtilsTest.class,
@@ -76,9 +81,12 @@ import org.junit.runners.Suite;
 	org.olat.core.util.ZipUtilConcatTest.class,
 	org.olat.core.util.mail.EmailAddressValidatorTest.class,
 	org.olat.core.util.mail.manager.MailManagerTest.class,
+	org.olat.core.util.mail.manager.SmtpTransportPoolTest.class,
+	org.olat.core.util.mail.manager.MailOutboundQueueTest.class,
 	org.olat.core.util.mail.manager.MailUserDataManagerTest.class,
 	org.olat.core.util.openxml.OpenXmlWorkbookTest.class,
 	org.olat.core.util.openxml.OpenXMLDocumentTest.class,
+	org.olat.core.util.openxml.OpenXMLWorkbookSharedStringsTest.class,
 	org.olat.core.util.pdf.PdfDocumentTest.class,
 	org.olat.core.util.xml.XMLDigitalSignatureUtilTest.class,
 	org.olat.core.configuration.EDConfigurationTest.class,
@@ -86,7 +94,9 @@ import org.junit.runners.Suite;
 	org.olat.core.id.context.HistoryManagerTest.class,
 	org.olat.core.id.IdentityEnvironmentTest.class,
 	org.olat.core.gui.render.VelocityTemplateTest.class,
+	org.olat.core.gui.render.StringOutputPoolTest.class,
 	org.olat.core.gui.control.generic.iframe.IFrameDeliveryMapperTest.class,
+	org.olat.core.gui.control.pushpoll.PushChannelManagerTest.class,
 	org.olat.note.NoteTest.class,
 	org.olat.user.UserTest.class,
 	org.olat.user.UserPropertiesTest.class,
@@ -98,16 +108,20 @@ import org.junit.runners.Suite;
 	org.olat.commons.calendar.manager.CalendarUserConfigurationDAOTest.class,
 	org.olat.commons.lifecycle.LifeCycleManagerTest.class,
 	org.olat.commons.coordinate.cluster.jms.JMSTest.class,
+	org.olat.commons.coordinate.cluster.jms.JMSBatchTest.class,
 	org.olat.commons.coordinate.cluster.lock.LockTest.class,
+	org.olat.commons.coordinate.cluster.lock.LockTableTest.class,
 	org.olat.commons.coordinate.CoordinatorTest.class,
 	org.olat.core.commons.services.csp.manager.CSPManagerTest.class,
 	org.olat.core.commons.services.doceditor.manager.DocEditorIdentityServiceTest.class,
 	org.olat.core.commons.services.doceditor.manager.AccessDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSXStreamTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSMetadataDAOTest.class,
+	org.olat.core.commons.services.vfs.manager.VFSMetadataUpdateAccumulatorTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSRevisionDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSStatsDAOTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSThumbnailDAOTest.class,
+	org.olat.core.commons.services.vfs.manager.VFSThumbnailQueueTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSRepositoryServiceTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSLockManagerTest.class,
 	org.olat.core.commons.services.vfs.manager.VFSVersioningTest.class,
@@ -119,6 +133,7 @@ import org.junit.runners.Suite;
 	org.olat.core.commons.services.webdav.WebDAVCommandsTest.class,
 	org.olat.core.commons.services.webdav.manager.DigestAuthenticationTest.class,
 	org.olat.core.commons.services.webdav.manager.WebDAVManagerTest.class,
+	org.olat.core.commons.services.webdav.manager.DirectoryListingCacheTest.class,
 	org.olat.core.commons.services.webdav.manager.WebDAVAuthManagerTest.class,
 	org.olat.core.commons.services.webdav.servlets.RequestUtilsTest.class,
 	org.olat.core.commons.services.sms.manager.MessageLogDAOTest.class,
@@ -196,6 +211,7 @@ import org.junit.runners.Suite;
 	org.olat.course.statistic.DailyStatisticUpdateManagerTest.class,
 	org.olat.course.statistic.DayOfWeekStatisticUpdateManagerTest.class,
 	org.olat.course.statistic.HourOfDayStatisticUpdateManagerTest.class,
+	org.olat.course.statistic.IncrementalStatisticUpdaterTest.class,
 	// org.olat.course.statistic.WeeklyStatisticUpdateManagerTest.class,
 	org.olat.modules.assessment.manager.AssessmentEntryDAOTest.class,
 	org.olat.course.certificate.manager.CertificatesManagerTest.class,
@@ -203,6 +219,7 @@ import org.junit.runners.Suite;
 	org.olat.course.groupsandrights.CourseGroupManagementTest.class,
 	org.olat.course.editor.PublishProcessTest.class,
 	org.olat.course.CourseXStreamAliasesTest.class,
+	org.olat.course.PersistingCourseImplTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectProviderTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectUserDAOTest.class,
 	org.olat.modules.adobeconnect.manager.AdobeConnectMeetingDAOTest.class,
@@ -337,7 +354,11 @@ import org.junit.runners.Suite;
 	org.olat.modules.webFeed.manager.ItemDAOTest.class,
 	org.olat.modules.webFeed.manager.FeedFileStorgeTest.class,
 	org.olat.properties.PropertyTest.class,
+	org.olat.search.service.SearchAccessFilterTest.class,
+	org.olat.search.service.indexer.DocumentFingerprintTest.class,
+	org.olat.search.service.indexer.OlatFullIndexerTest.class,
 	org.olat.search.service.document.file.FileDocumentFactoryTest.class,
+	org.olat.search.service.document.file.ExtractedTextCacheTest.class,
 	org.olat.search.service.indexer.repository.course.SPCourseNodeIndexerTest.class,
 	org.olat.search.service.document.file.HtmlDocumentTest.class,
 	org.olat.search.service.document.file.PDFDocumentTest.class,
@@ -360,6 +381,7 @@ import org.junit.runners.Suite;
 	org.olat.ims.qti21.manager.AssessmentItemSessionDAOTest.class,
 	org.olat.ims.qti21.manager.AssessmentResponseDAOTest.class,
 	org.olat.ims.qti21.manager.CorrectResponsesUtilTest.class,
+	org.olat.ims.qti21.manager.SessionStateJournalTest.class,
 	org.olat.ims.qti21.model.xml.AssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.MultipleChoiceAssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.SingleChoiceAssessmentItemBuilderTest.class,